@@ -0,0 +1,88 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.sql.Types;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+
+/**
+ * Builds the tables and rows shared by the benchmarks. Columns cycle through integer, varchar, timestamp and decimal types so values look
+ * like captured data, including nulls and text that needs csv escaping.
+ */
+public class BenchmarkData {
+    public static final String TABLE_NAME = "bench_table";
+
+    private BenchmarkData() {
+    }
+
+    public static Table buildTable(int columnCount) {
+        Table table = new Table(TABLE_NAME);
+        for (int i = 0; i < columnCount; i++) {
+            Column column = null;
+            switch (i % 4) {
+                case 0:
+                    column = new Column("col" + i, i == 0, Types.INTEGER, 10, 0);
+                    break;
+                case 1:
+                    column = new Column("col" + i, false, Types.VARCHAR, 100, 0);
+                    break;
+                case 2:
+                    column = new Column("col" + i, false, Types.TIMESTAMP, 0, 0);
+                    break;
+                default:
+                    column = new Column("col" + i, false, Types.DECIMAL, 12, 2);
+                    break;
+            }
+            column.setRequired(i == 0);
+            table.addColumn(column);
+        }
+        return table;
+    }
+
+    public static String[] buildRow(int id, int columnCount) {
+        String[] row = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            if (i == 0) {
+                row[i] = Integer.toString(id);
+            } else if ((id + i) % 7 == 0) {
+                row[i] = null;
+            } else {
+                switch (i % 4) {
+                    case 0:
+                        row[i] = Integer.toString(id * i);
+                        break;
+                    case 1:
+                        row[i] = "text for row " + id + ", with \"quotes\" and a \\ backslash";
+                        break;
+                    case 2:
+                        row[i] = "2021-10-1" + (i % 10) + " 12:34:56.789";
+                        break;
+                    default:
+                        row[i] = (id % 1000) + "." + (i % 100);
+                        break;
+                }
+            }
+        }
+        return row;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.AbstractSymmetricDialect;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.DataEvent;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.service.impl.DataService;
+import org.jumpmind.symmetric.service.impl.ParameterService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteDataSource;
+
+/**
+ * Inserts data events for a routed batch with {@link DataService#insertDataEvents(ISqlTransaction, List)} into embedded H2 and SQLite. The
+ * score is events per second, with {@link #rowsPerStatement} of 1 giving the single row insert that is used when multi-row inserts are
+ * turned off or not supported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(DataEventInsertBenchmark.EVENT_COUNT)
+public class DataEventInsertBenchmark {
+    static final int EVENT_COUNT = 10000;
+    @Param({ "h2", "sqlite" })
+    public String database;
+    @Param({ "1", "100" })
+    public int rowsPerStatement;
+    private IDatabasePlatform platform;
+    private DataService dataService;
+    private File databaseFile;
+    private long batchId;
+
+    @Setup
+    public void setup() throws IOException {
+        if (database.equals("sqlite")) {
+            databaseFile = File.createTempFile("data_event_insert_benchmark", ".sqlite");
+            SQLiteDataSource dataSource = new SQLiteDataSource();
+            dataSource.setUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+            platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        } else {
+            platform = H2BenchmarkPlatform.create("data_event_insert_benchmark");
+        }
+        platform.getSqlTemplate().update("create table sym_data_event (data_id bigint not null, batch_id bigint not null, "
+                + "create_time timestamp, primary key (data_id, batch_id))");
+        ISymmetricDialect symmetricDialect = mock(AbstractSymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        IParameterService parameterService = mock(ParameterService.class);
+        when(parameterService.getTablePrefix()).thenReturn("sym");
+        when(parameterService.getInt(ParameterConstants.ROUTING_INSERT_ROWS_PER_STATEMENT, 100)).thenReturn(rowsPerStatement);
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        when(engine.getParameterService()).thenReturn(parameterService);
+        when(engine.getSymmetricDialect()).thenReturn(symmetricDialect);
+        dataService = new DataService(engine, mock(IExtensionService.class));
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        platform.getSqlTemplate().update("delete from sym_data_event");
+    }
+
+    @TearDown
+    public void tearDown() {
+        platform.getSqlTemplate().update("drop table sym_data_event");
+        if (databaseFile != null) {
+            databaseFile.delete();
+        }
+    }
+
+    @Benchmark
+    public List<DataEvent> insertDataEvents() {
+        List<DataEvent> events = new ArrayList<DataEvent>(EVENT_COUNT);
+        batchId++;
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            events.add(new DataEvent(i, batchId));
+        }
+        ISqlTransaction transaction = platform.getSqlTemplate().startSqlTransaction();
+        try {
+            dataService.insertDataEvents(transaction, events);
+            transaction.commit();
+        } finally {
+            transaction.close();
+        }
+        return events;
+    }
+}
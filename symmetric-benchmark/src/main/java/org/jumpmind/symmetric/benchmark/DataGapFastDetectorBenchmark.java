@@ -0,0 +1,146 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.AbstractSymmetricDialect;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.DataGap;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.ProcessInfo;
+import org.jumpmind.symmetric.model.ProcessInfoKey;
+import org.jumpmind.symmetric.route.DataGapFastDetector;
+import org.jumpmind.symmetric.service.IContextService;
+import org.jumpmind.symmetric.service.IDataService;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.service.impl.ContextService;
+import org.jumpmind.symmetric.service.impl.DataService;
+import org.jumpmind.symmetric.service.impl.NodeService;
+import org.jumpmind.symmetric.service.impl.ParameterService;
+import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.symmetric.statistic.StatisticManager;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs gap detection after routing over a large list of gaps, with data found in every other gap. The services are mocked the same way as
+ * in DataGapDetectorTest so only the detector itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataGapFastDetectorBenchmark {
+    @Param({ "1000", "100000" })
+    public int gapCount;
+    private IDataService dataService;
+    private IParameterService parameterService;
+    private IContextService contextService;
+    private ISymmetricDialect symmetricDialect;
+    private IStatisticManager statisticManager;
+    private INodeService nodeService;
+    private List<DataGap> gaps;
+    private List<Long> dataIds;
+
+    @Setup
+    public void setup() {
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        ISqlTransaction sqlTransaction = mock(ISqlTransaction.class);
+        when(sqlTemplate.startSqlTransaction()).thenReturn(sqlTransaction);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getDatabaseInfo()).thenReturn(new DatabaseInfo());
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        symmetricDialect = mock(AbstractSymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        when(symmetricDialect.supportsTransactionViews()).thenReturn(false);
+        parameterService = mock(ParameterService.class);
+        when(parameterService.getEngineName()).thenReturn("benchmark");
+        when(parameterService.getLong(ParameterConstants.ROUTING_STALE_DATA_ID_GAP_TIME)).thenReturn(60000000L);
+        when(parameterService.getInt(ParameterConstants.DATA_ID_INCREMENT_BY)).thenReturn(1);
+        when(parameterService.getLong(ParameterConstants.ROUTING_LARGEST_GAP_SIZE)).thenReturn(50000000L);
+        when(parameterService.getLong(ParameterConstants.ROUTING_STALE_GAP_BUSY_EXPIRE_TIME)).thenReturn(60000L);
+        when(parameterService.is(ParameterConstants.ROUTING_DETECT_INVALID_GAPS)).thenReturn(true);
+        when(parameterService.getInt(ParameterConstants.ROUTING_MAX_GAP_CHANGES)).thenReturn(1000);
+        contextService = mock(ContextService.class);
+        statisticManager = mock(StatisticManager.class);
+        when(statisticManager.newProcessInfo((ProcessInfoKey) any())).thenReturn(new ProcessInfo());
+        nodeService = mock(NodeService.class);
+        when(nodeService.findIdentity()).thenReturn(new Node("00000", "benchmark"));
+        dataService = mock(DataService.class);
+        when(dataService.findDataGaps()).thenAnswer(new Answer<List<DataGap>>() {
+            public List<DataGap> answer(InvocationOnMock invocation) {
+                return new ArrayList<DataGap>(gaps);
+            }
+        });
+
+        Date createTime = new Date();
+        gaps = new ArrayList<DataGap>(gapCount + 1);
+        dataIds = new ArrayList<Long>(gapCount / 2);
+        for (int i = 0; i < gapCount; i++) {
+            long startId = i * 100L;
+            gaps.add(new DataGap(startId, startId + 9, createTime));
+            if (i % 2 == 0) {
+                dataIds.add(startId + 5);
+            }
+        }
+        long lastStartId = gapCount * 100L;
+        gaps.add(new DataGap(lastStartId, lastStartId + 50000000L, createTime));
+    }
+
+    @Benchmark
+    public DataGapFastDetector afterRouting() {
+        DataGapFastDetector detector = new DataGapFastDetector(dataService, parameterService, contextService, symmetricDialect, null,
+                statisticManager, nodeService);
+        detector.setFullGapAnalysis(false);
+        detector.beforeRouting();
+        detector.addDataIds(dataIds);
+        detector.setIsAllDataRead(true);
+        detector.afterRouting();
+        return detector;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.symmetric.io.data.CsvUtils;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.DataMetaData;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeChannel;
+import org.jumpmind.symmetric.model.Router;
+import org.jumpmind.symmetric.model.TriggerHistory;
+import org.jumpmind.symmetric.route.ColumnMatchDataRouter;
+import org.jumpmind.symmetric.route.DataRowMap;
+import org.jumpmind.symmetric.route.SimpleRouterContext;
+import org.jumpmind.util.LinkedCaseInsensitiveMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Routes captured updates with a column match router. The row data of each update is parsed on the first pass, so the measurement is the cost of
+ * presenting the row to the router. The copyDataMap benchmark copies every value into a case-insensitive map the way routers used to receive rows,
+ * run with -prof gc to compare allocation per operation. The router expression matches on :EXTERNAL_ID and :NODE_ID, so routeToNodes also shows
+ * how the cost grows with the number of target nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataRouterBenchmark {
+    private static final int ROW_COUNT = 1000;
+    @Param({ "10", "100" })
+    public int columnCount;
+    @Param({ "10", "20000" })
+    public int nodeCount;
+    private ColumnMatchDataRouter router;
+    private SimpleRouterContext context;
+    private Set<Node> nodes;
+    private DataMetaData[] rows;
+    private DataRowMap.Columns columns;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Table table = BenchmarkData.buildTable(columnCount);
+        TriggerHistory history = new TriggerHistory(table.getName(), table.getColumnNames()[0], join(table.getColumnNames()));
+        history.setTriggerHistoryId(1);
+        columns = new DataRowMap.Columns(history);
+        Router columnRouter = new Router("bench_router", "corp", "store", "column");
+        columnRouter.setRouterExpression("COL0=:EXTERNAL_ID or OLD_COL1=:NODE_ID");
+        NodeChannel channel = new NodeChannel("default");
+        router = new ColumnMatchDataRouter();
+        context = new SimpleRouterContext("00000", channel);
+        nodes = new HashSet<Node>();
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = new Node(Integer.toString(i), "store");
+            node.setExternalId(Integer.toString(i));
+            nodes.add(node);
+        }
+        rows = new DataMetaData[ROW_COUNT];
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Data data = new Data(table.getName(), DataEventType.UPDATE, CsvUtils.escapeCsvData(BenchmarkData.buildRow(i, columnCount)),
+                    Integer.toString(i), history, "default", null, null);
+            data.setOldData(CsvUtils.escapeCsvData(BenchmarkData.buildRow(i + 1, columnCount)));
+            rows[i] = new DataMetaData(data, table, columnRouter, channel);
+        }
+    }
+
+    @Benchmark
+    public Set<String> routeToNodes() {
+        return router.routeToNodes(context, nextRow(), nodes, false, false, null);
+    }
+
+    @Benchmark
+    public String dataRowMap() {
+        return new DataRowMap(columns, nextRow().getData()).get("COL1");
+    }
+
+    @Benchmark
+    public String copyDataMap() {
+        Map<String, String> map = new LinkedCaseInsensitiveMap<String>(columnCount * 4);
+        map.putAll(new DataRowMap(columns, nextRow().getData()));
+        return map.get("COL1");
+    }
+
+    protected DataMetaData nextRow() {
+        index = (index + 1) % ROW_COUNT;
+        return rows[index];
+    }
+
+    protected static String join(String[] names) {
+        StringBuilder sb = new StringBuilder();
+        for (String name : names) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.writer.DatabaseWriterSettings;
+import org.jumpmind.symmetric.io.data.writer.DefaultDatabaseWriter;
+import org.jumpmind.util.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loads a batch into embedded H2 with {@link DefaultDatabaseWriter}. Each operation is one batch that inserts {@link #rowCount} rows and
+ * then deletes them again, so the table stays the same size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseWriterBenchmark {
+    @Param({ "1000" })
+    public int rowCount;
+    @Param({ "10" })
+    public int columnCount;
+    private IDatabasePlatform platform;
+    private Table table;
+    private CsvData[] inserts;
+    private CsvData[] deletes;
+    private long batchId;
+
+    @Setup
+    public void setup() {
+        platform = H2BenchmarkPlatform.create("database_writer_benchmark");
+        table = H2BenchmarkPlatform.createTable(platform, columnCount);
+        inserts = new CsvData[rowCount];
+        deletes = new CsvData[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            String[] row = BenchmarkData.buildRow(i, columnCount);
+            inserts[i] = new CsvData(DataEventType.INSERT, row);
+            deletes[i] = new CsvData(DataEventType.DELETE, new String[] { row[0] }, null);
+        }
+    }
+
+    @Benchmark
+    public Map<Batch, Statistics> insertAndDelete() {
+        DefaultDatabaseWriter writer = new DefaultDatabaseWriter(platform, new DatabaseWriterSettings());
+        Batch batch = new Batch(BatchType.LOAD, ++batchId, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        try {
+            writer.start(batch);
+            if (writer.start(table)) {
+                for (CsvData data : inserts) {
+                    writer.write(data);
+                }
+                for (CsvData data : deletes) {
+                    writer.write(data);
+                }
+                writer.end(table);
+            }
+            writer.end(batch, false);
+        } finally {
+            writer.close();
+        }
+        return writer.getStatistics();
+    }
+}
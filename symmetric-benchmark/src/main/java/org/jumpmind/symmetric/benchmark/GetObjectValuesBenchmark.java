@@ -0,0 +1,74 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converts the string values of a row into the objects that are bound to statements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GetObjectValuesBenchmark {
+    @Param({ "10", "100" })
+    public int columnCount;
+    private IDatabasePlatform platform;
+    private Column[] columns;
+    private String[] row;
+
+    @Setup
+    public void setup() {
+        platform = H2BenchmarkPlatform.create("get_object_values_benchmark");
+        Table table = H2BenchmarkPlatform.createTable(platform, columnCount);
+        columns = table.getColumns();
+        row = BenchmarkData.buildRow(42, columnCount);
+    }
+
+    @Benchmark
+    public Object[] getObjectValues() {
+        return platform.getObjectValues(BinaryEncoding.BASE64, row, columns);
+    }
+
+    @Benchmark
+    public Object[] getObjectValuesWithVariableDates() {
+        return platform.getObjectValues(BinaryEncoding.BASE64, row, columns, true, false);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+
+/**
+ * Embedded H2 platform that the database benchmarks run against.
+ */
+public class H2BenchmarkPlatform {
+    private H2BenchmarkPlatform() {
+    }
+
+    public static IDatabasePlatform create(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+    }
+
+    public static Table createTable(IDatabasePlatform platform, int columnCount) {
+        Table table = BenchmarkData.buildTable(columnCount);
+        platform.createTables(true, false, table);
+        return platform.getTableFromCache(null, null, table.getName(), true);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of recording a latency, which is paid on every batch when metrics.enabled is on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsRegistryBenchmark {
+    @Param({ "true", "false" })
+    public boolean enabled;
+    @Param({ "false", "true" })
+    public boolean byNode;
+    private MetricsRegistry registry;
+    private String[] nodeIds;
+
+    @Setup
+    public void setup() {
+        registry = new MetricsRegistry();
+        registry.setEnabled(enabled);
+        registry.setRecordByNode(byNode);
+        nodeIds = new String[16];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeIds[i] = String.format("%03d", i);
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        long value = System.nanoTime();
+        registry.record(MetricsRegistry.STAGE_LOAD, "default", nodeIds[(int) (value & 15)], value & 1023);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        long value = System.nanoTime();
+        registry.record(MetricsRegistry.STAGE_LOAD, "default", nodeIds[(int) (value & 15)], value & 1023);
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.mapper.StringMapper;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
+import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.DatabaseParameter;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.NodeCommunication;
+import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
+import org.jumpmind.symmetric.model.NodeGroupLink;
+import org.jumpmind.symmetric.model.NodeGroupLinkAction;
+import org.jumpmind.symmetric.service.IClusterService;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.service.impl.NodeCommunicationService;
+import org.jumpmind.symmetric.service.impl.ParameterService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Selects push candidates with {@link NodeCommunicationService#list(CommunicationType)} for a registration server with many nodes and four
+ * queues, where one node in ten has unsent batches. The unsent node query is answered by a mock, so the score is the selection work done in
+ * memory on every push job period. With {@link #readyIndex} on, half of the queues of the nodes with changes are marked idle in the ready
+ * batch index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeCommunicationBenchmark {
+    private static final String[] QUEUES = { "default", "reload", "heartbeat", "config" };
+    @Param({ "10000", "50000" })
+    public int nodeCount;
+    @Param({ "false", "true" })
+    public boolean readyIndex;
+    private NodeCommunicationService nodeCommunicationService;
+
+    @Setup
+    public void setup() {
+        IParameterService parameterService = mock(ParameterService.class);
+        when(parameterService.getTablePrefix()).thenReturn("sym");
+        when(parameterService.getOfflineNodeParameters()).thenReturn(new ArrayList<DatabaseParameter>());
+        when(parameterService.getInt(ParameterConstants.PUSH_THREAD_COUNT_PER_SERVER)).thenReturn(10);
+        List<Node> nodes = new ArrayList<Node>(nodeCount);
+        List<String> nodeIdsWithChanges = new ArrayList<String>();
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = new Node(String.format("%06d", i), "store");
+            node.setSymmetricVersion("3.12.0");
+            nodes.add(node);
+            if (i % 10 == 0) {
+                nodeIdsWithChanges.add(node.getNodeId());
+            }
+        }
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        when(sqlTemplate.query(anyString(), any(StringMapper.class), (Object[]) any())).thenReturn(nodeIdsWithChanges);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(platform.scrubSql(anyString())).then(returnsFirstArg());
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        INodeService nodeService = mock(INodeService.class);
+        when(nodeService.findIdentity()).thenReturn(new Node("server", "corp"));
+        when(nodeService.findNodesToPushTo()).thenReturn(nodes);
+        IConfigurationService configurationService = mock(IConfigurationService.class);
+        Map<String, Channel> channels = new HashMap<String, Channel>();
+        for (int i = 0; i < QUEUES.length; i++) {
+            Channel channel = new Channel(QUEUES[i], i);
+            channel.setQueue(QUEUES[i]);
+            channels.put(channel.getChannelId(), channel);
+        }
+        when(configurationService.getChannels(false)).thenReturn(channels);
+        when(configurationService.getNodeGroupLinkFor("corp", "store", false)).thenReturn(
+                new NodeGroupLink("corp", "store", NodeGroupLinkAction.W));
+        nodeCommunicationService = new NodeCommunicationService(mock(IClusterService.class), nodeService, parameterService,
+                configurationService, symmetricDialect);
+        ReadyBatchIndex readyBatchIndex = new ReadyBatchIndex(parameterService) {
+            @Override
+            public boolean isEnabled() {
+                return readyIndex;
+            }
+
+            @Override
+            protected long getIdleMaxMillis() {
+                return Long.MAX_VALUE;
+            }
+        };
+        for (String nodeId : nodeIdsWithChanges) {
+            for (int i = 0; i < QUEUES.length; i += 2) {
+                String key = ReadyBatchIndex.getKey(QUEUES[i], NodeGroupLinkAction.P, NodeGroupLinkAction.W);
+                readyBatchIndex.markIdle(nodeId, key, readyBatchIndex.getGeneration(nodeId));
+            }
+        }
+        nodeCommunicationService.setReadyBatchIndex(readyBatchIndex);
+        nodeCommunicationService.list(CommunicationType.PUSH);
+    }
+
+    @Benchmark
+    public List<NodeCommunication> listPush() {
+        return nodeCommunicationService.list(CommunicationType.PUSH);
+    }
+}
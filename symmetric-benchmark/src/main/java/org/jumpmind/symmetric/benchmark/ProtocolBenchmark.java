@@ -0,0 +1,119 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.reader.ProtocolDataReader;
+import org.jumpmind.symmetric.io.data.writer.AbstractProtocolDataWriter;
+import org.jumpmind.symmetric.io.data.writer.ProtocolDataWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Writes and reads a batch of inserts with the csv protocol. Each operation is one batch of {@link #rowCount} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtocolBenchmark {
+    @Param({ "1000" })
+    public int rowCount;
+    @Param({ "10" })
+    public int columnCount;
+    private Table table;
+    private CsvData[] rows;
+    private String csv;
+
+    @Setup
+    public void setup() {
+        table = BenchmarkData.buildTable(columnCount);
+        rows = new CsvData[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            rows[i] = new CsvData(DataEventType.INSERT, BenchmarkData.buildRow(i, columnCount));
+        }
+        csv = writeCsv();
+    }
+
+    @Benchmark
+    public String writeCsv() {
+        StringWriter writer = new StringWriter();
+        write(new ProtocolDataWriter("00000", writer, false, false, false));
+        return writer.toString();
+    }
+
+    @Benchmark
+    public void readCsv(Blackhole blackhole) {
+        read(new ProtocolDataReader(BatchType.LOAD, "00001", csv), blackhole);
+    }
+
+    @Benchmark
+    public void roundTripCsv(Blackhole blackhole) {
+        read(new ProtocolDataReader(BatchType.LOAD, "00001", writeCsv()), blackhole);
+    }
+
+    protected void write(AbstractProtocolDataWriter writer) {
+        Batch batch = new Batch(BatchType.EXTRACT, 1, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        writer.start(batch);
+        writer.start(table);
+        for (CsvData data : rows) {
+            writer.write(data);
+        }
+        writer.end(table);
+        writer.end(batch, false);
+        writer.close();
+    }
+
+    protected void read(ProtocolDataReader reader, Blackhole blackhole) {
+        reader.open(new DataContext(reader));
+        while (reader.nextBatch() != null) {
+            while (reader.nextTable() != null) {
+                CsvData data = null;
+                while ((data = reader.nextData()) != null) {
+                    blackhole.consume(data.getParsedData(CsvData.ROW_DATA));
+                }
+            }
+        }
+        reader.close();
+    }
+}
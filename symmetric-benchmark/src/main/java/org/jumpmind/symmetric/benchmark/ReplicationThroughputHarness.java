@@ -0,0 +1,318 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.io.File;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.db.util.BasicDataSourcePropertyConstants;
+import org.jumpmind.symmetric.ClientSymmetricEngine;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.DbFill;
+import org.jumpmind.symmetric.io.data.DmlWeight;
+import org.jumpmind.symmetric.model.NodeGroup;
+import org.jumpmind.symmetric.model.NodeGroupLink;
+import org.jumpmind.symmetric.model.NodeGroupLinkAction;
+import org.jumpmind.symmetric.model.Router;
+import org.jumpmind.symmetric.model.Trigger;
+import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.symmetric.statistic.LatencyHistogram;
+import org.jumpmind.symmetric.statistic.LatencySnapshot;
+import org.jumpmind.util.AppUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replicates load generated by {@link DbFill} between two in-process engines on embedded databases and reports rows per second and the latency
+ * from capture on the source to load on the target. The client captures and pushes to the registration server over the internal transport.
+ */
+public class ReplicationThroughputHarness {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationThroughputHarness.class);
+    private static final String TABLE = "THROUGHPUT_TEST";
+    private static final String ROOT_GROUP = "root";
+    private static final String CLIENT_GROUP = "client";
+    private static final String ROOT_ID = "000";
+    private static final String CLIENT_ID = "001";
+    private int rowCount = 10000;
+    private int threadCount = 4;
+    private int rowsPerSecond = 0;
+    private int maxRowsCommit = 100;
+    private String weights = "1,0,0";
+    private long timeoutMillis = 600000;
+    private File workDir = new File("build/throughput");
+
+    public static void main(String[] args) throws Exception {
+        ReplicationThroughputHarness harness = new ReplicationThroughputHarness();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String name = args[i].replaceFirst("^--", "");
+            String value = args[i + 1];
+            if (name.equals("rows")) {
+                harness.setRowCount(Integer.parseInt(value));
+            } else if (name.equals("threads")) {
+                harness.setThreadCount(Integer.parseInt(value));
+            } else if (name.equals("rate")) {
+                harness.setRowsPerSecond(Integer.parseInt(value));
+            } else if (name.equals("commit")) {
+                harness.setMaxRowsCommit(Integer.parseInt(value));
+            } else if (name.equals("weights")) {
+                harness.setWeights(value);
+            } else if (name.equals("dir")) {
+                harness.setWorkDir(new File(value));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + args[i]
+                        + ".  Options are --rows, --threads, --rate, --commit, --weights and --dir");
+            }
+        }
+        Result result = harness.run();
+        System.out.println(result);
+        System.exit(0);
+    }
+
+    public Result run() throws Exception {
+        FileUtils.deleteDirectory(workDir);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        ISymmetricEngine root = createEngine(ROOT_GROUP, ROOT_ID, runId);
+        ISymmetricEngine client = createEngine(CLIENT_GROUP, CLIENT_ID, runId);
+        try {
+            root.start(false);
+            configure(root);
+            createTable(root.getDatabasePlatform());
+            createTable(client.getDatabasePlatform());
+            root.openRegistration(CLIENT_GROUP, CLIENT_ID);
+            client.start(false);
+            long ts = System.currentTimeMillis();
+            while (!client.isRegistered()) {
+                client.pull().waitForComplete(60000);
+                if (System.currentTimeMillis() - ts > timeoutMillis) {
+                    throw new IllegalStateException("The client did not register");
+                }
+            }
+            client.syncTriggers();
+
+            Replicator replicator = new Replicator(client);
+            Thread replicatorThread = new Thread(replicator, "throughput-replicator");
+            replicatorThread.start();
+            long startTime = System.currentTimeMillis();
+            fill(client.getDatabasePlatform());
+            long fillMillis = System.currentTimeMillis() - startTime;
+            replicator.finish();
+            replicatorThread.join(timeoutMillis);
+            if (replicator.getError() != null) {
+                throw replicator.getError();
+            } else if (replicatorThread.isAlive()) {
+                replicator.stop();
+                throw new IllegalStateException("Replication did not finish in " + timeoutMillis + "ms");
+            }
+            return buildResult(client, root, startTime, fillMillis);
+        } finally {
+            client.destroy();
+            root.destroy();
+        }
+    }
+
+    protected ISymmetricEngine createEngine(String group, String externalId, String runId) {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.ENGINE_NAME, group);
+        properties.setProperty(ParameterConstants.NODE_GROUP_ID, group);
+        properties.setProperty(ParameterConstants.EXTERNAL_ID, externalId);
+        properties.setProperty(ParameterConstants.SYNC_URL, Constants.PROTOCOL_INTERNAL + "://" + group);
+        properties.setProperty(ParameterConstants.REGISTRATION_URL, Constants.PROTOCOL_INTERNAL + "://" + ROOT_GROUP);
+        properties.setProperty(ParameterConstants.TRANSPORT_TYPE, Constants.PROTOCOL_INTERNAL);
+        properties.setProperty(BasicDataSourcePropertyConstants.DB_POOL_DRIVER, "org.h2.Driver");
+        properties.setProperty(BasicDataSourcePropertyConstants.DB_POOL_URL, "jdbc:h2:mem:throughput-" + group + "-" + runId + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty(BasicDataSourcePropertyConstants.DB_POOL_USER, "sa");
+        properties.setProperty(BasicDataSourcePropertyConstants.DB_POOL_PASSWORD, "");
+        properties.setProperty(ParameterConstants.STAGING_DIR, new File(workDir, group).getAbsolutePath());
+        properties.setProperty(ParameterConstants.AUTO_INSERT_REG_SVR_IF_NOT_FOUND, "true");
+        properties.setProperty(ParameterConstants.AUTO_RELOAD_ENABLED, "false");
+        properties.setProperty(ParameterConstants.HEARTBEAT_SYNC_ON_PUSH_PERIOD_SEC, "86400");
+        return new ClientSymmetricEngine(properties, true);
+    }
+
+    protected void configure(ISymmetricEngine root) {
+        root.getConfigurationService().saveNodeGroup(new NodeGroup(CLIENT_GROUP));
+        root.getConfigurationService().saveNodeGroupLink(new NodeGroupLink(ROOT_GROUP, CLIENT_GROUP, NodeGroupLinkAction.W));
+        root.getConfigurationService().saveNodeGroupLink(new NodeGroupLink(CLIENT_GROUP, ROOT_GROUP, NodeGroupLinkAction.P));
+        Trigger trigger = new Trigger(TABLE, Constants.CHANNEL_DEFAULT);
+        root.getTriggerRouterService().saveTrigger(trigger);
+        Router router = new Router("client_2_root", CLIENT_GROUP, ROOT_GROUP, "default");
+        root.getTriggerRouterService().saveRouter(router);
+        root.getTriggerRouterService().saveTriggerRouter(new TriggerRouter(trigger, router));
+        root.clearCaches();
+    }
+
+    protected void createTable(IDatabasePlatform platform) {
+        platform.getSqlTemplate().update("create table " + TABLE + " (id varchar(32) not null primary key, name varchar(50), "
+                + "amount decimal(12,2), quantity integer, updated timestamp, notes varchar(200))");
+    }
+
+    protected void fill(IDatabasePlatform platform) {
+        DbFill dbFill = new DbFill(platform);
+        dbFill.setRecordCount(rowCount);
+        dbFill.setThreadCount(threadCount);
+        dbFill.setRowsPerSecond(rowsPerSecond);
+        dbFill.setMaxRowsCommit(maxRowsCommit);
+        dbFill.setDmlWeight(new DmlWeight(weights));
+        dbFill.fillTables(TABLE);
+    }
+
+    /**
+     * Latency for each captured row is the time from when the trigger captured it on the source to when the target finished loading its batch.
+     */
+    protected Result buildResult(ISymmetricEngine client, ISymmetricEngine root, long startTime, long fillMillis) {
+        Map<Long, Date> loadTimes = new HashMap<Long, Date>();
+        long lastLoadTime = startTime;
+        for (Row row : root.getSqlTemplate().query("select batch_id, last_update_time from " + root.getTablePrefix()
+                + "_incoming_batch where node_id=? and status='OK'", new Object[] { CLIENT_ID })) {
+            Date loadTime = row.getDateTime("last_update_time");
+            loadTimes.put(row.getLong("batch_id"), loadTime);
+            lastLoadTime = Math.max(lastLoadTime, loadTime.getTime());
+        }
+        LatencyHistogram histogram = new LatencyHistogram("capture-to-load", Constants.CHANNEL_DEFAULT, ROOT_ID);
+        List<Row> rows = client.getSqlTemplate().query("select e.batch_id, d.create_time from " + client.getTablePrefix() + "_data d inner join "
+                + client.getTablePrefix() + "_data_event e on e.data_id=d.data_id where upper(d.table_name)=?", new Object[] { TABLE });
+        for (Row row : rows) {
+            Date loadTime = loadTimes.get(row.getLong("batch_id"));
+            if (loadTime != null) {
+                histogram.record(Math.max(0, loadTime.getTime() - row.getDateTime("create_time").getTime()));
+            }
+        }
+        return new Result(rows.size(), fillMillis, lastLoadTime - startTime, histogram.getSnapshot());
+    }
+
+    /**
+     * Routes and pushes on the client in a loop until it is told the load is finished and there is nothing left to send.
+     */
+    static class Replicator implements Runnable {
+        private final ISymmetricEngine engine;
+        private volatile boolean finished;
+        private volatile boolean stopped;
+        private volatile Exception error;
+
+        public Replicator(ISymmetricEngine engine) {
+            this.engine = engine;
+        }
+
+        public void run() {
+            try {
+                while (!stopped) {
+                    boolean lastPass = finished;
+                    long routed = engine.getRouterService().routeData(true);
+                    engine.push().waitForComplete(60000);
+                    if (lastPass && routed == 0 && engine.getOutgoingBatchService().countOutgoingBatchesUnsent() == 0) {
+                        break;
+                    } else if (routed <= 0) {
+                        AppUtils.sleep(10);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Replication failed", e);
+                error = e;
+            }
+        }
+
+        public void finish() {
+            finished = true;
+        }
+
+        public void stop() {
+            stopped = true;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+    }
+
+    public static class Result {
+        private final int rowCount;
+        private final long fillMillis;
+        private final long replicateMillis;
+        private final LatencySnapshot latency;
+
+        public Result(int rowCount, long fillMillis, long replicateMillis, LatencySnapshot latency) {
+            this.rowCount = rowCount;
+            this.fillMillis = fillMillis;
+            this.replicateMillis = replicateMillis;
+            this.latency = latency;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public double getFillRowsPerSecond() {
+            return fillMillis > 0 ? rowCount * 1000d / fillMillis : 0;
+        }
+
+        public double getReplicatedRowsPerSecond() {
+            return replicateMillis > 0 ? rowCount * 1000d / replicateMillis : 0;
+        }
+
+        public LatencySnapshot getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("rows=%d, fill=%.0f rows/sec, replicated=%.0f rows/sec, capture to load latency p50=%dms p90=%dms p99=%dms max=%dms",
+                    rowCount, getFillRowsPerSecond(), getReplicatedRowsPerSecond(), latency.getP50Millis(), latency.getP90Millis(),
+                    latency.getP99Millis(), latency.getMaxMillis());
+        }
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public void setRowsPerSecond(int rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public void setMaxRowsCommit(int maxRowsCommit) {
+        this.maxRowsCommit = maxRowsCommit;
+    }
+
+    public void setWeights(String weights) {
+        this.weights = weights;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public void setWorkDir(File workDir) {
+        this.workDir = workDir;
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.symmetric.io.stage.IStagedResource;
+import org.jumpmind.symmetric.io.stage.StagingManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creates, reads and purges staged batches in a temporary staging directory. The memory threshold decides whether batches are staged in
+ * memory or in files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StagingManagerBenchmark {
+    private static final String CATEGORY = "outgoing";
+    @Param({ "0", "1000000" })
+    public long memoryThreshold;
+    @Param({ "100000" })
+    public int batchSize;
+    private File directory;
+    private StagingManager stagingManager;
+    private String payload;
+    private long batchId;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("staging-benchmark").toFile();
+        stagingManager = new StagingManager(directory.getAbsolutePath(), false);
+        StringBuilder buffer = new StringBuilder(batchSize);
+        while (buffer.length() < batchSize) {
+            buffer.append("insert,\"1\",\"some text\",\"2021-10-10 12:34:56.789\"\n");
+        }
+        payload = buffer.toString();
+        stage(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public IStagedResource createAndWrite() {
+        IStagedResource resource = stage(++batchId);
+        resource.delete();
+        return resource;
+    }
+
+    @Benchmark
+    public long findAndRead() throws IOException {
+        IStagedResource resource = stagingManager.find(CATEGORY, "00001", 0L);
+        long count = 0;
+        char[] buffer = new char[8192];
+        try (BufferedReader reader = resource.getReader()) {
+            int read = 0;
+            while ((read = reader.read(buffer)) > 0) {
+                count += read;
+            }
+        } finally {
+            resource.close();
+        }
+        return count;
+    }
+
+    /**
+     * Purges {@link PurgeState#PURGE_BATCH_COUNT} batches that are staged before each invocation in a separate staging directory.
+     */
+    @Benchmark
+    public long purge(PurgeState state) {
+        return state.stagingManager.clean(-1);
+    }
+
+    protected IStagedResource stage(long id) {
+        return stage(stagingManager, id, payload, memoryThreshold);
+    }
+
+    protected static IStagedResource stage(StagingManager stagingManager, long id, String payload, long memoryThreshold) {
+        IStagedResource resource = stagingManager.create(CATEGORY, "00001", id);
+        try (BufferedWriter writer = resource.getWriter(memoryThreshold)) {
+            writer.write(payload);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            resource.close();
+        }
+        resource.setState(IStagedResource.State.DONE);
+        return resource;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PurgeState {
+        public static final int PURGE_BATCH_COUNT = 100;
+        private File directory;
+        private StagingManager stagingManager;
+
+        @Setup
+        public void setup() throws IOException {
+            directory = Files.createTempDirectory("staging-purge-benchmark").toFile();
+            stagingManager = new StagingManager(directory.getAbsolutePath(), false);
+        }
+
+        @Setup(Level.Invocation)
+        public void stageBatches(StagingManagerBenchmark benchmark) {
+            for (int i = 1; i <= PURGE_BATCH_COUNT; i++) {
+                stage(stagingManager, i, benchmark.payload, benchmark.memoryThreshold);
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+}
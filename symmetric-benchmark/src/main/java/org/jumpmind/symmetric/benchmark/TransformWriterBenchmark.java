@@ -0,0 +1,180 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.transform.ConstantColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.CopyColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.IColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.LeftColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.SubstrColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.TransformColumn;
+import org.jumpmind.symmetric.io.data.transform.TransformColumn.IncludeOnType;
+import org.jumpmind.symmetric.io.data.transform.TransformPoint;
+import org.jumpmind.symmetric.io.data.transform.TransformTable;
+import org.jumpmind.symmetric.io.data.transform.TrimColumnTransform;
+import org.jumpmind.symmetric.io.data.writer.TransformWriter;
+import org.jumpmind.util.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transforms a batch of inserts and updates with {@link TransformWriter} into a writer that only counts rows, so the score is the cost of
+ * the transforms themselves. Every source column is mapped by a copy, constant, substr, left or trim transform, with some of them only
+ * included on insert or update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformWriterBenchmark {
+    @Param({ "1000" })
+    public int rowCount;
+    @Param({ "20" })
+    public int columnCount;
+    private Table table;
+    private TransformTable transformTable;
+    private Map<String, IColumnTransform<?>> columnTransforms;
+    private CsvData[] datas;
+    private long batchId;
+
+    @Setup
+    public void setup() {
+        table = BenchmarkData.buildTable(columnCount);
+        transformTable = new TransformTable(BenchmarkData.TABLE_NAME, "bench_target", TransformPoint.LOAD);
+        for (int i = 0; i < columnCount; i++) {
+            String columnName = "col" + i;
+            TransformColumn column = null;
+            switch (i % 5) {
+                case 0:
+                    column = new TransformColumn(columnName, columnName, i == 0, CopyColumnTransform.NAME, null);
+                    break;
+                case 1:
+                    column = new TransformColumn(columnName, columnName, false, SubstrColumnTransform.NAME, "0,8");
+                    break;
+                case 2:
+                    column = new TransformColumn(null, columnName, false, ConstantColumnTransform.NAME, "constant");
+                    column.setIncludeOn(IncludeOnType.INSERT);
+                    break;
+                case 3:
+                    column = new TransformColumn(columnName, columnName, false, LeftColumnTransform.NAME, "4");
+                    column.setIncludeOn(IncludeOnType.UPDATE);
+                    break;
+                default:
+                    column = new TransformColumn(columnName, columnName, false, TrimColumnTransform.NAME, null);
+                    break;
+            }
+            transformTable.addTransformColumn(column);
+        }
+        columnTransforms = new HashMap<String, IColumnTransform<?>>();
+        columnTransforms.put(CopyColumnTransform.NAME, new CopyColumnTransform());
+        columnTransforms.put(ConstantColumnTransform.NAME, new ConstantColumnTransform());
+        columnTransforms.put(SubstrColumnTransform.NAME, new SubstrColumnTransform());
+        columnTransforms.put(LeftColumnTransform.NAME, new LeftColumnTransform());
+        columnTransforms.put(TrimColumnTransform.NAME, new TrimColumnTransform());
+        datas = new CsvData[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            String[] row = BenchmarkData.buildRow(i, columnCount);
+            if (i % 2 == 0) {
+                datas[i] = new CsvData(DataEventType.INSERT, row);
+            } else {
+                datas[i] = new CsvData(DataEventType.UPDATE, new String[] { row[0] }, row);
+                datas[i].putParsedData(CsvData.OLD_DATA, BenchmarkData.buildRow(i + 1, columnCount));
+            }
+        }
+    }
+
+    @Benchmark
+    public long transform() {
+        CountingDataWriter counter = new CountingDataWriter();
+        TransformWriter writer = new TransformWriter(null, TransformPoint.LOAD, counter, columnTransforms, transformTable);
+        Batch batch = new Batch(BatchType.LOAD, ++batchId, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        writer.open(new DataContext(batch));
+        try {
+            writer.start(batch);
+            if (writer.start(table)) {
+                for (CsvData data : datas) {
+                    writer.write(data);
+                }
+                writer.end(table);
+            }
+            writer.end(batch, false);
+        } finally {
+            writer.close();
+        }
+        return counter.rows;
+    }
+
+    static class CountingDataWriter implements IDataWriter {
+        private Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
+        long rows;
+
+        public void open(DataContext context) {
+        }
+
+        public void close() {
+        }
+
+        public Map<Batch, Statistics> getStatistics() {
+            return statistics;
+        }
+
+        public void start(Batch batch) {
+            statistics.put(batch, new Statistics());
+        }
+
+        public boolean start(Table table) {
+            return true;
+        }
+
+        public void write(CsvData data) {
+            rows++;
+        }
+
+        public void end(Table table) {
+        }
+
+        public void end(Batch batch, boolean inError) {
+        }
+    }
+}
@@ -116,6 +116,18 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         if (!StringUtils.isEmpty(continueAfterError)) {
             config.setContinueAfterError(Boolean.parseBoolean(continueAfterError));
         }
+        String compareMode = getOptionValue(OPTION_COMPARE_MODE, "compareMode", line, config);
+        if (!StringUtils.isEmpty(compareMode)) {
+            config.setCompareMode(compareMode.trim());
+        }
+        String threadCountArg = getOptionValue(OPTION_THREAD_COUNT, "threadCount", line, config);
+        if (!StringUtils.isEmpty(threadCountArg)) {
+            try {
+                config.setThreadCount(Integer.parseInt(threadCountArg.trim()));
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("Failed to parse arg [" + threadCountArg + "] ", ex);
+            }
+        }
         ISymmetricEngine sourceEngine = new ClientSymmetricEngine(sourceProperies);
         ISymmetricEngine targetEngine = new ClientSymmetricEngine(targetProperties);
         DbCompare dbCompare = new DbCompare(sourceEngine, targetEngine, config);
@@ -169,6 +181,8 @@ public class DbCompareCommand extends AbstractCommandLauncher {
     private static final String OPTION_DATE_TIME_FORMAT = "date-time-format";
     private static final String OPTION_CONFIG_PROPERTIES = "config";
     private static final String OPTION_CONTINUE_AFTER_ERROR = "continue-after-error";
+    private static final String OPTION_COMPARE_MODE = "compare-mode";
+    private static final String OPTION_THREAD_COUNT = "thread-count";
 
     @Override
     protected void printHelp(CommandLine cmd, Options options) {
@@ -190,6 +204,8 @@ public class DbCompareCommand extends AbstractCommandLauncher {
         addOption(options, null, OPTION_DATE_TIME_FORMAT, true);
         addOption(options, null, OPTION_CONFIG_PROPERTIES, true);
         addOption(options, null, OPTION_CONTINUE_AFTER_ERROR, true);
+        addOption(options, null, OPTION_COMPARE_MODE, true);
+        addOption(options, null, OPTION_THREAD_COUNT, true);
     }
 
     protected Map<String, String> parseWhereClauses(CommandLine line) {
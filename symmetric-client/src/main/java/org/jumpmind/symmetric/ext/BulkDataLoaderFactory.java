@@ -22,12 +22,16 @@ package org.jumpmind.symmetric.ext;
 
 import java.util.List;
 
+import org.jumpmind.db.platform.DatabaseNamesConstants;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.io.H2BulkDatabaseWriter;
 import org.jumpmind.symmetric.io.JdbcBatchBulkDatabaseWriter;
+import org.jumpmind.symmetric.io.PostgresBulkDatabaseWriter;
+import org.jumpmind.symmetric.io.SqliteBulkDatabaseWriter;
 import org.jumpmind.symmetric.io.data.IDataWriter;
 import org.jumpmind.symmetric.io.data.writer.Conflict;
 import org.jumpmind.symmetric.io.data.writer.IDatabaseWriterErrorHandler;
@@ -36,6 +40,7 @@ import org.jumpmind.symmetric.io.data.writer.ResolvedData;
 import org.jumpmind.symmetric.io.data.writer.TransformWriter;
 import org.jumpmind.symmetric.load.AbstractDataLoaderFactory;
 import org.jumpmind.symmetric.load.IDataLoaderFactory;
+import org.jumpmind.symmetric.service.IParameterService;
 
 public class BulkDataLoaderFactory extends AbstractDataLoaderFactory implements IDataLoaderFactory, ISymmetricEngineAware, IBuiltInExtensionPoint {
     protected ISymmetricEngine engine;
@@ -50,9 +55,23 @@ public class BulkDataLoaderFactory extends AbstractDataLoaderFactory implements
             List<IDatabaseWriterFilter> filters, List<IDatabaseWriterErrorHandler> errorHandlers,
             List<? extends Conflict> conflictSettings, List<ResolvedData> resolvedData) {
         IDatabasePlatform platform = engine.getTargetDialect().getPlatform();
-        if (engine.getParameterService().is(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_OVERRIDE, false)) {
+        IParameterService parameterService = engine.getParameterService();
+        String platformName = platform.getName();
+        if (parameterService.is(ParameterConstants.JDBC_EXECUTE_BULK_BATCH_OVERRIDE, false)) {
             return new JdbcBatchBulkDatabaseWriter(symmetricDialect.getPlatform(), platform,
                     symmetricDialect.getTablePrefix(), buildParameterDatabaseWriterSettings(conflictSettings));
+        } else if (DatabaseNamesConstants.POSTGRESQL.equals(platformName) || DatabaseNamesConstants.POSTGRESQL95.equals(platformName)) {
+            return new PostgresBulkDatabaseWriter(symmetricDialect.getPlatform(), platform, symmetricDialect.getTablePrefix(),
+                    buildParameterDatabaseWriterSettings(conflictSettings),
+                    parameterService.getInt(ParameterConstants.POSTGRES_BULK_LOAD_MAX_ROWS_BEFORE_FLUSH, 100000));
+        } else if (DatabaseNamesConstants.H2.equals(platformName)) {
+            return new H2BulkDatabaseWriter(symmetricDialect.getPlatform(), platform, symmetricDialect.getTablePrefix(),
+                    buildParameterDatabaseWriterSettings(conflictSettings),
+                    parameterService.getInt(ParameterConstants.H2_BULK_LOAD_MAX_ROWS_PER_INSERT, 500));
+        } else if (DatabaseNamesConstants.SQLITE.equals(platformName)) {
+            return new SqliteBulkDatabaseWriter(symmetricDialect.getPlatform(), platform, symmetricDialect.getTablePrefix(),
+                    buildParameterDatabaseWriterSettings(conflictSettings),
+                    parameterService.getInt(ParameterConstants.SQLITE_BULK_LOAD_MAX_ROWS_PER_INSERT, 500));
         } else {
             return new JdbcBatchBulkDatabaseWriter(symmetricDialect.getPlatform(), platform,
                     symmetricDialect.getTablePrefix(), buildParameterDatabaseWriterSettings(conflictSettings));
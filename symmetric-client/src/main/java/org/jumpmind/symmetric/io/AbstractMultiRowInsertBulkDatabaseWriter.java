@@ -0,0 +1,185 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.DmlStatement;
+import org.jumpmind.db.sql.DmlStatement.DmlType;
+import org.jumpmind.symmetric.SymmetricException;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.DatabaseWriterSettings;
+
+/**
+ * Bulk writer that collects inserted rows and writes them with one insert statement that has a values list for many rows. Everything other
+ * than an insert is written by the default writer after the collected rows are written. Any failure, including a duplicate key, fails the
+ * batch so it is loaded again with the default writer.
+ */
+public abstract class AbstractMultiRowInsertBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
+    protected int maxRowsPerInsert;
+    protected DmlStatement insertStatement;
+    protected int rowsPerInsert;
+    protected String fullInsertSql;
+    protected boolean fullInsertPrepared;
+    protected List<Object[]> rows = new ArrayList<Object[]>();
+
+    public AbstractMultiRowInsertBulkDatabaseWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform,
+            String tablePrefix, DatabaseWriterSettings settings, int maxRowsPerInsert) {
+        super(symmetricPlatform, targetPlatform, tablePrefix, settings);
+        this.maxRowsPerInsert = maxRowsPerInsert;
+    }
+
+    /**
+     * @return the most bind parameters the database accepts in one statement, or 0 if there is no limit
+     */
+    protected abstract int getMaxParametersPerInsert();
+
+    @Override
+    public boolean start(Table table) {
+        insertStatement = null;
+        fullInsertSql = null;
+        fullInsertPrepared = false;
+        return super.start(table);
+    }
+
+    @Override
+    protected void bulkWrite(CsvData data) {
+        if (data.getDataEventType() != DataEventType.INSERT) {
+            flush();
+        }
+        writeDefault(data);
+    }
+
+    @Override
+    protected LoadStatus insert(CsvData data) {
+        if (isFallBackToDefault()) {
+            return super.insert(data);
+        }
+        if (insertStatement == null) {
+            insertStatement = getPlatform().createDmlStatement(DmlType.INSERT, targetTable, writerSettings.getTextColumnExpression());
+            int columnCount = insertStatement.getTypes().length;
+            int maxParameters = getMaxParametersPerInsert();
+            rowsPerInsert = maxParameters > 0 && columnCount > 0 ? Math.min(maxRowsPerInsert, maxParameters / columnCount) : maxRowsPerInsert;
+        }
+        if (rowsPerInsert < 2) {
+            return super.insert(data);
+        }
+        try {
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            rows.add(getPlatform().getObjectValues(batch.getBinaryEncoding(), getRowData(data, CsvData.ROW_DATA),
+                    insertStatement.getMetaData(), false, writerSettings.isFitToColumn()));
+            statistics.get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT);
+            statistics.get(batch).incrementTableStats(targetTable.getName(), DataEventType.INSERT.getCode(), 1);
+        } finally {
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+        }
+        if (rows.size() >= rowsPerInsert) {
+            flush();
+        }
+        return LoadStatus.SUCCESS;
+    }
+
+    protected void flush() {
+        if (rows.size() > 0) {
+            try {
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+                int[] rowTypes = insertStatement.getTypes();
+                Object[] values = new Object[rows.size() * rowTypes.length];
+                int[] types = new int[values.length];
+                for (int i = 0; i < rows.size(); i++) {
+                    System.arraycopy(rows.get(i), 0, values, i * rowTypes.length, rowTypes.length);
+                    System.arraycopy(rowTypes, 0, types, i * rowTypes.length, rowTypes.length);
+                }
+                int count;
+                if (rows.size() == rowsPerInsert) {
+                    if (!fullInsertPrepared) {
+                        if (fullInsertSql == null) {
+                            fullInsertSql = buildInsertSql(rowsPerInsert);
+                        }
+                        prepare(fullInsertSql, null);
+                        fullInsertPrepared = true;
+                    }
+                    count = getTransaction().addRow(null, values, types);
+                } else {
+                    count = getTransaction().prepareAndExecute(buildInsertSql(rows.size()), values, types);
+                }
+                if (count != rows.size()) {
+                    throw new SymmetricException("Inserted %d rows into %s but expected %d, will attempt to fallback using default writer.",
+                            count, targetTable.getName(), rows.size());
+                }
+            } finally {
+                rows.clear();
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            }
+        }
+    }
+
+    protected String buildInsertSql(int rowCount) {
+        String sql = insertStatement.getSql();
+        String rowValues = sql.substring(sql.lastIndexOf(" values (") + " values ".length());
+        StringBuilder multiRowSql = new StringBuilder(sql.length() + (rowValues.length() + 2) * (rowCount - 1));
+        multiRowSql.append(sql);
+        for (int i = 1; i < rowCount; i++) {
+            multiRowSql.append(", ").append(rowValues);
+        }
+        return multiRowSql.toString();
+    }
+
+    @Override
+    protected void prepare() {
+        fullInsertPrepared = false;
+        super.prepare();
+    }
+
+    @Override
+    protected void prepare(String sql, CsvData data) {
+        /*
+         * The statement the default writer had prepared is replaced, so make it prepare its statement again
+         */
+        currentDmlStatement = null;
+        fullInsertPrepared = false;
+        super.prepare(sql, data);
+    }
+
+    @Override
+    public void end(Table table) {
+        flush();
+        super.end(table);
+    }
+
+    @Override
+    protected void commit(boolean earlyCommit) {
+        flush();
+        super.commit(earlyCommit);
+    }
+
+    @Override
+    protected void rollback() {
+        rows.clear();
+        fullInsertPrepared = false;
+        super.rollback();
+    }
+}
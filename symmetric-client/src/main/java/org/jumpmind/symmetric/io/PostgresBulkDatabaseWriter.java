@@ -0,0 +1,227 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Hex;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.model.TypeMap;
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.JdbcSqlTransaction;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.SymmetricException;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
+import org.jumpmind.symmetric.io.data.writer.DatabaseWriterSettings;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk writer that streams inserted rows to PostgreSQL with COPY FROM STDIN in CSV format on the writer's own connection, so the rows are part
+ * of the batch transaction. Everything other than an insert ends the copy and is written by the default writer. Any failure, including a
+ * duplicate key, fails the batch so it is loaded again with the default writer.
+ */
+public class PostgresBulkDatabaseWriter extends AbstractBulkDatabaseWriter {
+    private static final Logger log = LoggerFactory.getLogger(PostgresBulkDatabaseWriter.class);
+    protected int maxRowsBeforeFlush;
+    protected CopyIn copyIn;
+    protected long copiedRowCount;
+    protected int unflushedRowCount;
+    protected Boolean copySupported;
+
+    public PostgresBulkDatabaseWriter(IDatabasePlatform symmetricPlatform, IDatabasePlatform targetPlatform, String tablePrefix,
+            DatabaseWriterSettings settings, int maxRowsBeforeFlush) {
+        super(symmetricPlatform, targetPlatform, tablePrefix, settings);
+        this.maxRowsBeforeFlush = maxRowsBeforeFlush;
+    }
+
+    @Override
+    public boolean start(Table table) {
+        copySupported = null;
+        return super.start(table);
+    }
+
+    @Override
+    protected void bulkWrite(CsvData data) {
+        if (data.getDataEventType() != DataEventType.INSERT) {
+            endCopy();
+        }
+        writeDefault(data);
+    }
+
+    @Override
+    protected LoadStatus insert(CsvData data) {
+        if (isFallBackToDefault() || !isCopySupported()) {
+            return super.insert(data);
+        }
+        try {
+            statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+            startCopy();
+            byte[] row = formatRow(targetTable.getColumns(), getRowData(data, CsvData.ROW_DATA), batch.getBinaryEncoding())
+                    .getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(row, 0, row.length);
+            copiedRowCount++;
+            if (++unflushedRowCount >= maxRowsBeforeFlush) {
+                copyIn.flushCopy();
+                unflushedRowCount = 0;
+            }
+            statistics.get(batch).increment(DataWriterStatisticConstants.INSERTCOUNT);
+            statistics.get(batch).incrementTableStats(targetTable.getName(), DataEventType.INSERT.getCode(), 1);
+            return LoadStatus.SUCCESS;
+        } catch (SQLException ex) {
+            throw getPlatform().getSqlTemplate().translate(ex);
+        } finally {
+            statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+        }
+    }
+
+    /*
+     * Large objects stored by oid have to be written through the large object API, so those tables are loaded by the default writer
+     */
+    protected boolean isCopySupported() {
+        if (copySupported == null) {
+            copySupported = Boolean.TRUE;
+            for (Column column : targetTable.getColumns()) {
+                if ("oid".equalsIgnoreCase(column.getJdbcTypeName()) || "lo".equalsIgnoreCase(column.getJdbcTypeName())) {
+                    copySupported = Boolean.FALSE;
+                }
+            }
+        }
+        return copySupported;
+    }
+
+    protected void startCopy() throws SQLException {
+        if (copyIn == null) {
+            copyIn = getCopyManager().copyIn(buildCopySql());
+            copiedRowCount = 0;
+            unflushedRowCount = 0;
+        }
+    }
+
+    protected CopyManager getCopyManager() throws SQLException {
+        return ((JdbcSqlTransaction) getTransaction()).getConnection().unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    protected void endCopy() {
+        if (copyIn != null) {
+            try {
+                statistics.get(batch).startTimer(DataWriterStatisticConstants.LOADMILLIS);
+                long count = copyIn.endCopy();
+                if (count != copiedRowCount) {
+                    throw new SymmetricException("Copied %d rows into %s but expected %d, will attempt to fallback using default writer.",
+                            count, targetTable.getName(), copiedRowCount);
+                }
+            } catch (SQLException ex) {
+                throw getPlatform().getSqlTemplate().translate(ex);
+            } finally {
+                cancelCopy();
+                statistics.get(batch).stopTimer(DataWriterStatisticConstants.LOADMILLIS);
+            }
+        }
+    }
+
+    protected void cancelCopy() {
+        if (copyIn != null) {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException ex) {
+                log.debug("Failed to cancel copy", ex);
+            } finally {
+                copyIn = null;
+            }
+        }
+    }
+
+    protected String buildCopySql() {
+        DatabaseInfo info = getPlatform().getDatabaseInfo();
+        String quote = getPlatform().getDdlBuilder().isDelimitedIdentifierModeOn() ? info.getDelimiterToken() : "";
+        StringBuilder sql = new StringBuilder("COPY ");
+        sql.append(targetTable.getQualifiedTableName(quote, info.getCatalogSeparator(), info.getSchemaSeparator())).append(" (");
+        Column[] columns = targetTable.getColumns();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(quote).append(columns[i].getName()).append(quote);
+        }
+        return sql.append(") FROM STDIN WITH CSV").toString();
+    }
+
+    /*
+     * Formats a row for COPY in CSV format, where an unquoted empty value is null and binary values use the bytea hex format
+     */
+    protected static String formatRow(Column[] columns, String[] values, BinaryEncoding encoding) {
+        StringBuilder row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            String value = values[i];
+            if (value != null) {
+                if (TypeMap.isBinaryType(columns[i].getMappedTypeCode())) {
+                    value = "\\x" + toHex(value, encoding);
+                }
+                row.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+        }
+        return row.append('\n').toString();
+    }
+
+    protected static String toHex(String value, BinaryEncoding encoding) {
+        if (encoding == BinaryEncoding.HEX) {
+            return value;
+        } else if (encoding == BinaryEncoding.BASE64) {
+            return Hex.encodeHexString(Base64.decodeBase64(value.getBytes(Charset.defaultCharset())));
+        } else {
+            return Hex.encodeHexString(value.getBytes(Charset.defaultCharset()));
+        }
+    }
+
+    @Override
+    public void end(Table table) {
+        endCopy();
+        super.end(table);
+    }
+
+    @Override
+    protected void commit(boolean earlyCommit) {
+        endCopy();
+        super.commit(earlyCommit);
+    }
+
+    @Override
+    protected void rollback() {
+        cancelCopy();
+        super.rollback();
+    }
+}
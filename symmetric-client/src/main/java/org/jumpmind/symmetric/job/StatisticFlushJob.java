@@ -25,6 +25,7 @@ import static org.jumpmind.symmetric.job.JobDefaults.EVERY_5_MINUTES;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.service.ClusterConstants;
+import org.jumpmind.symmetric.statistic.IMetricsExporter;
 import org.jumpmind.symmetric.util.LogSummaryAppenderUtils;
 import org.jumpmind.util.LogSummaryAppender;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
@@ -47,6 +48,8 @@ public class StatisticFlushJob extends AbstractJob {
     @Override
     public void doJob(boolean force) throws Exception {
         engine.getStatisticManager().flush();
+        engine.getStatisticManager().getMetricsRegistry().export(
+                engine.getExtensionService().getExtensionPointList(IMetricsExporter.class));
         engine.getPurgeService().purgeStats(force);
         purgeLogSummaryAppender();
     }
@@ -0,0 +1,89 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.jmx;
+
+import org.jumpmind.extension.IBuiltInExtensionPoint;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.ext.ISymmetricEngineAware;
+import org.jumpmind.symmetric.statistic.LatencyHistogram;
+import org.jumpmind.symmetric.statistic.LatencySnapshot;
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+@ManagedResource(description = "The management interface for replication latency metrics")
+public class MetricsManagementService implements IBuiltInExtensionPoint, ISymmetricEngineAware {
+    private MetricsRegistry metricsRegistry;
+
+    public MetricsManagementService() {
+    }
+
+    public void setSymmetricEngine(ISymmetricEngine engine) {
+        this.metricsRegistry = engine.getStatisticManager().getMetricsRegistry();
+    }
+
+    @ManagedAttribute(description = "Whether latencies are being recorded")
+    public boolean isEnabled() {
+        return metricsRegistry.isEnabled();
+    }
+
+    @ManagedAttribute(description = "The latency percentiles in milliseconds for each stage, channel and node")
+    public String getLatencySummary() {
+        return "<pre>" + metricsRegistry.getSummary() + "</pre>";
+    }
+
+    @ManagedOperation(description = "Get a latency percentile in milliseconds for a stage, channel and node")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "stage", description = "One of route.read, route, extract, transfer, receive or load"),
+            @ManagedOperationParameter(name = "channelId", description = "The channel id"),
+            @ManagedOperationParameter(name = "nodeId", description = "The node id, ignored unless metrics.by.node is on"),
+            @ManagedOperationParameter(name = "percentile", description = "The percentile between 0 and 100") })
+    public long getLatencyPercentile(String stage, String channelId, String nodeId, double percentile) {
+        LatencySnapshot snapshot = metricsRegistry.getHistogram(stage, channelId, nodeId).getSnapshot();
+        if (percentile >= 99.9) {
+            return percentile >= 100 ? snapshot.getMaxMillis() : snapshot.getP999Millis();
+        } else if (percentile >= 99) {
+            return snapshot.getP99Millis();
+        } else if (percentile >= 90) {
+            return snapshot.getP90Millis();
+        } else {
+            return snapshot.getP50Millis();
+        }
+    }
+
+    @ManagedOperation(description = "Get the number of latencies recorded for a stage, channel and node")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "stage", description = "One of route.read, route, extract, transfer, receive or load"),
+            @ManagedOperationParameter(name = "channelId", description = "The channel id"),
+            @ManagedOperationParameter(name = "nodeId", description = "The node id, ignored unless metrics.by.node is on") })
+    public long getLatencyCount(String stage, String channelId, String nodeId) {
+        LatencyHistogram histogram = metricsRegistry.getHistogram(stage, channelId, nodeId);
+        return histogram.getSnapshot().getCount();
+    }
+
+    @ManagedOperation(description = "Clear all recorded latencies")
+    public void reset() {
+        metricsRegistry.reset();
+    }
+}
@@ -38,6 +38,7 @@ import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.security.SecurityConstants;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.Version;
+import org.jumpmind.symmetric.cache.SnapshotCache;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.ext.ISymmetricEngineAware;
@@ -122,6 +123,20 @@ public class NodeManagementService implements IBuiltInExtensionPoint, ISymmetric
         engine.clearCaches();
     }
 
+    @ManagedAttribute(description = "Get the size, hit, miss and load counts of the configuration caches")
+    public String getCacheStatistics() {
+        String lineFeed = "\n";
+        if (engine.getParameterService().getString(ParameterConstants.JMX_LINE_FEED).equals("html")) {
+            lineFeed = "</br>";
+        }
+        StringBuilder out = new StringBuilder();
+        for (SnapshotCache<?, ?> cache : engine.getCacheManager().getCaches()) {
+            out.append(cache.toString());
+            out.append(lineFeed);
+        }
+        return out.toString();
+    }
+
     @ManagedOperation(description = "Synchronize the triggers")
     public void syncTriggers() {
         engine.getTriggerRouterService().syncTriggers();
@@ -0,0 +1,116 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.io.DbCompareReport.TableReport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares two embedded H2 databases that differ in only a few rows using the merge and hash compare modes, checking
+ * that both produce the same report and logging how long each took.
+ */
+@Tag("integration")
+public class DbCompareBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(DbCompareBenchmarkTest.class);
+    private static final int ROW_COUNT = 200000;
+    private static ISymmetricEngine sourceEngine;
+    private static ISymmetricEngine targetEngine;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        sourceEngine = createEngine("dbcompare_source");
+        targetEngine = createEngine("dbcompare_target");
+        for (ISymmetricEngine engine : new ISymmetricEngine[] { sourceEngine, targetEngine }) {
+            ISqlTemplate template = engine.getDatabasePlatform().getSqlTemplate();
+            for (String tableName : new String[] { "COMPARE_ONE", "COMPARE_TWO" }) {
+                template.update("create table " + tableName + " (ID bigint not null, NAME varchar(50), AMOUNT decimal(12,2), "
+                        + "UPDATED timestamp, primary key (ID))");
+                template.update("insert into " + tableName + " select X, 'name ' || X, X / 100.0, timestamp '2020-01-01 00:00:00' "
+                        + "from system_range(1, " + ROW_COUNT + ")");
+            }
+        }
+        ISqlTemplate target = targetEngine.getDatabasePlatform().getSqlTemplate();
+        target.update("update COMPARE_ONE set NAME = 'changed' where ID = 1234");
+        target.update("delete from COMPARE_ONE where ID = 98765");
+        target.update("insert into COMPARE_ONE values (" + (ROW_COUNT + 10) + ", 'extra', 1, null)");
+        target.update("update COMPARE_TWO set AMOUNT = 0 where ID = " + (ROW_COUNT / 2));
+    }
+
+    @Test
+    public void testHashCompareMatchesMergeCompare() {
+        long start = System.currentTimeMillis();
+        DbCompareReport mergeReport = compare(DbCompareConfig.COMPARE_MODE_MERGE, 1);
+        long mergeMillis = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        DbCompareReport hashReport = compare(DbCompareConfig.COMPARE_MODE_HASH, 2);
+        long hashMillis = System.currentTimeMillis() - start;
+        log.info("Compared {} rows in 2 tables with merge in {} ms and with hash in {} ms", ROW_COUNT, mergeMillis, hashMillis);
+
+        assertEquals(2, hashReport.getTableReports().size());
+        for (int i = 0; i < mergeReport.getTableReports().size(); i++) {
+            TableReport merge = mergeReport.getTableReports().get(i);
+            TableReport hash = hashReport.getTableReports().get(i);
+            assertEquals(merge.toString(), hash.toString());
+        }
+        TableReport one = hashReport.getTableReports().get(0);
+        assertEquals(ROW_COUNT, one.getSourceRows());
+        assertEquals(ROW_COUNT, one.getTargetRows());
+        assertEquals(1, one.getDifferentRows());
+        assertEquals(1, one.getMissingRows());
+        assertEquals(1, one.getExtraRows());
+        assertEquals(ROW_COUNT - 2, one.getMatchedRows());
+        assertEquals(1, hashReport.getTableReports().get(1).getDifferentRows());
+    }
+
+    protected DbCompareReport compare(String compareMode, int threadCount) {
+        DbCompareConfig config = new DbCompareConfig();
+        config.setUseSymmetricConfig(false);
+        config.setSourceTableNames(Arrays.asList("COMPARE_ONE", "COMPARE_TWO"));
+        config.setCompareMode(compareMode);
+        config.setThreadCount(threadCount);
+        return new DbCompare(sourceEngine, targetEngine, config).compare();
+    }
+
+    protected static ISymmetricEngine createEngine(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        IDatabasePlatform platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        when(engine.getDatabasePlatform()).thenReturn(platform);
+        return engine;
+    }
+}
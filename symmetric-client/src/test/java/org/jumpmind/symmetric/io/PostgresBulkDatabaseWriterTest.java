@@ -0,0 +1,193 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.jumpmind.db.DbTestUtils;
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.sql.SqlException;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.SymmetricException;
+import org.jumpmind.symmetric.common.ContextConstants;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.writer.Conflict;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Runs the COPY lifecycle against a mocked {@link CopyManager} while everything the default writer does goes to H2 in the same transaction.
+ */
+public class PostgresBulkDatabaseWriterTest extends AbstractWriterTest {
+    protected CopyManager copyManager;
+    protected CopyIn copyIn;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        platform = DbTestUtils.createDatabasePlatform(DbTestUtils.ROOT);
+        platform.createDatabase(platform.readDatabaseFromXml("/testBulkDatabaseWriter.xml", true), true, false);
+    }
+
+    @BeforeEach
+    public void setupCopy() throws Exception {
+        setErrorExpected(false);
+        writerSettings.setDefaultConflictSetting(new Conflict());
+        copyManager = mock(CopyManager.class);
+        copyIn = mock(CopyIn.class);
+        when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+    }
+
+    @Override
+    protected String getTestTable() {
+        return "test_bulkload_table_2";
+    }
+
+    @Test
+    public void testCopyEndsBeforeOtherChangesAndCommits() throws Exception {
+        String deletedId = insertExisting();
+        when(copyIn.endCopy()).thenReturn(2L, 1L);
+        String[] first = row(getNextId());
+        String[] second = row(getNextId());
+        String[] third = row(getNextId());
+        writeData(create(), new TableCsvData(getTable(), new CsvData(DataEventType.INSERT, first),
+                new CsvData(DataEventType.INSERT, second), new CsvData(DataEventType.DELETE, new String[] { deletedId }, null),
+                new CsvData(DataEventType.INSERT, third)));
+        verify(copyManager, times(2)).copyIn(startsWith("COPY "));
+        verify(copyIn, times(3)).writeToCopy(any(byte[].class), eq(0), anyInt());
+        verify(copyIn, times(1)).flushCopy();
+        verify(copyIn, times(2)).endCopy();
+        verify(copyIn, never()).cancelCopy();
+        Assert.assertEquals(0, countRowsWithId(deletedId));
+    }
+
+    @Test
+    public void testShortRowCountFailsBatch() throws Exception {
+        String deletedId = insertExisting();
+        when(copyIn.endCopy()).thenReturn(1L);
+        try {
+            writeData(create(), new TableCsvData(getTable(), new CsvData(DataEventType.DELETE, new String[] { deletedId }, null),
+                    new CsvData(DataEventType.INSERT, row(getNextId())), new CsvData(DataEventType.INSERT, row(getNextId()))));
+            fail("The batch should have failed on the short row count");
+        } catch (SymmetricException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Copied 1 rows into " + getTable().getName() + " but expected 2"));
+        }
+        verify(copyIn, times(1)).endCopy();
+        Assert.assertEquals(1, countRowsWithId(deletedId));
+    }
+
+    @Test
+    public void testCopyIsCanceledOnError() throws Exception {
+        String deletedId = insertExisting();
+        when(copyIn.isActive()).thenReturn(true);
+        doNothing().doThrow(new SQLException("Broken pipe")).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        try {
+            writeData(create(), new TableCsvData(getTable(), new CsvData(DataEventType.DELETE, new String[] { deletedId }, null),
+                    new CsvData(DataEventType.INSERT, row(getNextId())), new CsvData(DataEventType.INSERT, row(getNextId()))));
+            fail("The batch should have failed on the copy error");
+        } catch (SqlException ex) {
+        }
+        verify(copyIn, never()).endCopy();
+        verify(copyIn, times(1)).cancelCopy();
+        Assert.assertEquals(1, countRowsWithId(deletedId));
+    }
+
+    @Test
+    public void testFallBackToDefaultWriter() throws Exception {
+        DataContext context = new DataContext();
+        context.put(ContextConstants.CONTEXT_BULK_WRITER_TO_USE, "default");
+        String[] first = row(getNextId());
+        String[] second = row(getNextId());
+        writeData(create(), context, new TableCsvData(getTable(), new CsvData(DataEventType.INSERT, first),
+                new CsvData(DataEventType.INSERT, second)));
+        verify(copyManager, never()).copyIn(anyString());
+        Assert.assertEquals(1, countRowsWithId(first[0]));
+        Assert.assertEquals(1, countRowsWithId(second[0]));
+    }
+
+    protected PostgresBulkDatabaseWriter create() {
+        return new PostgresBulkDatabaseWriter(platform, platform, "sym_", writerSettings, 2) {
+            @Override
+            protected CopyManager getCopyManager() {
+                return copyManager;
+            }
+        };
+    }
+
+    protected Table getTable() {
+        return platform.getTableFromCache(getTestTable(), false);
+    }
+
+    protected String[] row(String id) {
+        return new String[] { id, "string", "string not null", "char", "char not null", "2007-01-02 00:00:00.000",
+                "2007-02-03 04:05:06.000", "0", "47", "67.89", "-0.0747663", null };
+    }
+
+    protected String insertExisting() {
+        String id = getNextId();
+        platform.getSqlTemplate().update("insert into " + getTestTable() + " (id, string_required_value, char_required_value) values (?, ?, ?)",
+                Integer.valueOf(id), "existing", "existing");
+        return id;
+    }
+
+    protected int countRowsWithId(String id) {
+        return platform.getSqlTemplate().queryForInt("select count(*) from " + getTestTable() + " where id=?", Integer.valueOf(id));
+    }
+
+    @Test
+    public void testFormatRow() {
+        Column[] columns = { column("id", Types.INTEGER), column("name", Types.VARCHAR), column("note", Types.VARCHAR),
+                column("data", Types.BLOB) };
+        Assert.assertEquals("\"1\",,\"\",\n", PostgresBulkDatabaseWriter.formatRow(columns, new String[] { "1", null, "", null },
+                BinaryEncoding.BASE64));
+        Assert.assertEquals("\"2\",\"say \"\"hi\"\", ok\",\"line\none\\\\two\",\"\\x616263\"\n", PostgresBulkDatabaseWriter.formatRow(columns,
+                new String[] { "2", "say \"hi\", ok", "line\none\\\\two", "YWJj" }, BinaryEncoding.BASE64));
+        Assert.assertEquals("\"3\",,,\"\\x00ff\"\n", PostgresBulkDatabaseWriter.formatRow(columns, new String[] { "3", null, null, "00ff" },
+                BinaryEncoding.HEX));
+    }
+
+    protected Column column(String name, int typeCode) {
+        Column column = new Column(name);
+        column.setMappedTypeCode(typeCode);
+        return column;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DbFillTest {
+    private static IDatabasePlatform platform;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:dbfill;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        platform.getSqlTemplate().update("create table fill_parent (id varchar(32) not null primary key, name varchar(50))");
+        platform.getSqlTemplate().update("create table fill_child (id varchar(32) not null primary key, parent_id varchar(32) not null, "
+                + "amount integer, foreign key (parent_id) references fill_parent (id))");
+    }
+
+    @BeforeEach
+    public void clean() {
+        platform.getSqlTemplate().update("delete from fill_child");
+        platform.getSqlTemplate().update("delete from fill_parent");
+        platform.resetCachedTableModel();
+    }
+
+    @Test
+    public void testFillWithThreads() {
+        DbFill dbFill = new DbFill(platform);
+        dbFill.setRecordCount(200);
+        dbFill.setThreadCount(4);
+        dbFill.setMaxRowsCommit(10);
+        dbFill.fillTables("fill_parent");
+        assertEquals(200, count("fill_parent"));
+    }
+
+    @Test
+    public void testFillForeignKeysWithThreads() {
+        DbFill dbFill = new DbFill(platform);
+        dbFill.setRecordCount(50);
+        dbFill.setThreadCount(3);
+        dbFill.fillTables("fill_parent", "fill_child");
+        assertEquals(50, count("fill_parent"));
+        assertEquals(50, count("fill_child"));
+        assertEquals(0, platform.getSqlTemplate().queryForInt("select count(*) from fill_child c where not exists "
+                + "(select 1 from fill_parent p where p.id=c.parent_id)"));
+    }
+
+    @Test
+    public void testFillAtRate() {
+        DbFill dbFill = new DbFill(platform);
+        dbFill.setRecordCount(40);
+        dbFill.setThreadCount(2);
+        dbFill.setRowsPerSecond(100);
+        long ts = System.currentTimeMillis();
+        dbFill.fillTables("fill_parent");
+        long millis = System.currentTimeMillis() - ts;
+        assertEquals(40, count("fill_parent"));
+        assertTrue("Filled 40 rows at 100 rows/sec in " + millis + "ms", millis >= 350);
+    }
+
+    protected int count(String tableName) {
+        return platform.getSqlTemplate().queryForInt("select count(*) from " + tableName);
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.DbTestUtils;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.h2.H2DatabasePlatform;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.H2BulkDatabaseWriter;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class H2BulkDatabaseWriterTest extends AbstractBulkDatabaseWriterTest {
+    @BeforeAll
+    public static void setup() throws Exception {
+        platform = DbTestUtils.createDatabasePlatform(DbTestUtils.ROOT);
+        platform.createDatabase(platform.readDatabaseFromXml("/testBulkDatabaseWriter.xml", true), true, false);
+    }
+
+    @BeforeEach
+    public void notExpectingError() {
+        setErrorExpected(false);
+        writerSettings.setDefaultConflictSetting(new Conflict());
+    }
+
+    @Override
+    protected boolean shouldTestRun(IDatabasePlatform platform) {
+        return platform instanceof H2DatabasePlatform;
+    }
+
+    @Override
+    protected String[] massageExpectectedResultsForDialect(String[] values) {
+        values = super.massageExpectectedResultsForDialect(values);
+        if (values[6] != null && values[6].length() == 23) {
+            values[6] = values[6] + "0000";
+        }
+        return values;
+    }
+
+    @Override
+    protected AbstractDatabaseWriter create() {
+        return new H2BulkDatabaseWriter(platform, platform, "sym_", writerSettings, 7);
+    }
+
+    @Override
+    protected long writeData(List<CsvData> data) {
+        return writeData(BinaryEncoding.BASE64, data);
+    }
+
+    @Override
+    protected long writeData(BinaryEncoding encoding, List<CsvData> data) {
+        Table table = platform.getTableFromCache(getTestTable(), false);
+        return writeData(create(), encoding, new TableCsvData(table, data));
+    }
+
+    @Test
+    public void testInsertsMixedWithUpdatesAndDeletes() {
+        platform.getSqlTemplate().update("truncate table " + getTestTable());
+        List<CsvData> data = new ArrayList<CsvData>();
+        String firstId = null;
+        for (int i = 0; i < 20; i++) {
+            String[] values = { getNextId(), "string", "string not null", "char", "char not null", "2007-01-02 00:00:00.000",
+                    "2007-02-03 04:05:06.000", "0", String.valueOf(i), "67.89", "-0.0747663", null };
+            if (firstId == null) {
+                firstId = values[0];
+            }
+            data.add(new CsvData(DataEventType.INSERT, values));
+            if (i == 10) {
+                String[] updated = values.clone();
+                updated[8] = "1000";
+                data.add(new CsvData(DataEventType.UPDATE, new String[] { values[0] }, updated));
+                data.add(new CsvData(DataEventType.DELETE, new String[] { firstId }, null));
+            }
+        }
+        Assert.assertEquals(22, writeData(data));
+        Assert.assertEquals(19, countRows(getTestTable()));
+        Assert.assertEquals(1, platform.getSqlTemplate().queryForInt("select count(*) from " + getTestTable() + " where integer_value=1000"));
+    }
+}
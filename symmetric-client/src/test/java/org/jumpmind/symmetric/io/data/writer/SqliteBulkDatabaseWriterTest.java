@@ -0,0 +1,97 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.symmetric.io.AbstractWriterTest;
+import org.jumpmind.symmetric.io.SqliteBulkDatabaseWriter;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sqlite.SQLiteDataSource;
+
+public class SqliteBulkDatabaseWriterTest extends AbstractWriterTest {
+    private static final String TABLE = "test_sqlite_bulk";
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        File file = new File("target/sqlitebulk.sqlite");
+        file.getParentFile().mkdirs();
+        file.delete();
+        SQLiteDataSource dataSource = new SQLiteDataSource();
+        dataSource.setUrl("jdbc:sqlite:" + file.getPath());
+        platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        platform.getSqlTemplate().update("create table " + TABLE + " (id integer not null primary key, name varchar(50), amount decimal(10,2))");
+    }
+
+    @BeforeEach
+    public void clearTable() {
+        platform.getSqlTemplate().update("delete from " + TABLE);
+    }
+
+    @Override
+    protected String getTestTable() {
+        return TABLE;
+    }
+
+    @Test
+    public void testInsertAcrossMaxRowsPerInsert() {
+        setErrorExpected(false);
+        List<CsvData> data = new ArrayList<CsvData>();
+        for (int i = 1; i <= 30; i++) {
+            data.add(new CsvData(DataEventType.INSERT, new String[] { String.valueOf(i), i % 3 == 0 ? null : "name " + i, "1.25" }));
+        }
+        data.add(new CsvData(DataEventType.UPDATE, new String[] { "30" }, new String[] { "30", "updated", "2.50" }));
+        Assert.assertEquals(31, writeData(create(), new TableCsvData(getTable(), data)));
+        Assert.assertEquals(30, countRows(TABLE));
+        Assert.assertEquals(9, platform.getSqlTemplate().queryForInt("select count(*) from " + TABLE + " where name is null"));
+        Assert.assertEquals("updated", platform.getSqlTemplate().queryForString("select name from " + TABLE + " where id=30"));
+    }
+
+    @Test
+    public void testDuplicateRowFailsBatch() {
+        setErrorExpected(true);
+        List<CsvData> data = new ArrayList<CsvData>();
+        for (int i = 1; i <= 5; i++) {
+            data.add(new CsvData(DataEventType.INSERT, new String[] { String.valueOf(i), "name", "1.00" }));
+        }
+        data.add(new CsvData(DataEventType.INSERT, new String[] { "3", "name", "1.00" }));
+        writeData(create(), new TableCsvData(getTable(), data));
+        Assert.assertEquals(0, countRows(TABLE));
+    }
+
+    protected Table getTable() {
+        return platform.getTableFromCache(TABLE, false);
+    }
+
+    protected AbstractDatabaseWriter create() {
+        return new SqliteBulkDatabaseWriter(platform, platform, "sym_", writerSettings, 4);
+    }
+}
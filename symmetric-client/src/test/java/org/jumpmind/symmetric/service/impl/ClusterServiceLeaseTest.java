@@ -0,0 +1,206 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.service.ClusterConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs several cluster services with their own server ids against one embedded database, the way separate servers in a cluster share one.
+ */
+public class ClusterServiceLeaseTest {
+    private static IDatabasePlatform platform;
+    private List<ClusterService> services = new ArrayList<ClusterService>();
+
+    @BeforeAll
+    public static void setupDatabase() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:clusterlease;DB_CLOSE_DELAY=-1");
+        platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        platform.getSqlTemplate().update("create table sym_lock (lock_action varchar(50) not null primary key, lock_type varchar(50) not null, "
+                + "locking_server_id varchar(255), lock_time timestamp, shared_count integer default 0 not null, "
+                + "shared_enable integer default 0 not null, last_lock_time timestamp, last_locking_server_id varchar(255), "
+                + "lock_token bigint default 0 not null)");
+    }
+
+    @BeforeEach
+    public void clearLocks() {
+        platform.getSqlTemplate().update("delete from sym_lock");
+    }
+
+    @AfterEach
+    public void stopServices() {
+        for (ClusterService service : services) {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testLeaseKeptAcrossRuns() {
+        ClusterService server1 = createClusterService("server1", true, 60000, true);
+        ClusterService server2 = createClusterService("server2", true, 60000, true);
+        assertTrue(server1.lock(ClusterConstants.ROUTE));
+        long token = server1.getLockToken(ClusterConstants.ROUTE);
+        assertEquals(1, token);
+        server1.unlock(ClusterConstants.ROUTE);
+        assertFalse(server2.lock(ClusterConstants.ROUTE));
+
+        platform.getSqlTemplate().update("update sym_lock set last_locking_server_id='marker'");
+        for (int i = 0; i < 10; i++) {
+            assertTrue(server1.lock(ClusterConstants.ROUTE));
+            assertTrue(server1.refreshLock(ClusterConstants.ROUTE));
+            server1.unlock(ClusterConstants.ROUTE);
+        }
+        assertEquals(token, server1.getLockToken(ClusterConstants.ROUTE));
+        assertEquals(token, platform.getSqlTemplate().queryForLong("select lock_token from sym_lock where lock_action=?", ClusterConstants.ROUTE));
+        assertEquals("marker", platform.getSqlTemplate().queryForString("select last_locking_server_id from sym_lock"));
+        assertFalse(server2.lock(ClusterConstants.ROUTE));
+        assertEquals(0, server2.getLockToken(ClusterConstants.ROUTE));
+
+        assertTrue(server2.lock(ClusterConstants.PURGE_INCOMING));
+        assertFalse(server1.lock(ClusterConstants.PURGE_INCOMING));
+    }
+
+    @Test
+    public void testStaleHolderIsFenced() throws Exception {
+        ClusterService stalled = createClusterService("server1", true, 200, false);
+        ClusterService server2 = createClusterService("server2", true, 200, true);
+        assertTrue(stalled.lock(ClusterConstants.ROUTE));
+        assertTrue(stalled.refreshLock(ClusterConstants.ROUTE));
+        Thread.sleep(250);
+
+        assertTrue(server2.lock(ClusterConstants.ROUTE));
+        assertEquals(2, server2.getLockToken(ClusterConstants.ROUTE));
+        assertFalse(stalled.refreshLock(ClusterConstants.ROUTE));
+        assertEquals(0, stalled.getLockToken(ClusterConstants.ROUTE));
+        stalled.unlock(ClusterConstants.ROUTE);
+        assertFalse(stalled.lock(ClusterConstants.ROUTE));
+        assertEquals("server2", platform.getSqlTemplate().queryForString("select locking_server_id from sym_lock"));
+    }
+
+    @Test
+    public void testGuardedWriteChecksToken() throws Exception {
+        ClusterService stalled = createClusterService("server1", true, 200, false);
+        ClusterService server2 = createClusterService("server2", true, 200, true);
+        assertTrue(stalled.lock(ClusterConstants.ROUTE));
+        long staleToken = stalled.getLockToken(ClusterConstants.ROUTE);
+        assertTrue(checkLockToken(stalled, staleToken));
+        Thread.sleep(250);
+
+        assertTrue(server2.lock(ClusterConstants.ROUTE));
+        assertFalse(checkLockToken(stalled, staleToken));
+        assertTrue(checkLockToken(server2, server2.getLockToken(ClusterConstants.ROUTE)));
+        assertTrue(checkLockToken(stalled, 0));
+    }
+
+    protected boolean checkLockToken(ClusterService service, long token) {
+        ISqlTransaction transaction = platform.getSqlTemplate().startSqlTransaction();
+        try {
+            return service.checkLockToken(transaction, ClusterConstants.ROUTE, token);
+        } finally {
+            transaction.commit();
+            transaction.close();
+        }
+    }
+
+    @Test
+    public void testLeaseRenewedWhileInUse() throws Exception {
+        ClusterService server1 = createClusterService("server1", true, 300, true);
+        ClusterService server2 = createClusterService("server2", true, 300, true);
+        assertTrue(server1.lock(ClusterConstants.ROUTE));
+        Thread.sleep(700);
+        assertFalse(server2.lock(ClusterConstants.ROUTE));
+        assertTrue(server1.refreshLock(ClusterConstants.ROUTE));
+
+        server1.unlock(ClusterConstants.ROUTE);
+        long ts = System.currentTimeMillis();
+        while (!server2.lock(ClusterConstants.ROUTE) && System.currentTimeMillis() - ts < 5000) {
+            Thread.sleep(50);
+        }
+        assertEquals("server2", platform.getSqlTemplate().queryForString("select locking_server_id from sym_lock"));
+        assertEquals("server1", platform.getSqlTemplate().queryForString("select last_locking_server_id from sym_lock"));
+        assertEquals(0, server1.getLockToken(ClusterConstants.ROUTE));
+    }
+
+    @Test
+    public void testStopReleasesLease() {
+        ClusterService server1 = createClusterService("server1", true, 60000, true);
+        ClusterService server2 = createClusterService("server2", true, 60000, true);
+        assertTrue(server1.lock(ClusterConstants.ROUTE));
+        server1.unlock(ClusterConstants.ROUTE);
+        server1.stop();
+        assertNull(platform.getSqlTemplate().queryForString("select locking_server_id from sym_lock"));
+        assertTrue(server2.lock(ClusterConstants.ROUTE));
+        assertEquals(2, server2.getLockToken(ClusterConstants.ROUTE));
+    }
+
+    @Test
+    public void testLeaseDisabled() {
+        ClusterService server1 = createClusterService("server1", false, 60000, true);
+        ClusterService server2 = createClusterService("server2", false, 60000, true);
+        assertTrue(server1.lock(ClusterConstants.ROUTE));
+        assertTrue(server2.lock(ClusterConstants.ROUTE));
+        assertEquals(0, server1.getLockToken(ClusterConstants.ROUTE));
+        assertEquals(0, platform.getSqlTemplate().queryForInt("select count(*) from sym_lock"));
+    }
+
+    protected ClusterService createClusterService(String serverId, boolean leaseEnabled, long leaseMillis, final boolean renew) {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.CLUSTER_SERVER_ID, serverId);
+        properties.setProperty(ParameterConstants.CLUSTER_LOCK_LEASE_ENABLED, String.valueOf(leaseEnabled));
+        properties.setProperty(ParameterConstants.CLUSTER_LOCK_LEASE_MS, String.valueOf(leaseMillis));
+        properties.setProperty(ParameterConstants.CLUSTER_LOCK_TIMEOUT_MS, "7200000");
+        properties.setProperty(ParameterConstants.ENGINE_NAME, serverId);
+        ISymmetricDialect dialect = mock(ISymmetricDialect.class);
+        when(dialect.getPlatform()).thenReturn(platform);
+        ClusterService service = new ClusterService(new MockParameterService(properties), dialect, null, null) {
+            @Override
+            protected synchronized void startLeaseRenewer(long leaseMillis) {
+                if (renew) {
+                    super.startLeaseRenewer(leaseMillis);
+                }
+            }
+        };
+        services.add(service);
+        return service;
+    }
+}
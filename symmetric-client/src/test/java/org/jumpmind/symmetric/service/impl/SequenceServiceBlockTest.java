@@ -0,0 +1,164 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.Sequence;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs several sequence services against one embedded database, the way separate servers in a cluster share one sym_sequence table.
+ */
+public class SequenceServiceBlockTest {
+    private static final String SEQUENCE_NAME = "test_block";
+    private static IDatabasePlatform platform;
+
+    @BeforeAll
+    public static void setupDatabase() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sequenceblock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        platform.getSqlTemplate().update("create table sym_sequence (sequence_name varchar(50) not null primary key, "
+                + "current_value bigint default 0 not null, increment_by integer default 1 not null, min_value bigint default 1 not null, "
+                + "max_value bigint default 9999999999 not null, cycle_flag smallint default 0, cache_size integer default 0 not null, "
+                + "create_time timestamp, last_update_by varchar(50), last_update_time timestamp not null)");
+    }
+
+    @BeforeEach
+    public void createSequence() {
+        platform.getSqlTemplate().update("delete from sym_sequence");
+        createSequenceService(true).create(new Sequence(SEQUENCE_NAME, 0, 1, 1, 9999999999l, "test", false, 10));
+    }
+
+    @Test
+    public void testBlocksUniqueAcrossServers() throws Exception {
+        List<Long> values = nextValues(true, 4, 4, 250);
+        assertUnique(values);
+        assertEquals(4 * 4 * 250 + 4 * 4 * 25 * 4, values.size());
+    }
+
+    @Test
+    public void testDatabaseUniqueAcrossServers() throws Exception {
+        List<Long> values = nextValues(false, 3, 2, 100);
+        assertUnique(values);
+    }
+
+    @Test
+    public void testBlockKeptAfterRollback() {
+        SequenceService server1 = createSequenceService(true);
+        SequenceService server2 = createSequenceService(true);
+        ISqlTransaction transaction = platform.getSqlTemplate().startSqlTransaction();
+        long value = server1.nextVal(transaction, SEQUENCE_NAME);
+        transaction.rollback();
+        transaction.close();
+        assertEquals(1, value);
+        assertEquals(10, platform.getSqlTemplate().queryForLong("select current_value from sym_sequence where sequence_name=?", SEQUENCE_NAME));
+        assertEquals(11, server2.nextVal(SEQUENCE_NAME));
+        assertEquals(2, server1.nextVal(SEQUENCE_NAME));
+    }
+
+    @Test
+    public void testRangeLargerThanBlock() {
+        SequenceService server1 = createSequenceService(true);
+        SequenceService server2 = createSequenceService(true);
+        assertEquals(1, server1.nextVal(SEQUENCE_NAME));
+        assertEquals(2, server1.nextRange(SEQUENCE_NAME, 5));
+        assertEquals(11, server2.nextRange(SEQUENCE_NAME, 25));
+        assertEquals(7, server1.nextRange(SEQUENCE_NAME, 3));
+        assertEquals(36, server1.nextRange(SEQUENCE_NAME, 5));
+        assertEquals(10, server1.nextVal(SEQUENCE_NAME));
+        assertEquals(41, server1.nextVal(SEQUENCE_NAME));
+    }
+
+    protected List<Long> nextValues(boolean blockEnabled, int serverCount, int threadsPerServer, final int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(serverCount * threadsPerServer);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<Future<List<Long>>>();
+            for (int i = 0; i < serverCount; i++) {
+                final SequenceService service = createSequenceService(blockEnabled);
+                for (int j = 0; j < threadsPerServer; j++) {
+                    futures.add(executor.submit(new Callable<List<Long>>() {
+                        public List<Long> call() {
+                            List<Long> values = new ArrayList<Long>();
+                            for (int k = 0; k < count; k++) {
+                                values.add(service.nextVal(SEQUENCE_NAME));
+                                if (k % 10 == 0) {
+                                    long start = service.nextRange(SEQUENCE_NAME, 4);
+                                    for (int l = 0; l < 4; l++) {
+                                        values.add(start + l);
+                                    }
+                                }
+                            }
+                            return values;
+                        }
+                    }));
+                }
+            }
+            List<Long> values = new ArrayList<Long>();
+            for (Future<List<Long>> future : futures) {
+                values.addAll(future.get());
+            }
+            return values;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    protected void assertUnique(List<Long> values) {
+        Set<Long> unique = new HashSet<Long>(values);
+        assertEquals(values.size(), unique.size());
+        assertTrue(Collections.min(values) >= 1);
+    }
+
+    protected SequenceService createSequenceService(boolean blockEnabled) {
+        ISymmetricDialect dialect = mock(ISymmetricDialect.class);
+        when(dialect.getPlatform()).thenReturn(platform);
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.CLUSTER_LOCKING_ENABLED, "true");
+        properties.setProperty(ParameterConstants.CLUSTER_SEQUENCE_BLOCK_ENABLED, String.valueOf(blockEnabled));
+        properties.setProperty(ParameterConstants.SEQUENCE_TIMEOUT_MS, "30000");
+        return new SequenceService(new MockParameterService(properties), dialect);
+    }
+}
@@ -51,6 +51,8 @@ import org.jumpmind.properties.TypedProperties;
 import org.jumpmind.security.ISecurityService;
 import org.jumpmind.security.SecurityServiceFactory;
 import org.jumpmind.security.SecurityServiceFactory.SecurityServiceType;
+import org.jumpmind.symmetric.cache.CacheManager;
+import org.jumpmind.symmetric.cache.ICacheManager;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
@@ -162,6 +164,7 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
     protected IBandwidthService bandwidthService;
     protected IStatisticService statisticService;
     protected IStatisticManager statisticManager;
+    protected ICacheManager cacheManager;
     protected IConcurrentConnectionManager concurrentConnectionManager;
     protected ITransportManager transportManager;
     protected ITransportManager offlineTransportManager;
@@ -261,6 +264,7 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
         this.platform = createDatabasePlatform(properties);
         this.parameterService = new ParameterService(platform, propertiesFactory,
                 properties.get(ParameterConstants.RUNTIME_CONFIG_TABLE_PREFIX, "sym"));
+        this.cacheManager = new CacheManager(parameterService);
         boolean parameterTableExists = this.platform.readTableFromDatabase(null, null,
                 TableConstants.getTableName(properties.get(ParameterConstants.RUNTIME_CONFIG_TABLE_PREFIX), TableConstants.SYM_PARAMETER)) != null;
         if (parameterTableExists) {
@@ -290,7 +294,7 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
         this.stagingManager = createStagingManager();
         this.nodeService = new NodeService(this);
         this.configurationService = new ConfigurationService(parameterService, symmetricDialect,
-                nodeService);
+                nodeService, cacheManager);
         this.dataService = new DataService(this, extensionService);
         this.clusterService = createClusterService();
         this.statisticService = new StatisticService(parameterService, symmetricDialect);
@@ -309,6 +313,7 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
                 nodeService, configurationService, sequenceService, clusterService, extensionService);
         this.routerService = buildRouterService();
         this.nodeCommunicationService = buildNodeCommunicationService(clusterService, nodeService, parameterService, configurationService, symmetricDialect);
+        this.nodeCommunicationService.setReadyBatchIndex(outgoingBatchService.getReadyBatchIndex());
         this.incomingBatchService = new IncomingBatchService(parameterService, symmetricDialect, clusterService);
         this.initialLoadService = new InitialLoadService(this);
         this.dataExtractorService = new DataExtractorService(this);
@@ -801,6 +806,9 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
             }
             Thread.interrupted();
         }
+        if (clusterService != null) {
+            clusterService.stop();
+        }
         started = false;
         starting = false;
         isInitialized = false;
@@ -943,6 +951,7 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
     }
 
     public void clearCaches() {
+        getCacheManager().invalidateAll();
         getExtensionService().refresh();
         getTriggerRouterService().clearCache();
         getParameterService().rereadParameters();
@@ -1070,6 +1079,10 @@ abstract public class AbstractSymmetricEngine implements ISymmetricEngine {
         return statisticManager;
     }
 
+    public ICacheManager getCacheManager() {
+        return cacheManager;
+    }
+
     public ITriggerRouterService getTriggerRouterService() {
         return triggerRouterService;
     }
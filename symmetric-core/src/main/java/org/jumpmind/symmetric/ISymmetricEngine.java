@@ -28,6 +28,7 @@ import java.util.Properties;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.security.ISecurityService;
+import org.jumpmind.symmetric.cache.ICacheManager;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.extension.IProgressListener;
 import org.jumpmind.symmetric.io.stage.IStagingManager;
@@ -280,6 +281,8 @@ public interface ISymmetricEngine {
 
     public IStatisticManager getStatisticManager();
 
+    public ICacheManager getCacheManager();
+
     public String getDeploymentType();
 
     public String getDeploymentSubType();
@@ -0,0 +1,100 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.service.IParameterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * @see ICacheManager
+ */
+public class CacheManager implements ICacheManager {
+    protected static final int MAX_KEYS_TO_REFRESH = 100;
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    protected IParameterService parameterService;
+    protected Map<String, SnapshotCache<?, ?>> caches = new ConcurrentHashMap<String, SnapshotCache<?, ?>>();
+
+    public CacheManager(IParameterService parameterService) {
+        this.parameterService = parameterService;
+    }
+
+    public <K, V> SnapshotCache<K, V> createCache(String name, String timeoutParameter, ISnapshotLoader<K, V> loader) {
+        SnapshotCache<K, V> cache = new SnapshotCache<K, V>(name, timeoutParameter, loader, this);
+        caches.put(name, cache);
+        return cache;
+    }
+
+    public SnapshotCache<?, ?> getCache(String name) {
+        return caches.get(name);
+    }
+
+    public Collection<SnapshotCache<?, ?>> getCaches() {
+        return new ArrayList<SnapshotCache<?, ?>>(caches.values());
+    }
+
+    public void invalidate(String name) {
+        SnapshotCache<?, ?> cache = caches.get(name);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void refresh(String name, Collection<?> keys) {
+        SnapshotCache<Object, ?> cache = (SnapshotCache<Object, ?>) caches.get(name);
+        if (cache != null) {
+            if (keys == null || keys.size() == 0 || keys.size() > MAX_KEYS_TO_REFRESH || !cache.isKeyRefreshSupported()) {
+                cache.invalidate();
+            } else {
+                log.debug("Refreshing {} keys in the {} cache", keys.size(), name);
+                for (Object key : keys) {
+                    cache.refresh(key);
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        for (SnapshotCache<?, ?> cache : caches.values()) {
+            cache.invalidate();
+        }
+    }
+
+    public boolean isEventInvalidationEnabled() {
+        return parameterService.is(ParameterConstants.CACHE_EVENT_INVALIDATION_ENABLED);
+    }
+
+    public long getMaxAgeMs(String timeoutParameter) {
+        if (isEventInvalidationEnabled()) {
+            long maxAgeMs = parameterService.getLong(ParameterConstants.CACHE_EVENT_INVALIDATION_MAX_AGE_MS);
+            return maxAgeMs > 0 ? maxAgeMs : -1;
+        } else {
+            return parameterService.getLong(timeoutParameter);
+        }
+    }
+}
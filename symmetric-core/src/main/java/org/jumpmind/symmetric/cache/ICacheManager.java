@@ -0,0 +1,62 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.cache;
+
+import java.util.Collection;
+
+/**
+ * Holds the configuration caches for an engine so they can be invalidated when the underlying configuration tables change and so their
+ * hit and miss counts can be reported in one place.
+ */
+public interface ICacheManager {
+    public static final String CACHE_NODE = "node";
+    public static final String CACHE_NODE_SECURITY = "node.security";
+    public static final String CACHE_CHANNEL = "channel";
+    public static final String CACHE_TRIGGER = "trigger";
+    public static final String CACHE_ROUTER = "router";
+
+    /**
+     * Create and register a cache. The timeout parameter is the cache.*.time.ms parameter that controls how long the snapshot lives
+     * when event invalidation is turned off.
+     */
+    public <K, V> SnapshotCache<K, V> createCache(String name, String timeoutParameter, ISnapshotLoader<K, V> loader);
+
+    public SnapshotCache<?, ?> getCache(String name);
+
+    public Collection<SnapshotCache<?, ?>> getCaches();
+
+    public void invalidate(String name);
+
+    /**
+     * Refresh only the given keys. Falls back to invalidating the whole cache when the loader can't load single keys or there are too
+     * many keys for it to be worth it.
+     */
+    public void refresh(String name, Collection<?> keys);
+
+    public void invalidateAll();
+
+    public boolean isEventInvalidationEnabled();
+
+    /**
+     * @return the maximum age in milliseconds of a snapshot before it is reloaded, or a negative number if it never expires
+     */
+    public long getMaxAgeMs(String timeoutParameter);
+}
@@ -0,0 +1,195 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A map of configuration that is read far more often than it changes. Readers get an immutable snapshot without locking. Loads are
+ * done by one thread at a time so that an expired or invalidated cache causes one query instead of one per caller. Entries can be
+ * refreshed one key at a time when the loader supports it.
+ */
+public class SnapshotCache<K, V> {
+    private final String name;
+    private final String timeoutParameter;
+    private final ISnapshotLoader<K, V> loader;
+    private final ICacheManager cacheManager;
+    private final Object loadLock = new Object();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong keyRefreshes = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile Map<K, V> snapshot;
+    private volatile long loadTime;
+
+    public SnapshotCache(String name, String timeoutParameter, ISnapshotLoader<K, V> loader, ICacheManager cacheManager) {
+        this.name = name;
+        this.timeoutParameter = timeoutParameter;
+        this.loader = loader;
+        this.cacheManager = cacheManager;
+    }
+
+    public V get(K key) {
+        return getAll().get(key);
+    }
+
+    /**
+     * @return the current snapshot, loading it first if it is missing or expired
+     */
+    public Map<K, V> getAll() {
+        Map<K, V> current = snapshot;
+        if (current == null || isExpired()) {
+            synchronized (loadLock) {
+                current = snapshot;
+                if (current == null || isExpired()) {
+                    misses.incrementAndGet();
+                    return load();
+                }
+            }
+        }
+        hits.incrementAndGet();
+        return current;
+    }
+
+    /**
+     * @return the value from the current snapshot without loading or counting a hit
+     */
+    public V getIfPresent(K key) {
+        Map<K, V> current = snapshot;
+        return current != null ? current.get(key) : null;
+    }
+
+    /**
+     * Load a new snapshot now, regardless of the age of the current one.
+     */
+    public Map<K, V> reload() {
+        synchronized (loadLock) {
+            misses.incrementAndGet();
+            return load();
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshot = null;
+        invalidations.incrementAndGet();
+    }
+
+    /**
+     * Reload a single key into a copy of the current snapshot. If nothing is loaded yet there is nothing to do, and if the loader can
+     * only load everything the cache is invalidated instead.
+     */
+    @SuppressWarnings("unchecked")
+    public void refresh(K key) {
+        if (!(loader instanceof IKeySnapshotLoader)) {
+            invalidate();
+            return;
+        }
+        synchronized (loadLock) {
+            Map<K, V> current = snapshot;
+            if (current != null) {
+                long expectedVersion = version.get();
+                V value = ((IKeySnapshotLoader<K, V>) loader).load(key);
+                if (version.get() == expectedVersion) {
+                    Map<K, V> copy = new HashMap<K, V>(current);
+                    if (value != null) {
+                        copy.put(key, value);
+                    } else {
+                        copy.remove(key);
+                    }
+                    snapshot = Collections.unmodifiableMap(copy);
+                    keyRefreshes.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public boolean isKeyRefreshSupported() {
+        return loader instanceof IKeySnapshotLoader;
+    }
+
+    protected Map<K, V> load() {
+        long expectedVersion = version.get();
+        Map<K, V> loaded = loader.loadAll();
+        Map<K, V> newSnapshot = Collections.unmodifiableMap(loaded != null ? new HashMap<K, V>(loaded) : new HashMap<K, V>());
+        loads.incrementAndGet();
+        if (version.get() == expectedVersion) {
+            snapshot = newSnapshot;
+            loadTime = System.currentTimeMillis();
+        }
+        return newSnapshot;
+    }
+
+    protected boolean isExpired() {
+        long maxAgeMs = cacheManager.getMaxAgeMs(timeoutParameter);
+        return maxAgeMs >= 0 && System.currentTimeMillis() - loadTime >= maxAgeMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        Map<K, V> current = snapshot;
+        return current != null ? current.size() : 0;
+    }
+
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    public long getKeyRefreshCount() {
+        return keyRefreshes.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total > 0 ? (double) hitCount / total : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[size=%d, hits=%d, misses=%d, loads=%d, keyRefreshes=%d, invalidations=%d]", name, getSize(),
+                getHitCount(), getMissCount(), getLoadCount(), getKeyRefreshCount(), getInvalidationCount());
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.cache.ICacheManager;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
 import org.jumpmind.symmetric.job.IJobManager;
@@ -59,6 +60,8 @@ public class ConfigurationChangedHelper {
     private static final String CTX_KEY_RESYNC_ALLOWED = "ResyncAllowed." + SUFFIX;
     private static final String CTX_KEY_CHANGED_TRIGGER_IDS = "ChangedTriggerIds." + SUFFIX;
     private static final String CTX_KEY_CHANGED_JOB_IDS = "ChangedJobIds." + SUFFIX;
+    private static final String CTX_KEY_CHANGED_NODE_IDS = "ChangedNodeIds." + SUFFIX;
+    private static final String CTX_KEY_CHANGED_NODE_SECURITY_IDS = "ChangedNodeSecurityIds." + SUFFIX;
     private static final String CTX_KEY_RESTART_JOB_MANAGER_NEEDED = "RestartJobManager." + SUFFIX;
     private static final String CTX_KEY_FILE_SYNC_NEEDED = "FileSyncEnable." + SUFFIX;
     private static final String CTX_KEY_CLUSTER_NEEDED = "ClusterEnable." + SUFFIX;
@@ -73,6 +76,11 @@ public class ConfigurationChangedHelper {
     public void handleChange(Context context, Table table, CsvData data) {
         updateContext(TableConstants.SYM_NODE, table, context, CTX_KEY_FLUSH_NODES_NEEDED);
         updateContext(TableConstants.SYM_NODE_SECURITY, table, context, CTX_KEY_FLUSH_NODE_SECURITY_NEEDED);
+        if (matchesTable(table, TableConstants.SYM_NODE)) {
+            getHashSet(context, CTX_KEY_CHANGED_NODE_IDS).add(getColumnValue(table, data, "node_id"));
+        } else if (matchesTable(table, TableConstants.SYM_NODE_SECURITY)) {
+            getHashSet(context, CTX_KEY_CHANGED_NODE_SECURITY_IDS).add(getColumnValue(table, data, "node_id"));
+        }
         if (context.get(Constants.DATA_CONTEXT_TARGET_NODE) == null && StringUtils.isNotBlank(data.getAttribute(CsvData.ATTRIBUTE_SOURCE_NODE_ID))) {
             return;
         }
@@ -141,7 +149,7 @@ public class ConfigurationChangedHelper {
         }
         if (context.remove(CTX_KEY_FLUSH_NODES_NEEDED) != null) {
             log.info("Clearing cache for nodes");
-            engine.getNodeService().flushNodeCache();
+            refreshCache(context, CTX_KEY_CHANGED_NODE_IDS, ICacheManager.CACHE_NODE);
             engine.getNodeService().flushNodeGroupCache();
         }
         if (context.remove(CTX_KEY_FLUSH_NODE_GROUP_LINKS_NEEDED) != null) {
@@ -151,7 +159,7 @@ public class ConfigurationChangedHelper {
         }
         if (context.remove(CTX_KEY_FLUSH_NODE_SECURITY_NEEDED) != null) {
             log.info("Clearing cache for node security");
-            engine.getNodeService().flushNodeAuthorizedCache();
+            refreshCache(context, CTX_KEY_CHANGED_NODE_SECURITY_IDS, ICacheManager.CACHE_NODE_SECURITY);
         }
         if (context.remove(CTX_KEY_FLUSH_NOTIFICATIONS_NEEDED) != null) {
             log.info("Clearing cache for notifications");
@@ -198,6 +206,16 @@ public class ConfigurationChangedHelper {
         contextComplete(context);
     }
 
+    private void refreshCache(Context context, String changedKeysName, String cacheName) {
+        @SuppressWarnings("unchecked")
+        Set<String> keys = (Set<String>) context.remove(changedKeysName);
+        if (keys == null || keys.contains(null)) {
+            engine.getCacheManager().invalidate(cacheName);
+        } else {
+            engine.getCacheManager().refresh(cacheName, keys);
+        }
+    }
+
     private void syncTriggers(Context context) {
         @SuppressWarnings("unchecked")
         Set<String> triggerIds = (Set<String>) context.remove(CTX_KEY_CHANGED_TRIGGER_IDS);
@@ -297,7 +315,7 @@ public class ConfigurationChangedHelper {
             values = data.getParsedData(CsvData.PK_DATA);
         }
         int index = table.getColumnIndex(name);
-        if (values != null && index < values.length) {
+        if (values != null && index >= 0 && index < values.length) {
             return values[index];
         }
         return null;
@@ -46,6 +46,7 @@ final public class ParameterConstants {
     public final static String JDBC_EXECUTE_BULK_BATCH_SIZE = "db.jdbc.bulk.execute.batch.size";
     public final static String JDBC_EXECUTE_BULK_BATCH_OVERRIDE = "db.jdbc.bulk.execute.batch.override";
     public final static String JDBC_READ_STRINGS_AS_BYTES = "db.read.strings.as.bytes";
+    public final static String JDBC_READ_ARRAY_ROWS = "db.read.array.rows";
     public final static String JDBC_ISOLATION_LEVEL = "db.jdbc.isolation.level";
     public final static String DB_AWS_ACTIVE_KEY = "target.db.aws.active.key";
     public final static String DB_AWS_SECRET_KEY = "target.db.aws.secret.key";
@@ -161,6 +162,7 @@ final public class ParameterConstants {
     public final static String EXTRACT_CHECK_ROW_SIZE = "extract.check.row.size";
     public final static String EXTRACT_ROW_MAX_LENGTH = "extract.row.max.length";
     public final static String EXTRACT_ROW_CAPTURE_TIME = "extract.row.capture.time";
+    public final static String EXTRACT_LOB_FETCH_SIZE = "extract.lob.fetch.size";
     public final static String CREATE_TABLE_WITHOUT_DEFAULTS = "create.table.without.defaults";
     public final static String CREATE_TABLE_WITHOUT_FOREIGN_KEYS = "create.table.without.foreign.keys";
     public final static String CREATE_TABLE_WITHOUT_INDEXES = "create.table.without.indexes";
@@ -178,6 +180,7 @@ final public class ParameterConstants {
     public final static String OUTGOING_BATCH_COPY_TO_INCOMING_STAGING = "outgoing.batches.copy.to.incoming.staging";
     public final static String ROUTING_FLUSH_JDBC_BATCH_SIZE = "routing.flush.jdbc.batch.size";
     public final static String ROUTING_FLUSH_BATCHES_JDBC_BATCH_SIZE = "routing.flush.batches.jdbc.batch.size";
+    public final static String ROUTING_INSERT_ROWS_PER_STATEMENT = "routing.insert.rows.per.statement";
     public final static String ROUTING_WAIT_FOR_DATA_TIMEOUT_SECONDS = "routing.wait.for.data.timeout.seconds";
     public final static String ROUTING_MAX_GAPS_TO_QUALIFY_IN_SQL = "routing.max.gaps.to.qualify.in.sql";
     public final static String ROUTING_PEEK_AHEAD_MEMORY_THRESHOLD = "routing.peek.ahead.memory.threshold.percent";
@@ -211,6 +214,7 @@ final public class ParameterConstants {
     public final static String DATA_LOADER_SEND_ACK_KEEPALIVE = "send.ack.keepalive.ms";
     public final static String DATA_LOADER_TIME_BETWEEN_ACK_RETRIES = "time.between.ack.retries.ms";
     public final static String DATA_LOADER_MAX_ROWS_BEFORE_COMMIT = "dataloader.max.rows.before.commit";
+    public final static String DATA_LOADER_CONFLICT_PREFETCH_WINDOW_SIZE = "dataloader.conflict.prefetch.window.size";
     public final static String DATA_LOADER_CREATE_TABLE_ALTER_TO_MATCH_DB_CASE = "dataloader.create.table.alter.to.match.db.case";
     public final static String DATA_LOADER_TEXT_COLUMN_EXPRESSION = "dataloader.text.column.expression";
     public final static String DATA_LOADER_SLEEP_TIME_AFTER_EARLY_COMMIT = "dataloader.sleep.time.after.early.commit";
@@ -220,6 +224,9 @@ final public class ParameterConstants {
     public final static String DATA_EXTRACTOR_ENABLED = "dataextractor.enable";
     public final static String DATA_EXTRACTOR_TEXT_COLUMN_EXPRESSION = "dataextractor.text.column.expression";
     public final static String OUTGOING_BATCH_MAX_BATCHES_TO_SELECT = "outgoing.batches.max.to.select";
+    public final static String OUTGOING_BATCH_READY_INDEX_ENABLED = "outgoing.batches.ready.index.enabled";
+    public final static String OUTGOING_BATCH_READY_INDEX_IDLE_MAX_MS = "outgoing.batches.ready.index.idle.max.ms";
+    public final static String PULL_LONG_POLL_TIMEOUT_MS = "pull.long.poll.timeout.ms";
     public final static String DBDIALECT_ORACLE_USE_TRANSACTION_VIEW = "oracle.use.transaction.view";
     public final static String DBDIALECT_ORACLE_TEMPLATE_NUMBER_SPEC = "oracle.template.precision";
     public final static String DBDIALECT_ORACLE_TEMPLATE_NUMBER_TEXT_MINIMUM = "oracle.template.precision.text.minimum";
@@ -276,6 +283,8 @@ final public class ParameterConstants {
     public final static String CACHE_TIMEOUT_NOTIFICATION_IN_MS = "cache.notification.time.ms";
     public final static String CACHE_CHANNEL_COMMON_BATCHES_IN_MS = "cache.channel.common.batches.time.ms";
     public final static String CACHE_CHANNEL_DEFAULT_ROUTER_IN_MS = "cache.channel.default.router.time.ms";
+    public final static String CACHE_EVENT_INVALIDATION_ENABLED = "cache.event.invalidation.enabled";
+    public final static String CACHE_EVENT_INVALIDATION_MAX_AGE_MS = "cache.event.invalidation.max.age.ms";
     public final static String TRIGGER_UPDATE_CAPTURE_CHANGED_DATA_ONLY = "trigger.update.capture.changed.data.only.enabled";
     public final static String TRIGGER_CREATE_BEFORE_INITIAL_LOAD = "trigger.create.before.initial.load.enabled";
     public final static String TRIGGER_CAPTURE_DDL_CHANGES = "trigger.capture.ddl.changes";
@@ -297,6 +306,9 @@ final public class ParameterConstants {
     public final static String CLUSTER_STAGING_ENABLED = "cluster.staging.enabled";
     public final static String CLUSTER_LOCK_TIMEOUT_MS = "cluster.lock.timeout.ms";
     public final static String CLUSTER_LOCK_REFRESH_MS = "cluster.lock.refresh.ms";
+    public final static String CLUSTER_LOCK_LEASE_ENABLED = "cluster.lock.lease.enabled";
+    public final static String CLUSTER_LOCK_LEASE_MS = "cluster.lock.lease.ms";
+    public final static String CLUSTER_SEQUENCE_BLOCK_ENABLED = "cluster.sequence.block.enabled";
     public final static String LOCK_TIMEOUT_MS = "lock.timeout.ms";
     public final static String LOCK_WAIT_RETRY_MILLIS = "lock.wait.retry.ms";
     public final static String PURGE_LOG_SUMMARY_MINUTES = "purge.log.summary.retention.minutes";
@@ -331,6 +343,9 @@ final public class ParameterConstants {
     public final static String HEARTBEAT_ENABLED = "heartbeat.sync.on.push.enabled";
     public final static String STATISTIC_RECORD_ENABLE = "statistic.record.enable";
     public final static String STATISTIC_RECORD_COUNT_THRESHOLD = "statistic.record.count.threshold";
+    public final static String METRICS_ENABLED = "metrics.enabled";
+    public final static String METRICS_BY_NODE = "metrics.by.node";
+    public final static String METRICS_MAX_SERIES = "metrics.max.series";
     public final static String CURRENT_ACTIVITY_HISTORY_KEEP_COUNT = "statistic.activity.history.keep.count";
     public final static String STORES_UPPERCASE_NAMES_IN_CATALOG = "stores.uppercase.names.in.catalog";
     public final static String DB_MASTER_COLLATION = "db.master.collation";
@@ -345,15 +360,27 @@ final public class ParameterConstants {
     public final static String FILE_SYNC_LOCK_WAIT_MS = "file.sync.lock.wait.ms";
     public final static String FILE_SYNC_DELETE_CTL_FILE_AFTER_SYNC = "file.sync.delete.ctl.file.after.sync";
     public final static String FILE_SYNC_USE_CTL_AS_FILE_EXT = "file.sync.use.ctl.as.file.ext";
+    public final static String FILE_SYNC_DELTA_ENABLED = "file.sync.delta.enabled";
+    public final static String FILE_SYNC_DELTA_BLOCK_SIZE = "file.sync.delta.block.size";
+    public final static String FILE_SYNC_COMPRESSION_THREAD_COUNT = "file.sync.compression.thread.count";
+    public final static String FILE_SYNC_COMPRESSION_LEVEL = "file.sync.compression.level";
+    public final static String FILE_SYNC_COMPRESSION_SKIP_EXTENSIONS = "file.sync.compression.skip.extensions";
     public final static String BSH_LOAD_FILTER_HANDLES_MISSING_TABLES = "bsh.load.filter.handles.missing.tables";
     public final static String BSH_TRANSFORM_GLOBAL_SCRIPT = "bsh.transform.global.script";
     public final static String BSH_EXTENSION_GLOBAL_SCRIPT = "bsh.extension.global.script";
+    public final static String BSH_COMPILE_ENABLED = "bsh.compile.enabled";
+    public final static String TRANSFORM_LOOKUP_CACHE_MAX_SIZE = "transform.lookup.cache.max.size";
+    public final static String TRANSFORM_LOOKUP_CACHE_TTL_MS = "transform.lookup.cache.ttl.ms";
+    public final static String TRANSFORM_LOOKUP_PREFETCH_MAX_ROWS = "transform.lookup.prefetch.max.rows";
     public final static String MSSQL_ROW_LEVEL_LOCKS_ONLY = "mssql.allow.only.row.level.locks.on.runtime.tables";
     public final static String MSSQL_USE_NTYPES_FOR_SYNC = "mssql.use.ntypes.for.sync";
     public final static String MSSQL_LOCK_ESCALATION_DISABLED = "mssql.lock.escalation.disabled";
     public final static String MSSQL_INCLUDE_CATALOG_IN_TRIGGERS = "mssql.include.catalog.in.triggers";
     public final static String MSSQL_TRIGGER_EXECUTE_AS = "mssql.trigger.execute.as";
     public final static String MSSQL_TRIGGER_ORDER_FIRST = "mssql.trigger.order.first";
+    public final static String POSTGRES_BULK_LOAD_MAX_ROWS_BEFORE_FLUSH = "postgres.bulk.load.max.rows.before.flush";
+    public final static String H2_BULK_LOAD_MAX_ROWS_PER_INSERT = "h2.bulk.load.max.rows.per.insert";
+    public final static String SQLITE_BULK_LOAD_MAX_ROWS_PER_INSERT = "sqlite.bulk.load.max.rows.per.insert";
     public final static String MSSQL_BULK_LOAD_MAX_ROWS_BEFORE_FLUSH = "mssql.bulk.load.max.rows.before.flush";
     public final static String MSSQL_BULK_LOAD_FIRE_TRIGGERS = "mssql.bulk.load.fire.triggers";
     public final static String MSSQL_BULK_LOAD_UNC_PATH = "mssql.bulk.load.unc.path";
@@ -369,6 +396,7 @@ final public class ParameterConstants {
     public final static String LOG_SQL_PARAMETERS_INLINE = "log.sql.parameters.inline";
     public final static String SYNC_TRIGGERS_THREAD_COUNT_PER_SERVER = "sync.triggers.thread.count.per.server";
     public final static String SYNC_TRIGGERS_TIMEOUT_IN_SECONDS = "sync.triggers.timeout.in.seconds";
+    public final static String SYNC_TRIGGERS_PREFETCH_METADATA = "sync.triggers.prefetch.metadata";
     public static final String SMTP_HOST = "smtp.host";
     public static final String SMTP_TRANSPORT = "smtp.transport";
     public static final String SMTP_PORT = "smtp.port";
@@ -379,6 +407,7 @@ final public class ParameterConstants {
     public static final String SMTP_USE_AUTH = "smtp.auth";
     public static final String SMTP_ALLOW_UNTRUSTED_CERT = "smtp.allow.untrusted.cert";
     public final static String MONITOR_EVENTS_CAPTURE_ENABLED = "monitor.events.capture.enabled";
+    public final static String MONITOR_THREAD_COUNT_PER_SERVER = "monitor.thread.per.server.count";
     public final static String HYBRID_PUSH_PULL_ENABLED = "hybrid.push.pull.enabled";
     public final static String HYBRID_PUSH_PULL_TIMEOUT = "hybrid.push.pull.timeout.ms";
     public final static String HYBRID_PUSH_PULL_BUFFER_STATUS_UPDATES = "hybrid.push.pull.buffer.status.updates";
@@ -0,0 +1,197 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.ISqlTransactionListener;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.NodeGroupLinkAction;
+import org.jumpmind.symmetric.service.IParameterService;
+
+/**
+ * In-memory index of the nodes that are known to have no outgoing batches ready to send. When a query for outgoing batches comes back empty, the node
+ * and query are marked idle so that the next request can be answered without going to the database. Any write to a node's outgoing batches marks it as
+ * ready again. Writes made outside of this engine (another cluster member or a manual update) are picked up once an idle entry expires.
+ */
+public class ReadyBatchIndex {
+    protected IParameterService parameterService;
+    private ConcurrentHashMap<String, NodeState> nodeStates = new ConcurrentHashMap<String, NodeState>();
+    private Map<ISqlTransaction, PendingReadyListener> pendingByTransaction = Collections
+            .synchronizedMap(new WeakHashMap<ISqlTransaction, PendingReadyListener>());
+
+    public ReadyBatchIndex(IParameterService parameterService) {
+        this.parameterService = parameterService;
+    }
+
+    public boolean isEnabled() {
+        return parameterService.is(ParameterConstants.OUTGOING_BATCH_READY_INDEX_ENABLED, false);
+    }
+
+    public static String getKey(String queue, NodeGroupLinkAction eventAction, NodeGroupLinkAction defaultEventAction) {
+        StringBuilder key = new StringBuilder(queue == null ? "" : queue);
+        if (eventAction != null) {
+            key.append("-").append(eventAction.name());
+            if (eventAction.equals(defaultEventAction)) {
+                key.append("-default");
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns a counter that changes each time the node is marked as ready. Read it before querying for batches and pass it to
+     * {@link #markIdle(String, String, long)} so that a batch committed while the query ran is not lost.
+     */
+    public long getGeneration(String nodeId) {
+        return getNodeState(nodeId).getGeneration();
+    }
+
+    public boolean isIdle(String nodeId, String key) {
+        if (isEnabled()) {
+            NodeState state = nodeStates.get(nodeId);
+            return state != null && state.isIdle(key, getIdleMaxMillis());
+        }
+        return false;
+    }
+
+    public void markIdle(String nodeId, String key, long generation) {
+        if (isEnabled()) {
+            getNodeState(nodeId).markIdle(key, generation);
+        }
+    }
+
+    public void markReady(String nodeId) {
+        if (nodeId != null) {
+            getNodeState(nodeId).markReady();
+        }
+    }
+
+    /**
+     * Mark the node as ready now and again when the transaction commits, so a reader that queried before the commit does not leave the node idle.
+     */
+    public void markReady(ISqlTransaction transaction, String nodeId) {
+        markReady(nodeId);
+        if (nodeId != null && transaction != null) {
+            PendingReadyListener listener = null;
+            synchronized (pendingByTransaction) {
+                listener = pendingByTransaction.get(transaction);
+                if (listener == null) {
+                    listener = new PendingReadyListener();
+                    pendingByTransaction.put(transaction, listener);
+                    transaction.addSqlTransactionListener(listener);
+                }
+            }
+            listener.add(nodeId);
+        }
+    }
+
+    /**
+     * Wait until the node is marked ready after the given generation was read.
+     * 
+     * @return true if the node was marked ready, false if the timeout passed first
+     */
+    public boolean awaitReady(String nodeId, long generation, long timeoutMillis) throws InterruptedException {
+        return getNodeState(nodeId).awaitReady(generation, timeoutMillis);
+    }
+
+    protected long getIdleMaxMillis() {
+        return parameterService.getLong(ParameterConstants.OUTGOING_BATCH_READY_INDEX_IDLE_MAX_MS, 60000);
+    }
+
+    protected NodeState getNodeState(String nodeId) {
+        return nodeStates.computeIfAbsent(nodeId, k -> new NodeState());
+    }
+
+    static class NodeState {
+        private long generation;
+        private Map<String, Long> idleSince = new HashMap<String, Long>();
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        synchronized boolean isIdle(String key, long idleMaxMillis) {
+            Long since = idleSince.get(key);
+            if (since != null) {
+                if (System.currentTimeMillis() - since < idleMaxMillis) {
+                    return true;
+                }
+                idleSince.remove(key);
+            }
+            return false;
+        }
+
+        synchronized void markIdle(String key, long generationBeforeQuery) {
+            if (generation == generationBeforeQuery) {
+                idleSince.put(key, System.currentTimeMillis());
+            }
+        }
+
+        synchronized void markReady() {
+            generation++;
+            idleSince.clear();
+            notifyAll();
+        }
+
+        synchronized boolean awaitReady(long generationBeforeQuery, long timeoutMillis) throws InterruptedException {
+            long waitUntil = System.currentTimeMillis() + timeoutMillis;
+            long remaining = timeoutMillis;
+            while (generation == generationBeforeQuery && remaining > 0) {
+                wait(remaining);
+                remaining = waitUntil - System.currentTimeMillis();
+            }
+            return generation != generationBeforeQuery;
+        }
+    }
+
+    class PendingReadyListener implements ISqlTransactionListener {
+        private Set<String> nodeIds = new HashSet<String>();
+
+        synchronized void add(String nodeId) {
+            nodeIds.add(nodeId);
+        }
+
+        @Override
+        public void transactionCommitted() {
+            Set<String> committed = null;
+            synchronized (this) {
+                committed = nodeIds;
+                nodeIds = new HashSet<String>();
+            }
+            for (String nodeId : committed) {
+                markReady(nodeId);
+            }
+        }
+
+        @Override
+        public synchronized void transactionRolledBack() {
+            nodeIds.clear();
+        }
+    }
+}
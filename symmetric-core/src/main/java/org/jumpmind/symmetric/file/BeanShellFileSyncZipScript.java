@@ -94,6 +94,12 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
                     }
                     command.append(" + sourceFileName");
                     command.append(");\n");
+                    command.append("  java.io.File deltaFile = new java.io.File(batchDir + \"/").append(DELTA_DIR).append("/\"");
+                    if (!snapshot.getRelativeDir().equals(".")) {
+                        command.append(" + sourceFilePath + \"/\"");
+                    }
+                    command.append(" + sourceFileName");
+                    command.append(");\n");
                     command.append("  java.io.File targetFile = new java.io.File(");
                     command.append(targetFile);
                     command.append(");\n");
@@ -125,7 +131,9 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
                         }
                     }
                     command.append("  if (processFile) {\n");
-                    command.append("    if (sourceFile.isDirectory()) {\n");
+                    command.append("    if (deltaFile.exists()) {\n");
+                    command.append("      org.jumpmind.symmetric.file.FileSyncDelta.applyDelta(deltaFile, targetFile);\n");
+                    command.append("    } else if (sourceFile.isDirectory()) {\n");
                     command.append("      org.apache.commons.io.FileUtils.copyDirectory(sourceFile, targetFile, true);\n");
                     command.append("    } else {\n");
                     command.append("      org.apache.commons.io.FileUtils.copyFile(sourceFile, targetFile, true);\n");
@@ -159,4 +167,9 @@ public class BeanShellFileSyncZipScript extends FileSyncZipScript {
     public void buildScriptEnd(Batch batch) {
         getScript().append("return fileList;\n");
     }
+
+    @Override
+    public boolean isDeltaSupported() {
+        return true;
+    }
 }
@@ -0,0 +1,271 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.jumpmind.exception.IoException;
+
+/**
+ * Block signatures for the content of a synced file. Each block has a weak checksum that can be rolled a byte at a time across new
+ * content and an MD5 digest that confirms a match, so the next change to the file can be sent as the blocks that changed.
+ */
+public class FileSignature {
+    protected static final int MAGIC = 0x53594d53;
+    protected static final int VERSION = 1;
+    protected static final int STRONG_CHECKSUM_LENGTH = 16;
+    protected int blockSize;
+    protected long length;
+    protected long crc32Checksum;
+    protected int[] weakChecksums;
+    protected byte[][] strongChecksums;
+
+    public FileSignature(int blockSize, long length, long crc32Checksum, int[] weakChecksums, byte[][] strongChecksums) {
+        this.blockSize = blockSize;
+        this.length = length;
+        this.crc32Checksum = crc32Checksum;
+        this.weakChecksums = weakChecksums;
+        this.strongChecksums = strongChecksums;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public long getCrc32Checksum() {
+        return crc32Checksum;
+    }
+
+    public int getBlockCount() {
+        return weakChecksums.length;
+    }
+
+    public int getWeakChecksum(int block) {
+        return weakChecksums[block];
+    }
+
+    public byte[] getStrongChecksum(int block) {
+        return strongChecksums[block];
+    }
+
+    public int getBlockLength(int block) {
+        return block < weakChecksums.length - 1 ? blockSize : (int) (length - (long) block * blockSize);
+    }
+
+    public static FileSignature create(File file, int blockSize) {
+        Generator generator = new Generator(blockSize);
+        try (FileInputStream is = new FileInputStream(file)) {
+            byte[] buffer = new byte[Math.max(blockSize, 8192)];
+            int count = 0;
+            while ((count = is.read(buffer)) >= 0) {
+                generator.write(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+        return generator.getSignature();
+    }
+
+    public static FileSignature read(File file) {
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (is.readInt() != MAGIC || is.readInt() != VERSION) {
+                throw new IoException("The file signature %s is not in a recognized format", file.getAbsolutePath());
+            }
+            int blockSize = is.readInt();
+            long length = is.readLong();
+            long crc32Checksum = is.readLong();
+            int blockCount = is.readInt();
+            int[] weakChecksums = new int[blockCount];
+            byte[][] strongChecksums = new byte[blockCount][];
+            for (int i = 0; i < blockCount; i++) {
+                weakChecksums[i] = is.readInt();
+                strongChecksums[i] = new byte[STRONG_CHECKSUM_LENGTH];
+                is.readFully(strongChecksums[i]);
+            }
+            return new FileSignature(blockSize, length, crc32Checksum, weakChecksums, strongChecksums);
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * Write the signature to a temporary file next to the given file and move it into place, so a reader never sees a partial
+     * signature.
+     */
+    public void write(File file) {
+        file.getParentFile().mkdirs();
+        File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                os.writeInt(MAGIC);
+                os.writeInt(VERSION);
+                os.writeInt(blockSize);
+                os.writeLong(length);
+                os.writeLong(crc32Checksum);
+                os.writeInt(weakChecksums.length);
+                for (int i = 0; i < weakChecksums.length; i++) {
+                    os.writeInt(weakChecksums[i]);
+                    os.write(strongChecksums[i]);
+                }
+            }
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            tmpFile.delete();
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * The rsync weak checksum of a block. The low 16 bits are the sum of the bytes and the high 16 bits are the sum of the bytes
+     * weighted by their distance from the end of the block, which lets the checksum be rolled forward one byte at a time.
+     */
+    public static int weakChecksum(byte[] buffer, int offset, int length) {
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < length; i++) {
+            int value = buffer[offset + i] & 0xff;
+            a += value;
+            b += (length - i) * value;
+        }
+        return weakChecksum(a, b);
+    }
+
+    protected static int weakChecksum(int a, int b) {
+        return ((b & 0xffff) << 16) | (a & 0xffff);
+    }
+
+    protected static MessageDigest newStrongDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds the signature of the bytes written to it, so a signature can be taken while the content is being copied elsewhere.
+     */
+    public static class Generator extends OutputStream {
+        protected int blockSize;
+        protected byte[] block;
+        protected int blockLength;
+        protected long length;
+        protected CRC32 crc32 = new CRC32();
+        protected MessageDigest digest = newStrongDigest();
+        protected List<Integer> weakChecksums = new ArrayList<Integer>();
+        protected List<byte[]> strongChecksums = new ArrayList<byte[]>();
+        protected FileSignature signature;
+
+        public Generator(int blockSize) {
+            this.blockSize = blockSize;
+            this.block = new byte[blockSize];
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int count) {
+            crc32.update(buffer, offset, count);
+            length += count;
+            while (count > 0) {
+                int copied = Math.min(count, blockSize - blockLength);
+                System.arraycopy(buffer, offset, block, blockLength, copied);
+                blockLength += copied;
+                offset += copied;
+                count -= copied;
+                if (blockLength == blockSize) {
+                    addBlock();
+                }
+            }
+        }
+
+        protected void addBlock() {
+            weakChecksums.add(weakChecksum(block, 0, blockLength));
+            digest.update(block, 0, blockLength);
+            strongChecksums.add(digest.digest());
+            blockLength = 0;
+        }
+
+        public FileSignature getSignature() {
+            if (signature == null) {
+                if (blockLength > 0) {
+                    addBlock();
+                }
+                int[] weak = new int[weakChecksums.size()];
+                for (int i = 0; i < weak.length; i++) {
+                    weak[i] = weakChecksums.get(i);
+                }
+                signature = new FileSignature(blockSize, length, crc32.getValue(), weak,
+                        strongChecksums.toArray(new byte[strongChecksums.size()][]));
+            }
+            return signature;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileSignature [blockSize=" + blockSize + ", length=" + length + ", crc32Checksum=" + crc32Checksum + ", blocks="
+                + weakChecksums.length + "]";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof FileSignature)) {
+            return false;
+        }
+        FileSignature other = (FileSignature) obj;
+        return blockSize == other.blockSize && length == other.length && crc32Checksum == other.crc32Checksum
+                && Arrays.equals(weakChecksums, other.weakChecksums) && Arrays.deepEquals(strongChecksums, other.strongChecksums);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weakChecksums);
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.exception.IoException;
+
+/**
+ * Creates and applies the delta of a file against the {@link FileSignature} of its previous content. A delta is a recipe of
+ * instructions that either copy a run of blocks from the previous content or insert literal bytes, followed by the length and CRC32
+ * of the new content so the rebuilt file can be verified before it replaces the old one.
+ */
+final public class FileSyncDelta {
+    protected static final int MAGIC = 0x53594d44;
+    protected static final int VERSION = 1;
+    protected static final byte END = 0;
+    protected static final byte COPY = 1;
+    protected static final byte DATA = 2;
+
+    private FileSyncDelta() {
+    }
+
+    /**
+     * Write the delta of a file against the signature of its previous content.
+     * 
+     * @param file
+     *            the new content
+     * @param basis
+     *            the signature of the content the target already has
+     * @param out
+     *            where the delta is written
+     * @param generator
+     *            receives the new content as it is read so its signature can be saved for the next delta, or null
+     */
+    public static void createDelta(File file, FileSignature basis, OutputStream out, FileSignature.Generator generator) {
+        try (InputStream is = new FileInputStream(file)) {
+            DataOutputStream os = new DataOutputStream(new BufferedOutputStream(out));
+            os.writeInt(MAGIC);
+            os.writeInt(VERSION);
+            os.writeInt(basis.getBlockSize());
+            os.writeLong(basis.getLength());
+            os.writeLong(basis.getCrc32Checksum());
+            new DeltaBuilder(basis, is, os, generator).build();
+            os.flush();
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * Rebuild a file from the delta and its current content. The new content is written to a temporary file in the same directory,
+     * verified and then moved over the target file, so the target is never left partially written.
+     * 
+     * @throws FileConflictException
+     *             if the target file is not the content the delta was created against
+     */
+    public static void applyDelta(File deltaFile, File targetFile) {
+        File tmpFile = new File(targetFile.getParentFile(), "." + targetFile.getName() + ".delta.tmp");
+        try (DataInputStream is = new DataInputStream(new BufferedInputStream(new FileInputStream(deltaFile)))) {
+            if (is.readInt() != MAGIC || is.readInt() != VERSION) {
+                throw new IoException("The file delta %s is not in a recognized format", deltaFile.getAbsolutePath());
+            }
+            int blockSize = is.readInt();
+            long basisLength = is.readLong();
+            long basisChecksum = is.readLong();
+            if (!targetFile.isFile() || targetFile.length() != basisLength || FileUtils.checksumCRC32(targetFile) != basisChecksum) {
+                throw new FileConflictException(targetFile.getAbsolutePath()
+                        + " does not have the content the file delta was created from, so it cannot be rebuilt from the delta");
+            }
+            CRC32 crc32 = new CRC32();
+            long length = 0;
+            byte[] buffer = new byte[Math.max(blockSize, 8192)];
+            try (RandomAccessFile basis = new RandomAccessFile(targetFile, "r");
+                    OutputStream os = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+                byte instruction;
+                while ((instruction = is.readByte()) != END) {
+                    long remaining;
+                    if (instruction == COPY) {
+                        long position = (long) is.readInt() * blockSize;
+                        remaining = Math.min((long) is.readInt() * blockSize, basisLength - position);
+                        basis.seek(position);
+                        while (remaining > 0) {
+                            int count = (int) Math.min(buffer.length, remaining);
+                            basis.readFully(buffer, 0, count);
+                            os.write(buffer, 0, count);
+                            crc32.update(buffer, 0, count);
+                            remaining -= count;
+                            length += count;
+                        }
+                    } else if (instruction == DATA) {
+                        remaining = is.readInt();
+                        while (remaining > 0) {
+                            int count = (int) Math.min(buffer.length, remaining);
+                            is.readFully(buffer, 0, count);
+                            os.write(buffer, 0, count);
+                            crc32.update(buffer, 0, count);
+                            remaining -= count;
+                            length += count;
+                        }
+                    } else {
+                        throw new IoException("Unexpected instruction %d in file delta %s", instruction, deltaFile.getAbsolutePath());
+                    }
+                }
+            }
+            long expectedLength = is.readLong();
+            long expectedChecksum = is.readLong();
+            if (length != expectedLength || crc32.getValue() != expectedChecksum) {
+                throw new IoException("The file rebuilt from delta %s did not match the source file", deltaFile.getAbsolutePath());
+            }
+            try {
+                Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            targetFile.setLastModified(deltaFile.lastModified());
+        } catch (EOFException e) {
+            throw new IoException("The file delta %s is truncated", deltaFile.getAbsolutePath());
+        } catch (IOException e) {
+            throw new IoException(e);
+        } finally {
+            tmpFile.delete();
+        }
+    }
+
+    /**
+     * Slides a block sized window over the new content. When the weak checksum of the window matches a block of the basis and the MD5
+     * digests agree, the block is copied and the window jumps past it. Otherwise the first byte of the window becomes a literal and
+     * the weak checksum is rolled forward by one byte.
+     */
+    static class DeltaBuilder {
+        FileSignature basis;
+        InputStream is;
+        DataOutputStream os;
+        FileSignature.Generator generator;
+        CRC32 crc32 = new CRC32();
+        long length;
+        int blockSize;
+        Map<Integer, List<Integer>> blocksByWeakChecksum = new HashMap<Integer, List<Integer>>();
+        boolean[] weakChecksumTags = new boolean[1 << 16];
+        MessageDigest digest = FileSignature.newStrongDigest();
+        byte[] buffer;
+        int start;
+        int end;
+        int literalStart;
+        boolean eof;
+        int copyBlock = -1;
+        int copyCount;
+
+        DeltaBuilder(FileSignature basis, InputStream is, DataOutputStream os, FileSignature.Generator generator) {
+            this.basis = basis;
+            this.is = is;
+            this.os = os;
+            this.generator = generator;
+            this.blockSize = basis.getBlockSize();
+            this.buffer = new byte[Math.max(blockSize * 4, 65536)];
+            for (int block = 0; block < basis.getBlockCount(); block++) {
+                int weak = basis.getWeakChecksum(block);
+                List<Integer> blocks = blocksByWeakChecksum.get(weak);
+                if (blocks == null) {
+                    blocks = new ArrayList<Integer>(1);
+                    blocksByWeakChecksum.put(weak, blocks);
+                }
+                blocks.add(block);
+                weakChecksumTags[tag(weak)] = true;
+            }
+        }
+
+        void build() throws IOException {
+            fill();
+            boolean rolling = false;
+            int a = 0;
+            int b = 0;
+            while (true) {
+                int windowLength = Math.min(blockSize, end - start);
+                if (windowLength == 0) {
+                    break;
+                }
+                if (!rolling) {
+                    a = 0;
+                    b = 0;
+                    for (int i = 0; i < windowLength; i++) {
+                        int value = buffer[start + i] & 0xff;
+                        a += value;
+                        b += (windowLength - i) * value;
+                    }
+                    rolling = true;
+                }
+                int block = findBlock(FileSignature.weakChecksum(a, b), windowLength);
+                if (block >= 0) {
+                    flushLiteral();
+                    if (copyBlock >= 0 && block == copyBlock + copyCount) {
+                        copyCount++;
+                    } else {
+                        flushCopy();
+                        copyBlock = block;
+                        copyCount = 1;
+                    }
+                    consume(start, windowLength);
+                    start += windowLength;
+                    literalStart = start;
+                    rolling = false;
+                    if (!eof && end - start < blockSize) {
+                        fill();
+                    }
+                } else {
+                    int out = buffer[start] & 0xff;
+                    start++;
+                    if (start - literalStart >= blockSize) {
+                        flushLiteral();
+                    }
+                    if (!eof && end - start < windowLength) {
+                        fill();
+                    }
+                    if (end - start >= windowLength) {
+                        int in = buffer[start + windowLength - 1] & 0xff;
+                        a += in - out;
+                        b += a - windowLength * out;
+                    } else {
+                        a -= out;
+                        b -= windowLength * out;
+                    }
+                }
+            }
+            flushLiteral();
+            flushCopy();
+            os.writeByte(END);
+            os.writeLong(length);
+            os.writeLong(crc32.getValue());
+        }
+
+        int findBlock(int weak, int windowLength) {
+            if (weakChecksumTags[tag(weak)]) {
+                List<Integer> blocks = blocksByWeakChecksum.get(weak);
+                if (blocks != null) {
+                    byte[] strong = null;
+                    int found = -1;
+                    for (int block : blocks) {
+                        if (basis.getBlockLength(block) == windowLength) {
+                            if (strong == null) {
+                                digest.update(buffer, start, windowLength);
+                                strong = digest.digest();
+                            }
+                            if (Arrays.equals(strong, basis.getStrongChecksum(block))) {
+                                if (copyBlock >= 0 && block == copyBlock + copyCount) {
+                                    return block;
+                                } else if (found < 0) {
+                                    found = block;
+                                }
+                            }
+                        }
+                    }
+                    return found;
+                }
+            }
+            return -1;
+        }
+
+        void fill() throws IOException {
+            if (start > 0) {
+                flushLiteral();
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+                literalStart = 0;
+            }
+            while (!eof && end < buffer.length) {
+                int count = is.read(buffer, end, buffer.length - end);
+                if (count < 0) {
+                    eof = true;
+                } else {
+                    end += count;
+                }
+            }
+        }
+
+        void flushLiteral() throws IOException {
+            if (start > literalStart) {
+                flushCopy();
+                os.writeByte(DATA);
+                os.writeInt(start - literalStart);
+                os.write(buffer, literalStart, start - literalStart);
+                consume(literalStart, start - literalStart);
+                literalStart = start;
+            }
+        }
+
+        void flushCopy() throws IOException {
+            if (copyBlock >= 0) {
+                os.writeByte(COPY);
+                os.writeInt(copyBlock);
+                os.writeInt(copyCount);
+                copyBlock = -1;
+                copyCount = 0;
+            }
+        }
+
+        void consume(int offset, int count) {
+            crc32.update(buffer, offset, count);
+            length += count;
+            if (generator != null) {
+                generator.write(buffer, offset, count);
+            }
+        }
+
+        static int tag(int weak) {
+            return (weak ^ (weak >>> 16)) & 0xffff;
+        }
+    }
+}
@@ -23,22 +23,29 @@ package org.jumpmind.symmetric.file;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.exception.IoException;
 import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataContext;
@@ -47,6 +54,7 @@ import org.jumpmind.symmetric.io.data.IDataWriter;
 import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
 import org.jumpmind.symmetric.io.stage.IStagedResource;
 import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.FileConflictStrategy;
 import org.jumpmind.symmetric.model.FileSnapshot;
 import org.jumpmind.symmetric.model.FileSnapshot.LastEventType;
 import org.jumpmind.symmetric.model.FileTrigger;
@@ -56,17 +64,19 @@ import org.jumpmind.symmetric.service.IConfigurationService;
 import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.IFileSyncService;
 import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class FileSyncZipDataWriter implements IDataWriter {
     private static final Logger log = LoggerFactory.getLogger(FileSyncZipDataWriter.class);
+    public static final String PENDING_SIGNATURE_DIR = ".pending";
     protected long byteCount;
     protected long maxBytesToSync;
     protected IFileSyncService fileSyncService;
     protected IStagedResource stagedResource;
-    protected ZipOutputStream zos;
+    protected ParallelZipWriter zos;
     protected Table snapshotTable;
     protected Batch batch;
     protected Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
@@ -75,15 +85,44 @@ public class FileSyncZipDataWriter implements IDataWriter {
     protected INodeService nodeService;
     protected IExtensionService extensionService;
     protected IConfigurationService configurationService;
+    protected File signatureDir;
+    protected int deltaBlockSize;
+    protected int compressionThreadCount = 1;
+    protected int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    protected Set<String> storedExtensions = new HashSet<String>();
+    protected File tempDir;
+    protected String compressionThreadName = "filesync-zip";
 
     public FileSyncZipDataWriter(long maxBytesToSync, IFileSyncService fileSyncService,
             INodeService nodeService, IStagedResource stagedResource, IExtensionService extensionService, IConfigurationService configurationService) {
+        this(maxBytesToSync, fileSyncService, nodeService, stagedResource, extensionService, configurationService, null);
+    }
+
+    public FileSyncZipDataWriter(long maxBytesToSync, IFileSyncService fileSyncService,
+            INodeService nodeService, IStagedResource stagedResource, IExtensionService extensionService, IConfigurationService configurationService,
+            IParameterService parameterService) {
         this.maxBytesToSync = maxBytesToSync;
         this.fileSyncService = fileSyncService;
         this.stagedResource = stagedResource;
         this.nodeService = nodeService;
         this.extensionService = extensionService;
         this.configurationService = configurationService;
+        if (parameterService != null && parameterService.is(ParameterConstants.FILE_SYNC_DELTA_ENABLED)) {
+            this.signatureDir = getSignatureDir(parameterService);
+            this.deltaBlockSize = parameterService.getInt(ParameterConstants.FILE_SYNC_DELTA_BLOCK_SIZE, 8192);
+        }
+        if (parameterService != null) {
+            this.compressionThreadCount = parameterService.getInt(ParameterConstants.FILE_SYNC_COMPRESSION_THREAD_COUNT, 4);
+            this.compressionLevel = parameterService.getInt(ParameterConstants.FILE_SYNC_COMPRESSION_LEVEL, Deflater.DEFAULT_COMPRESSION);
+            String extensions = parameterService.getString(ParameterConstants.FILE_SYNC_COMPRESSION_SKIP_EXTENSIONS, "");
+            for (String extension : extensions.split(",")) {
+                if (StringUtils.isNotBlank(extension)) {
+                    storedExtensions.add(extension.trim().toLowerCase());
+                }
+            }
+            this.tempDir = new File(parameterService.getTempDirectory());
+            this.compressionThreadName = parameterService.getEngineName().toLowerCase() + "-filesync-zip";
+        }
     }
 
     public void open(DataContext context) {
@@ -177,10 +216,14 @@ public class FileSyncZipDataWriter implements IDataWriter {
         try {
             if (!inError) {
                 if (zos == null) {
-                    zos = new ZipOutputStream(stagedResource.getOutputStream());
+                    zos = new ParallelZipWriter(stagedResource.getOutputStream(), compressionThreadCount, compressionLevel, tempDir,
+                            compressionThreadName);
                 }
                 FileSyncZipScript script = createFileSyncZipScript(batch.getTargetNodeId());
                 script.buildScriptStart(batch);
+                if (signatureDir != null) {
+                    FileUtils.deleteQuietly(getPendingSignatureDir(signatureDir, batch.getTargetNodeId(), batch.getBatchId()));
+                }
                 Map<String, LastEventType> entriesByLastEventType = new HashMap<String, LastEventType>();
                 Map<String, String> entriesByLastRouterId = new HashMap<String, String>();
                 for (FileSnapshot snapshot : snapshotEvents) {
@@ -216,24 +259,27 @@ public class FileSyncZipDataWriter implements IDataWriter {
                         }
                         String lastRouterId = entriesByLastRouterId.get(entryName.toString());
                         boolean addFileToScript = !snapshot.getRouterId().equals(lastRouterId);
+                        File signatureFile = script.isDeltaSupported() && isDeltaSafe(triggerRouter) ? getSignatureFile(batch, snapshot) : null;
                         if (addFileToZip) {
                             if (eventType != LastEventType.DELETE) {
                                 if (file.exists()) {
-                                    byteCount += file.length();
-                                    ZipEntry entry = new ZipEntry(entryName.toString());
+                                    FileSignature signature = null;
+                                    if (signatureFile != null && eventType == LastEventType.MODIFY && file.isFile()) {
+                                        signature = readSignature(signatureFile, snapshot.getOldCrc32Checksum());
+                                    }
+                                    ZipEntry entry = new ZipEntry(signature != null ? getDeltaEntryName(entryName.toString())
+                                            : entryName.toString());
                                     BasicFileAttributes attr = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
                                     // note: as of 8/21 getting the creation time won't work on unix file systems EVEN IF THEY HAVE EXT4
                                     // you also cannot set the creation time on unix systems (birth date) using setCreationTime, so this only works for windows
                                     entry.setCreationTime(attr.creationTime());
-                                    entry.setSize(file.length());
                                     entry.setTime(file.lastModified());
-                                    zos.putNextEntry(entry);
                                     if (file.isFile()) {
-                                        try (FileInputStream fis = new FileInputStream(file)) {
-                                            IOUtils.copy(fis, zos);
-                                        }
+                                        zos.putEntry(entry, createEntryContent(file, signature,
+                                                signatureFile != null ? getPendingSignatureFile(batch, snapshot) : null), !isStored(file));
+                                    } else {
+                                        zos.putDirectory(entry);
                                     }
-                                    zos.closeEntry();
                                     entriesByLastEventType.put(entryName.toString(), eventType);
                                     entriesByLastRouterId.put(entryName.toString(), snapshot.getRouterId());
                                 } else {
@@ -241,6 +287,8 @@ public class FileSyncZipDataWriter implements IDataWriter {
                                             "Could not find the {} file to package for synchronization.  Skipping it.",
                                             file.getAbsolutePath());
                                 }
+                            } else if (signatureFile != null) {
+                                FileUtils.deleteQuietly(signatureFile);
                             }
                         }
                         if (addFileToScript) {
@@ -254,31 +302,61 @@ public class FileSyncZipDataWriter implements IDataWriter {
                     }
                 }
                 script.buildScriptEnd(batch);
-                ZipEntry entry = new ZipEntry(batch.getBatchId() + "/" + script.getScriptFileName(batch));
-                zos.putNextEntry(entry);
-                IOUtils.write(script.getScript().toString(), zos, Charset.defaultCharset());
-                zos.closeEntry();
-                entry = new ZipEntry(batch.getBatchId() + "/batch-info.txt");
-                zos.putNextEntry(entry);
-                IOUtils.write(batch.getChannelId(), zos, Charset.defaultCharset());
-                zos.closeEntry();
+                zos.putEntry(new ZipEntry(batch.getBatchId() + "/" + script.getScriptFileName(batch)),
+                        script.getScript().toString().getBytes(Charset.defaultCharset()), true);
+                zos.putEntry(new ZipEntry(batch.getBatchId() + "/batch-info.txt"),
+                        batch.getChannelId().getBytes(Charset.defaultCharset()), true);
+                zos.flush();
+                byteCount = zos.getUncompressedSize();
             }
         } catch (IOException e) {
+            if (zos != null) {
+                zos.close();
+            }
             throw new IoException(e);
+        } catch (RuntimeException e) {
+            if (zos != null) {
+                zos.close();
+            }
+            throw e;
         }
     }
 
+    /**
+     * The content of a file entry, which is read on a compression thread. When there is a signature of the content last sent to the
+     * node, the entry is the delta against it. A signature of the content being sent is saved as pending until the batch is acknowledged.
+     */
+    protected ParallelZipWriter.EntryContent createEntryContent(final File file, final FileSignature signature, final File signatureFile) {
+        return new ParallelZipWriter.EntryContent() {
+            public void write(OutputStream out) throws IOException {
+                FileSignature.Generator generator = signatureFile != null ? new FileSignature.Generator(deltaBlockSize) : null;
+                if (signature != null) {
+                    FileSyncDelta.createDelta(file, signature, out, generator);
+                } else {
+                    try (FileInputStream fis = new FileInputStream(file)) {
+                        IOUtils.copy(fis, generator != null ? new TeeOutputStream(out, generator) : out);
+                    }
+                }
+                if (generator != null) {
+                    generator.getSignature().write(signatureFile);
+                }
+            }
+        };
+    }
+
+    /**
+     * Files that are already compressed, like images and archives, are stored in the zip without compressing them again.
+     */
+    protected boolean isStored(File file) {
+        return storedExtensions.contains(FilenameUtils.getExtension(file.getName()).toLowerCase());
+    }
+
     public void finish() {
         try {
             if (zos != null) {
                 zos.finish();
-                try {
-                    zos.close();
-                } catch (IOException e) {
-                }
+                zos.close();
             }
-        } catch (IOException e) {
-            throw new IoException(e);
         } finally {
             if (stagedResource != null) {
                 stagedResource.setState(IStagedResource.State.DONE);
@@ -291,6 +369,73 @@ public class FileSyncZipDataWriter implements IDataWriter {
         return byteCount > maxBytesToSync;
     }
 
+    /**
+     * A delta is only sent when the script checks the target file against the old checksum before changing it. With the source wins
+     * strategy, or a custom resolver, a file that was changed on the target is overwritten, which needs the full file.
+     */
+    protected boolean isDeltaSafe(FileTriggerRouter triggerRouter) {
+        return triggerRouter.getConflictStrategy() == FileConflictStrategy.MANUAL
+                || triggerRouter.getConflictStrategy() == FileConflictStrategy.TARGET_WINS;
+    }
+
+    /**
+     * The signature of the content last acknowledged by the target node for a file, which the next change to the file is sent as a delta
+     * against. Returns null when delta sync is disabled.
+     */
+    protected File getSignatureFile(Batch batch, FileSnapshot snapshot) {
+        if (signatureDir == null) {
+            return null;
+        }
+        return new File(new File(signatureDir, batch.getTargetNodeId()), getSignaturePath(snapshot));
+    }
+
+    /**
+     * The signature of the content sent in a batch, which replaces the signature from {@link #getSignatureFile(Batch, FileSnapshot)} when
+     * the batch is acknowledged.
+     */
+    protected File getPendingSignatureFile(Batch batch, FileSnapshot snapshot) {
+        return new File(getPendingSignatureDir(signatureDir, batch.getTargetNodeId(), batch.getBatchId()), getSignaturePath(snapshot));
+    }
+
+    protected String getSignaturePath(FileSnapshot snapshot) {
+        StringBuilder path = new StringBuilder(snapshot.getTriggerId()).append("/");
+        if (!snapshot.getRelativeDir().equals(".")) {
+            path.append(snapshot.getRelativeDir()).append("/");
+        }
+        return path.append(snapshot.getFileName()).append(".sig").toString();
+    }
+
+    /**
+     * Read the signature to send a delta against, which is only used when it is of the content the target had before the change.
+     */
+    protected FileSignature readSignature(File signatureFile, long oldCrc32Checksum) {
+        if (signatureFile.isFile()) {
+            try {
+                FileSignature signature = FileSignature.read(signatureFile);
+                if (signature.getCrc32Checksum() == oldCrc32Checksum) {
+                    return signature;
+                }
+            } catch (IoException e) {
+                log.warn("Could not read the file signature {}.  Sending the full file instead.  {}", signatureFile.getAbsolutePath(),
+                        e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    public static File getSignatureDir(IParameterService parameterService) {
+        return new File(parameterService.getTempDirectory(), "filesync-signatures");
+    }
+
+    public static File getPendingSignatureDir(File signatureDir, String nodeId, long batchId) {
+        return new File(signatureDir, nodeId + "/" + PENDING_SIGNATURE_DIR + "/" + batchId);
+    }
+
+    protected String getDeltaEntryName(String entryName) {
+        int index = entryName.indexOf('/');
+        return entryName.substring(0, index + 1) + FileSyncZipScript.DELTA_DIR + entryName.substring(index);
+    }
+
     protected FileSyncZipScript createFileSyncZipScript(String targetNodeId) {
         if (isCClient(targetNodeId)) {
             return new BashFileSyncZipScript();
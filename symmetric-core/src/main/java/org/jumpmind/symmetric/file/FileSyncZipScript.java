@@ -28,6 +28,7 @@ import org.jumpmind.symmetric.model.FileTrigger;
 import org.jumpmind.symmetric.model.FileTriggerRouter;
 
 public abstract class FileSyncZipScript {
+    public static final String DELTA_DIR = ".delta";
     private StringBuilder buff = new StringBuilder();
 
     public abstract String getScriptFileName(Batch batch);
@@ -39,6 +40,13 @@ public abstract class FileSyncZipScript {
 
     public abstract void buildScriptEnd(Batch batch);
 
+    /**
+     * Whether the script rebuilds a file from its delta when the batch has one under {@link #DELTA_DIR} instead of the full file.
+     */
+    public boolean isDeltaSupported() {
+        return false;
+    }
+
     public StringBuilder getScript() {
         return buff;
     }
@@ -0,0 +1,489 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.DeferredFileOutputStream;
+import org.jumpmind.exception.IoException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a zip archive whose entries are compressed on a pool of threads. Each entry is compressed into memory, or a temporary file
+ * once it is large, and entries are written to the archive in the order they were added as soon as they and the entries before them
+ * are ready. Entries can be stored instead of compressed, which is cheaper for content that is already compressed. The archive has
+ * sizes and checksums in the local headers and a central directory, using Zip64 records when needed, so it can be read by
+ * {@link java.util.zip.ZipInputStream} as well as by tools that read the central directory.
+ */
+public class ParallelZipWriter {
+    private static final Logger log = LoggerFactory.getLogger(ParallelZipWriter.class);
+    protected static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    protected static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    protected static final int END_SIGNATURE = 0x06054b50;
+    protected static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    protected static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    protected static final int ZIP64_EXTRA_ID = 0x0001;
+    protected static final int EXTENDED_TIMESTAMP_EXTRA_ID = 0x5455;
+    protected static final int UTF8_FLAG = 0x0800;
+    protected static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    protected static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    protected static final int MEMORY_THRESHOLD = 1024 * 1024;
+    protected CountingOutputStream out;
+    protected ExecutorService executor;
+    protected int maxPending;
+    protected int level;
+    protected File tempDir;
+    protected LinkedList<Future<CompressedEntry>> pending = new LinkedList<Future<CompressedEntry>>();
+    protected List<CompressedEntry> written = new ArrayList<CompressedEntry>();
+    protected long uncompressedSize;
+    protected boolean finished;
+
+    /**
+     * @param out
+     *            where the archive is written
+     * @param threadCount
+     *            the number of threads that compress entries, or 1 to compress entries on the calling thread
+     * @param level
+     *            the deflate level, from 0 to 9, or -1 for the default
+     * @param tempDir
+     *            where large entries are held while they wait to be written
+     * @param threadName
+     *            the prefix for the names of the compression threads
+     */
+    public ParallelZipWriter(OutputStream out, int threadCount, int level, File tempDir, final String threadName) {
+        this.out = new CountingOutputStream(new BufferedOutputStream(out, 65536));
+        this.level = level;
+        this.tempDir = tempDir;
+        if (tempDir != null) {
+            tempDir.mkdirs();
+        }
+        this.maxPending = Math.max(threadCount, 1) * 4;
+        if (threadCount > 1) {
+            executor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                        final AtomicInteger threadNumber = new AtomicInteger(1);
+
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, threadName + "-" + threadNumber.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * The content of an entry, which is written on a compression thread.
+     */
+    public interface EntryContent {
+        public void write(OutputStream out) throws IOException;
+    }
+
+    public void putDirectory(ZipEntry entry) {
+        putEntry(entry, (EntryContent) null, false);
+    }
+
+    public void putFile(ZipEntry entry, final File file, boolean compress) {
+        putEntry(entry, new EntryContent() {
+            public void write(OutputStream out) throws IOException {
+                try (InputStream is = new FileInputStream(file)) {
+                    IOUtils.copy(is, out);
+                }
+            }
+        }, compress);
+    }
+
+    public void putEntry(ZipEntry entry, final byte[] content, boolean compress) {
+        putEntry(entry, new EntryContent() {
+            public void write(OutputStream out) throws IOException {
+                out.write(content);
+            }
+        }, compress);
+    }
+
+    /**
+     * Add an entry to the archive. The content is written on a compression thread, or on the calling thread when there is no pool.
+     */
+    public void putEntry(final ZipEntry entry, final EntryContent content, final boolean compress) {
+        if (finished) {
+            throw new IllegalStateException("The zip archive is already finished");
+        }
+        Callable<CompressedEntry> task = new Callable<CompressedEntry>() {
+            public CompressedEntry call() throws IOException {
+                return compress(entry, compress && content != null, content);
+            }
+        };
+        if (executor != null) {
+            pending.add(executor.submit(task));
+        } else {
+            FutureTask<CompressedEntry> future = new FutureTask<CompressedEntry>(task);
+            future.run();
+            pending.add(future);
+        }
+        writeReady(maxPending);
+    }
+
+    /**
+     * Wait for every entry added so far and write it to the archive.
+     */
+    public void flush() {
+        writeReady(0);
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new IoException(e);
+        }
+    }
+
+    /**
+     * Write the remaining entries and the central directory. The underlying stream is flushed but not closed.
+     */
+    public void finish() {
+        if (!finished) {
+            flush();
+            finished = true;
+            try {
+                writeCentralDirectory();
+                out.flush();
+            } catch (IOException e) {
+                throw new IoException(e);
+            } finally {
+                shutdown();
+            }
+        }
+    }
+
+    /**
+     * Stop the compression threads and remove the temporary files of entries that were not written. The underlying stream is closed.
+     */
+    public void close() {
+        finished = true;
+        shutdown();
+        for (Future<CompressedEntry> future : pending) {
+            future.cancel(true);
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    future.get().delete();
+                } catch (Exception e) {
+                }
+            }
+        }
+        pending.clear();
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close the zip archive", e);
+        }
+    }
+
+    /**
+     * The total size of the content of the entries written so far, before compression.
+     */
+    public long getUncompressedSize() {
+        return uncompressedSize;
+    }
+
+    protected void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    protected void writeReady(int maxWaiting) {
+        while (!pending.isEmpty() && (pending.size() > maxWaiting || pending.getFirst().isDone())) {
+            CompressedEntry compressed = get(pending.removeFirst());
+            try {
+                writeLocalEntry(compressed);
+            } catch (IOException e) {
+                throw new IoException(e);
+            } finally {
+                compressed.delete();
+            }
+            written.add(compressed);
+            uncompressedSize += compressed.size;
+        }
+    }
+
+    protected CompressedEntry get(Future<CompressedEntry> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IoException("Interrupted while compressing a zip entry", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause instanceof Exception) {
+                throw new IoException((Exception) cause);
+            }
+            throw new IoException("Failed to compress a zip entry", cause);
+        }
+    }
+
+    protected CompressedEntry compress(ZipEntry entry, boolean deflate, EntryContent content) throws IOException {
+        CompressedEntry compressed = new CompressedEntry(entry, deflate);
+        if (content != null) {
+            DeferredFileOutputStream data = new DeferredFileOutputStream(MEMORY_THRESHOLD, "zip-entry", ".tmp", tempDir);
+            CRC32 crc32 = new CRC32();
+            CountingOutputStream counter = new CountingOutputStream(data);
+            Deflater deflater = deflate ? new Deflater(level, true) : null;
+            try {
+                OutputStream os = deflate ? new DeflaterOutputStream(counter, deflater, 65536) : counter;
+                CountingOutputStream checked = new CountingOutputStream(new CheckedOutputStream(os, crc32));
+                content.write(checked);
+                checked.close();
+                compressed.size = checked.getByteCount();
+                compressed.compressedSize = counter.getByteCount();
+                compressed.crc32 = crc32.getValue();
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IoException("Interrupted while compressing zip entry %s", entry.getName());
+                }
+            } catch (IOException | RuntimeException e) {
+                try {
+                    data.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+                if (data.getFile() != null) {
+                    data.getFile().delete();
+                }
+                throw e;
+            } finally {
+                if (deflater != null) {
+                    deflater.end();
+                }
+            }
+            compressed.data = data;
+        }
+        return compressed;
+    }
+
+    protected void writeLocalEntry(CompressedEntry compressed) throws IOException {
+        compressed.offset = out.getByteCount();
+        boolean zip64 = compressed.size >= ZIP64_MAGIC || compressed.compressedSize >= ZIP64_MAGIC;
+        byte[] extra = new byte[(zip64 ? 20 : 0) + (compressed.creationTime != null ? 9 : 0)];
+        int extraOffset = 0;
+        if (zip64) {
+            extraOffset = putShort(extra, extraOffset, ZIP64_EXTRA_ID);
+            extraOffset = putShort(extra, extraOffset, 16);
+            extraOffset = putLong(extra, extraOffset, compressed.size);
+            extraOffset = putLong(extra, extraOffset, compressed.compressedSize);
+        }
+        if (compressed.creationTime != null) {
+            extraOffset = putShort(extra, extraOffset, EXTENDED_TIMESTAMP_EXTRA_ID);
+            extraOffset = putShort(extra, extraOffset, 5);
+            extra[extraOffset++] = 0x4;
+            putInt(extra, extraOffset, compressed.creationTime.to(TimeUnit.SECONDS));
+        }
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(zip64 ? 45 : 20);
+        writeShort(UTF8_FLAG);
+        writeShort(compressed.method);
+        writeInt(compressed.dosTime);
+        writeInt(compressed.crc32);
+        writeInt(zip64 ? ZIP64_MAGIC : compressed.compressedSize);
+        writeInt(zip64 ? ZIP64_MAGIC : compressed.size);
+        writeShort(compressed.name.length);
+        writeShort(extra.length);
+        out.write(compressed.name);
+        out.write(extra);
+        if (compressed.data != null) {
+            if (compressed.data.isInMemory()) {
+                out.write(compressed.data.getData());
+            } else {
+                try (InputStream is = new FileInputStream(compressed.data.getFile())) {
+                    IOUtils.copy(is, out);
+                }
+            }
+        }
+    }
+
+    protected void writeCentralDirectory() throws IOException {
+        long centralOffset = out.getByteCount();
+        for (CompressedEntry compressed : written) {
+            boolean sizeZip64 = compressed.size >= ZIP64_MAGIC || compressed.compressedSize >= ZIP64_MAGIC;
+            boolean offsetZip64 = compressed.offset >= ZIP64_MAGIC;
+            byte[] extra = new byte[0];
+            if (sizeZip64 || offsetZip64) {
+                extra = new byte[4 + (sizeZip64 ? 16 : 0) + (offsetZip64 ? 8 : 0)];
+                int extraOffset = putShort(extra, 0, ZIP64_EXTRA_ID);
+                extraOffset = putShort(extra, extraOffset, extra.length - 4);
+                if (sizeZip64) {
+                    extraOffset = putLong(extra, extraOffset, compressed.size);
+                    extraOffset = putLong(extra, extraOffset, compressed.compressedSize);
+                }
+                if (offsetZip64) {
+                    putLong(extra, extraOffset, compressed.offset);
+                }
+            }
+            int version = extra.length > 0 ? 45 : 20;
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(version);
+            writeShort(version);
+            writeShort(UTF8_FLAG);
+            writeShort(compressed.method);
+            writeInt(compressed.dosTime);
+            writeInt(compressed.crc32);
+            writeInt(sizeZip64 ? ZIP64_MAGIC : compressed.compressedSize);
+            writeInt(sizeZip64 ? ZIP64_MAGIC : compressed.size);
+            writeShort(compressed.name.length);
+            writeShort(extra.length);
+            writeShort(0);
+            writeShort(0);
+            writeShort(0);
+            writeInt(0);
+            writeInt(offsetZip64 ? ZIP64_MAGIC : compressed.offset);
+            out.write(compressed.name);
+            out.write(extra);
+        }
+        long centralEnd = out.getByteCount();
+        long centralSize = centralEnd - centralOffset;
+        int count = written.size();
+        if (count >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44);
+            writeShort(45);
+            writeShort(45);
+            writeInt(0);
+            writeInt(0);
+            writeLong(count);
+            writeLong(count);
+            writeLong(centralSize);
+            writeLong(centralOffset);
+            writeInt(ZIP64_LOCATOR_SIGNATURE);
+            writeInt(0);
+            writeLong(centralEnd);
+            writeInt(1);
+        }
+        writeInt(END_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(centralSize, ZIP64_MAGIC));
+        writeInt(Math.min(centralOffset, ZIP64_MAGIC));
+        writeShort(0);
+    }
+
+    protected void writeShort(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    protected void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xffff));
+        writeShort((int) ((value >>> 16) & 0xffff));
+    }
+
+    protected void writeLong(long value) throws IOException {
+        writeInt(value & ZIP64_MAGIC);
+        writeInt(value >>> 32);
+    }
+
+    protected static int putShort(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >>> 8);
+        return offset + 2;
+    }
+
+    protected static int putInt(byte[] buffer, int offset, long value) {
+        putShort(buffer, offset, (int) (value & 0xffff));
+        return putShort(buffer, offset + 2, (int) ((value >>> 16) & 0xffff));
+    }
+
+    protected static int putLong(byte[] buffer, int offset, long value) {
+        putInt(buffer, offset, value & ZIP64_MAGIC);
+        return putInt(buffer, offset + 4, value >>> 32);
+    }
+
+    /**
+     * The date and time in the MS-DOS format used by zip headers, which has a two second resolution and starts in 1980.
+     */
+    protected static long toDosTime(long time) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        int year = dateTime.getYear();
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((year - 1980) << 25 | dateTime.getMonthValue() << 21 | dateTime.getDayOfMonth() << 16 | dateTime.getHour() << 11
+                | dateTime.getMinute() << 5 | dateTime.getSecond() >> 1) & ZIP64_MAGIC;
+    }
+
+    static class CompressedEntry {
+        byte[] name;
+        int method;
+        long dosTime;
+        FileTime creationTime;
+        long crc32;
+        long size;
+        long compressedSize;
+        long offset;
+        DeferredFileOutputStream data;
+
+        CompressedEntry(ZipEntry entry, boolean deflate) {
+            this.name = entry.getName().getBytes(StandardCharsets.UTF_8);
+            this.method = deflate ? ZipEntry.DEFLATED : ZipEntry.STORED;
+            this.dosTime = toDosTime(entry.getTime() == -1 ? System.currentTimeMillis() : entry.getTime());
+            this.creationTime = entry.getCreationTime();
+        }
+
+        void delete() {
+            if (data != null && !data.isInMemory()) {
+                data.getFile().delete();
+            }
+        }
+    }
+}
@@ -20,14 +20,22 @@
  */
 package org.jumpmind.symmetric.io;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -49,6 +57,7 @@ import org.jumpmind.symmetric.model.Trigger;
 import org.jumpmind.symmetric.model.TriggerHistory;
 import org.jumpmind.symmetric.model.TriggerRouter;
 import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGroupLink;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,35 +76,32 @@ public class DbCompare {
     private ISymmetricEngine sourceEngine;
     private ISymmetricEngine targetEngine;
     private DbCompareConfig config;
-    private DbValueComparator dbValueComparator;
 
     public DbCompare(ISymmetricEngine sourceEngine, ISymmetricEngine targetEngine, DbCompareConfig config) {
         this.config = config;
         this.sourceEngine = sourceEngine;
         this.targetEngine = targetEngine;
-        dbValueComparator = new DbValueComparator(sourceEngine, targetEngine);
     }
 
     public DbCompareReport compare() {
-        dbValueComparator.setNumericScale(config.getNumericScale());
-        dbValueComparator.setDateTimeFormat(config.getDateTimeFormat());
         log.info("Starting DBCompare with config:\n{}", config.report());
         OutputStream sqlDiffOutput = getSqlDiffOutputStream();
         DbCompareReport report = new DbCompareReport();
         long start = System.currentTimeMillis();
         List<DbCompareTables> tablesToCompare = getTablesToCompare();
         report.printReportHeader(System.out);
-        for (DbCompareTables tables : tablesToCompare) {
-            try {
-                TableReport tableReport = compareTables(tables, sqlDiffOutput);
-                report.addTableReport(tableReport);
-                long elapsed = System.currentTimeMillis() - start;
-                log.info("Completed table {}.  Elapsed time: {}", tableReport,
-                        DurationFormatUtils.formatDurationWords((elapsed), true, true));
-                report.printTableReport(tableReport, System.out);
-            } catch (Exception e) {
-                log.error("Exception while comparing " + tables.getSourceTable() +
-                        " to " + tables.getTargetTable(), e);
+        int threadCount = Math.min(config.getThreadCount(), tablesToCompare.size());
+        if (threadCount > 1) {
+            compareInParallel(tablesToCompare, sqlDiffOutput, report, threadCount, start);
+        } else {
+            for (DbCompareTables tables : tablesToCompare) {
+                try {
+                    TableReport tableReport = compareTables(tables, sqlDiffOutput);
+                    completeTableReport(report, tableReport, start);
+                } catch (Exception e) {
+                    log.error("Exception while comparing " + tables.getSourceTable() +
+                            " to " + tables.getTargetTable(), e);
+                }
             }
         }
         report.printReportFooter(System.out);
@@ -105,6 +111,62 @@ public class DbCompare {
         return report;
     }
 
+    /**
+     * Compares tables using a fixed number of threads. Table reports are added in the same order as a serial compare,
+     * and SQL for a shared output file is buffered per table so statements for different tables don't interleave.
+     */
+    protected void compareInParallel(List<DbCompareTables> tablesToCompare, final OutputStream sqlDiffOutput, DbCompareReport report,
+            int threadCount, long start) {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount, new CustomizableThreadFactory("dbcompare"));
+        try {
+            List<Future<TableReport>> futures = new ArrayList<Future<TableReport>>(tablesToCompare.size());
+            final List<ByteArrayOutputStream> buffers = new ArrayList<ByteArrayOutputStream>(tablesToCompare.size());
+            for (final DbCompareTables tables : tablesToCompare) {
+                final ByteArrayOutputStream buffer = sqlDiffOutput != null ? new ByteArrayOutputStream() : null;
+                buffers.add(buffer);
+                futures.add(executor.submit(new Callable<TableReport>() {
+                    public TableReport call() throws Exception {
+                        return compareTables(tables, buffer);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                DbCompareTables tables = tablesToCompare.get(i);
+                try {
+                    TableReport tableReport = futures.get(i).get();
+                    if (buffers.get(i) != null) {
+                        buffers.get(i).writeTo(sqlDiffOutput);
+                        buffers.set(i, null);
+                    }
+                    completeTableReport(report, tableReport, start);
+                } catch (ExecutionException e) {
+                    log.error("Exception while comparing " + tables.getSourceTable() +
+                            " to " + tables.getTargetTable(), e.getCause());
+                } catch (Exception e) {
+                    log.error("Exception while comparing " + tables.getSourceTable() +
+                            " to " + tables.getTargetTable(), e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected void completeTableReport(DbCompareReport report, TableReport tableReport, long start) {
+        report.addTableReport(tableReport);
+        long elapsed = System.currentTimeMillis() - start;
+        log.info("Completed table {}.  Elapsed time: {}", tableReport,
+                DurationFormatUtils.formatDurationWords((elapsed), true, true));
+        report.printTableReport(tableReport, System.out);
+    }
+
+    protected DbValueComparator createDbValueComparator() {
+        DbValueComparator comparator = new DbValueComparator(sourceEngine, targetEngine);
+        comparator.setNumericScale(config.getNumericScale());
+        comparator.setDateTimeFormat(config.getDateTimeFormat());
+        return comparator;
+    }
+
     protected OutputStream getSqlDiffOutputStream() {
         String outputSqlDiffFileName = config.getOutputSql();
         if (!StringUtils.isEmpty(outputSqlDiffFileName) && !outputSqlDiffFileName.contains("%t")) {
@@ -136,19 +198,10 @@ public class DbCompare {
     }
 
     protected TableReport compareTables(DbCompareTables tables, OutputStream sqlDiffOutput) {
-        String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getDatabasePlatform());
-        String targetSelect = getTargetComparisonSQL(tables, targetEngine.getDatabasePlatform());
-        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getDatabasePlatform().getSqlTemplateDirty().queryForCursor(sourceSelect,
-                defaultRowMapper));
-        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getDatabasePlatform().getSqlTemplateDirty().queryForCursor(targetSelect,
-                defaultRowMapper));
         TableReport tableReport = new TableReport();
         tableReport.setSourceTable(tables.getSourceTable().getName());
         tableReport.setTargetTable(tables.getTargetTable().getName());
-        Row sourceRow = sourceCursor.next();
-        Row targetRow = targetCursor.next();
-        int counter = 0;
-        long startTime = System.currentTimeMillis();
+        DbValueComparator dbValueComparator = createDbValueComparator();
         DbCompareDiffWriter diffWriter = null;
         OutputStream stream = null;
         if (sqlDiffOutput != null) {
@@ -158,6 +211,40 @@ public class DbCompare {
             diffWriter = new DbCompareDiffWriter(targetEngine, tables, stream);
         }
         diffWriter.setContinueAfterError(config.isContinueAfterError());
+        try {
+            if (config.isHashCompareMode() && isHashCompareSupported(tables)) {
+                compareUsingDigests(tables, tableReport, diffWriter, dbValueComparator);
+            } else {
+                String sourceSelect = getSourceComparisonSQL(tables, sourceEngine.getDatabasePlatform());
+                String targetSelect = getTargetComparisonSQL(tables, targetEngine.getDatabasePlatform());
+                compareRows(tables, sourceSelect, targetSelect, tableReport, diffWriter, dbValueComparator);
+            }
+        } finally {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+        return tableReport;
+    }
+
+    /**
+     * Merges the sorted rows selected from the source and target, adding the counts to the table report.
+     */
+    protected void compareRows(DbCompareTables tables, String sourceSelect, String targetSelect, TableReport tableReport,
+            DbCompareDiffWriter diffWriter, DbValueComparator dbValueComparator) {
+        CountingSqlReadCursor sourceCursor = new CountingSqlReadCursor(sourceEngine.getDatabasePlatform().getSqlTemplateDirty().queryForCursor(sourceSelect,
+                defaultRowMapper));
+        CountingSqlReadCursor targetCursor = new CountingSqlReadCursor(targetEngine.getDatabasePlatform().getSqlTemplateDirty().queryForCursor(targetSelect,
+                defaultRowMapper));
+        int sourceRows = tableReport.getSourceRows();
+        int targetRows = tableReport.getTargetRows();
+        Row sourceRow = sourceCursor.next();
+        Row targetRow = targetCursor.next();
+        int counter = 0;
+        long startTime = System.currentTimeMillis();
         try {
             while (true) {
                 if (sourceRow == null && targetRow == null) {
@@ -212,16 +299,10 @@ public class DbCompare {
                     }
                     targetRow = targetCursor.next();
                 }
-                tableReport.setSourceRows(sourceCursor.count);
-                tableReport.setTargetRows(targetCursor.count);
+                tableReport.setSourceRows(sourceRows + sourceCursor.count);
+                tableReport.setTargetRows(targetRows + targetCursor.count);
             }
         } finally {
-            if (stream != null) {
-                try {
-                    stream.close();
-                } catch (IOException e) {
-                }
-            }
             if (sourceCursor != null) {
                 sourceCursor.close();
             }
@@ -229,7 +310,171 @@ public class DbCompare {
                 targetCursor.close();
             }
         }
-        return tableReport;
+    }
+
+    /**
+     * Digests can be compared when both databases are the same type, there is no transform, and every compared column
+     * has the same type on both sides. LOB columns are left to the merge compare.
+     */
+    protected boolean isHashCompareSupported(DbCompareTables tables) {
+        IDatabasePlatform sourcePlatform = sourceEngine.getDatabasePlatform();
+        IDatabasePlatform targetPlatform = targetEngine.getDatabasePlatform();
+        if (!sourcePlatform.getName().equals(targetPlatform.getName()) || tables.getTransform() != null
+                || DbCompareDigest.getRowHashExpression(sourcePlatform, new ArrayList<String>()) == null) {
+            log.info("Using merge compare for table {} because digests can't be compared", tables.getSourceTable().getName());
+            return false;
+        }
+        for (Column sourceColumn : tables.getSourceTable().getColumns()) {
+            Column targetColumn = tables.getColumnMapping().get(sourceColumn);
+            if (targetColumn != null && (targetColumn.getMappedTypeCode() != sourceColumn.getMappedTypeCode()
+                    || sourcePlatform.isLob(sourceColumn.getMappedTypeCode()))) {
+                log.info("Using merge compare for table {} because of the type of column {}", tables.getSourceTable().getName(),
+                        sourceColumn.getName());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the digests of the whole table, then recursively splits ranges of the first primary key column whose
+     * digests differ, until a range is small enough that its rows are compared with a merge. Ranges are only split when
+     * the first primary key column is an integer. Otherwise a table whose digests differ is compared with a merge.
+     */
+    protected void compareUsingDigests(DbCompareTables tables, TableReport tableReport, DbCompareDiffWriter diffWriter,
+            DbValueComparator dbValueComparator) {
+        DbCompareDigest sourceDigest = null;
+        DbCompareDigest targetDigest = null;
+        try {
+            sourceDigest = queryDigest(tables, true, null, null);
+            targetDigest = queryDigest(tables, false, null, null);
+        } catch (RuntimeException e) {
+            log.warn("Using merge compare for table {} because the digest could not be selected: {}", tables.getSourceTable().getName(),
+                    e.getMessage());
+        }
+        if (sourceDigest == null || targetDigest == null) {
+            compareRange(tables, null, null, tableReport, diffWriter, dbValueComparator);
+        } else if (sourceDigest.matches(targetDigest)) {
+            countMatchedRows(tableReport, sourceDigest.getRowCount());
+        } else if (!isIntegerKey(tables.getSourceTable().getPrimaryKeyColumns()[0])) {
+            compareRange(tables, null, null, tableReport, diffWriter, dbValueComparator);
+        } else {
+            Long min = min(toLong(sourceDigest.getMinKey()), toLong(targetDigest.getMinKey()));
+            Long max = max(toLong(sourceDigest.getMaxKey()), toLong(targetDigest.getMaxKey()));
+            if (min == null || max == null || max == Long.MAX_VALUE || max - min < 0) {
+                compareRange(tables, null, null, tableReport, diffWriter, dbValueComparator);
+            } else {
+                compareDigests(tables, min, max + 1, sourceDigest, targetDigest, tableReport, diffWriter, dbValueComparator);
+            }
+        }
+    }
+
+    protected void compareDigests(DbCompareTables tables, long start, long end, DbCompareDigest sourceDigest, DbCompareDigest targetDigest,
+            TableReport tableReport, DbCompareDiffWriter diffWriter, DbValueComparator dbValueComparator) {
+        if (sourceDigest.matches(targetDigest)) {
+            countMatchedRows(tableReport, sourceDigest.getRowCount());
+        } else if (Math.max(sourceDigest.getRowCount(), targetDigest.getRowCount()) <= config.getHashLeafRows() || end - start <= 1
+                || sourceDigest.getRowCount() == 0 || targetDigest.getRowCount() == 0) {
+            compareRange(tables, start, end, tableReport, diffWriter, dbValueComparator);
+        } else {
+            int fanout = Math.max(2, config.getHashFanout());
+            long width = Math.max(1, (end - start + fanout - 1) / fanout);
+            for (long rangeStart = start; rangeStart < end; rangeStart += width) {
+                long rangeEnd = Math.min(end, rangeStart + width);
+                compareDigests(tables, rangeStart, rangeEnd, queryDigest(tables, true, rangeStart, rangeEnd),
+                        queryDigest(tables, false, rangeStart, rangeEnd), tableReport, diffWriter, dbValueComparator);
+                if (rangeEnd == end) {
+                    break;
+                }
+            }
+        }
+    }
+
+    protected void compareRange(DbCompareTables tables, Long start, Long end, TableReport tableReport, DbCompareDiffWriter diffWriter,
+            DbValueComparator dbValueComparator) {
+        Table sourceTable = tables.getSourceTable();
+        Table targetTable = tables.getTargetTable();
+        IDatabasePlatform sourcePlatform = sourceEngine.getDatabasePlatform();
+        IDatabasePlatform targetPlatform = targetEngine.getDatabasePlatform();
+        String sourceSelect = getComparisonSQL(sourceTable, sourceTable.getPrimaryKeyColumns(), sourcePlatform,
+                getRangeWhereClause(tables, true, start, end));
+        String targetSelect = getComparisonSQL(targetTable, targetTable.getPrimaryKeyColumns(), targetPlatform,
+                getRangeWhereClause(tables, false, start, end));
+        log.debug("Comparing range [{}, {}) of table {} with source SQL: {}", start, end, sourceTable.getName(), sourceSelect);
+        compareRows(tables, sourceSelect, targetSelect, tableReport, diffWriter, dbValueComparator);
+    }
+
+    protected DbCompareDigest queryDigest(DbCompareTables tables, boolean source, Long start, Long end) {
+        IDatabasePlatform platform = source ? sourceEngine.getDatabasePlatform() : targetEngine.getDatabasePlatform();
+        Table table = source ? tables.getSourceTable() : tables.getTargetTable();
+        String quote = getQuote(platform);
+        List<String> columnExpressions = new ArrayList<String>();
+        for (Column sourceColumn : tables.getSourceTable().getColumns()) {
+            Column targetColumn = tables.getColumnMapping().get(sourceColumn);
+            if (targetColumn != null) {
+                columnExpressions.add("t." + quote + (source ? sourceColumn : targetColumn).getName() + quote);
+            }
+        }
+        String keyColumn = quote + getKeyColumn(tables, source).getName() + quote;
+        DatabaseInfo dbInfo = platform.getDatabaseInfo();
+        StringBuilder sql = new StringBuilder("select count(*) row_count, sum(");
+        sql.append(DbCompareDigest.getRowHashExpression(platform, columnExpressions)).append(") row_hash, ");
+        sql.append("min(t.").append(keyColumn).append(") min_key, max(t.").append(keyColumn).append(") max_key from ");
+        sql.append(table.getQualifiedTableName(quote, dbInfo.getCatalogSeparator(), dbInfo.getSchemaSeparator()));
+        sql.append(" t where ").append(getRangeWhereClause(tables, source, start, end));
+        return DbCompareDigest.fromRow(platform.getSqlTemplateDirty().queryForRow(sql.toString()));
+    }
+
+    protected String getRangeWhereClause(DbCompareTables tables, boolean source, Long start, Long end) {
+        String whereClause = source ? config.getSourceWhereClause(tables.getSourceTable().getName())
+                : config.getTargetWhereClause(tables.getTargetTable().getName());
+        if (start == null) {
+            return whereClause;
+        }
+        String quote = getQuote(source ? sourceEngine.getDatabasePlatform() : targetEngine.getDatabasePlatform());
+        String keyColumn = "t." + quote + getKeyColumn(tables, source).getName() + quote;
+        return "(" + whereClause + ") and " + keyColumn + " >= " + start + " and " + keyColumn + " < " + end;
+    }
+
+    protected Column getKeyColumn(DbCompareTables tables, boolean source) {
+        Column sourceKey = tables.getSourceTable().getPrimaryKeyColumns()[0];
+        return source ? sourceKey : tables.getColumnMapping().get(sourceKey);
+    }
+
+    protected String getQuote(IDatabasePlatform platform) {
+        String quote = platform.getDatabaseInfo().getDelimiterToken();
+        return quote == null ? "" : quote;
+    }
+
+    protected boolean isIntegerKey(Column column) {
+        int type = column.getMappedTypeCode();
+        return type == Types.TINYINT || type == Types.SMALLINT || type == Types.INTEGER || type == Types.BIGINT
+                || ((type == Types.NUMERIC || type == Types.DECIMAL) && column.getScale() == 0);
+    }
+
+    protected Long toLong(Object value) {
+        if (value instanceof Number) {
+            try {
+                return new BigDecimal(value.toString()).longValueExact();
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    protected Long min(Long value1, Long value2) {
+        return value1 == null ? value2 : (value2 == null ? value1 : Long.valueOf(Math.min(value1, value2)));
+    }
+
+    protected Long max(Long value1, Long value2) {
+        return value1 == null ? value2 : (value2 == null ? value1 : Long.valueOf(Math.max(value1, value2)));
+    }
+
+    protected void countMatchedRows(TableReport tableReport, long rowCount) {
+        tableReport.setMatchedRows(tableReport.getMatchedRows() + (int) rowCount);
+        tableReport.setSourceRows(tableReport.getSourceRows() + (int) rowCount);
+        tableReport.setTargetRows(tableReport.getTargetRows() + (int) rowCount);
     }
 
     protected int comparePk(DbCompareTables tables, DbCompareRow sourceCompareRow, DbCompareRow targetCompareRow) {
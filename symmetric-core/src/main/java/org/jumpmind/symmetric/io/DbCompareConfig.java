@@ -34,6 +34,8 @@ public class DbCompareConfig {
     final Logger log = LoggerFactory.getLogger(getClass());
     public final static String WHERE_CLAUSE = "where_clause";
     public final static String EXCLUDED_COLUMN = "exclude_columns";
+    public final static String COMPARE_MODE_MERGE = "merge";
+    public final static String COMPARE_MODE_HASH = "hash";
     private List<String> sourceTableNames;
     private List<String> targetTableNames;
     private List<String> excludedTableNames;
@@ -44,6 +46,10 @@ public class DbCompareConfig {
     private Map<String, List<String>> tablesToExcludedColumns = new LinkedHashMap<String, List<String>>();
     private String outputSql;
     private boolean continueAfterError = false;
+    private String compareMode = COMPARE_MODE_MERGE;
+    private int threadCount = 1;
+    private int hashLeafRows = 10000;
+    private int hashFanout = 16;
     private Map<String, String> configSources = new HashMap<String, String>();
 
     public DbCompareConfig() {
@@ -58,6 +64,8 @@ public class DbCompareConfig {
         configSources.put("sqlDiffFileName", "default");
         configSources.put("outputSql", "default");
         configSources.put("continueAfterError", "default");
+        configSources.put("compareMode", "default");
+        configSources.put("threadCount", "default");
     }
 
     public String getSourceWhereClause(String tableName) {
@@ -195,6 +203,47 @@ public class DbCompareConfig {
         return continueAfterError;
     }
 
+    public String getCompareMode() {
+        return compareMode;
+    }
+
+    /**
+     * Sets how rows are compared. The merge mode reads every row from both databases in primary key order. The hash
+     * mode has each database compute digests of primary key ranges and only reads the rows of ranges whose digests
+     * differ, splitting large ranges until they are small enough to read.
+     */
+    public void setCompareMode(String compareMode) {
+        this.compareMode = compareMode;
+    }
+
+    public boolean isHashCompareMode() {
+        return COMPARE_MODE_HASH.equalsIgnoreCase(compareMode);
+    }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getHashLeafRows() {
+        return hashLeafRows;
+    }
+
+    public void setHashLeafRows(int hashLeafRows) {
+        this.hashLeafRows = hashLeafRows;
+    }
+
+    public int getHashFanout() {
+        return hashFanout;
+    }
+
+    public void setHashFanout(int hashFanout) {
+        this.hashFanout = hashFanout;
+    }
+
     public String report() {
         StringBuilder buff = new StringBuilder(128);
         buff.append("\tsourceTableNames=").append(sourceTableNames).append(" @").append(configSources.get("sourceTableNames")).append("\n");
@@ -207,6 +256,8 @@ public class DbCompareConfig {
                 "\n");
         buff.append("\toutputSql=").append(outputSql).append(" @").append(configSources.get("outputSql")).append("\n");
         buff.append("\tcontinueAfterError=").append(continueAfterError).append(" @").append(configSources.get("continueAfterError")).append("\n");
+        buff.append("\tcompareMode=").append(compareMode).append(" @").append(configSources.get("compareMode")).append("\n");
+        buff.append("\tthreadCount=").append(threadCount).append(" @").append(configSources.get("threadCount")).append("\n");
         return buff.toString();
     }
 }
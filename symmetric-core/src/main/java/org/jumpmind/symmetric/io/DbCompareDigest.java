@@ -0,0 +1,126 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.Row;
+
+/**
+ * The row count and sum of row hashes for a range of a table, computed by the database so rows don't have to be read
+ * to know that a range matches. The row hash is a 32 bit hash of the column values cast to strings, so digests can only
+ * be compared between two databases of the same type.
+ */
+public class DbCompareDigest {
+    private long rowCount;
+    private BigDecimal hash;
+    private Object minKey;
+    private Object maxKey;
+
+    public DbCompareDigest(long rowCount, BigDecimal hash, Object minKey, Object maxKey) {
+        this.rowCount = rowCount;
+        this.hash = hash == null ? BigDecimal.ZERO : hash;
+        this.minKey = minKey;
+        this.maxKey = maxKey;
+    }
+
+    /**
+     * Reads the digest from a row selected with the columns row_count, row_hash, min_key and max_key
+     */
+    public static DbCompareDigest fromRow(Row row) {
+        Object hash = row.get("row_hash");
+        return new DbCompareDigest(row.getLong("row_count"), hash == null ? null : new BigDecimal(hash.toString()), row.get("min_key"),
+                row.get("max_key"));
+    }
+
+    /**
+     * @return an expression for a 32 bit hash of the columns, or null if the platform isn't supported. Each column is
+     *         hashed as either a null marker or its length followed by its value, so a null can't collide with a
+     *         literal value and a separator inside a value can't shift it into the next column.
+     */
+    public static String getRowHashExpression(IDatabasePlatform platform, List<String> columnExpressions) {
+        String name = platform.getName();
+        if (DatabaseNamesConstants.H2.equals(name)) {
+            return "cast(cast(substring(cast(hash('SHA256', stringtoutf8("
+                    + concat(columnExpressions, "'V' || length(cast(%1$s as varchar)) || ':' || cast(%1$s as varchar)", " || '|' || ")
+                    + "), 1) as varchar), 1, 8) as binary) as int)";
+        } else if (DatabaseNamesConstants.POSTGRESQL.equals(name)) {
+            return "('x' || substr(md5(" + concat(columnExpressions, "'V' || length(cast(%1$s as text)) || ':' || cast(%1$s as text)",
+                    " || '|' || ") + "), 1, 8))::bit(32)::int";
+        } else if (DatabaseNamesConstants.MYSQL.equals(name) || DatabaseNamesConstants.MARIADB.equals(name)) {
+            return "cast(conv(substr(md5(concat("
+                    + concat(columnExpressions, "concat('V', char_length(cast(%1$s as char)), ':', cast(%1$s as char))", ", '|', ")
+                    + ")), 1, 8), 16, 10) as unsigned)";
+        } else if (name.startsWith(DatabaseNamesConstants.ORACLE)) {
+            return "ora_hash(" + concat(columnExpressions, "'V' || length(to_char(%1$s)) || ':' || to_char(%1$s)", " || '|' || ") + ")";
+        } else if (name.startsWith(DatabaseNamesConstants.MSSQL)) {
+            // nvarchar(max) so long values aren't truncated, which needs SQL Server 2016 or later for hashbytes over 8000 bytes
+            return "cast(cast(substring(hashbytes('MD5', " + concat(columnExpressions,
+                    "'V' + cast(datalength(cast(%1$s as nvarchar(max))) as varchar(20)) + ':' + cast(%1$s as nvarchar(max))", " + '|' + ")
+                    + "), 1, 4) as int) as bigint)";
+        }
+        return null;
+    }
+
+    /**
+     * @param valueFormat
+     *            format for a non-null column, where %1$s is the column expression
+     */
+    protected static String concat(List<String> columnExpressions, String valueFormat, String separator) {
+        StringBuilder sql = new StringBuilder();
+        for (String columnExpression : columnExpressions) {
+            if (sql.length() > 0) {
+                sql.append(separator);
+            }
+            sql.append("case when ").append(columnExpression).append(" is null then 'N' else ")
+                    .append(String.format(valueFormat, columnExpression)).append(" end");
+        }
+        return sql.toString();
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public BigDecimal getHash() {
+        return hash;
+    }
+
+    public Object getMinKey() {
+        return minKey;
+    }
+
+    public Object getMaxKey() {
+        return maxKey;
+    }
+
+    public boolean matches(DbCompareDigest other) {
+        return other != null && rowCount == other.rowCount && hash.compareTo(other.hash) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "rows=" + rowCount + ", hash=" + hash;
+    }
+}
@@ -35,18 +35,25 @@ import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
+import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.model.TriggerHistory;
 import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.CompiledBshScript;
 import org.jumpmind.util.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import bsh.EvalError;
 import bsh.Interpreter;
 import bsh.TargetError;
 
@@ -59,6 +66,30 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
      * Static context object used to maintain objects in memory for reference between BSH transforms.
      */
     private static Map<String, Object> bshContext = new HashMap<String, Object>();
+    /*
+     * The Java types of the variables that are bound to the interpreter, used when compiling scripts. Source column values are Strings.
+     */
+    private static final Map<String, String> VARIABLE_TYPES = new HashMap<String, String>();
+    static {
+        for (String name : new String[] { "currentValue", "oldValue", "channelId", "sourceDmlTypeString", "sourceSchemaName",
+                "sourceCatalogName", "sourceTableName", DATA_CONTEXT_TARGET_NODE_ID, DATA_CONTEXT_TARGET_NODE_GROUP_ID,
+                DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, DATA_CONTEXT_SOURCE_NODE_ID, DATA_CONTEXT_SOURCE_NODE_GROUP_ID,
+                DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID }) {
+            VARIABLE_TYPES.put(name, String.class.getName());
+        }
+        VARIABLE_TYPES.put("includeOn", TransformColumn.IncludeOnType.class.getCanonicalName());
+        VARIABLE_TYPES.put("sourceDmlType", DataEventType.class.getName());
+        VARIABLE_TYPES.put("transformedData", TransformedData.class.getName());
+        VARIABLE_TYPES.put("transformColumn", TransformColumn.class.getName());
+        VARIABLE_TYPES.put("log", Logger.class.getName());
+        VARIABLE_TYPES.put("sqlTemplate", ISqlTemplate.class.getName());
+        VARIABLE_TYPES.put("context", DataContext.class.getName());
+        VARIABLE_TYPES.put("bshContext", Map.class.getName());
+        VARIABLE_TYPES.put(DATA_CONTEXT_ENGINE, ISymmetricEngine.class.getName());
+        VARIABLE_TYPES.put(DATA_CONTEXT_TARGET_NODE, Node.class.getName());
+        VARIABLE_TYPES.put(DATA_CONTEXT_SOURCE_NODE, Node.class.getName());
+    }
+    protected BshScriptCompiler compiler = new BshScriptCompiler();
 
     public BshColumnTransform(IParameterService parameterService) {
         this.parameterService = parameterService;
@@ -81,25 +112,6 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
             TransformColumn column, TransformedData data, Map<String, String> sourceValues,
             String newValue, String oldValue) throws IgnoreColumnException, IgnoreRowException {
         try {
-            Interpreter interpreter = getInterpreter(context);
-            interpreter.set("currentValue", newValue);
-            interpreter.set("oldValue", oldValue);
-            interpreter.set("channelId", context.getBatch().getChannelId());
-            interpreter.set("includeOn", column.getIncludeOn());
-            interpreter.set("sourceDmlType", data.getSourceDmlType());
-            interpreter.set("sourceDmlTypeString", data.getSourceDmlType().toString());
-            interpreter.set("transformedData", data);
-            interpreter.set("transformColumn", column);
-            Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
-            if (csvData != null && csvData.getTriggerHistory() != null) {
-                interpreter.set("sourceSchemaName", csvData.getTriggerHistory().getSourceSchemaName());
-                interpreter.set("sourceCatalogName", csvData.getTriggerHistory().getSourceCatalogName());
-                interpreter.set("sourceTableName", csvData.getTriggerHistory().getSourceTableName());
-            }
-            for (String columnName : sourceValues.keySet()) {
-                interpreter.set(columnName.toUpperCase(), sourceValues.get(columnName));
-                interpreter.set(columnName, sourceValues.get(columnName));
-            }
             String transformExpression = column.getTransformExpression();
             if (StringUtils.isEmpty(transformExpression)) {
                 throw new SymmetricException("transformExpression cannot be empty. Check "
@@ -108,35 +120,16 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
             String globalScript = parameterService.getString(ParameterConstants.BSH_TRANSFORM_GLOBAL_SCRIPT);
             String methodName = String.format("transform_%d()",
                     Math.abs(transformExpression.hashCode() + (globalScript == null ? 0 : globalScript.hashCode())));
-            if (context.get(methodName) == null) {
-                interpreter.set("log", log);
-                interpreter.set("sqlTemplate", platform.getSqlTemplate());
-                interpreter.set("context", context);
-                interpreter.set("bshContext", bshContext);
-                interpreter.set(DATA_CONTEXT_ENGINE, context.get(DATA_CONTEXT_ENGINE));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE, context.get(DATA_CONTEXT_TARGET_NODE));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE_ID, context.get(DATA_CONTEXT_TARGET_NODE_ID));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE_GROUP_ID, context.get(DATA_CONTEXT_TARGET_NODE_GROUP_ID));
-                interpreter.set(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE, context.get(DATA_CONTEXT_SOURCE_NODE));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE_ID, context.get(DATA_CONTEXT_SOURCE_NODE_ID));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE_GROUP_ID, context.get(DATA_CONTEXT_SOURCE_NODE_GROUP_ID));
-                interpreter.set(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID));
-                if (StringUtils.isNotBlank(globalScript)) {
-                    interpreter.eval(globalScript);
-                }
-                interpreter.eval(String.format("%s {\n%s\n}", methodName, transformExpression));
-                context.put(methodName, Boolean.TRUE);
+            Object result = null;
+            CompiledBshScript compiledScript = null;
+            if (StringUtils.isBlank(globalScript) && parameterService.is(ParameterConstants.BSH_COMPILE_ENABLED)) {
+                compiledScript = getCompiledScript(context, methodName, transformExpression, sourceValues);
             }
-            Object result = interpreter.eval(methodName);
-            if (csvData != null && csvData.getTriggerHistory() != null) {
-                interpreter.unset("sourceSchemaName");
-                interpreter.unset("sourceCatalogName");
-                interpreter.unset("sourceTableName");
-            }
-            for (String columnName : sourceValues.keySet()) {
-                interpreter.unset(columnName.toUpperCase());
-                interpreter.unset(columnName);
+            if (compiledScript != null) {
+                result = compiledScript.eval(getArguments(compiledScript, platform, context, column, data, sourceValues, newValue,
+                        oldValue));
+            } else {
+                result = interpret(platform, context, column, data, sourceValues, newValue, oldValue, globalScript, methodName);
             }
             if (result instanceof String) {
                 if (data.getTargetDmlType().equals(DataEventType.DELETE) && data.getOldSourceValues() != null) {
@@ -175,6 +168,137 @@ public class BshColumnTransform implements ISingleNewAndOldValueColumnTransform,
         }
     }
 
+    protected Object interpret(IDatabasePlatform platform, DataContext context, TransformColumn column, TransformedData data,
+            Map<String, String> sourceValues, String newValue, String oldValue, String globalScript, String methodName)
+            throws EvalError {
+        Interpreter interpreter = getInterpreter(context);
+        interpreter.set("currentValue", newValue);
+        interpreter.set("oldValue", oldValue);
+        interpreter.set("channelId", context.getBatch().getChannelId());
+        interpreter.set("includeOn", column.getIncludeOn());
+        interpreter.set("sourceDmlType", data.getSourceDmlType());
+        interpreter.set("sourceDmlTypeString", data.getSourceDmlType().toString());
+        interpreter.set("transformedData", data);
+        interpreter.set("transformColumn", column);
+        Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
+        if (csvData != null && csvData.getTriggerHistory() != null) {
+            interpreter.set("sourceSchemaName", csvData.getTriggerHistory().getSourceSchemaName());
+            interpreter.set("sourceCatalogName", csvData.getTriggerHistory().getSourceCatalogName());
+            interpreter.set("sourceTableName", csvData.getTriggerHistory().getSourceTableName());
+        }
+        for (String columnName : sourceValues.keySet()) {
+            interpreter.set(columnName.toUpperCase(), sourceValues.get(columnName));
+            interpreter.set(columnName, sourceValues.get(columnName));
+        }
+        if (context.get(methodName) == null) {
+            interpreter.set("log", log);
+            interpreter.set("sqlTemplate", platform.getSqlTemplate());
+            interpreter.set("context", context);
+            interpreter.set("bshContext", bshContext);
+            interpreter.set(DATA_CONTEXT_ENGINE, context.get(DATA_CONTEXT_ENGINE));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE, context.get(DATA_CONTEXT_TARGET_NODE));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE_ID, context.get(DATA_CONTEXT_TARGET_NODE_ID));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE_GROUP_ID, context.get(DATA_CONTEXT_TARGET_NODE_GROUP_ID));
+            interpreter.set(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_TARGET_NODE_EXTERNAL_ID));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE, context.get(DATA_CONTEXT_SOURCE_NODE));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE_ID, context.get(DATA_CONTEXT_SOURCE_NODE_ID));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE_GROUP_ID, context.get(DATA_CONTEXT_SOURCE_NODE_GROUP_ID));
+            interpreter.set(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID, context.get(DATA_CONTEXT_SOURCE_NODE_EXTERNAL_ID));
+            if (StringUtils.isNotBlank(globalScript)) {
+                interpreter.eval(globalScript);
+            }
+            interpreter.eval(String.format("%s {\n%s\n}", methodName, column.getTransformExpression()));
+            context.put(methodName, Boolean.TRUE);
+        }
+        Object result = interpreter.eval(methodName);
+        if (csvData != null && csvData.getTriggerHistory() != null) {
+            interpreter.unset("sourceSchemaName");
+            interpreter.unset("sourceCatalogName");
+            interpreter.unset("sourceTableName");
+        }
+        for (String columnName : sourceValues.keySet()) {
+            interpreter.unset(columnName.toUpperCase());
+            interpreter.unset(columnName);
+        }
+        return result;
+    }
+
+    protected CompiledBshScript getCompiledScript(DataContext context, String methodName, String transformExpression,
+            Map<String, String> sourceValues) {
+        String key = String.format("%s.%d.Compiled", methodName, sourceValues.keySet().hashCode());
+        Object compiledScript = context.get(key);
+        if (compiledScript == null) {
+            Map<String, String> variableTypes = new HashMap<String, String>(VARIABLE_TYPES);
+            for (String columnName : sourceValues.keySet()) {
+                variableTypes.put(columnName, String.class.getName());
+                variableTypes.put(columnName.toUpperCase(), String.class.getName());
+            }
+            compiledScript = compiler.compile(transformExpression, variableTypes);
+            context.put(key, compiledScript != null ? compiledScript : Boolean.FALSE);
+        }
+        return compiledScript instanceof CompiledBshScript ? (CompiledBshScript) compiledScript : null;
+    }
+
+    protected Object[] getArguments(CompiledBshScript compiledScript, IDatabasePlatform platform, DataContext context,
+            TransformColumn column, TransformedData data, Map<String, String> sourceValues, String newValue, String oldValue) {
+        String[] names = compiledScript.getVariableNames();
+        Object[] args = new Object[names.length];
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (sourceValues.containsKey(name)) {
+                args[i] = sourceValues.get(name);
+            } else if (name.equals("currentValue")) {
+                args[i] = newValue;
+            } else if (name.equals("oldValue")) {
+                args[i] = oldValue;
+            } else if (name.equals("channelId")) {
+                args[i] = context.getBatch().getChannelId();
+            } else if (name.equals("includeOn")) {
+                args[i] = column.getIncludeOn();
+            } else if (name.equals("sourceDmlType")) {
+                args[i] = data.getSourceDmlType();
+            } else if (name.equals("sourceDmlTypeString")) {
+                args[i] = data.getSourceDmlType().toString();
+            } else if (name.equals("transformedData")) {
+                args[i] = data;
+            } else if (name.equals("transformColumn")) {
+                args[i] = column;
+            } else if (name.equals("sourceSchemaName")) {
+                TriggerHistory hist = getTriggerHistory(context);
+                args[i] = hist != null ? hist.getSourceSchemaName() : null;
+            } else if (name.equals("sourceCatalogName")) {
+                TriggerHistory hist = getTriggerHistory(context);
+                args[i] = hist != null ? hist.getSourceCatalogName() : null;
+            } else if (name.equals("sourceTableName")) {
+                TriggerHistory hist = getTriggerHistory(context);
+                args[i] = hist != null ? hist.getSourceTableName() : null;
+            } else if (name.equals("log")) {
+                args[i] = log;
+            } else if (name.equals("sqlTemplate")) {
+                args[i] = platform.getSqlTemplate();
+            } else if (name.equals("context")) {
+                args[i] = context;
+            } else if (name.equals("bshContext")) {
+                args[i] = bshContext;
+            } else if (VARIABLE_TYPES.containsKey(name)) {
+                args[i] = context.get(name);
+            } else {
+                for (Map.Entry<String, String> entry : sourceValues.entrySet()) {
+                    if (entry.getKey().toUpperCase().equals(name)) {
+                        args[i] = entry.getValue();
+                        break;
+                    }
+                }
+            }
+        }
+        return args;
+    }
+
+    protected TriggerHistory getTriggerHistory(DataContext context) {
+        Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
+        return csvData != null ? csvData.getTriggerHistory() : null;
+    }
+
     protected Interpreter getInterpreter(Context context) {
         Interpreter interpreter = (Interpreter) context.get(INTERPRETER_KEY);
         if (interpreter == null) {
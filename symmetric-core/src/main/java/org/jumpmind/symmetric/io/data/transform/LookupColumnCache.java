@@ -0,0 +1,241 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.transform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Results of a single lookup column transform, keyed on the values bound to the named parameters in its SQL. Entries
+ * are evicted least recently used first once the maximum size is reached and expire after the time to live. The cache
+ * belongs to one batch and is cleared when the batch changes. When the lookup table is small, the whole table can be
+ * prefetched instead, so no query runs per row.
+ */
+public class LookupColumnCache {
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":(\\w+)");
+    private static final Pattern SIMPLE_LOOKUP = Pattern.compile(
+            "^\\s*select\\s+([\\w.\"`\\[\\]]+)\\s+from\\s+([\\w.\"`\\[\\]]+)\\s+where\\s+([\\w.\"`\\[\\]]+)\\s*=\\s*:(\\w+)\\s*;?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private final List<String> parameterNames;
+    private String lookupColumn;
+    private String lookupTable;
+    private String keyColumn;
+    private String keyParameterName;
+    private final int maxSize;
+    private final long timeToLiveMs;
+    private final Map<List<Object>, CachedValue> entries;
+    private String scope;
+    private boolean prefetchAttempted;
+    private Map<String, String> prefetched;
+    private long hits;
+    private long misses;
+
+    public LookupColumnCache(String sql, final int maxSize, long timeToLiveMs) {
+        this.maxSize = maxSize;
+        this.timeToLiveMs = timeToLiveMs;
+        this.parameterNames = new ArrayList<String>();
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            if (!parameterNames.contains(name)) {
+                parameterNames.add(name);
+            }
+        }
+        Matcher simple = SIMPLE_LOOKUP.matcher(sql);
+        if (simple.matches()) {
+            lookupColumn = simple.group(1);
+            lookupTable = simple.group(2);
+            keyColumn = simple.group(3);
+            keyParameterName = simple.group(4);
+        }
+        this.entries = new LinkedHashMap<List<Object>, CachedValue>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedValue> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Clears the cache if the scope (normally the batch) has changed since it was last used.
+     * 
+     * @return true if the cache was cleared
+     */
+    public boolean enterScope(String scope) {
+        if (this.scope == null ? scope != null : !this.scope.equals(scope)) {
+            this.scope = scope;
+            entries.clear();
+            prefetched = null;
+            prefetchAttempted = false;
+            return true;
+        }
+        return false;
+    }
+
+    public List<Object> createKey(Map<String, ?> namedParams) {
+        if (parameterNames.size() == 1) {
+            return Collections.<Object> singletonList(namedParams.get(parameterNames.get(0)));
+        }
+        List<Object> key = new ArrayList<Object>(parameterNames.size());
+        for (String name : parameterNames) {
+            key.add(namedParams.get(name));
+        }
+        return key;
+    }
+
+    /**
+     * @return the cached value, or null if there is no unexpired entry
+     */
+    public CachedValue get(List<Object> key, long now) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        CachedValue value = entries.get(key);
+        if (value != null && timeToLiveMs > 0 && now - value.loadTime > timeToLiveMs) {
+            entries.remove(key);
+            value = null;
+        }
+        return value;
+    }
+
+    public void put(List<Object> key, String value, long now) {
+        if (maxSize > 0) {
+            entries.put(key, new CachedValue(value, now));
+        }
+    }
+
+    public boolean isPrefetchable() {
+        return lookupTable != null;
+    }
+
+    public boolean isPrefetchAttempted() {
+        return prefetchAttempted;
+    }
+
+    public boolean isPrefetched() {
+        return prefetched != null;
+    }
+
+    /**
+     * @return the SQL that counts the rows in the lookup table
+     */
+    public String getPrefetchCountSql() {
+        return "select count(*) from " + lookupTable;
+    }
+
+    /**
+     * @return the SQL that selects the key column followed by the lookup column for every row in the lookup table
+     */
+    public String getPrefetchSql() {
+        return "select " + keyColumn + ", " + lookupColumn + " from " + lookupTable;
+    }
+
+    public String getPrefetchParameterName() {
+        return keyParameterName;
+    }
+
+    public void setPrefetched(Map<String, String> prefetched) {
+        this.prefetchAttempted = true;
+        this.prefetched = prefetched;
+    }
+
+    /**
+     * Adds a row read by the prefetch SQL. A key that is read more than once is removed and remembered in the duplicate
+     * keys, because which of its rows the lookup SQL returns first is up to the database.
+     */
+    public static void addPrefetchedRow(Map<String, String> prefetched, Set<String> duplicateKeys, Object key, Object value) {
+        if (key != null) {
+            String keyString = key.toString();
+            if (prefetched.containsKey(keyString)) {
+                prefetched.remove(keyString);
+                duplicateKeys.add(keyString);
+            } else if (!duplicateKeys.contains(keyString)) {
+                prefetched.put(keyString, value == null ? null : value.toString());
+            }
+        }
+    }
+
+    public static Map<String, String> createPrefetchMap(int rowCount) {
+        return new HashMap<String, String>((int) (rowCount / 0.75f) + 1);
+    }
+
+    public boolean containsPrefetched(Object parameterValue) {
+        return parameterValue != null && prefetched.containsKey(parameterValue.toString());
+    }
+
+    public String getPrefetched(Object parameterValue) {
+        return parameterValue == null ? null : prefetched.get(parameterValue.toString());
+    }
+
+    public void recordHit() {
+        hits++;
+    }
+
+    public void recordMiss() {
+        misses++;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return prefetched != null ? prefetched.size() : entries.size();
+    }
+
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, prefetched=%s, hits=%d, misses=%d, hitRatio=%.2f", size(), isPrefetched(), hits,
+                misses, getHitRatio());
+    }
+
+    public static class CachedValue {
+        private final String value;
+        private final long loadTime;
+
+        CachedValue(String value, long loadTime) {
+            this.value = value;
+            this.loadTime = loadTime;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -22,19 +22,31 @@ package org.jumpmind.symmetric.io.data.transform;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.common.Constants;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.Batch;
 import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.IDataWriter;
+import org.jumpmind.symmetric.io.data.writer.DataWriterStatisticConstants;
 import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.FormatUtils;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
+import org.jumpmind.util.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +54,15 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
     protected final Logger log = LoggerFactory.getLogger(getClass());
     public static final String NAME = "lookup";
     protected static final StringMapper lookupColumnRowMapper = new StringMapper();
+    protected static final String CACHE_CONTEXT_KEY = LookupColumnTransform.class.getName() + ".cache.";
+    protected IParameterService parameterService;
+
+    public LookupColumnTransform() {
+    }
+
+    public LookupColumnTransform(IParameterService parameterService) {
+        this.parameterService = parameterService;
+    }
 
     public String getName() {
         return NAME;
@@ -75,6 +96,25 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
                     namedParams.put("TRM_" + transformedCol.getKey().toUpperCase(), transformedCol.getValue());
                 }
             }
+            LookupColumnCache cache = getCache(context, column, sql);
+            List<Object> key = null;
+            if (cache != null) {
+                if (!cache.isPrefetchAttempted()) {
+                    prefetch(platform, context, column, cache);
+                }
+                Object prefetchKey = namedParams.get(cache.getPrefetchParameterName());
+                if (cache.isPrefetched() && (prefetchKey == null || cache.containsPrefetched(prefetchKey))) {
+                    recordHit(context, cache);
+                    return new NewAndOldValue(column, data, cache.getPrefetched(prefetchKey));
+                }
+                key = cache.createKey(namedParams);
+                LookupColumnCache.CachedValue cachedValue = cache.get(key, System.currentTimeMillis());
+                if (cachedValue != null) {
+                    recordHit(context, cache);
+                    return new NewAndOldValue(column, data, cachedValue.getValue());
+                }
+                recordMiss(context, cache);
+            }
             if (transaction != null) {
                 values = transaction.query(sql, lookupColumnRowMapper, namedParams);
             } else {
@@ -93,6 +133,9 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
                         "Expected a single row, but returned no rows from lookup for target column {} on transform {}",
                         column.getTargetColumnName(), column.getTransformId());
             }
+            if (cache != null) {
+                cache.put(key, lookupValue, System.currentTimeMillis());
+            }
         } else {
             log.warn(
                     "Expected SQL expression for lookup transform, but no expression was found for target column {} on transform {}",
@@ -101,6 +144,95 @@ public class LookupColumnTransform implements ISingleNewAndOldValueColumnTransfo
         return new NewAndOldValue(column, data, lookupValue);
     }
 
+    /**
+     * Returns the lookup cache for the column, creating it on first use and clearing it when the batch has changed. The
+     * cache lives in the data context, so it is never shared between concurrent loads. Returns null when neither caching
+     * nor prefetching is enabled.
+     */
+    protected LookupColumnCache getCache(DataContext context, TransformColumn column, String sql) {
+        if (parameterService == null) {
+            return null;
+        }
+        int maxSize = parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_CACHE_MAX_SIZE, 0);
+        int prefetchMaxRows = parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_PREFETCH_MAX_ROWS, 0);
+        if (maxSize <= 0 && prefetchMaxRows <= 0) {
+            return null;
+        }
+        String contextKey = CACHE_CONTEXT_KEY + column.getTransformId() + "." + column.getTargetColumnName() + "." + sql;
+        LookupColumnCache cache = (LookupColumnCache) context.get(contextKey);
+        if (cache == null) {
+            cache = new LookupColumnCache(sql, maxSize,
+                    parameterService.getLong(ParameterConstants.TRANSFORM_LOOKUP_CACHE_TTL_MS, 0));
+            context.put(contextKey, cache);
+        }
+        Batch batch = context.getBatch();
+        String previousStatistics = cache.toString();
+        if (cache.enterScope(batch != null ? batch.getNodeBatchId() : null) && cache.getHits() + cache.getMisses() > 0) {
+            log.debug("Cleared lookup cache for target column {} on transform {} with {}", column.getTargetColumnName(),
+                    column.getTransformId(), previousStatistics);
+        }
+        return cache;
+    }
+
+    /**
+     * Loads the whole lookup table into the cache when the SQL is a simple single key lookup and the table has no more
+     * rows than the configured threshold. Keys are compared as strings, so a key that is not found, like one that the
+     * database would match after padding, case folding or number conversion, is still looked up with the lookup SQL.
+     * Keys that appear more than once are left out, so they are looked up the same way.
+     */
+    protected void prefetch(IDatabasePlatform platform, DataContext context, TransformColumn column, LookupColumnCache cache) {
+        int prefetchMaxRows = parameterService.getInt(ParameterConstants.TRANSFORM_LOOKUP_PREFETCH_MAX_ROWS, 0);
+        if (prefetchMaxRows <= 0 || !cache.isPrefetchable()) {
+            cache.setPrefetched(null);
+            return;
+        }
+        ISqlTransaction transaction = context.findTransaction();
+        int rowCount = transaction != null ? transaction.queryForInt(cache.getPrefetchCountSql())
+                : platform.getSqlTemplate().queryForInt(cache.getPrefetchCountSql());
+        if (rowCount > prefetchMaxRows) {
+            log.debug("Not prefetching lookup for target column {} on transform {} because the table has {} rows",
+                    column.getTargetColumnName(), column.getTransformId(), rowCount);
+            cache.setPrefetched(null);
+            return;
+        }
+        final Map<String, String> prefetched = LookupColumnCache.createPrefetchMap(rowCount);
+        final Set<String> duplicateKeys = new HashSet<String>();
+        ISqlRowMapper<Object> mapper = new ISqlRowMapper<Object>() {
+            public Object mapRow(Row row) {
+                Iterator<Object> values = row.values().iterator();
+                LookupColumnCache.addPrefetchedRow(prefetched, duplicateKeys, values.next(), values.next());
+                return null;
+            }
+        };
+        if (transaction != null) {
+            transaction.query(cache.getPrefetchSql(), mapper, new HashMap<String, Object>());
+        } else {
+            platform.getSqlTemplate().query(cache.getPrefetchSql(), mapper, new HashMap<String, Object>());
+        }
+        cache.setPrefetched(prefetched);
+    }
+
+    protected void recordHit(DataContext context, LookupColumnCache cache) {
+        cache.recordHit();
+        incrementStatistic(context, DataWriterStatisticConstants.LOOKUPCACHEHITS);
+    }
+
+    protected void recordMiss(DataContext context, LookupColumnCache cache) {
+        cache.recordMiss();
+        incrementStatistic(context, DataWriterStatisticConstants.LOOKUPCACHEMISSES);
+    }
+
+    protected void incrementStatistic(DataContext context, String category) {
+        IDataWriter writer = context.getWriter();
+        Batch batch = context.getBatch();
+        if (writer != null && batch != null && writer.getStatistics() != null) {
+            Statistics statistics = writer.getStatistics().get(batch);
+            if (statistics != null) {
+                statistics.increment(category);
+            }
+        }
+    }
+
     protected String doTokenReplacementOnSql(DataContext context, String sql) {
         if (isNotBlank(sql)) {
             Data csvData = (Data) context.get(Constants.DATA_CONTEXT_CURRENT_CSV_DATA);
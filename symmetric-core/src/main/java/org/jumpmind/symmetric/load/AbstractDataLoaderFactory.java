@@ -51,6 +51,8 @@ public abstract class AbstractDataLoaderFactory {
                 parameterService.is(ParameterConstants.DATA_LOADER_ERROR_RECORD_CUR_VAL, false));
         settings.setFitToColumn(parameterService.is(ParameterConstants.DATA_LOADER_FIT_TO_COLUMN, false));
         settings.setLogConflictResolution(parameterService.is(ParameterConstants.LOG_CONFLICT_RESOLUTION));
+        settings.setConflictPrefetchWindowSize(
+                parameterService.getInt(ParameterConstants.DATA_LOADER_CONFLICT_PREFETCH_WINDOW_SIZE, 0));
         settings.setTextColumnExpression(
                 parameterService.getString(ParameterConstants.DATA_LOADER_TEXT_COLUMN_EXPRESSION));
         settings.setApplyChangesOnly(parameterService.is(ParameterConstants.DATA_LOADER_APPLY_CHANGES_ONLY, true));
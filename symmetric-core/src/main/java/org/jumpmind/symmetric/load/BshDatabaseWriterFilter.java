@@ -20,6 +20,8 @@
  */
 package org.jumpmind.symmetric.load;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,10 +29,13 @@ import java.util.Set;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.SymmetricException;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.io.data.CsvData;
 import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.DataEventType;
 import org.jumpmind.symmetric.model.LoadFilter;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.CompiledBshScript;
 import org.jumpmind.util.Context;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +55,11 @@ public class BshDatabaseWriterFilter extends DynamicDatabaseWriterFilter {
     private static final String ENGINE = "engine";
     private static final String LOG = "log";
     private final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
+    private final String COMPILED_KEY = String.format("%d.BshCompiled", hashCode());
+    /*
+     * Shared because a new filter is created for each load, and compiled scripts only depend on the script and column names.
+     */
+    private static final BshScriptCompiler compiler = new BshScriptCompiler();
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
     public BshDatabaseWriterFilter(ISymmetricEngine engine,
@@ -62,9 +72,10 @@ public class BshDatabaseWriterFilter extends DynamicDatabaseWriterFilter {
             Exception error, WriteMethod writeMethod, List<LoadFilter> loadFiltersForTable) {
         boolean writeRow = true;
         LoadFilter currentFilter = null;
+        boolean compileEnabled = engine.getParameterService().is(ParameterConstants.BSH_COMPILE_ENABLED);
+        Interpreter interpreter = null;
+        Map<String, Object> variables = null;
         try {
-            Interpreter interpreter = getInterpreter(context);
-            bind(interpreter, context, table, data, error);
             for (LoadFilter filter : loadFiltersForTable) {
                 currentFilter = filter;
                 if (filter.isFilterOnDelete()
@@ -73,16 +84,37 @@ public class BshDatabaseWriterFilter extends DynamicDatabaseWriterFilter {
                                 && data.getDataEventType().equals(DataEventType.INSERT)
                         || filter.isFilterOnUpdate()
                                 && data.getDataEventType().equals(DataEventType.UPDATE)) {
-                    Object result = null;
+                    String script = null;
                     if (writeMethod.equals(WriteMethod.BEFORE_WRITE)
                             && filter.getBeforeWriteScript() != null) {
-                        result = interpreter.eval(filter.getBeforeWriteScript());
+                        script = filter.getBeforeWriteScript();
                     } else if (writeMethod.equals(WriteMethod.AFTER_WRITE)
                             && filter.getAfterWriteScript() != null) {
-                        result = interpreter.eval(filter.getAfterWriteScript());
+                        script = filter.getAfterWriteScript();
                     } else if (writeMethod.equals(WriteMethod.HANDLE_ERROR)
                             && filter.getHandleErrorScript() != null) {
-                        result = interpreter.eval(filter.getHandleErrorScript());
+                        script = filter.getHandleErrorScript();
+                    }
+                    Object result = null;
+                    if (script != null) {
+                        CompiledBshScript compiledScript = compileEnabled ? getCompiledScript(context, table, script) : null;
+                        if (compiledScript != null) {
+                            if (variables == null) {
+                                variables = getVariables(context, table, data, error);
+                            }
+                            String[] names = compiledScript.getVariableNames();
+                            Object[] args = new Object[names.length];
+                            for (int i = 0; i < names.length; i++) {
+                                args[i] = variables.get(names[i]);
+                            }
+                            result = compiledScript.eval(args);
+                        } else {
+                            if (interpreter == null) {
+                                interpreter = getInterpreter(context);
+                                bind(interpreter, context, table, data, error);
+                            }
+                            result = interpreter.eval(script);
+                        }
                     }
                     if (result != null && result.equals(Boolean.FALSE)) {
                         writeRow = false;
@@ -91,6 +123,8 @@ public class BshDatabaseWriterFilter extends DynamicDatabaseWriterFilter {
             }
         } catch (EvalError ex) {
             processError(currentFilter, table, ex);
+        } catch (Exception ex) {
+            processError(currentFilter, table, ex);
         }
         return writeRow;
     }
@@ -147,35 +181,66 @@ public class BshDatabaseWriterFilter extends DynamicDatabaseWriterFilter {
     protected void bind(Interpreter interpreter, DataContext context, Table table, CsvData data, Exception error)
             throws EvalError {
         resetInterpreter(interpreter);
-        interpreter.set(LOG, log);
-        interpreter.set(ENGINE, this.engine);
-        interpreter.set(CONTEXT, context);
-        interpreter.set(TABLE, table);
-        interpreter.set(DATA, data);
-        interpreter.set(ERROR, error);
+        for (Map.Entry<String, Object> entry : getVariables(context, table, data, error).entrySet()) {
+            interpreter.set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    protected Map<String, Object> getVariables(DataContext context, Table table, CsvData data, Exception error) {
+        Map<String, Object> variables = new LinkedHashMap<String, Object>();
+        variables.put(LOG, log);
+        variables.put(ENGINE, this.engine);
+        variables.put(CONTEXT, context);
+        variables.put(TABLE, table);
+        variables.put(DATA, data);
+        variables.put(ERROR, error);
         if (data != null) {
             Map<String, String> sourceValues = data.toColumnNameValuePairs(table.getColumnNames(),
                     CsvData.ROW_DATA);
             if (sourceValues.size() > 0) {
                 for (String columnName : sourceValues.keySet()) {
-                    interpreter.set(columnName, sourceValues.get(columnName));
-                    interpreter.set(columnName.toUpperCase(), sourceValues.get(columnName));
+                    variables.put(columnName, sourceValues.get(columnName));
+                    variables.put(columnName.toUpperCase(), sourceValues.get(columnName));
                 }
             } else {
                 Map<String, String> pkValues = data.toColumnNameValuePairs(
                         table.getPrimaryKeyColumnNames(), CsvData.PK_DATA);
                 for (String columnName : pkValues.keySet()) {
-                    interpreter.set(columnName, pkValues.get(columnName));
-                    interpreter.set(columnName.toUpperCase(), pkValues.get(columnName));
+                    variables.put(columnName, pkValues.get(columnName));
+                    variables.put(columnName.toUpperCase(), pkValues.get(columnName));
                 }
             }
             Map<String, String> oldValues = data.toColumnNameValuePairs(table.getColumnNames(),
                     CsvData.OLD_DATA);
             for (String columnName : oldValues.keySet()) {
-                interpreter.set(OLD_ + columnName, oldValues.get(columnName));
-                interpreter.set(OLD_ + columnName.toUpperCase(), oldValues.get(columnName));
+                variables.put(OLD_ + columnName, oldValues.get(columnName));
+                variables.put(OLD_ + columnName.toUpperCase(), oldValues.get(columnName));
+            }
+        }
+        return variables;
+    }
+
+    protected CompiledBshScript getCompiledScript(DataContext context, Table table, String script) {
+        String key = String.format("%s.%d.%s", COMPILED_KEY, script.hashCode(), table.getFullyQualifiedTableName());
+        Object compiledScript = context.get(key);
+        if (compiledScript == null) {
+            Map<String, String> variableTypes = new HashMap<String, String>();
+            variableTypes.put(LOG, Logger.class.getName());
+            variableTypes.put(ENGINE, ISymmetricEngine.class.getName());
+            variableTypes.put(CONTEXT, DataContext.class.getName());
+            variableTypes.put(TABLE, Table.class.getName());
+            variableTypes.put(DATA, CsvData.class.getName());
+            variableTypes.put(ERROR, Exception.class.getName());
+            for (String columnName : table.getColumnNames()) {
+                variableTypes.put(columnName, String.class.getName());
+                variableTypes.put(columnName.toUpperCase(), String.class.getName());
+                variableTypes.put(OLD_ + columnName, String.class.getName());
+                variableTypes.put(OLD_ + columnName.toUpperCase(), String.class.getName());
             }
+            compiledScript = compiler.compile(script, variableTypes);
+            context.put(key, compiledScript != null ? compiledScript : Boolean.FALSE);
         }
+        return compiledScript instanceof CompiledBshScript ? (CompiledBshScript) compiledScript : null;
     }
 
     protected void resetInterpreter(Interpreter interpreter) throws EvalError {
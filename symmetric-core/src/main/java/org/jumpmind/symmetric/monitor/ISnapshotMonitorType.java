@@ -0,0 +1,32 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.monitor;
+
+import org.jumpmind.symmetric.model.Monitor;
+import org.jumpmind.symmetric.model.MonitorEvent;
+
+/**
+ * A monitor type that reads its value through the {@link MonitorSnapshot} of the current monitor run, so that monitors checking the same
+ * value share one query. Monitor types that do not implement it are checked with {@link IMonitorType#check(Monitor)}.
+ */
+public interface ISnapshotMonitorType extends IMonitorType {
+    public MonitorEvent check(Monitor monitor, MonitorSnapshot snapshot);
+}
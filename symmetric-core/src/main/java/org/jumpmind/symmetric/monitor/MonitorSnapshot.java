@@ -0,0 +1,67 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.monitor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.jumpmind.symmetric.SymmetricException;
+
+/**
+ * Values read from the runtime tables during one run of the monitor job. A value is read the first time a monitor asks for it and the
+ * other monitors in the same run get the same value, even when they are checked on different threads.
+ */
+public class MonitorSnapshot {
+    public static final String UNROUTED_DATA_COUNT = "unroutedDataCount";
+    public static final String UNSENT_BATCH_COUNT = "unsentBatchCount";
+    public static final String DATA_GAP_COUNT = "dataGapCount";
+    public static final String OUTGOING_BATCH_ERRORS = "outgoingBatchErrors";
+    public static final String INCOMING_BATCH_ERRORS = "incomingBatchErrors";
+    public static final String OFFLINE_NODE_IDS = "offlineNodeIds";
+    private ConcurrentHashMap<String, FutureTask<?>> values = new ConcurrentHashMap<String, FutureTask<?>>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Callable<T> reader) {
+        FutureTask<T> task = new FutureTask<T>(reader);
+        FutureTask<T> existing = (FutureTask<T>) values.putIfAbsent(key, task);
+        if (existing == null) {
+            task.run();
+        } else {
+            task = existing;
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SymmetricException("Interrupted while reading monitor value " + key, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SymmetricException("Failed to read monitor value " + key, cause);
+        }
+    }
+}
@@ -22,6 +22,7 @@ package org.jumpmind.symmetric.monitor;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
@@ -38,7 +39,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 
-public class MonitorTypeBatchError implements IMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
+public class MonitorTypeBatchError implements ISnapshotMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     protected IOutgoingBatchService outgoingBatchService;
     protected IIncomingBatchService incomingBatchService;
@@ -50,17 +51,30 @@ public class MonitorTypeBatchError implements IMonitorType, ISymmetricEngineAwar
 
     @Override
     public MonitorEvent check(Monitor monitor) {
+        return check(monitor, new MonitorSnapshot());
+    }
+
+    @Override
+    public MonitorEvent check(Monitor monitor, MonitorSnapshot snapshot) {
         int outgoingErrorCount = 0;
         MonitorEvent event = new MonitorEvent();
         List<OutgoingBatch> outgoingErrors = new ArrayList<OutgoingBatch>();
         List<IncomingBatch> incomingErrors = new ArrayList<IncomingBatch>();
-        OutgoingBatches outgoingBatches = outgoingBatchService.getOutgoingBatchErrors(1000);
+        OutgoingBatches outgoingBatches = snapshot.get(MonitorSnapshot.OUTGOING_BATCH_ERRORS, new Callable<OutgoingBatches>() {
+            public OutgoingBatches call() {
+                return outgoingBatchService.getOutgoingBatchErrors(1000);
+            }
+        });
         for (OutgoingBatch batch : outgoingBatches.getBatches()) {
             outgoingErrorCount++;
             outgoingErrors.add(batch);
         }
         int incomingErrorCount = 0;
-        List<IncomingBatch> incomingBatches = incomingBatchService.findIncomingBatchErrors(1000);
+        List<IncomingBatch> incomingBatches = snapshot.get(MonitorSnapshot.INCOMING_BATCH_ERRORS, new Callable<List<IncomingBatch>>() {
+            public List<IncomingBatch> call() {
+                return incomingBatchService.findIncomingBatchErrors(1000);
+            }
+        });
         for (IncomingBatch batch : incomingBatches) {
             incomingErrorCount++;
             incomingErrors.add(batch);
@@ -20,6 +20,8 @@
  */
 package org.jumpmind.symmetric.monitor;
 
+import java.util.concurrent.Callable;
+
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.ext.ISymmetricEngineAware;
@@ -27,7 +29,7 @@ import org.jumpmind.symmetric.model.Monitor;
 import org.jumpmind.symmetric.model.MonitorEvent;
 import org.jumpmind.symmetric.service.IOutgoingBatchService;
 
-public class MonitorTypeBatchUnsent implements IMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
+public class MonitorTypeBatchUnsent implements ISnapshotMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
     protected IOutgoingBatchService outgoingBatchService;
 
     @Override
@@ -37,8 +39,17 @@ public class MonitorTypeBatchUnsent implements IMonitorType, ISymmetricEngineAwa
 
     @Override
     public MonitorEvent check(Monitor monitor) {
+        return check(monitor, new MonitorSnapshot());
+    }
+
+    @Override
+    public MonitorEvent check(Monitor monitor, MonitorSnapshot snapshot) {
         MonitorEvent event = new MonitorEvent();
-        event.setValue(outgoingBatchService.countOutgoingBatchesUnsent());
+        event.setValue(snapshot.get(MonitorSnapshot.UNSENT_BATCH_COUNT, new Callable<Integer>() {
+            public Integer call() {
+                return outgoingBatchService.countOutgoingBatchesUnsent();
+            }
+        }));
         return event;
     }
 
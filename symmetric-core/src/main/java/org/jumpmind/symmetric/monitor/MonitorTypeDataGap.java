@@ -20,6 +20,8 @@
  */
 package org.jumpmind.symmetric.monitor;
 
+import java.util.concurrent.Callable;
+
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.ext.ISymmetricEngineAware;
@@ -27,7 +29,7 @@ import org.jumpmind.symmetric.model.Monitor;
 import org.jumpmind.symmetric.model.MonitorEvent;
 import org.jumpmind.symmetric.service.IDataService;
 
-public class MonitorTypeDataGap implements IMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
+public class MonitorTypeDataGap implements ISnapshotMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
     protected IDataService dataService;
 
     @Override
@@ -37,8 +39,17 @@ public class MonitorTypeDataGap implements IMonitorType, ISymmetricEngineAware,
 
     @Override
     public MonitorEvent check(Monitor monitor) {
+        return check(monitor, new MonitorSnapshot());
+    }
+
+    @Override
+    public MonitorEvent check(Monitor monitor, MonitorSnapshot snapshot) {
         MonitorEvent event = new MonitorEvent();
-        event.setValue(dataService.countDataGaps());
+        event.setValue(snapshot.get(MonitorSnapshot.DATA_GAP_COUNT, new Callable<Long>() {
+            public Long call() {
+                return dataService.countDataGaps();
+            }
+        }));
         return event;
     }
 
@@ -21,6 +21,7 @@
 package org.jumpmind.symmetric.monitor;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
@@ -35,7 +36,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.gson.Gson;
 
-public class MonitorTypeOfflineNodes implements IMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
+public class MonitorTypeOfflineNodes implements ISnapshotMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
     protected final Logger log = LoggerFactory.getLogger(getClass());
     protected INodeService nodeService;
     protected IParameterService parameterService;
@@ -47,10 +48,20 @@ public class MonitorTypeOfflineNodes implements IMonitorType, ISymmetricEngineAw
 
     @Override
     public MonitorEvent check(Monitor monitor) {
-        int minutesBeforeNodeIsOffline = parameterService.getInt(
+        return check(monitor, new MonitorSnapshot());
+    }
+
+    @Override
+    public MonitorEvent check(Monitor monitor, MonitorSnapshot snapshot) {
+        final int minutesBeforeNodeIsOffline = parameterService.getInt(
                 ParameterConstants.MINUTES_BEFORE_NODE_REPORTED_AS_OFFLINE, 24 * 60);
         MonitorEvent event = new MonitorEvent();
-        List<String> offlineNodes = nodeService.findOfflineNodeIds(minutesBeforeNodeIsOffline);
+        List<String> offlineNodes = snapshot.get(MonitorSnapshot.OFFLINE_NODE_IDS + "-" + minutesBeforeNodeIsOffline,
+                new Callable<List<String>>() {
+                    public List<String> call() {
+                        return nodeService.findOfflineNodeIds(minutesBeforeNodeIsOffline);
+                    }
+                });
         event.setValue(offlineNodes.size());
         event.setDetails(serializeDetails(offlineNodes));
         return event;
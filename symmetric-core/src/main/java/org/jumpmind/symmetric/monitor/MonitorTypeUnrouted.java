@@ -20,6 +20,8 @@
  */
 package org.jumpmind.symmetric.monitor;
 
+import java.util.concurrent.Callable;
+
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.ext.ISymmetricEngineAware;
@@ -27,7 +29,7 @@ import org.jumpmind.symmetric.model.Monitor;
 import org.jumpmind.symmetric.model.MonitorEvent;
 import org.jumpmind.symmetric.service.IRouterService;
 
-public class MonitorTypeUnrouted implements IMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
+public class MonitorTypeUnrouted implements ISnapshotMonitorType, ISymmetricEngineAware, IBuiltInExtensionPoint {
     protected IRouterService routerService;
 
     @Override
@@ -37,8 +39,17 @@ public class MonitorTypeUnrouted implements IMonitorType, ISymmetricEngineAware,
 
     @Override
     public MonitorEvent check(Monitor monitor) {
+        return check(monitor, new MonitorSnapshot());
+    }
+
+    @Override
+    public MonitorEvent check(Monitor monitor, MonitorSnapshot snapshot) {
         MonitorEvent event = new MonitorEvent();
-        event.setValue(routerService.getUnroutedDataCount());
+        event.setValue(snapshot.get(MonitorSnapshot.UNROUTED_DATA_COUNT, new Callable<Long>() {
+            public Long call() {
+                return routerService.getUnroutedDataCount();
+            }
+        }));
         return event;
     }
 
@@ -24,6 +24,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
@@ -32,6 +33,7 @@ import org.jumpmind.symmetric.io.data.ProtocolException;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.OutgoingBatch;
+import org.jumpmind.symmetric.model.TriggerHistory;
 import org.jumpmind.util.LinkedCaseInsensitiveMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,41 +44,26 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractDataRouter implements IDataRouter {
     private static final String OLD_ = "OLD_";
     protected Logger log = LoggerFactory.getLogger(getClass());
+    private final Map<Integer, DataRowMap.Columns> dataRowColumns = new ConcurrentHashMap<Integer, DataRowMap.Columns>();
 
     public void contextCommitted(SimpleRouterContext context) {
     }
 
+    /**
+     * @return a view of the row that resolves column names to positions instead of copying every value into a map, copying only when a router
+     *         changes it
+     */
     protected Map<String, String> getDataMap(DataMetaData dataMetaData, ISymmetricDialect symmetricDialect) {
-        Map<String, String> data = null;
-        DataEventType dml = dataMetaData.getData().getDataEventType();
-        switch (dml) {
-            case UPDATE:
-                data = new LinkedCaseInsensitiveMap<String>(dataMetaData.getTable().getColumnCount() * 4);
-                data.putAll(getNewDataAsString(null, dataMetaData, symmetricDialect));
-                data.putAll(getOldDataAsString(OLD_, dataMetaData, symmetricDialect));
-                break;
-            case INSERT:
-                data = new LinkedCaseInsensitiveMap<String>(dataMetaData.getTable().getColumnCount() * 4);
-                data.putAll(getNewDataAsString(null, dataMetaData, symmetricDialect));
-                Map<String, String> map = getNullData(OLD_, dataMetaData);
-                data.putAll(map);
-                break;
-            case DELETE:
-                data = new LinkedCaseInsensitiveMap<String>(dataMetaData.getTable().getColumnCount() * 4);
-                data.putAll(getOldDataAsString(null, dataMetaData, symmetricDialect));
-                data.putAll(getOldDataAsString(OLD_, dataMetaData, symmetricDialect));
-                break;
-            default:
-                data = new LinkedCaseInsensitiveMap<String>(1);
-                break;
-        }
-        if (data != null) {
-            if (data.size() == 0) {
-                data.putAll(getPkDataAsString(dataMetaData, symmetricDialect));
-            }
-            data.put("EXTERNAL_DATA", dataMetaData.getData().getExternalData());
+        return new DataRowMap(getDataRowColumns(dataMetaData.getTriggerHistory()), dataMetaData.getData());
+    }
+
+    protected DataRowMap.Columns getDataRowColumns(TriggerHistory triggerHistory) {
+        DataRowMap.Columns columns = dataRowColumns.get(triggerHistory.getTriggerHistoryId());
+        if (columns == null || !columns.matches(triggerHistory)) {
+            columns = new DataRowMap.Columns(triggerHistory);
+            dataRowColumns.put(triggerHistory.getTriggerHistoryId(), columns);
         }
-        return data;
+        return columns;
     }
 
     protected Map<String, String> getNewDataAsString(String prefix, DataMetaData dataMetaData, ISymmetricDialect symmetricDialect) {
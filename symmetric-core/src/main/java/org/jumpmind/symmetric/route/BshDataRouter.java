@@ -22,6 +22,7 @@ package org.jumpmind.symmetric.route;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -29,9 +30,13 @@ import java.util.Set;
 
 import org.jumpmind.extension.IBuiltInExtensionPoint;
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.model.DataMetaData;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.TriggerRouter;
+import org.jumpmind.symmetric.util.BshScriptCompiler;
+import org.jumpmind.symmetric.util.CompiledBshScript;
+import org.slf4j.Logger;
 
 import bsh.EvalError;
 import bsh.Interpreter;
@@ -48,6 +53,19 @@ import bsh.TargetError;
 public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensionPoint {
     protected ISymmetricEngine engine;
     final String INTERPRETER_KEY = String.format("%d.BshInterpreter", hashCode());
+    final String COMPILED_KEY = String.format("%d.BshCompiled", hashCode());
+    private static final Map<String, String> VARIABLE_TYPES = new HashMap<String, String>();
+    static {
+        VARIABLE_TYPES.put("log", Logger.class.getName());
+        VARIABLE_TYPES.put("initialLoad", Boolean.class.getName());
+        VARIABLE_TYPES.put("dataMetaData", DataMetaData.class.getName());
+        VARIABLE_TYPES.put("nodes", Set.class.getName());
+        VARIABLE_TYPES.put("nodeIds", Set.class.getName());
+        VARIABLE_TYPES.put("identityNodeId", String.class.getName());
+        VARIABLE_TYPES.put("targetNodes", Set.class.getName());
+        VARIABLE_TYPES.put("engine", ISymmetricEngine.class.getName());
+    }
+    protected BshScriptCompiler compiler = new BshScriptCompiler();
 
     public BshDataRouter(ISymmetricEngine engine) {
         this.engine = engine;
@@ -58,6 +76,12 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
             TriggerRouter triggerRouter) {
         Set<String> boundVariableNames = new LinkedHashSet<String>();
         try {
+            if (engine.getParameterService().is(ParameterConstants.BSH_COMPILE_ENABLED)) {
+                Set<String> targetNodes = routeToNodesCompiled(context, dataMetaData, nodes, initialLoad);
+                if (targetNodes != null) {
+                    return targetNodes;
+                }
+            }
             long ts = System.currentTimeMillis();
             Interpreter interpreter = getInterpreter(context);
             context.incrementStat(System.currentTimeMillis() - ts, "bsh.init.ms");
@@ -83,6 +107,73 @@ public class BshDataRouter extends AbstractDataRouter implements IBuiltInExtensi
         }
     }
 
+    /**
+     * @return the target nodes, or null if the router expression could not be compiled and has to be interpreted
+     */
+    protected Set<String> routeToNodesCompiled(SimpleRouterContext context, DataMetaData dataMetaData, Set<Node> nodes,
+            boolean initialLoad) {
+        String expression = dataMetaData.getRouter().getRouterExpression();
+        String key = String.format("%s.%d.%s.%s", COMPILED_KEY, expression.hashCode(),
+                dataMetaData.getTable().getFullyQualifiedTableName(), dataMetaData.getData().getDataEventType());
+        Object compiledScript = context.getContextCache().get(key);
+        if (Boolean.FALSE.equals(compiledScript)) {
+            return null;
+        }
+        Map<String, Object> params = getDataObjectMap(dataMetaData, engine.getSymmetricDialect(), true);
+        if (compiledScript == null) {
+            long ts = System.currentTimeMillis();
+            Map<String, String> variableTypes = new HashMap<String, String>(VARIABLE_TYPES);
+            if (params != null) {
+                for (String param : params.keySet()) {
+                    variableTypes.put(param, Object.class.getName());
+                }
+            }
+            compiledScript = compiler.compile(expression, variableTypes);
+            context.getContextCache().put(key, compiledScript != null ? compiledScript : Boolean.FALSE);
+            context.incrementStat(System.currentTimeMillis() - ts, "bsh.compile.ms");
+        }
+        if (compiledScript instanceof CompiledBshScript) {
+            long ts = System.currentTimeMillis();
+            CompiledBshScript script = (CompiledBshScript) compiledScript;
+            HashSet<String> targetNodes = new HashSet<String>();
+            String[] names = script.getVariableNames();
+            Object[] args = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                if (params != null && params.containsKey(name)) {
+                    args[i] = params.get(name);
+                } else if (name.equals("log")) {
+                    args[i] = log;
+                } else if (name.equals("initialLoad")) {
+                    args[i] = initialLoad;
+                } else if (name.equals("dataMetaData")) {
+                    args[i] = dataMetaData;
+                } else if (name.equals("nodes")) {
+                    args[i] = nodes;
+                } else if (name.equals("nodeIds")) {
+                    args[i] = toNodeIds(nodes, null);
+                } else if (name.equals("identityNodeId")) {
+                    args[i] = engine.getNodeService().findIdentityNodeId();
+                } else if (name.equals("targetNodes")) {
+                    args[i] = targetNodes;
+                } else if (name.equals("engine")) {
+                    args[i] = engine;
+                }
+            }
+            Object returnValue;
+            try {
+                returnValue = script.eval(args);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("Routing script failed", e);
+            }
+            context.incrementStat(System.currentTimeMillis() - ts, "bsh.compiled.eval.ms");
+            return eval(returnValue, nodes, targetNodes);
+        }
+        return null;
+    }
+
     protected Interpreter getInterpreter(SimpleRouterContext context) {
         Interpreter interpreter = (Interpreter) context.getContextCache().get(INTERPRETER_KEY);
         if (interpreter == null) {
@@ -21,7 +21,12 @@
 package org.jumpmind.symmetric.route;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -73,6 +78,8 @@ public class ColumnMatchDataRouter extends AbstractDataRouter implements IDataRo
     private ISymmetricDialect symmetricDialect;
     final static String EXPRESSION_KEY = String.format("%s.Expression.", ColumnMatchDataRouter.class
             .getName());
+    final static String COMPILED_EXPRESSION_KEY = String.format("%s.CompiledExpression.", ColumnMatchDataRouter.class.getName());
+    final static String NODE_INDEX_KEY = String.format("%s.NodeIndex.", ColumnMatchDataRouter.class.getName());
 
     public ColumnMatchDataRouter() {
     }
@@ -88,44 +95,33 @@ public class ColumnMatchDataRouter extends AbstractDataRouter implements IDataRo
         if (initialLoadSelectUsed && initialLoad) {
             nodeIds = toNodeIds(nodes, null);
         } else {
-            List<Expression> expressions = getExpressions(dataMetaData.getRouter(), routingContext);
+            List<CompiledExpression> expressions = getCompiledExpressions(dataMetaData.getRouter(), routingContext);
             Map<String, String> columnValues = getDataMap(dataMetaData, symmetricDialect);
             if (columnValues != null) {
-                for (Expression e : expressions) {
-                    String column = e.tokens[0].trim();
-                    String value = e.tokens[1];
-                    String columnValue = columnValues.get(column);
-                    if (value.equalsIgnoreCase(TokenConstants.NODE_ID)) {
-                        for (Node node : nodes) {
-                            nodeIds = runExpression(e, columnValue, node.getNodeId(), nodes,
-                                    nodeIds, node);
+                NodeIndex nodeIndex = null;
+                for (CompiledExpression e : expressions) {
+                    String columnValue = columnValues.get(e.column);
+                    if (e.match.isNodeAttribute()) {
+                        if (nodeIndex == null) {
+                            nodeIndex = getNodeIndex(dataMetaData.getRouter(), routingContext, nodes);
                         }
-                    } else if (value.equalsIgnoreCase(TokenConstants.EXTERNAL_ID)) {
-                        for (Node node : nodes) {
-                            nodeIds = runExpression(e, columnValue, node.getExternalId(), nodes,
-                                    nodeIds, node);
-                        }
-                    } else if (value.equalsIgnoreCase(TokenConstants.NODE_GROUP_ID)) {
-                        for (Node node : nodes) {
-                            nodeIds = runExpression(e, columnValue, node.getNodeGroupId(), nodes,
-                                    nodeIds, node);
-                        }
-                    } else if (e.hasEquals && value.equalsIgnoreCase(TokenConstants.REDIRECT_NODE)) {
+                        nodeIds = matchNodes(e, columnValue, nodeIndex, nodeIds);
+                    } else if (e.match == Match.REDIRECT_NODE) {
                         Map<String, String> redirectMap = getRedirectMap(routingContext);
                         String nodeId = redirectMap.get(columnValue);
                         if (nodeId != null) {
                             nodeIds = addNodeId(nodeId, nodeIds, nodes);
                         }
                     } else {
-                        String compareValue = value;
-                        if (value.equalsIgnoreCase(TokenConstants.EXTERNAL_DATA)) {
+                        String compareValue = e.value;
+                        if (e.match == Match.EXTERNAL_DATA) {
                             compareValue = dataMetaData.getData().getExternalData();
-                        } else if (value.startsWith(":")) {
-                            compareValue = columnValues.get(value.substring(1));
-                        } else if (value.equals(NULL_VALUE)) {
+                        } else if (e.match == Match.COLUMN) {
+                            compareValue = columnValues.get(e.value);
+                        } else if (e.match == Match.NULL) {
                             compareValue = null;
                         }
-                        nodeIds = runExpression(e, columnValue, compareValue, nodes, nodeIds, null);
+                        nodeIds = runExpression(e.expression, columnValue, compareValue, nodes, nodeIds, null);
                     }
                 }
             } else {
@@ -166,6 +162,87 @@ public class ColumnMatchDataRouter extends AbstractDataRouter implements IDataRo
         return nodeIds;
     }
 
+    /**
+     * Match the column value against an attribute of the target nodes using the node index, so the cost depends on the number of matching nodes
+     * instead of the number of target nodes. The results are the same as running the expression against each node.
+     */
+    protected Set<String> matchNodes(CompiledExpression e, String columnValue, NodeIndex nodeIndex, Set<String> nodeIds) {
+        Expression expression = e.expression;
+        if (expression.hasEquals) {
+            nodeIds = addAll(nodeIndex.get(e.match, columnValue), nodeIds);
+        } else if (expression.hasNotEquals) {
+            if (nodeIndex.get(e.match, columnValue).isEmpty()) {
+                nodeIds = addAll(nodeIndex.getNodeIds(), nodeIds);
+            } else {
+                for (Node node : nodeIndex.getNodes()) {
+                    String value = e.match.getValue(node);
+                    if (columnValue == null ? value != null : !columnValue.equals(value)) {
+                        nodeIds = addNodeId(node.getNodeId(), nodeIds);
+                    }
+                }
+            }
+        } else if (expression.hasContains && columnValue != null) {
+            for (String token : columnValue.split(",")) {
+                nodeIds = addAll(nodeIndex.get(e.match, token), nodeIds);
+            }
+        } else if (expression.hasNotContains && columnValue != null) {
+            Set<String> tokens = new HashSet<String>(Arrays.asList(columnValue.split(",")));
+            for (Node node : nodeIndex.getNodes()) {
+                String value = e.match.getValue(node);
+                if (value != null && !tokens.contains(value)) {
+                    nodeIds = addNodeId(node.getNodeId(), nodeIds);
+                }
+            }
+        }
+        return nodeIds;
+    }
+
+    protected Set<String> addAll(Collection<String> nodeIdsToAdd, Set<String> nodeIds) {
+        if (nodeIdsToAdd.size() > 0) {
+            nodeIds = nodeIds == null ? new HashSet<String>() : nodeIds;
+            nodeIds.addAll(nodeIdsToAdd);
+        }
+        return nodeIds;
+    }
+
+    protected Set<String> addNodeId(String nodeId, Set<String> nodeIds) {
+        nodeIds = nodeIds == null ? new HashSet<String>() : nodeIds;
+        nodeIds.add(nodeId);
+        return nodeIds;
+    }
+
+    /**
+     * Cache the node index in the context for as long as the router is given the same target nodes. The set is compared by its contents because
+     * grouplets hand the router a new set for every row.
+     */
+    protected NodeIndex getNodeIndex(Router router, SimpleRouterContext context, Set<Node> nodes) {
+        final String KEY = NODE_INDEX_KEY + router.getRouterId();
+        NodeIndex nodeIndex = (NodeIndex) context.getContextCache().get(KEY);
+        if (nodeIndex == null || (nodeIndex.getNodes() != nodes && !nodeIndex.getNodes().equals(nodes))) {
+            nodeIndex = new NodeIndex(nodes);
+            context.getContextCache().put(KEY, nodeIndex);
+        }
+        return nodeIndex;
+    }
+
+    /**
+     * Cache compiled expressions in the context so each expression is classified once instead of comparing its value to each token for every row.
+     */
+    @SuppressWarnings("unchecked")
+    protected List<CompiledExpression> getCompiledExpressions(Router router, SimpleRouterContext context) {
+        final String KEY = COMPILED_EXPRESSION_KEY + router.getRouterId();
+        List<CompiledExpression> compiled = (List<CompiledExpression>) context.getContextCache().get(KEY);
+        if (compiled == null) {
+            List<Expression> expressions = getExpressions(router, context);
+            compiled = new ArrayList<CompiledExpression>(expressions.size());
+            for (Expression e : expressions) {
+                compiled.add(new CompiledExpression(e));
+            }
+            context.getContextCache().put(KEY, compiled);
+        }
+        return compiled;
+    }
+
     /**
      * Cache parsed expressions in the context to minimize the amount of parsing we have to do when we have lots of throughput.
      */
@@ -253,6 +330,119 @@ public class ColumnMatchDataRouter extends AbstractDataRouter implements IDataRo
         return redirectMap;
     }
 
+    /**
+     * What the value of an expression is compared with.
+     */
+    public enum Match {
+        NODE_ID, EXTERNAL_ID, NODE_GROUP_ID, REDIRECT_NODE, EXTERNAL_DATA, COLUMN, NULL, CONSTANT;
+
+        public boolean isNodeAttribute() {
+            return this == NODE_ID || this == EXTERNAL_ID || this == NODE_GROUP_ID;
+        }
+
+        public String getValue(Node node) {
+            switch (this) {
+                case NODE_ID:
+                    return node.getNodeId();
+                case EXTERNAL_ID:
+                    return node.getExternalId();
+                case NODE_GROUP_ID:
+                    return node.getNodeGroupId();
+                default:
+                    return null;
+            }
+        }
+    }
+
+    /**
+     * An expression with its column name trimmed and its value classified once, in the same order of precedence that the tokens are checked.
+     */
+    public static class CompiledExpression {
+        final Expression expression;
+        final String column;
+        final Match match;
+        final String value;
+
+        public CompiledExpression(Expression expression) {
+            this.expression = expression;
+            this.column = expression.tokens[0].trim();
+            String value = expression.tokens[1];
+            if (value.equalsIgnoreCase(TokenConstants.NODE_ID)) {
+                match = Match.NODE_ID;
+            } else if (value.equalsIgnoreCase(TokenConstants.EXTERNAL_ID)) {
+                match = Match.EXTERNAL_ID;
+            } else if (value.equalsIgnoreCase(TokenConstants.NODE_GROUP_ID)) {
+                match = Match.NODE_GROUP_ID;
+            } else if (expression.hasEquals && value.equalsIgnoreCase(TokenConstants.REDIRECT_NODE)) {
+                match = Match.REDIRECT_NODE;
+            } else if (value.equalsIgnoreCase(TokenConstants.EXTERNAL_DATA)) {
+                match = Match.EXTERNAL_DATA;
+            } else if (value.startsWith(":")) {
+                match = Match.COLUMN;
+                value = value.substring(1);
+            } else if (value.equals(NULL_VALUE)) {
+                match = Match.NULL;
+            } else {
+                match = Match.CONSTANT;
+            }
+            this.value = value;
+        }
+
+        public Expression getExpression() {
+            return expression;
+        }
+
+        public Match getMatch() {
+            return match;
+        }
+    }
+
+    /**
+     * The node ids of the target nodes indexed by node id, external id and node group id. Each index is built the first time an expression needs it.
+     */
+    public static class NodeIndex {
+        private final Set<Node> nodes;
+        private final Map<Match, Map<String, List<String>>> indexes = new EnumMap<Match, Map<String, List<String>>>(Match.class);
+        private List<String> nodeIds;
+
+        public NodeIndex(Set<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        public Set<Node> getNodes() {
+            return nodes;
+        }
+
+        public List<String> getNodeIds() {
+            if (nodeIds == null) {
+                nodeIds = new ArrayList<String>(nodes.size());
+                for (Node node : nodes) {
+                    nodeIds.add(node.getNodeId());
+                }
+            }
+            return nodeIds;
+        }
+
+        public List<String> get(Match attribute, String value) {
+            Map<String, List<String>> index = indexes.get(attribute);
+            if (index == null) {
+                index = new HashMap<String, List<String>>(nodes.size() * 2);
+                for (Node node : nodes) {
+                    String key = attribute.getValue(node);
+                    List<String> nodeIds = index.get(key);
+                    if (nodeIds == null) {
+                        nodeIds = new ArrayList<String>(1);
+                        index.put(key, nodeIds);
+                    }
+                    nodeIds.add(node.getNodeId());
+                }
+                indexes.put(attribute, index);
+            }
+            List<String> nodeIds = index.get(value);
+            return nodeIds != null ? nodeIds : Collections.<String> emptyList();
+        }
+    }
+
     public static class Expression {
         public static final String EQUALS = "=";
         public static final String NOT_EQUALS = "!=";
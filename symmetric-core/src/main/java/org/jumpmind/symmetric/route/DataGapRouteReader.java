@@ -51,6 +51,7 @@ import org.jumpmind.symmetric.model.ProcessInfo.ProcessStatus;
 import org.jumpmind.symmetric.model.ProcessInfoKey;
 import org.jumpmind.symmetric.model.ProcessType;
 import org.jumpmind.symmetric.service.IParameterService;
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
 import org.jumpmind.util.AppUtils;
 import org.jumpmind.util.FormatUtils;
 import org.slf4j.Logger;
@@ -417,6 +418,7 @@ public class DataGapRouteReader implements IDataToRouteReader {
         boolean moreData = true;
         int dataCount = 0;
         long ts = System.currentTimeMillis();
+        long fillStartTime = ts;
         Data data = null;
         boolean isFirstRead = context.getStartDataId() == 0;
         while (reading && dataCount < peekAheadCount) {
@@ -454,6 +456,10 @@ public class DataGapRouteReader implements IDataToRouteReader {
         }
         context.incrementDataReadCount(dataCount);
         context.incrementPeekAheadFillCount(1);
+        if (dataCount > 0) {
+            engine.getStatisticManager().recordLatency(MetricsRegistry.STAGE_ROUTE_READ, context.getChannel().getChannelId(), null,
+                    System.currentTimeMillis() - fillStartTime);
+        }
         int size = peekAheadQueue.size();
         if (context.getMaxPeekAheadQueueSize() < size) {
             context.setMaxPeekAheadQueueSize(size);
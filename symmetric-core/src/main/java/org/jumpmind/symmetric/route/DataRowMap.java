@@ -0,0 +1,386 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.ProtocolException;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.TriggerHistory;
+import org.jumpmind.util.LinkedCaseInsensitiveMap;
+
+/**
+ * A case-insensitive view of a captured row that routers use to look up column values. Keys are the column names, the column names prefixed
+ * with OLD_ and EXTERNAL_DATA, the same keys that a router would find in a map that was filled with every value. Instead of copying every value into a
+ * map, each lookup resolves the key to a column position with {@link Columns}, which is built once per {@link TriggerHistory}, and reads the value from
+ * the parsed row data.
+ * <p>
+ * When the row has no new or old data, the view falls back to the primary key columns.
+ * <p>
+ * Routers may change the map. The first change copies the view into a {@link LinkedCaseInsensitiveMap} and every later call uses that copy, so
+ * routers that only read never pay for the copy.
+ */
+public class DataRowMap extends AbstractMap<String, String> {
+    static final String OLD_ = "OLD_";
+    static final String EXTERNAL_DATA = "EXTERNAL_DATA";
+    private final Columns columns;
+    private final String externalData;
+    private final String[] newValues;
+    private final String[] oldValues;
+    private final String[] pkValues;
+    private final boolean hasNew;
+    private final boolean hasOld;
+    private final boolean pkOnly;
+    private Set<Map.Entry<String, String>> entrySet;
+    private Map<String, String> copy;
+
+    public DataRowMap(Columns columns, Data data) {
+        this.columns = columns;
+        this.externalData = data.getExternalData();
+        DataEventType dml = data.getDataEventType();
+        String[] newValues = null;
+        String[] oldValues = null;
+        boolean hasNew = false;
+        boolean hasOld = false;
+        if (dml == DataEventType.UPDATE) {
+            newValues = data.toParsedRowData();
+            oldValues = data.toParsedOldData();
+            hasNew = newValues != null;
+            hasOld = oldValues != null;
+        } else if (dml == DataEventType.INSERT) {
+            newValues = data.toParsedRowData();
+            hasNew = newValues != null;
+            hasOld = true;
+        } else if (dml == DataEventType.DELETE) {
+            newValues = data.toParsedOldData();
+            oldValues = newValues;
+            hasNew = newValues != null;
+            hasOld = hasNew;
+        }
+        this.newValues = checkLength(data, columns.columnNames, newValues);
+        this.oldValues = checkLength(data, columns.columnNames, oldValues);
+        this.pkOnly = columns.columnNames.length == 0 || (!hasNew && !hasOld);
+        this.hasNew = hasNew && !pkOnly;
+        this.hasOld = hasOld && !pkOnly;
+        this.pkValues = pkOnly ? checkLength(data, columns.pkColumnNames, data.toParsedPkData()) : null;
+    }
+
+    protected static String[] checkLength(Data data, String[] columnNames, String[] values) {
+        if (values != null && values.length != columnNames.length) {
+            throw new ProtocolException(String.format("The router row for table %s had %d columns but expected %d.", data.getTableName(),
+                    values.length, columnNames.length));
+        }
+        return values;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (copy != null) {
+            return copy.get(key);
+        }
+        int slot = slotFor(key);
+        return slot == Columns.NONE ? null : valueAt(slot);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (copy != null) {
+            return copy.containsKey(key);
+        }
+        return slotFor(key) != Columns.NONE;
+    }
+
+    @Override
+    public int size() {
+        if (copy != null) {
+            return copy.size();
+        } else if (pkOnly) {
+            return (pkValues != null ? pkValues.length : 0) + 1;
+        } else {
+            int size = 0;
+            for (int slot : columns.slots) {
+                if (isPresent(slot)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Map.Entry<String, String>>() {
+                @Override
+                public Iterator<Map.Entry<String, String>> iterator() {
+                    return copy != null ? copy.entrySet().iterator() : new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return DataRowMap.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Map<String, String> values = writable();
+        // remove first, otherwise a key spelled in a different case would be added next to the existing one
+        String previous = values.remove(key);
+        values.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public String remove(Object key) {
+        return writable().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        writable().clear();
+    }
+
+    protected Map<String, String> writable() {
+        if (copy == null) {
+            Map<String, String> values = new LinkedCaseInsensitiveMap<String>(size() * 2);
+            Iterator<Map.Entry<String, String>> iterator = new EntryIterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, String> entry = iterator.next();
+                values.put(entry.getKey(), entry.getValue());
+            }
+            copy = values;
+        }
+        return copy;
+    }
+
+    protected int slotFor(Object key) {
+        if (!(key instanceof String)) {
+            return Columns.NONE;
+        }
+        int slot;
+        if (pkOnly) {
+            slot = columns.findPk((String) key);
+            if (slot >= 0 && (pkValues == null || slot >= pkValues.length)) {
+                slot = Columns.NONE;
+            }
+        } else {
+            slot = columns.find((String) key);
+            if (!isPresent(slot)) {
+                slot = Columns.NONE;
+            }
+        }
+        return slot;
+    }
+
+    protected boolean isPresent(int slot) {
+        if (slot == Columns.EXTERNAL_DATA_SLOT) {
+            return true;
+        } else if (slot == Columns.NONE) {
+            return false;
+        } else if (slot < columns.columnNames.length) {
+            return hasNew;
+        } else {
+            return hasOld;
+        }
+    }
+
+    protected String valueAt(int slot) {
+        if (slot == Columns.EXTERNAL_DATA_SLOT) {
+            return externalData;
+        } else if (pkOnly) {
+            return pkValues[slot];
+        } else if (slot < columns.columnNames.length) {
+            return newValues[slot];
+        } else {
+            return oldValues != null ? oldValues[slot - columns.columnNames.length] : null;
+        }
+    }
+
+    protected String keyAt(int slot) {
+        if (slot == Columns.EXTERNAL_DATA_SLOT) {
+            return EXTERNAL_DATA;
+        } else if (pkOnly) {
+            return columns.pkKeys[slot];
+        } else {
+            return columns.keys[slot];
+        }
+    }
+
+    class EntryIterator implements Iterator<Map.Entry<String, String>> {
+        private final int[] slots = pkOnly ? columns.pkSlots : columns.slots;
+        private int index = -1;
+        private int next = advance();
+        private int last = Columns.NONE;
+
+        protected int advance() {
+            for (index++; index < slots.length; index++) {
+                int slot = slots[index];
+                if (pkOnly ? (slot == Columns.EXTERNAL_DATA_SLOT || (pkValues != null && slot < pkValues.length)) : isPresent(slot)) {
+                    return slot;
+                }
+            }
+            return Columns.NONE;
+        }
+
+        public boolean hasNext() {
+            return next != Columns.NONE;
+        }
+
+        public Map.Entry<String, String> next() {
+            if (next == Columns.NONE) {
+                throw new NoSuchElementException();
+            }
+            int slot = next;
+            last = slot;
+            next = advance();
+            return new SimpleImmutableEntry<String, String>(keyAt(slot), valueAt(slot));
+        }
+
+        public void remove() {
+            if (last == Columns.NONE) {
+                throw new IllegalStateException();
+            }
+            writable().remove(keyAt(last));
+            last = Columns.NONE;
+        }
+    }
+
+    /**
+     * The positions of the keys of a {@link DataRowMap} for one {@link TriggerHistory}. Slots below the column count are new values, slots from the
+     * column count up are the OLD_ values. When a column name collides with an OLD_ name or with EXTERNAL_DATA, the later key wins just like it would
+     * when the values were put into a map in that order.
+     */
+    public static class Columns {
+        static final int NONE = -1;
+        static final int EXTERNAL_DATA_SLOT = -2;
+        private final String columnNamesText;
+        private final String pkColumnNamesText;
+        final String[] columnNames;
+        final String[] pkColumnNames;
+        final String[] keys;
+        final String[] pkKeys;
+        final int[] slots;
+        final int[] pkSlots;
+        private final Map<String, Integer> lookup;
+        private final Map<String, Integer> pkLookup;
+
+        public Columns(TriggerHistory triggerHistory) {
+            this.columnNamesText = triggerHistory.getColumnNames();
+            this.pkColumnNamesText = triggerHistory.getPkColumnNames();
+            String[] columnNames = triggerHistory.getParsedColumnNames();
+            String[] pkColumnNames = triggerHistory.getParsedPkColumnNames();
+            this.columnNames = columnNames != null ? columnNames : new String[0];
+            this.pkColumnNames = pkColumnNames != null ? pkColumnNames : new String[0];
+
+            int count = this.columnNames.length;
+            keys = new String[count * 2];
+            LinkedHashMap<String, Integer> ordered = new LinkedHashMap<String, Integer>(count * 4);
+            for (int i = 0; i < count; i++) {
+                keys[i] = this.columnNames[i];
+                ordered.put(toKey(keys[i]), i);
+            }
+            for (int i = 0; i < count; i++) {
+                keys[count + i] = OLD_ + this.columnNames[i];
+                ordered.put(toKey(keys[count + i]), count + i);
+            }
+            ordered.put(EXTERNAL_DATA, EXTERNAL_DATA_SLOT);
+            slots = toSlots(ordered);
+            lookup = toLookup(ordered, keys);
+
+            pkKeys = new String[this.pkColumnNames.length];
+            LinkedHashMap<String, Integer> pkOrdered = new LinkedHashMap<String, Integer>(pkKeys.length * 2);
+            for (int i = 0; i < pkKeys.length; i++) {
+                pkKeys[i] = this.pkColumnNames[i].toUpperCase();
+                pkOrdered.put(toKey(pkKeys[i]), i);
+            }
+            pkOrdered.put(EXTERNAL_DATA, EXTERNAL_DATA_SLOT);
+            pkSlots = toSlots(pkOrdered);
+            pkLookup = toLookup(pkOrdered, pkKeys);
+        }
+
+        /**
+         * @return true if these positions were resolved from the same column names as the trigger history
+         */
+        public boolean matches(TriggerHistory triggerHistory) {
+            return equals(columnNamesText, triggerHistory.getColumnNames()) && equals(pkColumnNamesText, triggerHistory.getPkColumnNames());
+        }
+
+        int find(String key) {
+            return find(lookup, key);
+        }
+
+        int findPk(String key) {
+            return find(pkLookup, key);
+        }
+
+        protected static int find(Map<String, Integer> lookup, String key) {
+            Integer slot = lookup.get(key);
+            if (slot == null) {
+                slot = lookup.get(toKey(key));
+            }
+            return slot != null ? slot : NONE;
+        }
+
+        protected static String toKey(String name) {
+            return name.toUpperCase(Locale.ROOT);
+        }
+
+        protected static int[] toSlots(LinkedHashMap<String, Integer> ordered) {
+            int[] slots = new int[ordered.size()];
+            int i = 0;
+            for (Integer slot : ordered.values()) {
+                slots[i++] = slot;
+            }
+            return slots;
+        }
+
+        /**
+         * Index by the upper case key and by the key as it is spelled in the trigger history, so the common spellings are found without converting
+         * the case of the key being looked up.
+         */
+        protected static Map<String, Integer> toLookup(LinkedHashMap<String, Integer> ordered, String[] keys) {
+            Map<String, Integer> lookup = new HashMap<String, Integer>(ordered);
+            for (Integer slot : ordered.values()) {
+                if (slot >= 0) {
+                    lookup.put(keys[slot], slot);
+                }
+            }
+            return lookup;
+        }
+
+        protected static boolean equals(String one, String two) {
+            return one == null ? two == null : one.equals(two);
+        }
+    }
+}
@@ -22,6 +22,7 @@ package org.jumpmind.symmetric.service;
 
 import java.util.Map;
 
+import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.symmetric.model.Lock;
 
 /**
@@ -36,6 +37,18 @@ public interface IClusterService {
 
     public boolean refreshLock(String action);
 
+    /**
+     * Get the fencing token of the cluster lease this server holds for an action, or 0 when leases are off or not held.
+     */
+    public long getLockToken(String action);
+
+    /**
+     * Check that the cluster lease with a fencing token from {@link #getLockToken(String)} is still held, as part of the transaction of a write
+     * that the lock guards. The lock row stays locked until the transaction ends, so another server can't take over the lease before the write
+     * commits. Always true when leases are off or the token is 0.
+     */
+    public boolean checkLockToken(ISqlTransaction transaction, String action, long token);
+
     public boolean lock(String action, String lockType);
 
     public boolean lock(String action, String lockType, long waitMillis);
@@ -58,6 +71,8 @@ public interface IClusterService {
 
     public boolean isInfiniteLocked(String action);
 
+    public void stop();
+
     public void persistToTableForSnapshot();
 
     public String getInstanceId();
@@ -23,6 +23,7 @@ package org.jumpmind.symmetric.service;
 import java.util.List;
 import java.util.Map;
 
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
 import org.jumpmind.symmetric.model.NodeCommunication;
 import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
 import org.jumpmind.symmetric.model.RemoteNodeStatus;
@@ -47,6 +48,8 @@ public interface INodeCommunicationService {
 
     public void persistToTableForSnapshot();
 
+    public void setReadyBatchIndex(ReadyBatchIndex readyBatchIndex);
+
     public interface INodeCommunicationExecutor {
         public void execute(NodeCommunication nodeCommunication, RemoteNodeStatus status);
     }
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
 import org.jumpmind.symmetric.model.AbstractBatch.Status;
 import org.jumpmind.symmetric.model.NodeGroupLinkAction;
 import org.jumpmind.symmetric.model.OutgoingBatch;
@@ -128,4 +129,6 @@ public interface IOutgoingBatchService {
     public List<Long> getAllBatches();
 
     public List<OutgoingBatch> getBatchesInProgress();
+
+    public ReadyBatchIndex getReadyBatchIndex();
 }
\ No newline at end of file
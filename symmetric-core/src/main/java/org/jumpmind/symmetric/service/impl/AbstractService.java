@@ -36,6 +36,7 @@ import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.ISqlTransaction;
@@ -154,6 +155,76 @@ abstract public class AbstractService implements IService {
         }
     }
 
+    /**
+     * @return the number of rows to list in the values clause of each insert statement, which is 1 when the platform can only insert one row per
+     *         statement
+     */
+    protected int getRowsPerInsert(int columnsPerRow) {
+        DatabaseInfo databaseInfo = platform.getDatabaseInfo();
+        int rowsPerInsert = parameterService.getInt(ParameterConstants.ROUTING_INSERT_ROWS_PER_STATEMENT, 100);
+        if (!databaseInfo.isMultiRowInsertSupported()) {
+            rowsPerInsert = 1;
+        } else if (databaseInfo.getMaxBindParameters() > 0) {
+            rowsPerInsert = Math.min(rowsPerInsert, databaseInfo.getMaxBindParameters() / columnsPerRow);
+        }
+        return Math.max(rowsPerInsert, 1);
+    }
+
+    /**
+     * Insert rows with statements that list up to rowsPerInsert values clauses after the insert prefix. The statements are added to the transaction
+     * as a batch that is flushed after at least flushSize rows. Each statement is marked with the marker of its row, or with the list of markers of
+     * its rows when it inserts more than one.
+     */
+    protected void insertRows(ISqlTransaction transaction, String insertPrefixSql, String valuesSql, List<?> markers, List<Object[]> rows,
+            int[] rowTypes, int rowsPerInsert, int flushSize) {
+        String preparedSql = null;
+        int unflushedRows = 0;
+        for (int start = 0; start < rows.size(); start += rowsPerInsert) {
+            int rowCount = Math.min(rowsPerInsert, rows.size() - start);
+            String sql = toMultiRowInsertSql(insertPrefixSql, valuesSql, rowCount);
+            if (!sql.equals(preparedSql)) {
+                if (preparedSql != null) {
+                    transaction.flush();
+                    unflushedRows = 0;
+                }
+                transaction.prepare(sql);
+                preparedSql = sql;
+            }
+            int columnCount = rowTypes.length;
+            Object[] args = new Object[rowCount * columnCount];
+            int[] types = new int[rowCount * columnCount];
+            for (int i = 0; i < rowCount; i++) {
+                System.arraycopy(rows.get(start + i), 0, args, i * columnCount, columnCount);
+                System.arraycopy(rowTypes, 0, types, i * columnCount, columnCount);
+            }
+            Object marker = rowCount == 1 ? markers.get(start) : new ArrayList<Object>(markers.subList(start, start + rowCount));
+            transaction.addRow(marker, args, types);
+            unflushedRows += rowCount;
+            if (unflushedRows >= flushSize) {
+                transaction.flush();
+                unflushedRows = 0;
+            }
+        }
+        transaction.flush();
+    }
+
+    /**
+     * Append the values clause to the insert prefix once for each row.
+     */
+    protected static String toMultiRowInsertSql(String insertPrefixSql, String valuesSql, int rowCount) {
+        String prefix = insertPrefixSql.trim();
+        String values = valuesSql.trim();
+        StringBuilder sql = new StringBuilder(prefix.length() + 1 + (values.length() + 2) * rowCount);
+        sql.append(prefix).append(" ");
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(values);
+        }
+        return sql.toString();
+    }
+
     protected Set<String> toNodeIds(Set<Node> nodes) {
         return toNodeIds(nodes, null);
     }
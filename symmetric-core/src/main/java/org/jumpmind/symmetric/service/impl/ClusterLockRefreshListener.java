@@ -20,6 +20,8 @@
  */
 package org.jumpmind.symmetric.service.impl;
 
+import java.util.concurrent.CancellationException;
+
 import org.jumpmind.symmetric.io.data.DataContext;
 import org.jumpmind.symmetric.io.data.IDataProcessorListener;
 import org.jumpmind.symmetric.service.ClusterConstants;
@@ -55,7 +57,9 @@ class ClusterLockRefreshListener implements IDataProcessorListener {
 
     @Override
     public void batchProgressUpdate(DataContext context) {
-        clusterService.refreshLock(ClusterConstants.INITIAL_LOAD_EXTRACT);
+        if (!clusterService.refreshLock(ClusterConstants.INITIAL_LOAD_EXTRACT)) {
+            throw new CancellationException("The initial load extract lock was lost to another server");
+        }
     }
     
     @Override
@@ -58,10 +58,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.UniqueKeyException;
 import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.SystemConstants;
@@ -74,6 +79,7 @@ import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.INodeService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.util.AppUtils;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -93,6 +99,8 @@ public class ClusterService extends AbstractService implements IClusterService {
     protected INodeService nodeService;
     protected IExtensionService extensionService;
     protected Map<String, Lock> lockCache = new ConcurrentHashMap<String, Lock>();
+    protected Map<String, Lease> leases = new ConcurrentHashMap<String, Lease>();
+    protected ScheduledExecutorService leaseRenewer;
 
     public ClusterService(IParameterService parameterService, ISymmetricDialect dialect, INodeService nodeService,
             IExtensionService extensionService) {
@@ -209,6 +217,10 @@ public class ClusterService extends AbstractService implements IClusterService {
 
     @Override
     public synchronized void persistToTableForSnapshot() {
+        if (isLeaseEnabled()) {
+            // the table already holds the leases other servers are relying on
+            return;
+        }
         sqlTemplate.update(getSql("deleteSql"));
         Collection<Lock> values = lockCache.values();
         for (Lock lock : values) {
@@ -266,6 +278,9 @@ public class ClusterService extends AbstractService implements IClusterService {
 
     @Override
     public boolean lock(final String action) {
+        if (isLeaseEnabled() && !lockLease(action)) {
+            return false;
+        }
         final Date timeout = DateUtils.addMilliseconds(new Date(),
                 (int) -parameterService.getLong(ParameterConstants.CLUSTER_LOCK_TIMEOUT_MS));
         return lockCluster(action, timeout, new Date(), getServerId());
@@ -287,6 +302,117 @@ public class ClusterService extends AbstractService implements IClusterService {
         return false;
     }
 
+    protected boolean isLeaseEnabled() {
+        return parameterService.is(ParameterConstants.CLUSTER_LOCK_LEASE_ENABLED, false);
+    }
+
+    protected long getLeaseMillis() {
+        return parameterService.getLong(ParameterConstants.CLUSTER_LOCK_LEASE_MS, 60000);
+    }
+
+    /**
+     * Make sure this server holds the lease on the lock table row for the action. A lease that is held and was renewed recently enough is reused
+     * without going to the database, which is what keeps jobs on short periods from contending on the lock table.
+     */
+    protected boolean lockLease(String action) {
+        Lock lock = lockCache.get(action);
+        if (lock != null) {
+            synchronized (lock) {
+                long now = System.currentTimeMillis();
+                long leaseMillis = getLeaseMillis();
+                Lease lease = leases.get(action);
+                if (lease == null || !lease.isHeld(now, leaseMillis)) {
+                    lease = acquireLease(action, now, leaseMillis);
+                    if (lease == null) {
+                        return false;
+                    }
+                    leases.put(action, lease);
+                    startLeaseRenewer(leaseMillis);
+                }
+                lease.setLastUsedTime(now);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected Lease acquireLease(String action, long now, long leaseMillis) {
+        String argServerId = getServerId();
+        Date lockTime = new Date(now);
+        if (sqlTemplate.update(getSql("acquireLeaseSql"), argServerId, lockTime, action, TYPE_CLUSTER, argServerId,
+                new Date(now - leaseMillis)) == 0) {
+            if (sqlTemplate.queryForInt(getSql("selectLockCountSql"), action) > 0) {
+                return null;
+            }
+            try {
+                sqlTemplate.update(getSql("insertLeaseSql"), action, TYPE_CLUSTER, argServerId, lockTime);
+            } catch (UniqueKeyException e) {
+                return null;
+            }
+        }
+        long token = sqlTemplate.queryForLong(getSql("selectLockTokenSql"), action, argServerId);
+        log.debug("Acquired lease for action:{} server:{} token:{}", action, argServerId, token);
+        return new Lease(token, now);
+    }
+
+    protected boolean renewLease(String action, Lease lease, long now) {
+        if (sqlTemplate.update(getSql("renewLeaseSql"), new Date(now), action, getServerId(), lease.getToken()) == 1) {
+            lease.setRenewedTime(now);
+            return true;
+        }
+        lease.setLost(true);
+        log.warn("Lost lease for action:{} server:{} token:{}", action, getServerId(), lease.getToken());
+        return false;
+    }
+
+    protected void releaseLease(String action, Lease lease) {
+        leases.remove(action, lease);
+        if (!lease.isLost()) {
+            sqlTemplate.update(getSql("releaseLeaseSql"), action, getServerId(), lease.getToken());
+            log.debug("Released lease for action:{} server:{} token:{}", action, getServerId(), lease.getToken());
+        }
+    }
+
+    protected synchronized void startLeaseRenewer(long leaseMillis) {
+        if (leaseRenewer == null) {
+            long renewMillis = Math.max(leaseMillis / 3, 1);
+            leaseRenewer = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory(
+                    parameterService.getEngineName() + "-lease-renewer"));
+            leaseRenewer.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    renewLeases();
+                }
+            }, renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Renew leases that are in use or were used within the last lease period, and release the rest so another server can pick up the job.
+     */
+    protected void renewLeases() {
+        long leaseMillis = getLeaseMillis();
+        for (String action : leases.keySet()) {
+            Lock lock = lockCache.get(action);
+            if (lock != null) {
+                synchronized (lock) {
+                    Lease lease = leases.get(action);
+                    try {
+                        long now = System.currentTimeMillis();
+                        if (lease == null || lease.isLost()) {
+                            continue;
+                        } else if (!getServerId().equals(lock.getLockingServerId()) && now - lease.getLastUsedTime() > leaseMillis) {
+                            releaseLease(action, lease);
+                        } else {
+                            renewLease(action, lease, now);
+                        }
+                    } catch (Exception e) {
+                        log.warn("Failed to renew lease for action:{} server:{}", action, getServerId(), e);
+                    }
+                }
+            }
+        }
+    }
+
     protected void updateCacheLockTime(String action, Date timeLockAcquired) {
         Lock lock = lockCache.get(action);
         if (lock != null) {
@@ -440,6 +566,11 @@ public class ClusterService extends AbstractService implements IClusterService {
         if (!unlockCluster(action, getServerId())) {
             log.warn("Failed to release lock for action:{} server:{}", action, getServerId());
         }
+        Lease lease = leases.get(action);
+        if (lease != null) {
+            // the lease is kept for the next run and only released after sitting idle
+            lease.setLastUsedTime(System.currentTimeMillis());
+        }
     }
 
     protected boolean unlockCluster(String action, String argServerId) {
@@ -530,11 +661,118 @@ public class ClusterService extends AbstractService implements IClusterService {
 
     @Override
     public boolean refreshLock(String action) {
+        Lease lease = leases.get(action);
+        Lock lock = lockCache.get(action);
+        if (lease != null && lock != null && isLeaseEnabled()) {
+            synchronized (lock) {
+                long now = System.currentTimeMillis();
+                if (lease.isLost()) {
+                    return false;
+                }
+                // the caller is still working under the lock, so the lease is in use
+                lease.setLastUsedTime(now);
+                if (now - lease.getRenewedTime() >= getLeaseMillis() / 3) {
+                    return renewLease(action, lease, now);
+                }
+            }
+        }
         return true;
     }
 
+    @Override
+    public long getLockToken(String action) {
+        Lease lease = leases.get(action);
+        return lease != null && !lease.isLost() ? lease.getToken() : 0;
+    }
+
+    @Override
+    public boolean checkLockToken(ISqlTransaction transaction, String action, long token) {
+        if (token <= 0 || !isLeaseEnabled()) {
+            return true;
+        }
+        boolean held = transaction.prepareAndExecute(getSql("checkLeaseSql"), action, getServerId(), token) == 1;
+        if (!held) {
+            log.warn("Lease for action:{} server:{} token:{} is no longer held", action, getServerId(), token);
+        }
+        return held;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService renewer = null;
+        synchronized (this) {
+            renewer = leaseRenewer;
+            leaseRenewer = null;
+        }
+        if (renewer != null) {
+            renewer.shutdownNow();
+        }
+        for (String action : leases.keySet()) {
+            Lease lease = leases.get(action);
+            if (lease != null) {
+                try {
+                    releaseLease(action, lease);
+                } catch (Exception e) {
+                    log.warn("Failed to release lease for action:{} server:{}", action, getServerId(), e);
+                }
+            }
+        }
+    }
+
     @Override
     public boolean isClusteringEnabled() {
         return false;
     }
+
+    /**
+     * A lease on a cluster lock held by this server. The token is the fencing token written to the lock table when the lease was acquired.
+     */
+    protected static class Lease {
+        private final long token;
+        private volatile long renewedTime;
+        private volatile long lastUsedTime;
+        private volatile boolean lost;
+
+        public Lease(long token, long renewedTime) {
+            this.token = token;
+            this.renewedTime = renewedTime;
+            this.lastUsedTime = renewedTime;
+        }
+
+        /**
+         * The lease is only trusted for two thirds of its period since the last renewal, which leaves room for clock drift between servers before
+         * another server is allowed to break it.
+         */
+        public boolean isHeld(long now, long leaseMillis) {
+            return !lost && now - renewedTime < leaseMillis * 2 / 3;
+        }
+
+        public long getToken() {
+            return token;
+        }
+
+        public long getRenewedTime() {
+            return renewedTime;
+        }
+
+        public void setRenewedTime(long renewedTime) {
+            this.renewedTime = renewedTime;
+        }
+
+        public long getLastUsedTime() {
+            return lastUsedTime;
+        }
+
+        public void setLastUsedTime(long lastUsedTime) {
+            this.lastUsedTime = lastUsedTime;
+        }
+
+        public boolean isLost() {
+            return lost;
+        }
+
+        public void setLost(boolean lost) {
+            this.lost = lost;
+        }
+    }
 }
@@ -30,5 +30,17 @@ public class ClusterServiceSqlMap extends AbstractSqlMap {
         putSql("deleteSql", "delete from $(lock)");
         putSql("insertCompleteLockSql",
                 "insert into $(lock) (lock_action, lock_type, locking_server_id, lock_time, shared_count, shared_enable, last_lock_time, last_locking_server_id) values(?,?,?,?,?,?,?,?)");
+        putSql("acquireLeaseSql",
+                "update $(lock) set locking_server_id=?, lock_time=?, lock_token=lock_token+1 where lock_action=? and lock_type=? and "
+                        + "(locking_server_id is null or locking_server_id=? or lock_time is null or lock_time < ?)");
+        putSql("insertLeaseSql",
+                "insert into $(lock) (lock_action, lock_type, locking_server_id, lock_time, shared_count, shared_enable, lock_token) values(?,?,?,?,0,0,1)");
+        putSql("checkLeaseSql", "update $(lock) set lock_token=lock_token where lock_action=? and locking_server_id=? and lock_token=?");
+        putSql("renewLeaseSql", "update $(lock) set lock_time=? where lock_action=? and locking_server_id=? and lock_token=?");
+        putSql("releaseLeaseSql",
+                "update $(lock) set last_locking_server_id=locking_server_id, last_lock_time=lock_time, locking_server_id=null, lock_time=null "
+                        + "where lock_action=? and locking_server_id=? and lock_token=?");
+        putSql("selectLockCountSql", "select count(*) from $(lock) where lock_action=?");
+        putSql("selectLockTokenSql", "select lock_token from $(lock) where lock_action=? and locking_server_id=?");
     }
 }
\ No newline at end of file
@@ -31,6 +31,10 @@ import java.util.Set;
 
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.cache.CacheManager;
+import org.jumpmind.symmetric.cache.ICacheManager;
+import org.jumpmind.symmetric.cache.ISnapshotLoader;
+import org.jumpmind.symmetric.cache.SnapshotCache;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
@@ -52,9 +56,9 @@ import org.jumpmind.symmetric.service.IParameterService;
 public class ConfigurationService extends AbstractService implements IConfigurationService {
     private INodeService nodeService;
     private Map<String, List<NodeChannel>> nodeChannelCache;
-    private Map<String, Channel> channelsCache;
+    private SnapshotCache<String, Channel> channelsCache;
     private List<NodeGroupLink> nodeGroupLinksCache;
-    private long channelCacheTime;
+    private long channelWindowsCacheTime;
     private long nodeChannelCacheTime;
     private long nodeGroupLinkCacheTime;
     private Map<String, Channel> defaultChannels;
@@ -63,11 +67,22 @@ public class ConfigurationService extends AbstractService implements IConfigurat
 
     public ConfigurationService(IParameterService parameterService, ISymmetricDialect dialect,
             INodeService nodeService) {
+        this(parameterService, dialect, nodeService, new CacheManager(parameterService));
+    }
+
+    public ConfigurationService(IParameterService parameterService, ISymmetricDialect dialect,
+            INodeService nodeService, ICacheManager cacheManager) {
         super(parameterService, dialect);
         this.nodeService = nodeService;
         createDefaultChannels();
         setSqlMap(new ConfigurationServiceSqlMap(symmetricDialect.getPlatform(),
                 createSqlReplacementTokens()));
+        channelsCache = cacheManager.createCache(ICacheManager.CACHE_CHANNEL, ParameterConstants.CACHE_TIMEOUT_CHANNEL_IN_MS,
+                new ISnapshotLoader<String, Channel>() {
+                    public Map<String, Channel> loadAll() {
+                        return loadChannels();
+                    }
+                });
     }
 
     protected final void createDefaultChannels() {
@@ -424,7 +439,7 @@ public class ConfigurationService extends AbstractService implements IConfigurat
     public void clearCache() {
         synchronized (this) {
             nodeChannelCache = null;
-            channelsCache = null;
+            channelsCache.invalidate();
             nodeGroupLinksCache = null;
             channelWindowsByChannelCache = null;
         }
@@ -475,10 +490,10 @@ public class ConfigurationService extends AbstractService implements IConfigurat
     public List<NodeGroupChannelWindow> getNodeGroupChannelWindows(String notUsed, String channelId) {
         long channelCacheTimeoutInMs = parameterService.getLong(ParameterConstants.CACHE_TIMEOUT_CHANNEL_IN_MS, 60000);
         Map<String, List<NodeGroupChannelWindow>> channelWindowsByChannel = channelWindowsByChannelCache;
-        if (System.currentTimeMillis() - channelCacheTime >= channelCacheTimeoutInMs || channelWindowsByChannel == null) {
+        if (System.currentTimeMillis() - channelWindowsCacheTime >= channelCacheTimeoutInMs || channelWindowsByChannel == null) {
             synchronized (this) {
                 channelWindowsByChannel = channelWindowsByChannelCache;
-                if (System.currentTimeMillis() - channelCacheTime >= channelCacheTimeoutInMs || channelWindowsByChannel == null) {
+                if (System.currentTimeMillis() - channelWindowsCacheTime >= channelCacheTimeoutInMs || channelWindowsByChannel == null) {
                     channelWindowsByChannel = new HashMap<String, List<NodeGroupChannelWindow>>();
                     String nodeGroupId = parameterService.getNodeGroupId();
                     Set<String> channelIds = getChannels(false).keySet();
@@ -487,6 +502,7 @@ public class ConfigurationService extends AbstractService implements IConfigurat
                                 new NodeGroupChannelWindowMapper(), nodeGroupId, id));
                     }
                     channelWindowsByChannelCache = channelWindowsByChannel;
+                    channelWindowsCacheTime = System.currentTimeMillis();
                 }
             }
         }
@@ -522,55 +538,45 @@ public class ConfigurationService extends AbstractService implements IConfigurat
     }
 
     public Map<String, Channel> getChannels(boolean refreshCache) {
-        long channelCacheTimeoutInMs = parameterService.getLong(
-                ParameterConstants.CACHE_TIMEOUT_CHANNEL_IN_MS, 60000);
-        Map<String, Channel> channels = channelsCache;
-        if (System.currentTimeMillis() - channelCacheTime >= channelCacheTimeoutInMs
-                || channels == null || refreshCache) {
-            synchronized (this) {
-                channels = channelsCache;
-                if (System.currentTimeMillis() - channelCacheTime >= channelCacheTimeoutInMs
-                        || channels == null || refreshCache) {
-                    channels = new HashMap<String, Channel>();
-                    List<Channel> list = sqlTemplate.query(getSql("selectChannelsSql"),
-                            new ISqlRowMapper<Channel>() {
-                                public Channel mapRow(Row row) {
-                                    Channel channel = new Channel();
-                                    channel.setChannelId(row.getString("channel_id"));
-                                    channel.setProcessingOrder(row.getInt("processing_order"));
-                                    channel.setMaxBatchSize(row.getInt("max_batch_size"));
-                                    channel.setEnabled(row.getBoolean("enabled"));
-                                    channel.setMaxBatchToSend(row.getInt("max_batch_to_send"));
-                                    channel.setMaxDataToRoute(row.getInt("max_data_to_route"));
-                                    channel.setUseOldDataToRoute(row
-                                            .getBoolean("use_old_data_to_route"));
-                                    channel.setUseRowDataToRoute(row
-                                            .getBoolean("use_row_data_to_route"));
-                                    channel.setUsePkDataToRoute(row
-                                            .getBoolean("use_pk_data_to_route"));
-                                    channel.setContainsBigLob(row.getBoolean("contains_big_lob"));
-                                    channel.setBatchAlgorithm(row.getString("batch_algorithm"));
-                                    channel.setExtractPeriodMillis(row
-                                            .getLong("extract_period_millis"));
-                                    channel.setDataLoaderType(row.getString("data_loader_type"));
-                                    channel.setCreateTime(row.getDateTime("create_time"));
-                                    channel.setLastUpdateBy(row.getString("last_update_by"));
-                                    channel.setLastUpdateTime(row.getDateTime("last_update_time"));
-                                    channel.setReloadFlag(row.getBoolean("reload_flag"));
-                                    channel.setFileSyncFlag(row.getBoolean("file_sync_flag"));
-                                    channel.setQueue(row.getString("queue"));
-                                    channel.setMaxKBytesPerSecond(row.getBigDecimal("max_network_kbps"));
-                                    channel.setDataEventAction(NodeGroupLinkAction.fromCode(row.getString("data_event_action")));
-                                    return channel;
-                                }
-                            });
-                    for (Channel channel : list) {
-                        channels.put(channel.getChannelId(), channel);
+        return refreshCache ? channelsCache.reload() : channelsCache.getAll();
+    }
+
+    protected Map<String, Channel> loadChannels() {
+        Map<String, Channel> channels = new HashMap<String, Channel>();
+        List<Channel> list = sqlTemplate.query(getSql("selectChannelsSql"),
+                new ISqlRowMapper<Channel>() {
+                    public Channel mapRow(Row row) {
+                        Channel channel = new Channel();
+                        channel.setChannelId(row.getString("channel_id"));
+                        channel.setProcessingOrder(row.getInt("processing_order"));
+                        channel.setMaxBatchSize(row.getInt("max_batch_size"));
+                        channel.setEnabled(row.getBoolean("enabled"));
+                        channel.setMaxBatchToSend(row.getInt("max_batch_to_send"));
+                        channel.setMaxDataToRoute(row.getInt("max_data_to_route"));
+                        channel.setUseOldDataToRoute(row
+                                .getBoolean("use_old_data_to_route"));
+                        channel.setUseRowDataToRoute(row
+                                .getBoolean("use_row_data_to_route"));
+                        channel.setUsePkDataToRoute(row
+                                .getBoolean("use_pk_data_to_route"));
+                        channel.setContainsBigLob(row.getBoolean("contains_big_lob"));
+                        channel.setBatchAlgorithm(row.getString("batch_algorithm"));
+                        channel.setExtractPeriodMillis(row
+                                .getLong("extract_period_millis"));
+                        channel.setDataLoaderType(row.getString("data_loader_type"));
+                        channel.setCreateTime(row.getDateTime("create_time"));
+                        channel.setLastUpdateBy(row.getString("last_update_by"));
+                        channel.setLastUpdateTime(row.getDateTime("last_update_time"));
+                        channel.setReloadFlag(row.getBoolean("reload_flag"));
+                        channel.setFileSyncFlag(row.getBoolean("file_sync_flag"));
+                        channel.setQueue(row.getString("queue"));
+                        channel.setMaxKBytesPerSecond(row.getBigDecimal("max_network_kbps"));
+                        channel.setDataEventAction(NodeGroupLinkAction.fromCode(row.getString("data_event_action")));
+                        return channel;
                     }
-                    channelsCache = channels;
-                    channelCacheTime = System.currentTimeMillis();
-                }
-            }
+                });
+        for (Channel channel : list) {
+            channels.put(channel.getChannelId(), channel);
         }
         return channels;
     }
@@ -81,6 +81,7 @@ import org.jumpmind.symmetric.common.ErrorConstants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.extract.MultiBatchStagingWriter;
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
 import org.jumpmind.symmetric.extract.SelectFromSymDataSource;
 import org.jumpmind.symmetric.extract.SelectFromTableEvent;
 import org.jumpmind.symmetric.extract.SelectFromTableSource;
@@ -154,6 +155,7 @@ import org.jumpmind.symmetric.service.ITransformService;
 import org.jumpmind.symmetric.service.ITriggerRouterService;
 import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGroupLink;
 import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
 import org.jumpmind.symmetric.transport.BatchBufferedWriter;
 import org.jumpmind.symmetric.transport.IOutgoingTransport;
 import org.jumpmind.symmetric.transport.TransportUtils;
@@ -521,27 +523,22 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         BufferedWriter writer = transport.getWriter();
         extractInfo.setStatus(ProcessStatus.QUERYING);
         Callable<OutgoingBatches> getOutgoingBatches = () -> {
-            OutgoingBatches batches = null;
-            if (queue != null) {
-                NodeGroupLink link = configurationService.getNodeGroupLinkFor(nodeService.findIdentity().getNodeGroupId(),
-                        targetNode.getNodeGroupId(), false);
-                if (link != null) {
-                    NodeGroupLinkAction defaultAction = configurationService.getNodeGroupLinkFor(nodeService.findIdentity().getNodeGroupId(),
-                            targetNode.getNodeGroupId(), false).getDataEventAction();
-                    ProcessType processType = extractInfo.getKey().getProcessType();
-                    NodeGroupLinkAction action = null;
-                    if (processType.equals(ProcessType.PUSH_JOB_EXTRACT)) {
-                        action = NodeGroupLinkAction.P;
-                    } else if (processType.equals(ProcessType.PULL_HANDLER_EXTRACT)) {
-                        action = NodeGroupLinkAction.W;
-                    }
-                    batches = outgoingBatchService.getOutgoingBatches(targetNode.getNodeId(), queue, action, defaultAction, false);
-                } else {
-                    log.error("Group link not found for " + nodeService.findIdentity().getNodeGroupId() +
-                            " to " + targetNode.getNodeGroupId() + ".  Check that configuration matches on both nodes.");
+            ReadyBatchIndex readyBatchIndex = outgoingBatchService.getReadyBatchIndex();
+            long longPollMillis = 0;
+            if (extractInfo.getKey().getProcessType() == ProcessType.PULL_HANDLER_EXTRACT && readyBatchIndex.isEnabled()) {
+                longPollMillis = parameterService.getLong(ParameterConstants.PULL_LONG_POLL_TIMEOUT_MS, 0);
+            }
+            long longPollUntil = System.currentTimeMillis() + longPollMillis;
+            long readyGeneration = readyBatchIndex.getGeneration(targetNode.getNodeId());
+            OutgoingBatches batches = selectPendingBatches(extractInfo, targetNode, queue);
+            long remaining = longPollUntil - System.currentTimeMillis();
+            while (batches != null && !batches.containsBatches() && remaining > 0) {
+                if (!readyBatchIndex.awaitReady(targetNode.getNodeId(), readyGeneration, remaining)) {
+                    break;
                 }
-            } else {
-                batches = outgoingBatchService.getOutgoingBatches(targetNode.getNodeId(), false);
+                readyGeneration = readyBatchIndex.getGeneration(targetNode.getNodeId());
+                batches = selectPendingBatches(extractInfo, targetNode, queue);
+                remaining = longPollUntil - System.currentTimeMillis();
             }
             return batches;
         };
@@ -574,6 +571,32 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         }
     }
 
+    protected OutgoingBatches selectPendingBatches(ProcessInfo extractInfo, Node targetNode, String queue) {
+        OutgoingBatches batches = null;
+        if (queue != null) {
+            NodeGroupLink link = configurationService.getNodeGroupLinkFor(nodeService.findIdentity().getNodeGroupId(),
+                    targetNode.getNodeGroupId(), false);
+            if (link != null) {
+                NodeGroupLinkAction defaultAction = configurationService.getNodeGroupLinkFor(nodeService.findIdentity().getNodeGroupId(),
+                        targetNode.getNodeGroupId(), false).getDataEventAction();
+                ProcessType processType = extractInfo.getKey().getProcessType();
+                NodeGroupLinkAction action = null;
+                if (processType.equals(ProcessType.PUSH_JOB_EXTRACT)) {
+                    action = NodeGroupLinkAction.P;
+                } else if (processType.equals(ProcessType.PULL_HANDLER_EXTRACT)) {
+                    action = NodeGroupLinkAction.W;
+                }
+                batches = outgoingBatchService.getOutgoingBatches(targetNode.getNodeId(), queue, action, defaultAction, false);
+            } else {
+                log.error("Group link not found for " + nodeService.findIdentity().getNodeGroupId() +
+                        " to " + targetNode.getNodeGroupId() + ".  Check that configuration matches on both nodes.");
+            }
+        } else {
+            batches = outgoingBatchService.getOutgoingBatches(targetNode.getNodeId(), false);
+        }
+        return batches;
+    }
+
     /**
      * This method will extract an outgoing batch, but will not update the outgoing batch status
      */
@@ -1010,6 +1033,8 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                                 outgoingBatchService.updateCommonBatchExtractStatistics(currentBatch);
                             }
                         }
+                        statisticManager.recordLatency(MetricsRegistry.STAGE_EXTRACT, currentBatch.getChannelId(), targetNode.getNodeId(),
+                                extractTimeInMs);
                     }
                 } catch (RuntimeException ex) {
                     IStagedResource resource = getStagedResource(currentBatch);
@@ -1170,7 +1195,11 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
         IExtractDataReaderSource source = AppUtils.newInstance(IExtractDataReaderSource.class, SelectFromSymDataSource.class,
                 new Object[] { engine, currentBatch, sourceNode, targetNode, processInfo, containsBigLob },
                 new Class[] { ISymmetricEngine.class, OutgoingBatch.class, Node.class, Node.class, ProcessInfo.class, boolean.class });
-        return new ExtractDataReader(symmetricDialect.getPlatform(), source);
+        ExtractDataReader reader = new ExtractDataReader(symmetricDialect.getPlatform(), source);
+        if (!containsBigLob) {
+            reader.setLobFetchSize(parameterService.getInt(ParameterConstants.EXTRACT_LOB_FETCH_SIZE, 1));
+        }
+        return reader;
     }
 
     protected Statistics getExtractStats(IDataWriter writer, OutgoingBatch currentBatch) {
@@ -1344,6 +1373,8 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                         "Could not find the staged resource for batch %s",
                         currentBatch.getNodeBatchId()));
             }
+            statisticManager.recordLatency(MetricsRegistry.STAGE_TRANSFER, currentBatch.getChannelId(), targetNode.getNodeId(),
+                    System.currentTimeMillis() - ts);
             currentBatch = requeryIfEnoughTimeHasPassed(ts, currentBatch);
         }
         return currentBatch;
@@ -1647,7 +1678,10 @@ public class DataExtractorService extends AbstractService implements IDataExtrac
                 try {
                     List<NodeQueuePair> nodes = getExtractRequestNodes();
                     for (NodeQueuePair pair : nodes) {
-                        clusterService.refreshLock(ClusterConstants.INITIAL_LOAD_EXTRACT);
+                        if (!clusterService.refreshLock(ClusterConstants.INITIAL_LOAD_EXTRACT)) {
+                            log.warn("Stopped queueing initial load extracts because the lock was lost to another server");
+                            break;
+                        }
                         queue(pair.getNodeId(), pair.getQueue(), statuses);
                     }
                 } finally {
@@ -128,6 +128,7 @@ import org.jumpmind.symmetric.service.RegistrationPendingException;
 import org.jumpmind.symmetric.service.RegistrationRequiredException;
 import org.jumpmind.symmetric.service.impl.TransformService.TransformTableNodeGroupLink;
 import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
 import org.jumpmind.symmetric.transport.AuthenticationException;
 import org.jumpmind.symmetric.transport.ConnectionRejectedException;
 import org.jumpmind.symmetric.transport.IIncomingTransport;
@@ -1058,6 +1059,8 @@ public class DataLoaderService extends AbstractService implements IDataLoaderSer
                             incomingBatch = listener.currentBatch;
                             if (incomingBatch != null) {
                                 incomingBatch.setNetworkMillis(networkMillis);
+                                statisticManager.recordLatency(MetricsRegistry.STAGE_RECEIVE, incomingBatch.getChannelId(),
+                                        incomingBatch.getNodeId(), networkMillis);
                                 if (batchInStaging.isIgnored()) {
                                     incomingBatch.incrementIgnoreCount();
                                 }
@@ -1928,7 +1928,15 @@ public class DataService extends AbstractService implements IDataService {
     }
 
     public void insertDataEvents(ISqlTransaction transaction, final List<DataEvent> events) {
-        if (events.size() > 0) {
+        int rowsPerInsert = events.size() > 1 ? getRowsPerInsert(2) : 1;
+        if (rowsPerInsert > 1) {
+            List<Object[]> rows = new ArrayList<Object[]>(events.size());
+            for (DataEvent dataEvent : events) {
+                rows.add(new Object[] { dataEvent.getDataId(), dataEvent.getBatchId() });
+            }
+            insertRows(transaction, getSql("insertIntoDataEventPrefixSql"), getSql("insertIntoDataEventValuesSql"), events, rows,
+                    new int[] { Types.NUMERIC, Types.NUMERIC }, rowsPerInsert, Integer.MAX_VALUE);
+        } else if (events.size() > 0) {
             transaction.prepare(getSql("insertIntoDataEventSql"));
             for (DataEvent dataEvent : events) {
                 transaction.addRow(
@@ -183,6 +183,9 @@ public class DataServiceSqlMap extends AbstractSqlMap {
                         "values (null, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, current_timestamp)");
         putSql("insertIntoDataEventSql",
                 "insert into $(data_event) (data_id, batch_id, create_time) values(?, ?, current_timestamp)");
+        putSql("insertIntoDataEventPrefixSql",
+                "insert into $(data_event) (data_id, batch_id, create_time) values ");
+        putSql("insertIntoDataEventValuesSql", "(?, ?, current_timestamp)");
         putSql("findDataEventCreateTimeSql", ""
                 + "select max(create_time) from $(data_event) where data_id=?   ");
         putSql("findDataCreateTimeSql", ""
@@ -115,7 +115,7 @@ public class FileSyncExtractorService extends DataExtractorService {
                 long maxBytesToSync = parameterService
                         .getLong(ParameterConstants.TRANSPORT_MAX_BYTES_TO_SYNC);
                 FileSyncZipDataWriter fileSyncWriter = new FileSyncZipDataWriter(maxBytesToSync, fileSyncService,
-                        nodeService, stagedResource, extensionService, configurationService) {
+                        nodeService, stagedResource, extensionService, configurationService, parameterService) {
                     @Override
                     public void close() {
                         super.finish();
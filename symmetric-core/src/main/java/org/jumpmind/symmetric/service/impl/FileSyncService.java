@@ -25,6 +25,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Date;
@@ -582,7 +584,8 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
                                     Constants.STAGING_CATEGORY_OUTGOING, processInfo.getSourceNodeId(),
                                     targetNode.getNodeId(), "filesync.zip");
                             dataWriter = new FileSyncZipDataWriter(maxBytesToSync, this,
-                                    engine.getNodeService(), stagedResource, engine.getExtensionService(), engine.getConfigurationService());
+                                    engine.getNodeService(), stagedResource, engine.getExtensionService(), engine.getConfigurationService(),
+                                    parameterService);
                         }
                         log.debug("Extracting batch {} for filesync.", currentBatch.getNodeBatchId());
                         ((DataExtractorService) engine.getDataExtractorService()).extractOutgoingBatch(
@@ -767,6 +770,33 @@ public class FileSyncService extends AbstractOfflineDetectorService implements I
             }
             filesToDelete = null;
         }
+        if (parameterService.is(ParameterConstants.FILE_SYNC_DELTA_ENABLED)) {
+            acknowledgeSignatures(outgoingBatch);
+        }
+    }
+
+    /**
+     * The target node now has the content sent in the batch, so the signatures of that content become the ones the next changes are sent
+     * as deltas against.
+     */
+    protected void acknowledgeSignatures(OutgoingBatch outgoingBatch) {
+        File signatureDir = FileSyncZipDataWriter.getSignatureDir(parameterService);
+        File nodeDir = new File(signatureDir, outgoingBatch.getNodeId());
+        File pendingDir = FileSyncZipDataWriter.getPendingSignatureDir(signatureDir, outgoingBatch.getNodeId(), outgoingBatch.getBatchId());
+        if (pendingDir.isDirectory()) {
+            for (File pendingFile : FileUtils.listFiles(pendingDir, new String[] { "sig" }, true)) {
+                File signatureFile = new File(nodeDir, pendingDir.toPath().relativize(pendingFile.toPath()).toString());
+                try {
+                    signatureFile.getParentFile().mkdirs();
+                    Files.move(pendingFile.toPath(), signatureFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    log.warn("Could not save the file signature {}.  The next change to the file will be sent in full.  {}",
+                            signatureFile.getAbsolutePath(), e.getMessage());
+                    FileUtils.deleteQuietly(signatureFile);
+                }
+            }
+            FileUtils.deleteQuietly(pendingDir);
+        }
     }
 
     public void loadFilesFromPush(String nodeId, InputStream in, OutputStream out) {
@@ -53,6 +53,7 @@ import org.jumpmind.util.FormatUtils;
  */
 public class IncomingBatchService extends AbstractService implements IIncomingBatchService {
     protected IClusterService clusterService;
+    protected Map<String, Map<String, Long>> maxBatchIdsByNode;
 
     @Override
     public List<String> getNodesInError() {
@@ -228,14 +229,22 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
         boolean okayToProcess = true;
         if (batch.isPersistable()) {
             IncomingBatch existingBatch = null;
+            boolean newBatch = isNewBatch(batch);
             if (isRecordOkBatchesEnabled()) {
-                try {
-                    insertIncomingBatch(batch);
-                } catch (UniqueKeyException e) {
-                    batch.setRetry(true);
+                if (!newBatch) {
                     existingBatch = findIncomingBatch(batch.getBatchId(), batch.getNodeId());
                 }
-            } else {
+                if (existingBatch != null) {
+                    batch.setRetry(true);
+                } else {
+                    try {
+                        insertIncomingBatch(batch);
+                    } catch (UniqueKeyException e) {
+                        batch.setRetry(true);
+                        existingBatch = findIncomingBatch(batch.getBatchId(), batch.getNodeId());
+                    }
+                }
+            } else if (!newBatch || parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED)) {
                 existingBatch = findIncomingBatch(batch.getBatchId(), batch.getNodeId());
                 if (existingBatch != null) {
                     batch.setRetry(true);
@@ -275,6 +284,50 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
         return okayToProcess;
     }
 
+    /**
+     * A batch past the highest batch id recorded for its node and channel has never been inserted, so it can be loaded without looking it
+     * up. Batches at or below the mark, including retries and batches that arrive out of order, are looked up as before.
+     */
+    protected synchronized boolean isNewBatch(IncomingBatch batch) {
+        if (batch.getNodeId() == null || batch.getChannelId() == null) {
+            return false;
+        }
+        Map<String, Long> maxBatchIds = getMaxBatchIdsByNode().get(batch.getNodeId());
+        Long maxBatchId = maxBatchIds != null ? maxBatchIds.get(batch.getChannelId()) : null;
+        return maxBatchId == null || batch.getBatchId() > maxBatchId;
+    }
+
+    /**
+     * Raise the mark for every insert that is attempted. The mark only moves up, so a rollback or purge leaves it too high, which costs a
+     * lookup but never skips one that is needed.
+     */
+    protected synchronized void recordBatchId(IncomingBatch batch) {
+        if (batch.getNodeId() != null && batch.getChannelId() != null) {
+            putMaxBatchId(getMaxBatchIdsByNode(), batch.getNodeId(), batch.getChannelId(), batch.getBatchId());
+        }
+    }
+
+    protected Map<String, Map<String, Long>> getMaxBatchIdsByNode() {
+        if (maxBatchIdsByNode == null) {
+            Map<String, Map<String, Long>> ids = new HashMap<String, Map<String, Long>>();
+            sqlTemplate.query(getSql("maxBatchIdsByNodeSql"), new MaxBatchIdByNodeMapper(ids));
+            maxBatchIdsByNode = ids;
+        }
+        return maxBatchIdsByNode;
+    }
+
+    protected static void putMaxBatchId(Map<String, Map<String, Long>> ids, String nodeId, String channelId, long batchId) {
+        Map<String, Long> maxBatchIds = ids.get(nodeId);
+        if (maxBatchIds == null) {
+            maxBatchIds = new HashMap<String, Long>();
+            ids.put(nodeId, maxBatchIds);
+        }
+        Long maxBatchId = maxBatchIds.get(channelId);
+        if (maxBatchId == null || batchId > maxBatchId) {
+            maxBatchIds.put(channelId, batchId);
+        }
+    }
+
     public void insertIncomingBatch(ISqlTransaction transaction, IncomingBatch batch) {
         if (batch.isPersistable()) {
             boolean alreadyExists = false;
@@ -284,6 +337,7 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
                 }
             }
             if (!alreadyExists) {
+                recordBatchId(batch);
                 batch.setLastUpdatedHostName(clusterService.getServerId());
                 batch.setLastUpdatedTime(new Date());
                 transaction.prepareAndExecute(getSql("insertIncomingBatchSql"),
@@ -489,6 +543,20 @@ public class IncomingBatchService extends AbstractService implements IIncomingBa
         }
     }
 
+    static class MaxBatchIdByNodeMapper implements ISqlRowMapper<String> {
+        private Map<String, Map<String, Long>> ids;
+
+        public MaxBatchIdByNodeMapper(Map<String, Map<String, Long>> ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public String mapRow(Row row) {
+            putMaxBatchId(ids, row.getString("node_id"), row.getString("channel_id"), row.getLong("batch_id"));
+            return null;
+        }
+    }
+
     static class LastCaptureByChannelMapper implements ISqlRowMapper<String> {
         private Map<String, Date> captureMap;
 
@@ -93,6 +93,8 @@ public class IncomingBatchServiceSqlMap extends AbstractSqlMap {
         putSql("deleteIncomingBatchByNodeSql" ,"delete from $(incoming_batch) where node_id = ?");
         
         putSql("maxBatchIdsSql", "select max(batch_id) as batch_id, node_id, channel_id from $(incoming_batch) where status = ? group by node_id, channel_id");
+
+        putSql("maxBatchIdsByNodeSql", "select max(batch_id) as batch_id, node_id, channel_id from $(incoming_batch) group by node_id, channel_id");
         
         putSql("selectIncomingBatchSummaryByStatusAndChannelSql",
                 "select count(*) as batches, s.status, sum(s.load_row_count) as data, s.node_id, min(s.create_time) as oldest_batch_time, s.channel_id,      "
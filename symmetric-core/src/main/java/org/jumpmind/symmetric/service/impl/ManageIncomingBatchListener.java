@@ -60,6 +60,7 @@ import org.jumpmind.symmetric.service.IIncomingBatchService;
 import org.jumpmind.symmetric.service.IOutgoingBatchService;
 import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.statistic.IStatisticManager;
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
 import org.jumpmind.symmetric.transport.TransportException;
 import org.jumpmind.util.ExceptionUtils;
 import org.slf4j.Logger;
@@ -144,6 +145,8 @@ class ManageIncomingBatchListener implements IDataProcessorListener {
         statisticManager.incrementDataBytesLoaded(this.currentBatch.getChannelId(),
                 this.currentBatch.getByteCount());
         statisticManager.incrementTableRows(this.currentBatch.getTableLoadedCount(), true);
+        statisticManager.recordLatency(MetricsRegistry.STAGE_LOAD, this.currentBatch.getChannelId(), this.currentBatch.getNodeId(),
+                this.currentBatch.getLoadMillis());
         Status oldStatus = this.currentBatch.getStatus();
         try {
             this.currentBatch.setStatus(Status.OK);
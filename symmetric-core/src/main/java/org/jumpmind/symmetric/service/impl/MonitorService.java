@@ -23,12 +23,23 @@ package org.jumpmind.symmetric.service.impl;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.model.Lock;
@@ -37,6 +48,8 @@ import org.jumpmind.symmetric.model.MonitorEvent;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.Notification;
 import org.jumpmind.symmetric.monitor.IMonitorType;
+import org.jumpmind.symmetric.monitor.ISnapshotMonitorType;
+import org.jumpmind.symmetric.monitor.MonitorSnapshot;
 import org.jumpmind.symmetric.monitor.MonitorTypeOfflineNodes;
 import org.jumpmind.symmetric.monitor.MonitorTypeBatchError;
 import org.jumpmind.symmetric.monitor.MonitorTypeBatchUnsent;
@@ -72,6 +85,7 @@ public class MonitorService extends AbstractService implements IMonitorService {
     protected List<Notification> activeNotificationCache;
     protected long activeNotificationCacheTime;
     protected String typeColumnName;
+    protected ThreadPoolExecutor checkExecutor;
 
     public MonitorService(IParameterService parameterService, ISymmetricDialect symmetricDialect, INodeService nodeService,
             IExtensionService extensionService, IClusterService clusterService, IContextService contextService) {
@@ -103,6 +117,8 @@ public class MonitorService extends AbstractService implements IMonitorService {
         if (identity != null) {
             List<Monitor> activeMonitors = getActiveMonitorsForNode(identity.getNodeGroupId(), identity.getExternalId());
             Map<String, MonitorEvent> unresolved = getMonitorEventsNotResolvedForNode(identity.getNodeId());
+            MonitorSnapshot snapshot = new MonitorSnapshot();
+            List<Monitor> dueMonitors = new ArrayList<Monitor>();
             for (Monitor monitor : activeMonitors) {
                 IMonitorType monitorType = monitorTypes.get(monitor.getType());
                 if (monitorType != null) {
@@ -111,24 +127,27 @@ public class MonitorService extends AbstractService implements IMonitorService {
                         long lastCheckTime = lastCheckTimeLong != null ? lastCheckTimeLong : 0;
                         if (lastCheckTime == 0 || (System.currentTimeMillis() - lastCheckTime) / 1000 >= monitor.getRunPeriod()) {
                             checkTimesByType.put(monitor.getMonitorId(), System.currentTimeMillis());
-                            updateMonitor(monitor, monitorType, identity, unresolved);
+                            dueMonitors.add(monitor);
                         }
                     }
                 } else {
                     log.warn("Could not find monitor of type '" + monitor.getType() + "'");
                 }
             }
+            updateMonitors(dueMonitors, monitorTypes, identity, unresolved, snapshot);
             if (clusterService.lock(ClusterConstants.MONITOR)) {
                 Lock lock = clusterService.findLocks().get(ClusterConstants.MONITOR);
                 long clusterLastCheckTime = lock.getLastLockTime() != null ? lock.getLastLockTime().getTime() : 0;
                 try {
+                    dueMonitors = new ArrayList<Monitor>();
                     for (Monitor monitor : activeMonitors) {
                         IMonitorType monitorType = monitorTypes.get(monitor.getType());
                         if (monitorType != null && monitorType.requiresClusterLock() &&
                                 (System.currentTimeMillis() - clusterLastCheckTime) / 1000 >= monitor.getRunPeriod()) {
-                            updateMonitor(monitor, monitorType, identity, unresolved);
+                            dueMonitors.add(monitor);
                         }
                     }
+                    updateMonitors(dueMonitors, monitorTypes, identity, unresolved, snapshot);
                     int minSeverityLevel = Integer.MAX_VALUE;
                     List<Notification> notifications = getActiveNotificationsForNode(identity.getNodeGroupId(), identity.getExternalId());
                     if (notifications.size() > 0) {
@@ -164,8 +183,99 @@ public class MonitorService extends AbstractService implements IMonitorService {
         }
     }
 
+    /**
+     * Check the monitors on the monitor thread pool and then record their events in order on the calling thread. The monitors of one type
+     * are checked one after another by the same task, so a monitor type is never called from two threads at once.
+     */
+    protected void updateMonitors(List<Monitor> monitors, Map<String, IMonitorType> monitorTypes, Node identity,
+            Map<String, MonitorEvent> unresolved, MonitorSnapshot snapshot) {
+        Map<Monitor, FutureTask<MonitorEvent>> checks = new IdentityHashMap<Monitor, FutureTask<MonitorEvent>>();
+        Map<IMonitorType, List<FutureTask<MonitorEvent>>> checksByType = new LinkedHashMap<IMonitorType, List<FutureTask<MonitorEvent>>>();
+        for (Monitor monitor : monitors) {
+            IMonitorType monitorType = monitorTypes.get(monitor.getType());
+            FutureTask<MonitorEvent> check = new FutureTask<MonitorEvent>(new MonitorCheck(monitor, monitorType, snapshot));
+            checks.put(monitor, check);
+            List<FutureTask<MonitorEvent>> typeChecks = checksByType.get(monitorType);
+            if (typeChecks == null) {
+                typeChecks = new ArrayList<FutureTask<MonitorEvent>>();
+                checksByType.put(monitorType, typeChecks);
+            }
+            typeChecks.add(check);
+        }
+        ThreadPoolExecutor executor = checksByType.size() > 1 ? getCheckExecutor() : null;
+        for (final List<FutureTask<MonitorEvent>> typeChecks : checksByType.values()) {
+            Runnable runnable = new Runnable() {
+                public void run() {
+                    for (FutureTask<MonitorEvent> check : typeChecks) {
+                        check.run();
+                    }
+                }
+            };
+            if (executor != null) {
+                executor.execute(runnable);
+            } else {
+                runnable.run();
+            }
+        }
+        for (FutureTask<MonitorEvent> check : checks.values()) {
+            try {
+                check.get();
+            } catch (ExecutionException e) {
+                // reported by getCheckResult when the events are recorded in monitor order
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (FutureTask<MonitorEvent> pending : checks.values()) {
+                    pending.cancel(false);
+                }
+                log.info("Interrupted while waiting for monitors to be checked");
+                return;
+            }
+        }
+        for (Monitor monitor : monitors) {
+            updateMonitor(monitor, monitorTypes.get(monitor.getType()), identity, unresolved, getCheckResult(monitor, checks.get(monitor)));
+        }
+    }
+
+    protected MonitorEvent getCheckResult(Monitor monitor, FutureTask<MonitorEvent> check) {
+        try {
+            return check.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SymmetricException("Interrupted while checking monitor " + monitor.getMonitorId(), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SymmetricException("Failed to check monitor " + monitor.getMonitorId(), cause);
+        }
+    }
+
+    protected synchronized ThreadPoolExecutor getCheckExecutor() {
+        int threadCount = parameterService.getInt(ParameterConstants.MONITOR_THREAD_COUNT_PER_SERVER, 4);
+        if (threadCount <= 1) {
+            return null;
+        }
+        if (checkExecutor != null && checkExecutor.getCorePoolSize() != threadCount) {
+            checkExecutor.shutdown();
+            checkExecutor = null;
+        }
+        if (checkExecutor == null) {
+            checkExecutor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new MonitorThreadFactory(parameterService.getEngineName()));
+            checkExecutor.allowCoreThreadTimeOut(true);
+        }
+        return checkExecutor;
+    }
+
     protected void updateMonitor(Monitor monitor, IMonitorType monitorType, Node identity, Map<String, MonitorEvent> unresolved) {
-        MonitorEvent eventValue = monitorType.check(monitor);
+        updateMonitor(monitor, monitorType, identity, unresolved, monitorType.check(monitor));
+    }
+
+    protected void updateMonitor(Monitor monitor, IMonitorType monitorType, Node identity, Map<String, MonitorEvent> unresolved,
+            MonitorEvent eventValue) {
         boolean readyToCompare = true;
         if (!monitorType.requiresClusterLock() && monitor.getRunCount() > 0) {
             List<Long> averages = averagesByType.get(monitor.getType());
@@ -459,4 +569,40 @@ public class MonitorService extends AbstractService implements IMonitorService {
             return n;
         }
     }
+
+    static class MonitorCheck implements Callable<MonitorEvent> {
+        private Monitor monitor;
+        private IMonitorType monitorType;
+        private MonitorSnapshot snapshot;
+
+        public MonitorCheck(Monitor monitor, IMonitorType monitorType, MonitorSnapshot snapshot) {
+            this.monitor = monitor;
+            this.monitorType = monitorType;
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public MonitorEvent call() {
+            if (monitorType instanceof ISnapshotMonitorType) {
+                return ((ISnapshotMonitorType) monitorType).check(monitor, snapshot);
+            }
+            return monitorType.check(monitor);
+        }
+    }
+
+    static class MonitorThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private String engineName;
+
+        public MonitorThreadFactory(String engineName) {
+            this.engineName = engineName;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r);
+            t.setName(engineName.toLowerCase() + "-monitor-" + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
 }
@@ -45,11 +45,13 @@ import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
 import org.jumpmind.symmetric.model.Channel;
 import org.jumpmind.symmetric.model.DatabaseParameter;
 import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.NodeCommunication;
 import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
+import org.jumpmind.symmetric.model.NodeGroupLink;
 import org.jumpmind.symmetric.model.NodeGroupLinkAction;
 import org.jumpmind.symmetric.model.OutgoingBatch;
 import org.jumpmind.symmetric.model.RemoteNodeStatus;
@@ -71,6 +73,7 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
     private boolean initialized = false;
     private Map<CommunicationType, Set<String>> currentlyExecuting;
     private Map<CommunicationType, Map<String, NodeCommunication>> lockCache;
+    private ReadyBatchIndex readyBatchIndex;
 
     public NodeCommunicationService(IClusterService clusterService, INodeService nodeService, IParameterService parameterService,
             IConfigurationService configurationService, ISymmetricDialect symmetricDialect) {
@@ -110,6 +113,11 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
         }
     }
 
+    @Override
+    public void setReadyBatchIndex(ReadyBatchIndex readyBatchIndex) {
+        this.readyBatchIndex = readyBatchIndex;
+    }
+
     @Override
     public synchronized void persistToTableForSnapshot() {
         sqlTemplate.update(getSql("deleteSql"));
@@ -123,22 +131,33 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
     }
 
     public NodeCommunication find(String nodeId, String queue, CommunicationType communicationType) {
-        NodeCommunication lock = null;
+        NodeCommunication lock = get(nodeId, queue, communicationType);
+        if (lock == null) {
+            lock = newNodeCommunication(nodeId, queue, communicationType);
+            save(lock, false);
+        }
+        return lock;
+    }
+
+    /**
+     * @return the saved row for the node and queue, or null if there is none yet
+     */
+    protected NodeCommunication get(String nodeId, String queue, CommunicationType communicationType) {
         if (clusterService.isClusteringEnabled()) {
-            lock = sqlTemplate.queryForObject(
+            return sqlTemplate.queryForObject(
                     getSql("selectNodeCommunicationByNodeAndChannelSql"), new NodeCommunicationMapper(),
                     nodeId, queue, communicationType.name());
         } else {
             Map<String, NodeCommunication> locks = lockCache.get(communicationType);
-            lock = locks.get(nodeId + "-" + queue);
-        }
-        if (lock == null) {
-            lock = new NodeCommunication();
-            lock.setNodeId(nodeId);
-            lock.setCommunicationType(communicationType);
-            lock.setQueue(queue);
-            save(lock, false);
+            return locks.get(nodeId + "-" + queue);
         }
+    }
+
+    protected NodeCommunication newNodeCommunication(String nodeId, String queue, CommunicationType communicationType) {
+        NodeCommunication lock = new NodeCommunication();
+        lock.setNodeId(nodeId);
+        lock.setCommunicationType(communicationType);
+        lock.setQueue(queue);
         return lock;
     }
 
@@ -211,20 +230,24 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
             comm.setNode(nodeToCommunicateWith.getNode());
             nodesToCommunicateWithListMap.put(nodeToCommunicateWith.getNodeId(), nodeToCommunicateWith);
         }
+        Set<String> validQueues = getValidQueues();
         Iterator<NodeCommunication> it = communicationRows.iterator();
         while (it.hasNext()) {
             NodeCommunication nodeCommunication = it.next();
             NodeCommunication nodeToCommunicateWith = nodesToCommunicateWithListMap.get(nodeCommunication.getNodeId());
             Node node = nodeToCommunicateWith != null ? nodeToCommunicateWith.getNode() : null;
-            if (node == null || (!isQueueValid(nodeCommunication))) {
+            if (node == null || (!isQueueValid(nodeCommunication, validQueues))) {
                 delete(nodeCommunication);
                 it.remove();
             }
         }
+        if (communicationType == CommunicationType.PUSH && onlyNodesWithChanges) {
+            communicationRows = removeIdleQueues(communicationRows);
+        }
         if (communicationType == CommunicationType.PUSH && onlyNodesWithChanges &&
                 parameterService.getInt(ParameterConstants.PUSH_THREAD_COUNT_PER_SERVER) < communicationRows.size()) {
             ts = System.currentTimeMillis();
-            List<String> nodeIds = getNodeIdsWithUnsentCount();
+            Set<String> nodeIds = new HashSet<String>(getNodeIdsWithUnsentCount());
             List<NodeCommunication> filteredNodes = new ArrayList<NodeCommunication>(nodeIds.size());
             for (NodeCommunication nodeCommunication : communicationRows) {
                 if (nodeIds.contains(nodeCommunication.getNodeId())) {
@@ -240,20 +263,53 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
         return communicationRows;
     }
 
-    private boolean isQueueValid(NodeCommunication nodeCommunication) {
-        boolean ret = false;
-        String queue = nodeCommunication.getQueue();
-        Map<String, Channel> channels = configurationService.getChannels(false);
-        for (String key : channels.keySet()) {
-            Channel channel = channels.get(key);
+    private Set<String> getValidQueues() {
+        Set<String> queues = new HashSet<String>();
+        for (Channel channel : configurationService.getChannels(false).values()) {
             if (channel != null) {
-                if (StringUtils.equalsIgnoreCase(queue, channel.getQueue())) {
-                    ret = true;
-                    break;
+                queues.add(StringUtils.lowerCase(channel.getQueue()));
+            }
+        }
+        return queues;
+    }
+
+    private boolean isQueueValid(NodeCommunication nodeCommunication, Set<String> validQueues) {
+        return validQueues.contains(StringUtils.lowerCase(nodeCommunication.getQueue()));
+    }
+
+    /**
+     * Remove the queues that the ready batch index has marked idle because the last push extract for them found no batches. The key is
+     * built the same way the push extract builds it, so an entry only matches the query that found nothing.
+     */
+    protected List<NodeCommunication> removeIdleQueues(List<NodeCommunication> nodeCommunications) {
+        Node identity = nodeService.findIdentity();
+        if (readyBatchIndex == null || !readyBatchIndex.isEnabled() || identity == null) {
+            return nodeCommunications;
+        }
+        long ts = System.currentTimeMillis();
+        Map<String, NodeGroupLinkAction> defaultActionByGroup = new HashMap<String, NodeGroupLinkAction>();
+        List<NodeCommunication> filteredNodes = new ArrayList<NodeCommunication>(nodeCommunications.size());
+        for (NodeCommunication nodeCommunication : nodeCommunications) {
+            String key = null;
+            if (nodeCommunication.getQueue() == null) {
+                key = ReadyBatchIndex.getKey(null, null, null);
+            } else {
+                String nodeGroupId = nodeCommunication.getNode().getNodeGroupId();
+                NodeGroupLinkAction defaultAction = defaultActionByGroup.get(nodeGroupId);
+                if (defaultAction == null && !defaultActionByGroup.containsKey(nodeGroupId)) {
+                    NodeGroupLink link = configurationService.getNodeGroupLinkFor(identity.getNodeGroupId(), nodeGroupId, false);
+                    defaultAction = link != null ? link.getDataEventAction() : null;
+                    defaultActionByGroup.put(nodeGroupId, defaultAction);
                 }
+                key = ReadyBatchIndex.getKey(nodeCommunication.getQueue(), NodeGroupLinkAction.P, defaultAction);
+            }
+            if (!readyBatchIndex.isIdle(nodeCommunication.getNodeId(), key)) {
+                filteredNodes.add(nodeCommunication);
             }
         }
-        return ret;
+        log.debug("Removed {} idle queues to push to in {}ms", nodeCommunications.size() - filteredNodes.size(),
+                System.currentTimeMillis() - ts);
+        return filteredNodes;
     }
 
     protected List<String> getNodeIdsWithUnsentCount() {
@@ -387,11 +443,13 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
         if (!this.parameterService.is(ParameterConstants.HYBRID_PUSH_PULL_ENABLED)) {
             return nodeCommunications;
         }
-        List<NodeCommunication> filteredNodes = new ArrayList<NodeCommunication>(nodeCommunications);
+        long timeout = this.parameterService.getLong(ParameterConstants.HYBRID_PUSH_PULL_TIMEOUT);
+        long now = System.currentTimeMillis();
+        List<NodeCommunication> filteredNodes = new ArrayList<NodeCommunication>(nodeCommunications.size());
         for (NodeCommunication nodeCommunication : nodeCommunications) {
-            long elapsedLock = System.currentTimeMillis() - nodeCommunication.getLastLockMillis();
-            if (nodeCommunication.getBatchToSendCount() == 0 && elapsedLock < this.parameterService.getLong(ParameterConstants.HYBRID_PUSH_PULL_TIMEOUT)) {
-                filteredNodes.remove(nodeCommunication);
+            long elapsedLock = now - nodeCommunication.getLastLockMillis();
+            if (nodeCommunication.getBatchToSendCount() != 0 || elapsedLock >= timeout) {
+                filteredNodes.add(nodeCommunication);
             }
         }
         return filteredNodes;
@@ -704,31 +762,12 @@ public class NodeCommunicationService extends AbstractService implements INodeCo
 
     @Override
     public void updateBatchToSendCounts(String nodeId, Map<String, Integer> batchesCountToQueues) {
-        List<NodeCommunication> nodeCommunications = this.find(CommunicationType.PULL);
-        List<NodeCommunication> updatedNodeCommunications = new ArrayList<NodeCommunication>();
         for (String queue : batchesCountToQueues.keySet()) {
-            NodeCommunication match = null;
-            for (int i = 0; i < nodeCommunications.size(); i++) {
-                NodeCommunication nodeCommunication = nodeCommunications.get(i);
-                if (nodeCommunication.getNodeId().equals(nodeId)
-                        && nodeCommunication.getQueue().equals(queue)) {
-                    match = nodeCommunication;
-                    break;
-                }
-            }
-            if (match == null) {
-                NodeCommunication newNodeCommunication = new NodeCommunication();
-                newNodeCommunication.setCommunicationType(CommunicationType.PULL);
-                newNodeCommunication.setNodeId(nodeId);
-                newNodeCommunication.setQueue(queue);
-                newNodeCommunication.setBatchToSendCount(batchesCountToQueues.get(queue));
-                updatedNodeCommunications.add(newNodeCommunication);
-            } else {
-                match.setBatchToSendCount(batchesCountToQueues.get(queue));
-                updatedNodeCommunications.add(match);
+            NodeCommunication nodeCommunication = get(nodeId, queue, CommunicationType.PULL);
+            if (nodeCommunication == null) {
+                nodeCommunication = newNodeCommunication(nodeId, queue, CommunicationType.PULL);
             }
-        }
-        for (NodeCommunication nodeCommunication : updatedNodeCommunications) {
+            nodeCommunication.setBatchToSendCount(batchesCountToQueues.get(queue));
             save(nodeCommunication, false);
         }
     }
@@ -40,6 +40,9 @@ import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.db.sql.UniqueKeyException;
 import org.jumpmind.db.sql.mapper.StringMapper;
 import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.cache.ICacheManager;
+import org.jumpmind.symmetric.cache.IKeySnapshotLoader;
+import org.jumpmind.symmetric.cache.SnapshotCache;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
 import org.jumpmind.symmetric.config.INodeIdCreator;
@@ -65,10 +68,8 @@ public class NodeService extends AbstractService implements INodeService {
     private ISymmetricEngine engine;
     private IExtensionService extensionService;
     private Node cachedNodeIdentity;
-    private Map<String, NodeSecurity> securityCache;
-    private long securityCacheTime;
-    private Map<String, Node> nodeCache = new HashMap<String, Node>();
-    private long nodeCacheTime;
+    private SnapshotCache<String, NodeSecurity> securityCache;
+    private SnapshotCache<String, Node> nodeCache;
     private Map<String, List<Node>> sourceNodesCache = new HashMap<String, List<Node>>();
     private Map<String, List<Node>> targetNodesCache = new HashMap<String, List<Node>>();
     private Map<String, Long> sourceNodeLinkCacheTime = new HashMap<String, Long>();
@@ -82,6 +83,28 @@ public class NodeService extends AbstractService implements INodeService {
         extensionService = engine.getExtensionService();
         extensionService.addExtensionPoint(new DefaultNodeIdCreator(parameterService, this, engine.getSecurityService()));
         setSqlMap(new NodeServiceSqlMap(symmetricDialect.getPlatform(), createSqlReplacementTokens()));
+        ICacheManager cacheManager = engine.getCacheManager();
+        nodeCache = cacheManager.createCache(ICacheManager.CACHE_NODE, ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS,
+                new IKeySnapshotLoader<String, Node>() {
+                    public Map<String, Node> loadAll() {
+                        return findAllNodesAsMap();
+                    }
+
+                    public Node load(String nodeId) {
+                        return findNode(nodeId);
+                    }
+                });
+        securityCache = cacheManager.createCache(ICacheManager.CACHE_NODE_SECURITY, ParameterConstants.CACHE_TIMEOUT_NODE_SECURITY_IN_MS,
+                new IKeySnapshotLoader<String, NodeSecurity>() {
+                    public Map<String, NodeSecurity> loadAll() {
+                        return sqlTemplate.queryForMap(getSql("findAllNodeSecuritySql"), new NodeSecurityRowMapper(), "node_id");
+                    }
+
+                    public NodeSecurity load(String nodeId) {
+                        return getFirstEntry(sqlTemplate.query(getSql("findNodeSecuritySql"), new NodeSecurityRowMapper(),
+                                new Object[] { nodeId }, new int[] { Types.VARCHAR }));
+                    }
+                });
     }
 
     public String findSymmetricVersion() {
@@ -139,16 +162,11 @@ public class NodeService extends AbstractService implements INodeService {
     }
 
     public Node findNodeInCacheOnly(String id) {
-        return nodeCache.get(id);
+        return nodeCache.getIfPresent(id);
     }
 
     public Node findNode(String id, boolean useCache) {
         if (useCache) {
-            long cacheTimeoutInMs = parameterService.getLong(ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS);
-            if ((System.currentTimeMillis() - nodeCacheTime) >= cacheTimeoutInMs) {
-                nodeCache = findAllNodesAsMap();
-                nodeCacheTime = System.currentTimeMillis();
-            }
             return nodeCache.get(id);
         } else {
             return findNode(id);
@@ -156,7 +174,7 @@ public class NodeService extends AbstractService implements INodeService {
     }
 
     public void flushNodeCache() {
-        nodeCacheTime = 0;
+        nodeCache.invalidate();
     }
 
     public Node findNodeByExternalId(String nodeGroupId, String externalId) {
@@ -602,15 +620,7 @@ public class NodeService extends AbstractService implements INodeService {
     }
 
     public Map<String, NodeSecurity> findAllNodeSecurity(boolean useCache) {
-        long maxSecurityCacheTime = parameterService.getLong(ParameterConstants.CACHE_TIMEOUT_NODE_SECURITY_IN_MS);
-        Map<String, NodeSecurity> all = securityCache;
-        if (all == null || System.currentTimeMillis() - securityCacheTime >= maxSecurityCacheTime || securityCacheTime == 0 || !useCache) {
-            all = (Map<String, NodeSecurity>) sqlTemplate.queryForMap(getSql("findAllNodeSecuritySql"), new NodeSecurityRowMapper(),
-                    "node_id");
-            securityCache = all;
-            securityCacheTime = System.currentTimeMillis();
-        }
-        return all;
+        return useCache ? securityCache.getAll() : securityCache.reload();
     }
 
     /**
@@ -642,7 +652,7 @@ public class NodeService extends AbstractService implements INodeService {
     }
 
     public void flushNodeAuthorizedCache() {
-        securityCacheTime = 0;
+        securityCache.invalidate();
     }
 
     public boolean updateNodeSecurity(NodeSecurity security) {
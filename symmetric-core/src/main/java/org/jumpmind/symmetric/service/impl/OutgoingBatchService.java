@@ -41,6 +41,7 @@ import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
 import org.jumpmind.symmetric.ext.IOutgoingBatchFilter;
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
 import org.jumpmind.symmetric.model.AbstractBatch.Status;
 import org.jumpmind.symmetric.model.Channel;
 import org.jumpmind.symmetric.model.NodeChannel;
@@ -71,6 +72,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     private ISequenceService sequenceService;
     private IClusterService clusterService;
     private IExtensionService extensionService;
+    private ReadyBatchIndex readyBatchIndex;
 
     public OutgoingBatchService(IParameterService parameterService, ISymmetricDialect symmetricDialect, INodeService nodeService,
             IConfigurationService configurationService, ISequenceService sequenceService, IClusterService clusterService,
@@ -81,6 +83,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         this.sequenceService = sequenceService;
         this.clusterService = clusterService;
         this.extensionService = extensionService;
+        this.readyBatchIndex = new ReadyBatchIndex(parameterService);
         setSqlMap(new OutgoingBatchServiceSqlMap(symmetricDialect.getPlatform(), createSqlReplacementTokens()));
     }
 
@@ -140,6 +143,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 new Object[] { channelId, fromNodeId, toNodeId, startBatchId });
         sqlTemplate.update(getSql("deleteOutgoingBatchesForNodeSql"), toNodeId, channelId, fromNodeId, channelId);
         int count = sqlTemplate.update(getSql("copyOutgoingBatchesSql"), toNodeId, fromNodeId, channelId, startBatchId);
+        readyBatchIndex.markReady(toNodeId);
         log.info("Copied {} outgoing batches for channel '{}' from node '{}' to node '{}'",
                 new Object[] { count, channelId, fromNodeId, toNodeId });
     }
@@ -193,6 +197,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     }
 
     public void updateOutgoingBatch(ISqlTransaction transaction, OutgoingBatch outgoingBatch) {
+        readyBatchIndex.markReady(transaction, outgoingBatch.getNodeId());
         outgoingBatch.setLastUpdatedTime(new Date());
         outgoingBatch.setLastUpdatedHostName(clusterService.getServerId());
         String sql = getSql("updateOutgoingBatchSql");
@@ -239,6 +244,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         int count = 0;
         transaction.prepare(getSql("updateOutgoingBatchSql"));
         for (OutgoingBatch outgoingBatch : batches) {
+            readyBatchIndex.markReady(transaction, outgoingBatch.getNodeId());
             outgoingBatch.setLastUpdatedTime(new Date());
             outgoingBatch.setLastUpdatedHostName(clusterService.getServerId());
             transaction.addRow(getSql("updateOutgoingBatchSql"),
@@ -268,6 +274,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     }
 
     public void updateOutgoingBatchStatus(ISqlTransaction transaction, Status status, String nodeId, long startBatchId, long endBatchId) {
+        readyBatchIndex.markReady(transaction, nodeId);
         transaction.prepareAndExecute(getSql("updateOutgoingBatchStatusSql"),
                 new Object[] { status.name(), new Date(), clusterService.getServerId(), nodeId, startBatchId, endBatchId },
                 new int[] { Types.CHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR,
@@ -296,6 +303,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     }
 
     public void insertOutgoingBatch(ISqlTransaction transaction, OutgoingBatch outgoingBatch) {
+        readyBatchIndex.markReady(transaction, outgoingBatch.getNodeId());
         outgoingBatch.setLastUpdatedHostName(clusterService.getServerId());
         long batchId = outgoingBatch.getBatchId();
         if (batchId <= 0) {
@@ -323,27 +331,42 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         } else {
             batchId = sequenceService.nextRange(transaction, Constants.SEQUENCE_OUTGOING_BATCH, size);
         }
-        transaction.prepare(getSql("insertOutgoingBatchSql"));
+        int[] types = new int[] { symmetricDialect.getSqlTypeForIds(), Types.VARCHAR, Types.VARCHAR, Types.CHAR, Types.NUMERIC,
+                Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
+                Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC };
+        int rowsPerInsert = batches.size() > 1 ? getRowsPerInsert(types.length) : 1;
+        List<Object[]> rows = new ArrayList<Object[]>(rowsPerInsert > 1 ? batches.size() : 0);
+        if (rowsPerInsert == 1) {
+            transaction.prepare(getSql("insertOutgoingBatchSql"));
+        }
         for (OutgoingBatch batch : batches) {
+            readyBatchIndex.markReady(transaction, batch.getNodeId());
             batch.setLastUpdatedHostName(clusterService.getServerId());
             batch.setBatchId(batchId);
-            transaction.addRow(batch, new Object[] { batch.getBatchId(), batch.getNodeId(), batch.getChannelId(), batch.getStatus().name(),
+            Object[] args = new Object[] { batch.getBatchId(), batch.getNodeId(), batch.getChannelId(), batch.getStatus().name(),
                     batch.getLoadId(), batch.isExtractJobFlag() ? 1 : 0, batch.isLoadFlag() ? 1 : 0, batch.isCommonFlag() ? 1 : 0,
                     batch.getReloadRowCount(), batch.getOtherRowCount(), batch.getDataUpdateRowCount(), batch.getDataInsertRowCount(),
                     batch.getDataDeleteRowCount(), batch.getLastUpdatedHostName(), batch.getCreateBy(), batch.getSummary(),
-                    batch.getDataRowCount() },
-                    new int[] { symmetricDialect.getSqlTypeForIds(), Types.VARCHAR, Types.VARCHAR, Types.CHAR, Types.NUMERIC,
-                            Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC, Types.NUMERIC,
-                            Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC });
+                    batch.getDataRowCount() };
             if (!isCommon) {
                 batchId++;
             }
-            if (++count >= flushSize) {
-                transaction.flush();
-                count = 0;
+            if (rowsPerInsert > 1) {
+                rows.add(args);
+            } else {
+                transaction.addRow(batch, args, types);
+                if (++count >= flushSize) {
+                    transaction.flush();
+                    count = 0;
+                }
             }
         }
-        transaction.flush();
+        if (rowsPerInsert > 1) {
+            insertRows(transaction, getSql("insertOutgoingBatchPrefixSql"), getSql("insertOutgoingBatchValuesSql"), batches, rows, types,
+                    rowsPerInsert, flushSize);
+        } else {
+            transaction.flush();
+        }
     }
 
     public OutgoingBatch findOutgoingBatch(long batchId, String nodeId) {
@@ -528,6 +551,11 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
     @Override
     public OutgoingBatches getOutgoingBatches(String nodeId, String channelThread, NodeGroupLinkAction eventAction,
             NodeGroupLinkAction defaultEventAction, boolean includeDisabledChannels) {
+        String readyKey = ReadyBatchIndex.getKey(channelThread, eventAction, defaultEventAction);
+        if (readyBatchIndex.isIdle(nodeId, readyKey)) {
+            return new OutgoingBatches();
+        }
+        long readyGeneration = readyBatchIndex.getGeneration(nodeId);
         long ts = System.currentTimeMillis();
         final int maxNumberOfBatchesToSelect = parameterService.getInt(ParameterConstants.OUTGOING_BATCH_MAX_BATCHES_TO_SELECT, 1000);
         String sql = null;
@@ -559,8 +587,11 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
             types = new int[] { Types.VARCHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR, Types.CHAR,
                     Types.CHAR };
         }
-        List<OutgoingBatch> list = (List<OutgoingBatch>) sqlTemplate.query(sql, maxNumberOfBatchesToSelect,
-                new OutgoingBatchMapper(includeDisabledChannels), params, types);
+        OutgoingBatchMapper mapper = new OutgoingBatchMapper(includeDisabledChannels);
+        List<OutgoingBatch> list = (List<OutgoingBatch>) sqlTemplate.query(sql, maxNumberOfBatchesToSelect, mapper, params, types);
+        if (mapper.getRowCount() == 0) {
+            readyBatchIndex.markIdle(nodeId, readyKey, readyGeneration);
+        }
         OutgoingBatches batches = new OutgoingBatches(list);
         List<NodeChannel> channels = new ArrayList<NodeChannel>(configurationService.getNodeChannels(nodeId, true));
         batches.sortChannels(channels);
@@ -759,6 +790,11 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 Status.ER.name(), Status.LD.name(), Status.QY.name(), Status.RS.name(), Status.SE.name());
     }
 
+    @Override
+    public ReadyBatchIndex getReadyBatchIndex() {
+        return readyBatchIndex;
+    }
+
     static class OutgoingBatchSummaryMapper implements ISqlRowMapper<OutgoingBatchSummary> {
         boolean withNode = false;
         boolean withChannel = false;
@@ -802,6 +838,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         private boolean statusOnly = false;
         private boolean includeDisabledChannels = false;
         private Map<String, Channel> channels;
+        private int rowCount;
 
         public OutgoingBatchMapper(boolean includeDisabledChannels, boolean statusOnly) {
             this.includeDisabledChannels = includeDisabledChannels;
@@ -814,6 +851,7 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
         }
 
         public OutgoingBatch mapRow(Row rs) {
+            rowCount++;
             String channelId = rs.getString("channel_id");
             Channel channel = channels.get(channelId);
             if (channel != null && (includeDisabledChannels || channel.isEnabled())) {
@@ -878,5 +916,9 @@ public class OutgoingBatchService extends AbstractService implements IOutgoingBa
                 return null;
             }
         }
+
+        public int getRowCount() {
+            return rowCount;
+        }
     }
 }
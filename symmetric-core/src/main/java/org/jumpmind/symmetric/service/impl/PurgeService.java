@@ -34,9 +34,11 @@ import org.apache.commons.lang3.time.DateUtils;
 import org.jumpmind.db.platform.DatabaseNamesConstants;
 import org.jumpmind.db.sql.ISqlReadCursor;
 import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.db.sql.mapper.LongMapper;
 import org.jumpmind.db.sql.mapper.StringMapper;
+import org.jumpmind.symmetric.SymmetricException;
 import org.jumpmind.symmetric.common.ContextConstants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
@@ -65,6 +67,7 @@ public class PurgeService extends AbstractService implements IPurgeService {
     private IStatisticManager statisticManager;
     private IExtensionService extensionService;
     private IContextService contextService;
+    private long purgeOutgoingLockToken;
 
     public PurgeService(IParameterService parameterService, ISymmetricDialect symmetricDialect, IClusterService clusterService,
             IStatisticManager statisticManager, IExtensionService extensionService, IContextService contextService) {
@@ -108,6 +111,7 @@ public class PurgeService extends AbstractService implements IPurgeService {
         long rowsPurged = 0;
         if (force || clusterService.lock(ClusterConstants.PURGE_OUTGOING)) {
             try {
+                purgeOutgoingLockToken = clusterService.getLockToken(ClusterConstants.PURGE_OUTGOING);
                 log.info("The outgoing purge process is about to run for data older than {}",
                         SimpleDateFormat.getDateTimeInstance()
                                 .format(retentionCutoff.getTime()));
@@ -240,7 +244,7 @@ public class PurgeService extends AbstractService implements IPurgeService {
                 if (System.currentTimeMillis() - ts > DateUtils.MILLIS_PER_MINUTE * 5) {
                     log.info("Purged {} of {} batches and {} rows so far", totalBatchesPurged, batchIds.size(), totalRowsPurged);
                     ts = System.currentTimeMillis();
-                    clusterService.refreshLock(ClusterConstants.PURGE_OUTGOING);
+                    refreshPurgeOutgoingLock();
                 }
             }
             if (batchIds.size() == maxRows) {
@@ -551,7 +555,7 @@ public class PurgeService extends AbstractService implements IPurgeService {
                 log.info("Purged {} of {} rows so far using {} statements", new Object[] {
                         totalCount, identifier.toString().toLowerCase(), totalDeleteStmts });
                 ts = System.currentTimeMillis();
-                clusterService.refreshLock(ClusterConstants.PURGE_OUTGOING);
+                refreshPurgeOutgoingLock();
                 saveContextLastId(identifier, maxId);
             }
             minId = maxId + 1;
@@ -561,14 +565,45 @@ public class PurgeService extends AbstractService implements IPurgeService {
         return totalCount;
     }
 
+    protected void refreshPurgeOutgoingLock() {
+        if (!clusterService.refreshLock(ClusterConstants.PURGE_OUTGOING)) {
+            throw new SymmetricException("Stopped purging because the lock was lost to another server");
+        }
+    }
+
+    /**
+     * Saves where the purge left off. The purge lock guards the saved id, so it is only saved while this server still holds the lock.
+     */
     protected void saveContextLastId(MinMaxDeleteSql identifier, long lastId) {
-        if (lastId > 0) {
-            if (identifier == MinMaxDeleteSql.DATA || identifier == MinMaxDeleteSql.DATA_RANGE) {
-                contextService.save(ContextConstants.PURGE_LAST_DATA_ID, String.valueOf(lastId));
-            } else if (identifier == MinMaxDeleteSql.DATA_EVENT || identifier == MinMaxDeleteSql.DATA_EVENT_RANGE) {
-                contextService.save(ContextConstants.PURGE_LAST_EVENT_BATCH_ID, String.valueOf(lastId));
-            } else if (identifier == MinMaxDeleteSql.OUTGOING_BATCH || identifier == MinMaxDeleteSql.OUTGOING_BATCH_RANGE) {
-                contextService.save(ContextConstants.PURGE_LAST_BATCH_ID, String.valueOf(lastId));
+        String name = null;
+        if (identifier == MinMaxDeleteSql.DATA || identifier == MinMaxDeleteSql.DATA_RANGE) {
+            name = ContextConstants.PURGE_LAST_DATA_ID;
+        } else if (identifier == MinMaxDeleteSql.DATA_EVENT || identifier == MinMaxDeleteSql.DATA_EVENT_RANGE) {
+            name = ContextConstants.PURGE_LAST_EVENT_BATCH_ID;
+        } else if (identifier == MinMaxDeleteSql.OUTGOING_BATCH || identifier == MinMaxDeleteSql.OUTGOING_BATCH_RANGE) {
+            name = ContextConstants.PURGE_LAST_BATCH_ID;
+        }
+        if (lastId > 0 && name != null) {
+            ISqlTransaction transaction = null;
+            try {
+                transaction = sqlTemplate.startSqlTransaction();
+                if (!clusterService.checkLockToken(transaction, ClusterConstants.PURGE_OUTGOING, purgeOutgoingLockToken)) {
+                    throw new SymmetricException("Stopped purging because the lock was lost to another server");
+                }
+                contextService.save(transaction, name, String.valueOf(lastId));
+                transaction.commit();
+            } catch (Error ex) {
+                if (transaction != null) {
+                    transaction.rollback();
+                }
+                throw ex;
+            } catch (RuntimeException ex) {
+                if (transaction != null) {
+                    transaction.rollback();
+                }
+                throw ex;
+            } finally {
+                close(transaction);
             }
         }
     }
@@ -97,6 +97,7 @@ import org.jumpmind.symmetric.route.TransactionalBatchAlgorithm;
 import org.jumpmind.symmetric.service.ClusterConstants;
 import org.jumpmind.symmetric.service.IExtensionService;
 import org.jumpmind.symmetric.service.IRouterService;
+import org.jumpmind.symmetric.statistic.MetricsRegistry;
 import org.jumpmind.symmetric.statistic.StatisticConstants;
 import org.jumpmind.symmetric.util.CounterStat;
 import org.jumpmind.util.FormatUtils;
@@ -120,6 +121,7 @@ public class RouterService extends AbstractService implements IRouterService {
     protected DataGapDetector gapDetector;
     protected boolean firstTimeCheck = true;
     protected boolean hasMaxDataRoutedOnChannel;
+    protected long routeLockToken;
 
     public RouterService(ISymmetricEngine engine) {
         super(engine.getParameterService(), engine.getSymmetricDialect());
@@ -188,8 +190,12 @@ public class RouterService extends AbstractService implements IRouterService {
                         }
                         firstTimeCheck = false;
                     }
+                    routeLockToken = engine.getClusterService().getLockToken(ClusterConstants.ROUTE);
                     do {
-                        engine.getClusterService().refreshLock(ClusterConstants.ROUTE);
+                        if (!engine.getClusterService().refreshLock(ClusterConstants.ROUTE)) {
+                            log.warn("Stopped routing because the lock was lost to another server");
+                            break;
+                        }
                         long ts = System.currentTimeMillis();
                         hasMaxDataRoutedOnChannel = false;
                         gapDetector.beforeRouting();
@@ -254,7 +260,10 @@ public class RouterService extends AbstractService implements IRouterService {
                 readyChannels = getReadyChannels();
             }
             for (NodeChannel nodeChannel : channels) {
-                engine.getClusterService().refreshLock(ClusterConstants.ROUTE);
+                if (!engine.getClusterService().refreshLock(ClusterConstants.ROUTE)) {
+                    log.warn("Stopped routing because the lock was lost to another server");
+                    break;
+                }
                 if (nodeChannel.isEnabled() && (readyChannels == null || readyChannels.contains(nodeChannel.getChannelId()))) {
                     processInfo.setCurrentTableName("");
                     processInfo.setCurrentChannelId(nodeChannel.getChannelId());
@@ -580,6 +589,7 @@ public class RouterService extends AbstractService implements IRouterService {
                 long totalTime = System.currentTimeMillis() - ts;
                 if (context != null) {
                     context.incrementStat(totalTime, ChannelRouterContext.STAT_ROUTE_TOTAL_TIME);
+                    engine.getStatisticManager().recordLatency(MetricsRegistry.STAGE_ROUTE, context.getChannel().getChannelId(), null, totalTime);
                     context.logStats(log, totalTime);
                     context.cleanup();
                 }
@@ -597,6 +607,10 @@ public class RouterService extends AbstractService implements IRouterService {
         }
         long ts = System.currentTimeMillis();
         completeBatches(context, batches, usedRouters);
+        if (!engine.getClusterService().checkLockToken(context.getSqlTransaction(), ClusterConstants.ROUTE, routeLockToken)) {
+            throw new SymmetricException("Not committing routed batches on channel %s because the lock was lost to another server",
+                    context.getChannel().getChannelId());
+        }
         context.commit();
         context.incrementStat(System.currentTimeMillis() - ts, ChannelRouterContext.STAT_UPDATE_BATCHES_MS);
         for (IDataRouter dataRouter : usedRouters) {
@@ -744,7 +758,10 @@ public class RouterService extends AbstractService implements IRouterService {
                         }
                         long routeTs = System.currentTimeMillis() - ts;
                         if (routeTs > LOG_PROCESS_SUMMARY_THRESHOLD) {
-                            engine.getClusterService().refreshLock(ClusterConstants.ROUTE);
+                            if (!engine.getClusterService().refreshLock(ClusterConstants.ROUTE)) {
+                                throw new SymmetricException("Stopped routing channel %s because the lock was lost to another server",
+                                        context.getChannel().getChannelId());
+                            }
                             log.info("Routing channel '{}' for {} seconds, "
                                     + "routedCount={}, dataEventCount={}, startDataId={}, endDataId={}, readCount={}, peekAheadFillCount={}, dataGaps={}",
                                     context.getChannel().getChannelId(), ((System.currentTimeMillis() - startTime) / 1000), totalDataCount, totalDataEventCount,
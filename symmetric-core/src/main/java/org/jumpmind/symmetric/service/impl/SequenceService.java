@@ -24,6 +24,8 @@ import java.sql.Types;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTransaction;
@@ -39,8 +41,9 @@ import org.jumpmind.symmetric.service.IParameterService;
 import org.jumpmind.symmetric.service.ISequenceService;
 
 public class SequenceService extends AbstractService implements ISequenceService {
-    private Map<String, Sequence> sequenceDefinitionCache = new HashMap<String, Sequence>();
+    private Map<String, Sequence> sequenceDefinitionCache = new ConcurrentHashMap<String, Sequence>();
     private Map<String, CachedRange> sequenceCache = new HashMap<String, CachedRange>();
+    private Map<String, SequenceBlock> sequenceBlocks = new ConcurrentHashMap<String, SequenceBlock>();
 
     public SequenceService(IParameterService parameterService, ISymmetricDialect symmetricDialect) {
         super(parameterService, symmetricDialect);
@@ -80,14 +83,28 @@ public class SequenceService extends AbstractService implements ISequenceService
         }
     }
 
-    public synchronized long nextVal(String name) {
-        if (!parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED) && getSequenceDefinition(name).getCacheSize() > 0) {
-            return nextValFromCache(null, name);
+    public long nextVal(String name) {
+        if (isBlockAllocated(getSequenceDefinition(name))) {
+            return nextValFromBlock(name);
+        }
+        synchronized (this) {
+            if (!parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED) && getSequenceDefinition(name).getCacheSize() > 0) {
+                return nextValFromCache(null, name);
+            }
+            return nextValFromDatabase(name, 1);
+        }
+    }
+
+    public long nextVal(ISqlTransaction transaction, final String name) {
+        if (isBlockAllocated(transaction != null ? getSequenceDefinition(transaction, name) : getSequenceDefinition(name))) {
+            return nextValFromBlock(name);
+        }
+        synchronized (this) {
+            return nextValFromCacheOrDatabase(transaction, name);
         }
-        return nextValFromDatabase(name, 1);
     }
 
-    public synchronized long nextVal(ISqlTransaction transaction, final String name) {
+    protected long nextValFromCacheOrDatabase(ISqlTransaction transaction, final String name) {
         if (transaction != null) {
             transaction.addSqlTransactionListener(new SqlTransactionListenerAdapter() {
                 @Override
@@ -102,6 +119,40 @@ public class SequenceService extends AbstractService implements ISequenceService
         return nextValFromDatabase(transaction, name, 1);
     }
 
+    /**
+     * Sequences are allocated in blocks when cluster.sequence.block.enabled is set and the sequence has a cache size. A block of cache size
+     * values is reserved with one conditional update that is committed in its own transaction, so a block belongs to one server even if the
+     * caller's transaction rolls back, and values are handed out from the block without locking.
+     */
+    protected boolean isBlockAllocated(Sequence sequence) {
+        return sequence.getCacheSize() > 0 && sequence.getIncrementBy() > 0
+                && parameterService.is(ParameterConstants.CLUSTER_SEQUENCE_BLOCK_ENABLED, false);
+    }
+
+    protected long nextValFromBlock(String name) {
+        SequenceBlock block = sequenceBlocks.get(name);
+        long nextVal = block != null ? block.next(1) : -1;
+        while (nextVal < 0) {
+            block = reserveBlock(name, block);
+            nextVal = block.next(1);
+        }
+        return nextVal;
+    }
+
+    protected SequenceBlock reserveBlock(String name, SequenceBlock exhaustedBlock) {
+        synchronized (sequenceBlocks) {
+            SequenceBlock block = sequenceBlocks.get(name);
+            if (block == null || block == exhaustedBlock) {
+                Sequence sequence = getSequenceDefinition(name);
+                long endValue = nextValFromDatabase(name, sequence.getCacheSize());
+                block = new SequenceBlock(endValue - (sequence.getIncrementBy() * (sequence.getCacheSize() - 1)), endValue,
+                        sequence.getIncrementBy());
+                sequenceBlocks.put(name, block);
+            }
+            return block;
+        }
+    }
+
     protected long nextValFromCache(ISqlTransaction transaction, String name) {
         CachedRange range = sequenceCache.get(name);
         if (range != null) {
@@ -166,7 +217,7 @@ public class SequenceService extends AbstractService implements ISequenceService
             }
         }
         CachedRange range = null;
-        if (!parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED) && sequence.getCacheSize() > 0) {
+        if (!parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED) && sequence.getCacheSize() > 0 && !isBlockAllocated(sequence)) {
             long endVal = nextVal + (sequence.getIncrementBy() * (sequence.getCacheSize() - 1));
             range = new CachedRange(nextVal, endVal, sequence.getIncrementBy());
             nextVal = endVal;
@@ -192,7 +243,7 @@ public class SequenceService extends AbstractService implements ISequenceService
      *            Number of sequence numbers to obtain
      * @return Starting sequence number for the entire range that was obtained
      */
-    public synchronized long nextRange(ISqlTransaction transaction, String name, long size) {
+    public long nextRange(ISqlTransaction transaction, String name, long size) {
         Sequence sequence = getSequenceDefinition(name);
         if (size <= 0) {
             throw new IllegalStateException("Size of range must be a positive integer");
@@ -200,6 +251,31 @@ public class SequenceService extends AbstractService implements ISequenceService
         if (sequence.getIncrementBy() <= 0) {
             throw new IllegalStateException("Increment-by must be a positive integer");
         }
+        if (isBlockAllocated(sequence)) {
+            return nextRangeFromBlock(sequence, size);
+        }
+        synchronized (this) {
+            return nextRangeFromCacheOrDatabase(transaction, sequence, size);
+        }
+    }
+
+    /**
+     * Take the range from the current block when it has enough values left, otherwise reserve the range by itself so it stays contiguous.
+     * Reservations share the block lock so only one thread per server waits on the sequence row.
+     */
+    protected long nextRangeFromBlock(Sequence sequence, long size) {
+        SequenceBlock block = sequenceBlocks.get(sequence.getSequenceName());
+        long startingValue = block != null ? block.next(size) : -1;
+        if (startingValue < 0) {
+            synchronized (sequenceBlocks) {
+                startingValue = nextValFromDatabase(sequence.getSequenceName(), size) - (sequence.getIncrementBy() * (size - 1));
+            }
+        }
+        return startingValue;
+    }
+
+    protected long nextRangeFromCacheOrDatabase(ISqlTransaction transaction, Sequence sequence, long size) {
+        String name = sequence.getSequenceName();
         long startingValue = 0;
         long rangeNeeded = size * sequence.getIncrementBy();
         if (!parameterService.is(ParameterConstants.CLUSTER_LOCKING_ENABLED) && sequence.getCacheSize() > 0) {
@@ -238,7 +314,7 @@ public class SequenceService extends AbstractService implements ISequenceService
         return startingValue;
     }
 
-    public synchronized long nextRange(String name, long size) {
+    public long nextRange(String name, long size) {
         return nextRange(null, name, size);
     }
 
@@ -345,6 +421,33 @@ public class SequenceService extends AbstractService implements ISequenceService
         }
     }
 
+    static class SequenceBlock {
+        final AtomicLong currentValue;
+        final long endValue;
+        final int incrementBy;
+
+        public SequenceBlock(long startValue, long endValue, int incrementBy) {
+            this.currentValue = new AtomicLong(startValue - incrementBy);
+            this.endValue = endValue;
+            this.incrementBy = incrementBy;
+        }
+
+        /**
+         * @return the first of the next size values in the block, or -1 if the block does not have that many left
+         */
+        public long next(long size) {
+            long rangeNeeded = size * incrementBy;
+            while (true) {
+                long current = currentValue.get();
+                if (endValue - current < rangeNeeded) {
+                    return -1;
+                } else if (currentValue.compareAndSet(current, current + rangeNeeded)) {
+                    return current + incrementBy;
+                }
+            }
+        }
+    }
+
     abstract class DoTransaction<T> {
         public T execute() {
             ISqlTransaction transaction = null;
@@ -94,7 +94,7 @@ public class TransformService extends AbstractService implements ITransformServi
         this.parameterService = parameterService;
         addColumnTransform(ParameterColumnTransform.NAME, new ParameterColumnTransform(parameterService));
         addColumnTransform(VariableColumnTransform.NAME, new VariableColumnTransform());
-        addColumnTransform(LookupColumnTransform.NAME, new LookupColumnTransform());
+        addColumnTransform(LookupColumnTransform.NAME, new LookupColumnTransform(parameterService));
         addColumnTransform(BshColumnTransform.NAME, new BshColumnTransform(parameterService));
         addColumnTransform(AdditiveColumnTransform.NAME, new AdditiveColumnTransform());
         addColumnTransform(JavaColumnTransform.NAME, new JavaColumnTransform(extensionService));
@@ -55,6 +55,9 @@ import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.Row;
 import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.Version;
+import org.jumpmind.symmetric.cache.ICacheManager;
+import org.jumpmind.symmetric.cache.ISnapshotLoader;
+import org.jumpmind.symmetric.cache.SnapshotCache;
 import org.jumpmind.symmetric.common.Constants;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.common.TableConstants;
@@ -96,10 +99,8 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
     private ISequenceService sequenceService;
     private IExtensionService extensionService;
     private IParameterService parameterService;
-    private Map<String, Router> routersCache;
-    private long routersCacheTime;
-    private Map<String, Trigger> triggersCache;
-    private long triggersCacheTime;
+    private SnapshotCache<String, Router> routersCache;
+    private SnapshotCache<String, Trigger> triggersCache;
     private long triggerRoutersCacheTime;
     private int triggersToSync;
     private int triggersSynced;
@@ -137,6 +138,30 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
         engine.getExtensionService().addExtensionPoint(failureListener);
         setSqlMap(new TriggerRouterServiceSqlMap(symmetricDialect.getPlatform(),
                 createSqlReplacementTokens()));
+        ICacheManager cacheManager = engine.getCacheManager();
+        triggersCache = cacheManager.createCache(ICacheManager.CACHE_TRIGGER, ParameterConstants.CACHE_TIMEOUT_TRIGGER_ROUTER_IN_MS,
+                new ISnapshotLoader<String, Trigger>() {
+                    public Map<String, Trigger> loadAll() {
+                        List<Trigger> triggers = new ArrayList<Trigger>(getTriggers());
+                        triggers.addAll(buildTriggersForSymmetricTables(Version.version()));
+                        Map<String, Trigger> map = new HashMap<String, Trigger>(triggers.size());
+                        for (Trigger trigger : triggers) {
+                            map.put(trigger.getTriggerId(), trigger);
+                        }
+                        return map;
+                    }
+                });
+        routersCache = cacheManager.createCache(ICacheManager.CACHE_ROUTER, ParameterConstants.CACHE_TIMEOUT_TRIGGER_ROUTER_IN_MS,
+                new ISnapshotLoader<String, Router>() {
+                    public Map<String, Router> loadAll() {
+                        List<Router> routers = getRouters();
+                        Map<String, Router> map = new HashMap<String, Router>(routers.size());
+                        for (Router router : routers) {
+                            map.put(router.getRouterId(), router);
+                        }
+                        return map;
+                    }
+                });
     }
 
     public boolean refreshFromDatabase() {
@@ -830,24 +855,8 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
     }
 
     public Trigger getTriggerById(String triggerId, boolean refreshCache) {
-        Trigger trigger = null;
-        final long triggerCacheTimeoutInMs = parameterService
-                .getLong(ParameterConstants.CACHE_TIMEOUT_TRIGGER_ROUTER_IN_MS);
-        Map<String, Trigger> cache = this.triggersCache;
-        if (cache == null || !cache.containsKey(triggerId) || refreshCache
-                || (System.currentTimeMillis() - this.triggersCacheTime) > triggerCacheTimeoutInMs) {
-            synchronized (cacheLock) {
-                this.triggersCacheTime = System.currentTimeMillis();
-                List<Trigger> triggers = new ArrayList<Trigger>(getTriggers());
-                triggers.addAll(buildTriggersForSymmetricTables(Version.version()));
-                cache = new HashMap<String, Trigger>(triggers.size());
-                for (Trigger t : triggers) {
-                    cache.put(t.getTriggerId(), t);
-                }
-                this.triggersCache = cache;
-            }
-        }
-        trigger = cache.get(triggerId);
+        Map<String, Trigger> cache = refreshCache ? triggersCache.reload() : triggersCache.getAll();
+        Trigger trigger = cache.get(triggerId);
         if (trigger == null && !refreshCache) {
             trigger = getTriggerById(triggerId, true);
         }
@@ -859,21 +868,7 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
     }
 
     public Router getRouterById(String routerId, boolean refreshCache) {
-        final long routerCacheTimeoutInMs = parameterService
-                .getLong(ParameterConstants.CACHE_TIMEOUT_TRIGGER_ROUTER_IN_MS);
-        Map<String, Router> cache = this.routersCache;
-        if (cache == null || refreshCache
-                || System.currentTimeMillis() - this.routersCacheTime > routerCacheTimeoutInMs) {
-            synchronized (cacheLock) {
-                this.routersCacheTime = System.currentTimeMillis();
-                List<Router> routers = getRouters();
-                cache = new HashMap<String, Router>(routers.size());
-                for (Router router : routers) {
-                    cache.put(router.getRouterId(), router);
-                }
-                this.routersCache = cache;
-            }
-        }
+        Map<String, Router> cache = refreshCache ? routersCache.reload() : routersCache.getAll();
         return cache.get(routerId);
     }
 
@@ -1220,6 +1215,7 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
         if ((parameterService.is(ParameterConstants.AUTO_SYNC_TRIGGERS) || isCalledFromSymmetricAdminTool())) {
             synchronized (this) {
                 if (clusterService.lock(ClusterConstants.SYNC_TRIGGERS)) {
+                    Set<IDatabasePlatform> prefetchedPlatforms = null;
                     try {
                         String additionalMessage = "";
                         if (isCalledFromSymmetricAdminTool()
@@ -1259,6 +1255,9 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
                             triggersForCurrentNode.clear();
                         }
                         List<TriggerHistory> activeTriggerHistories = getActiveTriggerHistories();
+                        if (parameterService.is(ParameterConstants.SYNC_TRIGGERS_PREFETCH_METADATA)) {
+                            prefetchedPlatforms = prefetchTableMetaData(triggersForCurrentNode);
+                        }
                         inactivateTriggers(triggersForCurrentNode, sqlBuffer, activeTriggerHistories);
                         updateOrCreateDatabaseTriggers(triggersForCurrentNode, sqlBuffer, force,
                                 true, activeTriggerHistories, true);
@@ -1267,6 +1266,11 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
                             updateOrCreateDdlTriggers(sqlBuffer);
                         }
                     } finally {
+                        if (prefetchedPlatforms != null) {
+                            for (IDatabasePlatform prefetchedPlatform : prefetchedPlatforms) {
+                                prefetchedPlatform.getDdlReader().clearPrefetchedTables();
+                            }
+                        }
                         for (ITriggerCreationListener l : extensionService.getExtensionPointList(ITriggerCreationListener.class)) {
                             l.syncTriggersEnded();
                         }
@@ -1289,15 +1293,45 @@ public class TriggerRouterService extends AbstractService implements ITriggerRou
         }
     }
 
+    /**
+     * Reads the table metadata for each catalog and schema named by the triggers in one pass, so the trigger checks that follow don't ask
+     * the database about each table separately. Catalogs and schemas are defaulted the same way as in
+     * {@link #getTablesForTrigger(Trigger, List, boolean)}.
+     */
+    protected Set<IDatabasePlatform> prefetchTableMetaData(List<Trigger> triggers) {
+        Set<IDatabasePlatform> platforms = new HashSet<IDatabasePlatform>();
+        Set<String> prefetched = new HashSet<String>();
+        for (Trigger trigger : triggers) {
+            if (trigger.isSourceCatalogNameWildCarded() || trigger.isSourceSchemaNameWildCarded()) {
+                continue;
+            }
+            IDatabasePlatform sourcePlatform = getTargetPlatform(trigger.getSourceTableName());
+            String catalogName = isBlank(trigger.getSourceCatalogName()) ? sourcePlatform.getDefaultCatalog()
+                    : trigger.getSourceCatalogNameUnescaped();
+            String schemaName = isBlank(trigger.getSourceSchemaName()) ? sourcePlatform.getDefaultSchema()
+                    : trigger.getSourceSchemaNameUnescaped();
+            if (prefetched.add(System.identityHashCode(sourcePlatform) + "." + catalogName + "." + schemaName)) {
+                try {
+                    sourcePlatform.getDdlReader().prefetchTables(catalogName, schemaName);
+                    platforms.add(sourcePlatform);
+                } catch (Exception ex) {
+                    log.warn("Failed to prefetch table metadata for catalog {} and schema {}.  Tables will be read one at a time", catalogName,
+                            schemaName, ex);
+                }
+            }
+        }
+        return platforms;
+    }
+
     public void clearCache() {
         synchronized (cacheLock) {
             this.triggerRouterPerNodeCacheTime = 0;
             this.triggerRouterPerChannelCacheTime = 0;
             this.triggerRoutersCacheTime = 0;
             this.triggerRoutersByTriggerHistCacheTime = 0;
-            this.routersCacheTime = 0;
-            this.triggersCacheTime = 0;
         }
+        routersCache.invalidate();
+        triggersCache.invalidate();
     }
 
     protected Set<String> getTriggerIdsFrom(List<Trigger> triggersThatShouldBeActive) {
@@ -126,4 +126,11 @@ public interface IStatisticManager {
     public HostStats getWorkingHostStats();
 
     public TreeMap<Date, Map<String, ChannelStats>> getNodeStatsForPeriod(Date start, Date end, String nodeId, int periodSizeInMinutes);
+
+    public MetricsRegistry getMetricsRegistry();
+
+    /**
+     * Record how long a replication stage took for a channel and node in the {@link MetricsRegistry}.
+     */
+    public void recordLatency(String stage, String channelId, String nodeId, long millis);
 }
\ No newline at end of file
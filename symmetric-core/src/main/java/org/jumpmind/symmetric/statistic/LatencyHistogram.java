@@ -0,0 +1,129 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of latencies in milliseconds. Values up to 3 are counted exactly and larger values fall into one of four buckets per
+ * power of two, so percentiles are reported with an error of at most 25%. Recording is a few atomic increments, which keeps it cheap enough
+ * to leave on.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    private final String stage;
+    private final String channelId;
+    private final String nodeId;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram(String stage, String channelId, String nodeId) {
+        this.stage = stage;
+        this.channelId = channelId;
+        this.nodeId = nodeId;
+    }
+
+    public void record(long millis) {
+        if (millis < 0) {
+            millis = 0;
+        }
+        buckets.incrementAndGet(getBucketIndex(millis));
+        count.increment();
+        total.add(millis);
+        long currentMax = max.get();
+        while (millis > currentMax && !max.compareAndSet(currentMax, millis)) {
+            currentMax = max.get();
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    public LatencySnapshot getSnapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long snapshotCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            snapshotCount += counts[i];
+        }
+        long snapshotMax = max.get();
+        return new LatencySnapshot(stage, channelId, nodeId, snapshotCount, total.sum(), snapshotMax,
+                getPercentile(counts, snapshotCount, snapshotMax, 0.5), getPercentile(counts, snapshotCount, snapshotMax, 0.9),
+                getPercentile(counts, snapshotCount, snapshotMax, 0.99), getPercentile(counts, snapshotCount, snapshotMax, 0.999));
+    }
+
+    protected static long getPercentile(long[] counts, long totalCount, long max, double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(totalCount * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    protected static int getBucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    protected static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
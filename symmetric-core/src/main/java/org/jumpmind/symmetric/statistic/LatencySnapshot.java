@@ -0,0 +1,101 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+/**
+ * Point in time view of a {@link LatencyHistogram}. All times are in milliseconds.
+ */
+public class LatencySnapshot {
+    private String stage;
+    private String channelId;
+    private String nodeId;
+    private long count;
+    private long totalMillis;
+    private long maxMillis;
+    private long p50Millis;
+    private long p90Millis;
+    private long p99Millis;
+    private long p999Millis;
+
+    public LatencySnapshot(String stage, String channelId, String nodeId, long count, long totalMillis, long maxMillis, long p50Millis,
+            long p90Millis, long p99Millis, long p999Millis) {
+        this.stage = stage;
+        this.channelId = channelId;
+        this.nodeId = nodeId;
+        this.count = count;
+        this.totalMillis = totalMillis;
+        this.maxMillis = maxMillis;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.p999Millis = p999Millis;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public double getMeanMillis() {
+        return count > 0 ? (double) totalMillis / count : 0;
+    }
+
+    public long getP50Millis() {
+        return p50Millis;
+    }
+
+    public long getP90Millis() {
+        return p90Millis;
+    }
+
+    public long getP99Millis() {
+        return p99Millis;
+    }
+
+    public long getP999Millis() {
+        return p999Millis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("stage=%s channel=%s node=%s count=%d mean=%.1f p50=%d p90=%d p99=%d p999=%d max=%d", stage, channelId,
+                nodeId, count, getMeanMillis(), p50Millis, p90Millis, p99Millis, p999Millis, maxMillis);
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In process registry of latency histograms for each replication stage by channel, and optionally by node. Looking up an existing histogram
+ * does not allocate, so recording can stay on in production. The number of histograms is capped, and latencies for any series past the cap
+ * are recorded in one overflow histogram per stage.
+ */
+public class MetricsRegistry {
+    public static final String STAGE_ROUTE_READ = "route.read";
+    public static final String STAGE_ROUTE = "route";
+    public static final String STAGE_EXTRACT = "extract";
+    public static final String STAGE_TRANSFER = "transfer";
+    public static final String STAGE_RECEIVE = "receive";
+    public static final String STAGE_LOAD = "load";
+    public static final String OVERFLOW = "*";
+    public static final int DEFAULT_MAX_SERIES = 1000;
+    private static final Logger log = LoggerFactory.getLogger(MetricsRegistry.class);
+    private static final String NONE = "";
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>>> histograms =
+            new ConcurrentHashMap<String, ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>>>();
+    private final AtomicInteger seriesCount = new AtomicInteger();
+    private volatile boolean enabled = true;
+    private volatile boolean recordByNode = false;
+    private volatile int maxSeries = DEFAULT_MAX_SERIES;
+
+    public void record(String stage, String channelId, String nodeId, long millis) {
+        if (enabled) {
+            getHistogram(stage, channelId, nodeId).record(millis);
+        }
+    }
+
+    /**
+     * @return the histogram for the stage and channel, and also the node when histograms are kept by node, or the overflow histogram for the
+     *         stage when there are already {@link #getMaxSeries()} histograms
+     */
+    public LatencyHistogram getHistogram(String stage, String channelId, String nodeId) {
+        String channelKey = channelId == null ? NONE : channelId;
+        String nodeKey = nodeId == null || !recordByNode ? NONE : nodeId;
+        LatencyHistogram histogram = getHistogram(stage, channelKey, nodeKey, true);
+        return histogram != null ? histogram : getHistogram(stage, OVERFLOW, OVERFLOW, false);
+    }
+
+    protected LatencyHistogram getHistogram(String stage, String channelKey, String nodeKey, boolean counted) {
+        ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>> byChannel = histograms.get(stage);
+        if (byChannel == null) {
+            byChannel = new ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>>();
+            ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>> existing = histograms.putIfAbsent(stage, byChannel);
+            byChannel = existing != null ? existing : byChannel;
+        }
+        ConcurrentHashMap<String, LatencyHistogram> byNode = byChannel.get(channelKey);
+        if (byNode == null) {
+            if (counted && seriesCount.get() >= maxSeries) {
+                return null;
+            }
+            byNode = new ConcurrentHashMap<String, LatencyHistogram>();
+            ConcurrentHashMap<String, LatencyHistogram> existing = byChannel.putIfAbsent(channelKey, byNode);
+            byNode = existing != null ? existing : byNode;
+        }
+        LatencyHistogram histogram = byNode.get(nodeKey);
+        if (histogram == null) {
+            if (counted && seriesCount.get() >= maxSeries) {
+                return null;
+            }
+            histogram = new LatencyHistogram(stage, channelKey, nodeKey);
+            LatencyHistogram existing = byNode.putIfAbsent(nodeKey, histogram);
+            if (existing != null) {
+                histogram = existing;
+            } else if (counted) {
+                seriesCount.incrementAndGet();
+            }
+        }
+        return histogram;
+    }
+
+    public List<LatencySnapshot> getSnapshots() {
+        return getSnapshots(null);
+    }
+
+    /**
+     * @param stage
+     *            the stage to return or null for all stages
+     */
+    public List<LatencySnapshot> getSnapshots(String stage) {
+        List<LatencySnapshot> snapshots = new ArrayList<LatencySnapshot>();
+        for (ConcurrentHashMap<String, ConcurrentHashMap<String, LatencyHistogram>> byChannel : histograms.values()) {
+            for (ConcurrentHashMap<String, LatencyHistogram> byNode : byChannel.values()) {
+                for (LatencyHistogram histogram : byNode.values()) {
+                    if (stage == null || stage.equals(histogram.getStage())) {
+                        snapshots.add(histogram.getSnapshot());
+                    }
+                }
+            }
+        }
+        Collections.sort(snapshots, new Comparator<LatencySnapshot>() {
+            public int compare(LatencySnapshot o1, LatencySnapshot o2) {
+                int compare = o1.getStage().compareTo(o2.getStage());
+                if (compare == 0) {
+                    compare = o1.getChannelId().compareTo(o2.getChannelId());
+                }
+                if (compare == 0) {
+                    compare = o1.getNodeId().compareTo(o2.getNodeId());
+                }
+                return compare;
+            }
+        });
+        return snapshots;
+    }
+
+    public void export(List<IMetricsExporter> exporters) {
+        if (enabled && exporters != null && exporters.size() > 0) {
+            List<LatencySnapshot> snapshots = getSnapshots();
+            for (IMetricsExporter exporter : exporters) {
+                try {
+                    exporter.export(snapshots);
+                } catch (Exception ex) {
+                    log.warn("Failed to export metrics with " + exporter.getClass().getName(), ex);
+                }
+            }
+        }
+    }
+
+    public String getSummary() {
+        StringBuilder buffer = new StringBuilder();
+        for (LatencySnapshot snapshot : getSnapshots()) {
+            if (snapshot.getCount() > 0) {
+                buffer.append(snapshot.toString()).append("\n");
+            }
+        }
+        return StringUtils.isBlank(buffer) ? "No latencies recorded" : buffer.toString();
+    }
+
+    public void reset() {
+        histograms.clear();
+        seriesCount.set(0);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setRecordByNode(boolean recordByNode) {
+        this.recordByNode = recordByNode;
+    }
+
+    public boolean isRecordByNode() {
+        return recordByNode;
+    }
+
+    public void setMaxSeries(int maxSeries) {
+        this.maxSeries = maxSeries;
+    }
+
+    public int getMaxSeries() {
+        return maxSeries;
+    }
+}
@@ -75,6 +75,7 @@ public class StatisticManager implements IStatisticManager {
     protected Map<ProcessInfoKey, ProcessInfo> processInfos = new ConcurrentHashMap<ProcessInfoKey, ProcessInfo>();
     protected Map<ProcessInfoKey, ProcessInfo> processInfosThatHaveDoneWork = new ConcurrentHashMap<ProcessInfoKey, ProcessInfo>();
     private Map<Date, Map<String, ChannelStats>> baseChannelStatsInMemory = new LinkedHashMap<Date, Map<String, ChannelStats>>();
+    protected MetricsRegistry metricsRegistry = new MetricsRegistry();
 
     public StatisticManager(IParameterService parameterService, INodeService nodeService,
             IConfigurationService configurationService, IStatisticService statisticsService,
@@ -88,6 +89,21 @@ public class StatisticManager implements IStatisticManager {
     }
 
     protected void init() {
+        initMetricsRegistry();
+    }
+
+    protected void initMetricsRegistry() {
+        metricsRegistry.setEnabled(parameterService.is(ParameterConstants.METRICS_ENABLED, false));
+        metricsRegistry.setRecordByNode(parameterService.is(ParameterConstants.METRICS_BY_NODE, false));
+        metricsRegistry.setMaxSeries(parameterService.getInt(ParameterConstants.METRICS_MAX_SERIES, MetricsRegistry.DEFAULT_MAX_SERIES));
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    public void recordLatency(String stage, String channelId, String nodeId, long millis) {
+        metricsRegistry.record(stage, channelId, nodeId, millis);
     }
 
     public ProcessInfo newProcessInfo(ProcessInfoKey key) {
@@ -476,6 +492,7 @@ public class StatisticManager implements IStatisticManager {
     public void flush() {
         boolean recordStatistics = parameterService.is(ParameterConstants.STATISTIC_RECORD_ENABLE,
                 false);
+        initMetricsRegistry();
         long recordStatisticsCountThreshold = parameterService.getLong(ParameterConstants.STATISTIC_RECORD_COUNT_THRESHOLD, -1);
         if (channelStats != null) {
             channelStatsLock.acquireUninterruptibly(NUMBER_OF_PERMITS);
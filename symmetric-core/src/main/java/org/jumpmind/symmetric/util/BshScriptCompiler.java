@@ -0,0 +1,126 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.lang.model.SourceVersion;
+
+import org.jumpmind.util.SimpleClassCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles BeanShell scripts to Java with {@link SimpleClassCompiler} so they don't have to be interpreted for every row. Only the
+ * variables a script references are declared, using the types given by the caller, and their values are passed in as an array. A
+ * script is compiled when it is a single expression or when it returns its result explicitly, and when it is also valid Java. Anything
+ * else, like loosely typed variables or methods defined in the script, returns null so the caller can fall back to the interpreter.
+ * Results, including failures, are cached by script and variable types.
+ */
+public class BshScriptCompiler {
+    protected static final String CODE_START = "import java.util.*;\n"
+            + "import java.io.*;\n"
+            + "import java.math.*;\n"
+            + "import java.net.*;\n"
+            + "import org.jumpmind.symmetric.io.data.*;\n"
+            + "import org.jumpmind.symmetric.io.data.transform.*;\n"
+            + "import org.jumpmind.symmetric.model.*;\n"
+            + "import org.jumpmind.db.sql.*;\n"
+            + "public class CompiledBshScriptExt extends org.jumpmind.symmetric.util.CompiledBshScript {\n"
+            + "    public Object eval(Object[] args) throws Exception {\n";
+    protected static final String CODE_END = "\n    }\n}\n";
+    protected static final Pattern LITERALS_AND_COMMENTS = Pattern.compile(
+            "\"(?:\\\\.|[^\"\\\\])*\"|'(?:\\\\.|[^'\\\\])*'|//[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+    protected static final Pattern IDENTIFIER = Pattern.compile("(?<![\\w$.])[A-Za-z_$][\\w$]*");
+    protected static final Pattern RETURN = Pattern.compile("\\breturn\\b");
+    protected static final CompiledBshScript NOT_COMPILED = new CompiledBshScript() {
+        public Object eval(Object[] args) {
+            return null;
+        }
+    };
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+    protected SimpleClassCompiler simpleClassCompiler = new SimpleClassCompiler();
+    protected Map<String, CompiledBshScript> cache = new ConcurrentHashMap<String, CompiledBshScript>();
+
+    /**
+     * @param variableTypes the Java type for each variable that can be bound to the script
+     * @return the compiled script, or null if it has to be interpreted
+     */
+    public CompiledBshScript compile(String script, Map<String, String> variableTypes) {
+        if (script == null) {
+            return null;
+        }
+        String stripped = LITERALS_AND_COMMENTS.matcher(script).replaceAll("\"\"").trim();
+        Map<String, String> referenced = new TreeMap<String, String>();
+        Matcher matcher = IDENTIFIER.matcher(stripped);
+        while (matcher.find()) {
+            String name = matcher.group();
+            String type = variableTypes.get(name);
+            if (type != null && SourceVersion.isName(name)) {
+                referenced.put(name, type);
+            }
+        }
+        String key = referenced + script;
+        CompiledBshScript compiled = cache.get(key);
+        if (compiled == null) {
+            compiled = NOT_COMPILED;
+            String body = toJavaBody(script, stripped);
+            if (body != null) {
+                StringBuilder code = new StringBuilder(CODE_START);
+                int index = 0;
+                for (Map.Entry<String, String> entry : referenced.entrySet()) {
+                    code.append("        ").append(entry.getValue()).append(" ").append(entry.getKey());
+                    code.append(" = (").append(entry.getValue()).append(") args[").append(index++).append("];\n");
+                }
+                code.append(body).append(CODE_END);
+                try {
+                    synchronized (simpleClassCompiler) {
+                        compiled = (CompiledBshScript) simpleClassCompiler.getCompiledClass(code.toString());
+                    }
+                    compiled.setVariableNames(referenced.keySet().toArray(new String[referenced.size()]));
+                } catch (Throwable e) {
+                    log.debug("Using the interpreter for script that did not compile as Java: {}", e.getMessage());
+                }
+            }
+            cache.put(key, compiled);
+        }
+        return compiled != NOT_COMPILED ? compiled : null;
+    }
+
+    protected String toJavaBody(String script, String stripped) {
+        if (RETURN.matcher(stripped).find()) {
+            return script;
+        }
+        String expression = stripped.endsWith(";") ? stripped.substring(0, stripped.length() - 1) : stripped;
+        if (expression.length() > 0 && expression.indexOf(';') < 0 && expression.indexOf('{') < 0) {
+            String trimmed = script.trim();
+            if (trimmed.endsWith(";")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            return "        return (" + trimmed + ");";
+        }
+        return null;
+    }
+}
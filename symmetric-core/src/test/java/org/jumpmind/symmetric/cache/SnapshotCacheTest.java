@@ -0,0 +1,163 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.service.impl.MockParameterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SnapshotCacheTest {
+    private Map<String, String> table;
+    private int loadAllCount;
+    private int loadCount;
+    private Properties properties;
+    private CacheManager cacheManager;
+    private SnapshotCache<String, String> cache;
+
+    @BeforeEach
+    public void setup() {
+        table = new HashMap<String, String>();
+        table.put("a", "1");
+        table.put("b", "2");
+        loadAllCount = 0;
+        loadCount = 0;
+        properties = new Properties();
+        properties.setProperty(ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS, "600000");
+        properties.setProperty(ParameterConstants.CACHE_EVENT_INVALIDATION_ENABLED, "false");
+        properties.setProperty(ParameterConstants.CACHE_EVENT_INVALIDATION_MAX_AGE_MS, "0");
+        cacheManager = new CacheManager(new MockParameterService(properties));
+        cache = cacheManager.createCache(ICacheManager.CACHE_NODE, ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS,
+                new IKeySnapshotLoader<String, String>() {
+                    public Map<String, String> loadAll() {
+                        loadAllCount++;
+                        return new HashMap<String, String>(table);
+                    }
+
+                    public String load(String key) {
+                        loadCount++;
+                        return table.get(key);
+                    }
+                });
+    }
+
+    @Test
+    public void testLoadsOnceAndCountsHits() {
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.get("b"));
+        assertNull(cache.get("c"));
+        assertEquals(1, loadAllCount);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        Map<String, String> snapshot = cache.getAll();
+        try {
+            snapshot.put("c", "3");
+            fail("Snapshot should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+        }
+        assertNull(cache.get("c"));
+    }
+
+    @Test
+    public void testTimeoutReload() {
+        properties.setProperty(ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS, "0");
+        cache.get("a");
+        cache.get("a");
+        assertEquals(2, loadAllCount);
+    }
+
+    @Test
+    public void testEventInvalidationIgnoresTimeout() {
+        properties.setProperty(ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS, "0");
+        properties.setProperty(ParameterConstants.CACHE_EVENT_INVALIDATION_ENABLED, "true");
+        cache.get("a");
+        cache.get("a");
+        assertEquals(1, loadAllCount);
+        table.put("a", "changed");
+        cacheManager.invalidate(ICacheManager.CACHE_NODE);
+        assertEquals("changed", cache.get("a"));
+        assertEquals(2, loadAllCount);
+    }
+
+    @Test
+    public void testRefreshSingleKey() {
+        Map<String, String> before = cache.getAll();
+        table.put("a", "changed");
+        table.remove("b");
+        table.put("c", "3");
+        cacheManager.refresh(ICacheManager.CACHE_NODE, Arrays.asList("a", "b", "c"));
+        assertEquals(1, loadAllCount);
+        assertEquals(3, loadCount);
+        assertEquals("changed", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(3, cache.getKeyRefreshCount());
+        assertEquals("1", before.get("a"));
+    }
+
+    @Test
+    public void testRefreshBeforeLoadDoesNothing() {
+        cache.refresh("a");
+        assertEquals(0, loadCount);
+        assertEquals(0, loadAllCount);
+    }
+
+    @Test
+    public void testRefreshWithoutKeyLoaderInvalidates() {
+        SnapshotCache<String, String> allOnly = cacheManager.createCache(ICacheManager.CACHE_CHANNEL,
+                ParameterConstants.CACHE_TIMEOUT_NODE_IN_MS, new ISnapshotLoader<String, String>() {
+                    public Map<String, String> loadAll() {
+                        loadAllCount++;
+                        return new HashMap<String, String>(table);
+                    }
+                });
+        allOnly.get("a");
+        table.put("a", "changed");
+        cacheManager.refresh(ICacheManager.CACHE_CHANNEL, Arrays.asList("a"));
+        assertEquals("changed", allOnly.get("a"));
+        assertEquals(2, loadAllCount);
+        assertEquals(1, allOnly.getInvalidationCount());
+    }
+
+    @Test
+    public void testGetIfPresentDoesNotLoad() {
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, loadAllCount);
+        Map<String, String> snapshot = cache.getAll();
+        assertSame(snapshot, cache.getAll());
+        assertEquals("1", cache.getIfPresent("a"));
+    }
+}
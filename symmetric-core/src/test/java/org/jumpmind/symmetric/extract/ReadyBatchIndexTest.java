@@ -0,0 +1,142 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.extract;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Properties;
+
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.ISqlTransactionListener;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.model.NodeGroupLinkAction;
+import org.jumpmind.symmetric.service.impl.MockParameterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+public class ReadyBatchIndexTest {
+    private ReadyBatchIndex index;
+
+    @BeforeEach
+    public void setup() {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.OUTGOING_BATCH_READY_INDEX_ENABLED, "true");
+        properties.setProperty(ParameterConstants.OUTGOING_BATCH_READY_INDEX_IDLE_MAX_MS, "60000");
+        index = new ReadyBatchIndex(new MockParameterService(properties));
+    }
+
+    @Test
+    public void testIdleUntilMarkedReady() {
+        long generation = index.getGeneration("00001");
+        assertFalse(index.isIdle("00001", "default"));
+        index.markIdle("00001", "default", generation);
+        assertTrue(index.isIdle("00001", "default"));
+        assertFalse(index.isIdle("00001", "other"));
+        assertFalse(index.isIdle("00002", "default"));
+        index.markReady("00001");
+        assertFalse(index.isIdle("00001", "default"));
+    }
+
+    @Test
+    public void testNotIdleWhenReadyDuringQuery() {
+        long generation = index.getGeneration("00001");
+        index.markReady("00001");
+        index.markIdle("00001", "default", generation);
+        assertFalse(index.isIdle("00001", "default"));
+    }
+
+    @Test
+    public void testDisabled() {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.OUTGOING_BATCH_READY_INDEX_ENABLED, "false");
+        index = new ReadyBatchIndex(new MockParameterService(properties));
+        index.markIdle("00001", "default", index.getGeneration("00001"));
+        assertFalse(index.isIdle("00001", "default"));
+    }
+
+    @Test
+    public void testIdleExpires() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.OUTGOING_BATCH_READY_INDEX_ENABLED, "true");
+        properties.setProperty(ParameterConstants.OUTGOING_BATCH_READY_INDEX_IDLE_MAX_MS, "1");
+        index = new ReadyBatchIndex(new MockParameterService(properties));
+        index.markIdle("00001", "default", index.getGeneration("00001"));
+        Thread.sleep(5);
+        assertFalse(index.isIdle("00001", "default"));
+    }
+
+    @Test
+    public void testMarkReadyOnCommit() {
+        ISqlTransaction transaction = mock(ISqlTransaction.class);
+        long generation = index.getGeneration("00001");
+        index.markReady(transaction, "00001");
+        index.markReady(transaction, "00002");
+        ArgumentCaptor<ISqlTransactionListener> listener = ArgumentCaptor.forClass(ISqlTransactionListener.class);
+        verify(transaction, times(1)).addSqlTransactionListener(listener.capture());
+
+        long generationBeforeCommit = index.getGeneration("00001");
+        assertNotEquals(generation, generationBeforeCommit);
+        index.markIdle("00001", "default", generationBeforeCommit);
+        assertTrue(index.isIdle("00001", "default"));
+
+        listener.getValue().transactionCommitted();
+        assertFalse(index.isIdle("00001", "default"));
+
+        index.markIdle("00001", "default", index.getGeneration("00001"));
+        listener.getValue().transactionCommitted();
+        assertTrue(index.isIdle("00001", "default"));
+        verify(transaction, times(1)).addSqlTransactionListener(any());
+    }
+
+    @Test
+    public void testAwaitReady() throws Exception {
+        long generation = index.getGeneration("00001");
+        assertFalse(index.awaitReady("00001", generation, 10));
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+            }
+            index.markReady("00001");
+        });
+        thread.start();
+        long ts = System.currentTimeMillis();
+        assertTrue(index.awaitReady("00001", generation, 10000));
+        assertTrue(System.currentTimeMillis() - ts < 10000);
+        thread.join();
+    }
+
+    @Test
+    public void testGetKey() {
+        assertEquals("", ReadyBatchIndex.getKey(null, null, null));
+        assertEquals("default", ReadyBatchIndex.getKey("default", null, null));
+        assertEquals("default-W", ReadyBatchIndex.getKey("default", NodeGroupLinkAction.W, NodeGroupLinkAction.P));
+        assertEquals("default-W-default", ReadyBatchIndex.getKey("default", NodeGroupLinkAction.W, NodeGroupLinkAction.W));
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileSyncDeltaTest {
+    private static final int BLOCK_SIZE = 1024;
+    @TempDir
+    File dir;
+    byte[] original;
+
+    @BeforeEach
+    public void setUp() {
+        original = randomBytes(100 * BLOCK_SIZE + 123, 1);
+    }
+
+    @Test
+    public void testUnchanged() throws Exception {
+        long deltaSize = assertDelta(original, original);
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < 100);
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        byte[] appended = concat(original, randomBytes(5000, 2));
+        long deltaSize = assertDelta(original, appended);
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < 5000 + 2 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testInsertInMiddle() throws Exception {
+        int middle = original.length / 2 + 17;
+        byte[] inserted = concat(Arrays.copyOfRange(original, 0, middle), randomBytes(333, 3), Arrays.copyOfRange(original, middle, original.length));
+        long deltaSize = assertDelta(original, inserted);
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < 333 + 2 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testChangeInMiddle() throws Exception {
+        byte[] changed = original.clone();
+        for (int i = 40000; i < 40010; i++) {
+            changed[i]++;
+        }
+        long deltaSize = assertDelta(original, changed);
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < 3 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testTruncate() throws Exception {
+        long deltaSize = assertDelta(original, Arrays.copyOfRange(original, 0, 50 * BLOCK_SIZE + 7));
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < 2 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testTruncateFromStart() throws Exception {
+        long deltaSize = assertDelta(original, Arrays.copyOfRange(original, 10 * BLOCK_SIZE + 5, original.length));
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < 2 * BLOCK_SIZE);
+    }
+
+    @Test
+    public void testTruncateToEmpty() throws Exception {
+        assertDelta(original, new byte[0]);
+    }
+
+    @Test
+    public void testFromEmpty() throws Exception {
+        assertDelta(new byte[0], original);
+    }
+
+    @Test
+    public void testUnrelatedContent() throws Exception {
+        byte[] unrelated = randomBytes(original.length, 4);
+        long deltaSize = assertDelta(original, unrelated);
+        assertTrue("Delta was " + deltaSize + " bytes", deltaSize < unrelated.length + unrelated.length / 100);
+    }
+
+    @Test
+    public void testTargetDoesNotMatchBasis() throws Exception {
+        File source = write("source.dat", concat(original, randomBytes(10, 5)));
+        File delta = new File(dir, "source.dat.delta");
+        writeDelta(source, FileSignature.create(write("basis.dat", original), BLOCK_SIZE), delta);
+        byte[] modifiedTarget = original.clone();
+        modifiedTarget[5]++;
+        File target = write("target.dat", modifiedTarget);
+        try {
+            FileSyncDelta.applyDelta(delta, target);
+            fail("Expected a conflict because the target changed");
+        } catch (FileConflictException e) {
+        }
+        assertArrayEquals(modifiedTarget, FileUtils.readFileToByteArray(target));
+        assertFalse(new File(dir, ".target.dat.delta.tmp").exists());
+    }
+
+    @Test
+    public void testSignatureReadWrite() throws Exception {
+        FileSignature signature = FileSignature.create(write("basis.dat", original), BLOCK_SIZE);
+        File signatureFile = new File(dir, "signatures/basis.dat.sig");
+        signature.write(signatureFile);
+        assertEquals(signature, FileSignature.read(signatureFile));
+        assertEquals(101, signature.getBlockCount());
+        assertEquals(123, signature.getBlockLength(100));
+        assertEquals(FileUtils.checksumCRC32(new File(dir, "basis.dat")), signature.getCrc32Checksum());
+    }
+
+    protected long assertDelta(byte[] basisContent, byte[] sourceContent) throws IOException {
+        File basis = write("basis.dat", basisContent);
+        File source = write("source.dat", sourceContent);
+        File target = write("target.dat", basisContent);
+        File delta = new File(dir, "source.dat.delta");
+        FileSignature.Generator generator = writeDelta(source, FileSignature.create(basis, BLOCK_SIZE), delta);
+        assertTrue(source.setLastModified(1500000000000L));
+        assertTrue(delta.setLastModified(1500000000000L));
+        FileSyncDelta.applyDelta(delta, target);
+        assertArrayEquals(sourceContent, FileUtils.readFileToByteArray(target));
+        assertEquals(source.lastModified(), target.lastModified());
+        assertEquals(FileSignature.create(source, BLOCK_SIZE), generator.getSignature());
+        assertFalse(new File(dir, ".target.dat.delta.tmp").exists());
+        return delta.length();
+    }
+
+    protected FileSignature.Generator writeDelta(File source, FileSignature signature, File delta) throws IOException {
+        FileSignature.Generator generator = new FileSignature.Generator(BLOCK_SIZE);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        FileSyncDelta.createDelta(source, signature, os, generator);
+        FileUtils.writeByteArrayToFile(delta, os.toByteArray());
+        return generator;
+    }
+
+    protected File write(String name, byte[] content) throws IOException {
+        File file = new File(dir, name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    protected static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    protected static byte[] concat(byte[]... arrays) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        for (byte[] array : arrays) {
+            os.write(array, 0, array.length);
+        }
+        return os.toByteArray();
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.Batch.BatchType;
+import org.jumpmind.symmetric.model.FileConflictStrategy;
+import org.jumpmind.symmetric.model.FileSnapshot;
+import org.jumpmind.symmetric.model.FileTriggerRouter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FileSyncZipDataWriterTest {
+    @TempDir
+    File dir;
+
+    @Test
+    public void testSignatureUsedOnlyForTargetContent() throws Exception {
+        FileSyncZipDataWriter writer = new FileSyncZipDataWriter(0, null, null, null, null, null);
+        writer.signatureDir = new File(dir, "signatures");
+        File file = new File(dir, "file.txt");
+        FileUtils.writeStringToFile(file, "original content", "UTF-8");
+        FileSignature signature = FileSignature.create(file, 4);
+        Batch batch = new Batch(BatchType.EXTRACT, 7, "filesync", BinaryEncoding.BASE64, "00000", "00001", false);
+        FileSnapshot snapshot = new FileSnapshot();
+        snapshot.setTriggerId("docs");
+        snapshot.setRelativeDir("a");
+        snapshot.setFileName("file.txt");
+
+        File signatureFile = writer.getSignatureFile(batch, snapshot);
+        signature.write(signatureFile);
+        assertEquals(signature, writer.readSignature(signatureFile, FileUtils.checksumCRC32(file)));
+        assertNull(writer.readSignature(signatureFile, FileUtils.checksumCRC32(file) + 1));
+
+        File pendingFile = writer.getPendingSignatureFile(batch, snapshot);
+        assertFalse(pendingFile.equals(signatureFile));
+        assertTrue(pendingFile.getPath().startsWith(FileSyncZipDataWriter.getPendingSignatureDir(writer.signatureDir, "00001", 7).getPath()));
+    }
+
+    @Test
+    public void testDeltaOnlyWhenTargetIsChecked() {
+        FileSyncZipDataWriter writer = new FileSyncZipDataWriter(0, null, null, null, null, null);
+        FileTriggerRouter triggerRouter = new FileTriggerRouter();
+        assertFalse(writer.isDeltaSafe(triggerRouter));
+        triggerRouter.setConflictStrategyString("custom");
+        assertFalse(writer.isDeltaSafe(triggerRouter));
+        triggerRouter.setConflictStrategy(FileConflictStrategy.MANUAL);
+        assertTrue(writer.isDeltaSafe(triggerRouter));
+        triggerRouter.setConflictStrategy(FileConflictStrategy.TARGET_WINS);
+        assertTrue(writer.isDeltaSafe(triggerRouter));
+        triggerRouter.setConflictStrategy(FileConflictStrategy.SOURCE_WINS);
+        assertFalse(writer.isDeltaSafe(triggerRouter));
+    }
+}
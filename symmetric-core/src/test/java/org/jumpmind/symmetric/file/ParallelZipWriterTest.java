@@ -0,0 +1,190 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.jumpmind.exception.IoException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ParallelZipWriterTest {
+    private static final long TIME = 1500000000000L;
+    @TempDir
+    File dir;
+
+    @Test
+    public void testWriteEntriesInParallel() throws Exception {
+        assertArchive(4);
+    }
+
+    @Test
+    public void testWriteEntriesOnCallingThread() throws Exception {
+        assertArchive(1);
+    }
+
+    @Test
+    public void testManyEntriesUseZip64() throws Exception {
+        File zip = new File(dir, "many.zip");
+        int count = 70000;
+        try (OutputStream os = new FileOutputStream(zip)) {
+            ParallelZipWriter writer = new ParallelZipWriter(os, 4, 6, dir, "test-zip");
+            for (int i = 0; i < count; i++) {
+                writer.putEntry(newEntry("1/file" + i + ".txt"), ("content " + i).getBytes(StandardCharsets.UTF_8), i % 2 == 0);
+            }
+            writer.finish();
+        }
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(count, zipFile.size());
+            ZipEntry entry = zipFile.getEntry("1/file69999.txt");
+            assertEquals("content 69999", IOUtils.toString(zipFile.getInputStream(entry), StandardCharsets.UTF_8));
+        }
+        int read = 0;
+        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                assertEquals("1/file" + read + ".txt", entry.getName());
+                assertEquals("content " + read, IOUtils.toString(zis, StandardCharsets.UTF_8));
+                read++;
+            }
+        }
+        assertEquals(count, read);
+    }
+
+    @Test
+    public void testFailedEntryIsRethrown() throws Exception {
+        final IOException failure = new IOException("Could not read file");
+        File zip = new File(dir, "failed.zip");
+        try (OutputStream os = new FileOutputStream(zip)) {
+            ParallelZipWriter writer = new ParallelZipWriter(os, 4, 6, dir, "test-zip");
+            writer.putEntry(newEntry("1/ok.txt"), "ok".getBytes(StandardCharsets.UTF_8), true);
+            writer.putEntry(newEntry("1/failed.txt"), new ParallelZipWriter.EntryContent() {
+                public void write(OutputStream out) throws IOException {
+                    out.write(new byte[2 * 1024 * 1024]);
+                    throw failure;
+                }
+            }, true);
+            try {
+                writer.finish();
+                fail("Expected the failed entry to be rethrown");
+            } catch (IoException e) {
+                assertSame(failure, e.getCause());
+            } finally {
+                writer.close();
+            }
+        }
+        assertEquals(1, dir.list().length);
+    }
+
+    protected void assertArchive(int threadCount) throws Exception {
+        Random random = new Random(threadCount);
+        Map<String, byte[]> contents = new LinkedHashMap<String, byte[]>();
+        contents.put("1/dir/", null);
+        contents.put("1/empty.txt", new byte[0]);
+        contents.put("1/dir/text.txt", "some text that compresses some text that compresses".getBytes(StandardCharsets.UTF_8));
+        byte[] image = new byte[300000];
+        random.nextBytes(image);
+        contents.put("1/dir/image.jpg", image);
+        byte[] large = new byte[3 * 1024 * 1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i % 251);
+        }
+        contents.put("1/large.dat", large);
+        for (int i = 0; i < 50; i++) {
+            byte[] small = new byte[random.nextInt(20000)];
+            random.nextBytes(small);
+            contents.put("1/small/" + i + ".bin", small);
+        }
+        contents.put("1/sync.bsh", "return fileList;\n".getBytes(StandardCharsets.UTF_8));
+
+        File zip = new File(dir, "test.zip");
+        try (OutputStream os = new FileOutputStream(zip)) {
+            ParallelZipWriter writer = new ParallelZipWriter(os, threadCount, 6, dir, "test-zip");
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                ZipEntry entry = newEntry(content.getKey());
+                if (content.getValue() == null) {
+                    writer.putDirectory(entry);
+                } else if (content.getKey().equals("1/large.dat")) {
+                    File file = new File(dir, "large.dat");
+                    IOUtils.write(content.getValue(), new FileOutputStream(file));
+                    writer.putFile(entry, file, true);
+                } else {
+                    writer.putEntry(entry, content.getValue(), !content.getKey().endsWith(".jpg"));
+                }
+            }
+            writer.finish();
+        }
+        assertTrue(zip.length() < image.length + large.length / 10 + 50 * 20000);
+
+        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(zip))) {
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                ZipEntry entry = zis.getNextEntry();
+                assertEquals(content.getKey(), entry.getName());
+                assertEquals(TIME, entry.getTime());
+                if (content.getValue() == null) {
+                    assertTrue(entry.isDirectory());
+                } else {
+                    assertArrayEquals(content.getKey(), content.getValue(), IOUtils.toByteArray(zis));
+                    assertEquals(content.getKey().endsWith(".jpg") ? ZipEntry.STORED : ZipEntry.DEFLATED, entry.getMethod());
+                }
+            }
+            assertNull(zis.getNextEntry());
+        }
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(contents.size(), zipFile.size());
+            for (Map.Entry<String, byte[]> content : contents.entrySet()) {
+                if (content.getValue() != null) {
+                    try (InputStream is = zipFile.getInputStream(zipFile.getEntry(content.getKey()))) {
+                        assertArrayEquals(content.getValue(), IOUtils.toByteArray(is));
+                    }
+                }
+            }
+        }
+        new File(dir, "large.dat").delete();
+        assertEquals(1, dir.list().length);
+    }
+
+    protected ZipEntry newEntry(String name) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(TIME);
+        return entry;
+    }
+}
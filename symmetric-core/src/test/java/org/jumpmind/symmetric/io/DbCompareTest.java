@@ -0,0 +1,205 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.io.DbCompareReport.TableReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DbCompareTest {
+    private static final int ROW_COUNT = 10000;
+    private TreeMap<Long, Integer> sourceRows;
+    private TreeMap<Long, Integer> targetRows;
+    private DbCompareConfig config;
+
+    @BeforeEach
+    public void setup() {
+        sourceRows = new TreeMap<Long, Integer>();
+        targetRows = new TreeMap<Long, Integer>();
+        for (long id = 1; id <= ROW_COUNT; id++) {
+            sourceRows.put(id, (int) (id * 31));
+            targetRows.put(id, (int) (id * 31));
+        }
+        config = new DbCompareConfig();
+        config.setHashFanout(4);
+        config.setHashLeafRows(100);
+    }
+
+    @Test
+    public void testMatchingDigestsCountRowsWithoutReadingThem() {
+        TestDbCompare dbCompare = new TestDbCompare();
+        TableReport report = compare(dbCompare, Types.BIGINT);
+        assertEquals(0, dbCompare.ranges.size());
+        assertEquals(2, dbCompare.digestQueries);
+        assertEquals(ROW_COUNT, report.getMatchedRows());
+        assertEquals(ROW_COUNT, report.getSourceRows());
+        assertEquals(ROW_COUNT, report.getTargetRows());
+    }
+
+    @Test
+    public void testMismatchDrillsDownToLeafRanges() {
+        targetRows.put(5000L, 0);
+        targetRows.remove(9999L);
+        TestDbCompare dbCompare = new TestDbCompare();
+        TableReport report = compare(dbCompare, Types.BIGINT);
+        assertEquals(2, dbCompare.ranges.size());
+        assertRangeContains(dbCompare.ranges.get(0), 5000L);
+        assertRangeContains(dbCompare.ranges.get(1), 9999L);
+        for (Long[] range : dbCompare.ranges) {
+            assertTrue(sourceRows.subMap(range[0], range[1]).size() <= config.getHashLeafRows());
+        }
+        assertEquals(ROW_COUNT - 2, report.getMatchedRows());
+        assertEquals(ROW_COUNT, report.getSourceRows());
+        assertEquals(ROW_COUNT - 1, report.getTargetRows());
+    }
+
+    @Test
+    public void testRangesAreSplitByFanout() {
+        targetRows.put(1L, 0);
+        config.setHashLeafRows(ROW_COUNT / 2);
+        TestDbCompare dbCompare = new TestDbCompare();
+        compare(dbCompare, Types.BIGINT);
+        // the whole table digest, then one level split into 4 ranges of 2500 keys
+        assertEquals(2 + 2 * 4, dbCompare.digestQueries);
+        assertEquals(1, dbCompare.ranges.size());
+        assertEquals(Long.valueOf(1), dbCompare.ranges.get(0)[0]);
+        assertEquals(Long.valueOf(2501), dbCompare.ranges.get(0)[1]);
+    }
+
+    @Test
+    public void testFallbackToMergeWhenDigestFails() {
+        TestDbCompare dbCompare = new TestDbCompare();
+        dbCompare.failDigest = true;
+        TableReport report = compare(dbCompare, Types.BIGINT);
+        assertEquals(1, dbCompare.ranges.size());
+        assertEquals(null, dbCompare.ranges.get(0)[0]);
+        assertEquals(null, dbCompare.ranges.get(0)[1]);
+        assertEquals(ROW_COUNT, report.getSourceRows());
+    }
+
+    @Test
+    public void testFallbackToMergeWhenKeyIsNotInteger() {
+        targetRows.put(5000L, 0);
+        TestDbCompare dbCompare = new TestDbCompare();
+        compare(dbCompare, Types.VARCHAR);
+        assertEquals(2, dbCompare.digestQueries);
+        assertEquals(1, dbCompare.ranges.size());
+        assertEquals(null, dbCompare.ranges.get(0)[0]);
+    }
+
+    @Test
+    public void testRowHashExpressionDistinguishesNull() {
+        List<String> columns = Arrays.asList("t.ID", "t.NAME");
+        for (String name : new String[] { DatabaseNamesConstants.H2, DatabaseNamesConstants.POSTGRESQL, DatabaseNamesConstants.MYSQL,
+                DatabaseNamesConstants.ORACLE, DatabaseNamesConstants.MSSQL2016 }) {
+            String sql = DbCompareDigest.getRowHashExpression(mockPlatform(name), columns);
+            assertTrue(name, sql.contains("case when t.NAME is null then 'N' else "));
+            assertFalse(name, sql.contains("coalesce"));
+        }
+        String sql = DbCompareDigest.getRowHashExpression(mockPlatform(DatabaseNamesConstants.MSSQL2016), columns);
+        assertTrue(sql.contains("nvarchar(max)"));
+        assertFalse(sql.contains("nvarchar(4000)"));
+    }
+
+    protected TableReport compare(TestDbCompare dbCompare, int keyType) {
+        Table table = new Table("COMPARE_TEST");
+        table.addColumn(new Column("ID", true, keyType, 20, 0));
+        table.addColumn(new Column("NAME", false, Types.VARCHAR, 50, 0));
+        DbCompareTables tables = new DbCompareTables(table, table);
+        tables.applyColumnMappings();
+        TableReport report = new TableReport();
+        dbCompare.compareUsingDigests(tables, report, null, null);
+        return report;
+    }
+
+    protected void assertRangeContains(Long[] range, long id) {
+        assertTrue(range[0] + " to " + range[1], range[0] <= id && id < range[1]);
+    }
+
+    protected IDatabasePlatform mockPlatform(String name) {
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getName()).thenReturn(name);
+        return platform;
+    }
+
+    class TestDbCompare extends DbCompare {
+        List<Long[]> ranges = new ArrayList<Long[]>();
+        int digestQueries;
+        boolean failDigest;
+
+        TestDbCompare() {
+            super(null, null, config);
+        }
+
+        @Override
+        protected DbCompareDigest queryDigest(DbCompareTables tables, boolean source, Long start, Long end) {
+            digestQueries++;
+            if (failDigest) {
+                throw new RuntimeException("digest not supported");
+            }
+            SortedMap<Long, Integer> rows = subMap(source ? sourceRows : targetRows, start, end);
+            long hash = 0;
+            for (Integer rowHash : rows.values()) {
+                hash += rowHash;
+            }
+            return new DbCompareDigest(rows.size(), BigDecimal.valueOf(hash), rows.isEmpty() ? null : rows.firstKey(),
+                    rows.isEmpty() ? null : rows.lastKey());
+        }
+
+        @Override
+        protected void compareRange(DbCompareTables tables, Long start, Long end, TableReport tableReport, DbCompareDiffWriter diffWriter,
+                DbValueComparator dbValueComparator) {
+            ranges.add(new Long[] { start, end });
+            SortedMap<Long, Integer> source = subMap(sourceRows, start, end);
+            SortedMap<Long, Integer> target = subMap(targetRows, start, end);
+            for (Map.Entry<Long, Integer> entry : source.entrySet()) {
+                if (entry.getValue().equals(target.get(entry.getKey()))) {
+                    tableReport.setMatchedRows(tableReport.getMatchedRows() + 1);
+                }
+            }
+            tableReport.setSourceRows(tableReport.getSourceRows() + source.size());
+            tableReport.setTargetRows(tableReport.getTargetRows() + target.size());
+        }
+
+        protected SortedMap<Long, Integer> subMap(TreeMap<Long, Integer> rows, Long start, Long end) {
+            return start == null ? rows : rows.subMap(start, end);
+        }
+    }
+}
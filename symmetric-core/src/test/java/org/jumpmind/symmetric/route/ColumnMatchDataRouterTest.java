@@ -21,6 +21,8 @@
 package org.jumpmind.symmetric.route;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.util.HashSet;
 import java.util.List;
@@ -334,4 +336,75 @@ public class ColumnMatchDataRouterTest {
         assertEquals(true, result.contains("100"));
         assertEquals(true, result.contains("300"));
     }
+
+    @Test
+    public void testNodeIndexReusedAcrossRows() {
+        ColumnMatchDataRouter router = new ColumnMatchDataRouter();
+        SimpleRouterContext routingContext = new SimpleRouterContext();
+        HashSet<Node> nodes = new HashSet<Node>();
+        for (int i = 0; i < 1000; i++) {
+            nodes.add(new Node(Integer.toString(i), i % 2 == 0 ? "even" : "odd"));
+        }
+        TriggerHistory triggerHist = new TriggerHistory("mytable", "ID", "ID,STORE_ID,COLUMN2");
+        Router route = new Router();
+        route.setRouterExpression("STORE_ID = :EXTERNAL_ID or COLUMN2 contains :NODE_ID");
+        route.setRouterId("route1");
+        for (int i = 0; i < 10; i++) {
+            Data data = new Data();
+            data.setDataId(i);
+            data.setDataEventType(DataEventType.INSERT);
+            data.setRowData(i + "," + i + ",\"" + (i + 100) + ",x," + (i + 200) + "\"");
+            data.setTriggerHistory(triggerHist);
+            DataMetaData dataMetaData = new DataMetaData(data, new Table(), route, new NodeChannel());
+            Set<String> result = router.routeToNodes(routingContext, dataMetaData, nodes, false, false, null);
+            assertEquals(3, result.size());
+            assertEquals(true, result.contains(Integer.toString(i)));
+            assertEquals(true, result.contains(Integer.toString(i + 100)));
+            assertEquals(true, result.contains(Integer.toString(i + 200)));
+        }
+        ColumnMatchDataRouter.NodeIndex nodeIndex = router.getNodeIndex(route, routingContext, nodes);
+        assertSame(nodeIndex, router.getNodeIndex(route, routingContext, nodes));
+        HashSet<Node> sameNodes = new HashSet<Node>(nodes);
+        assertSame(nodeIndex, router.getNodeIndex(route, routingContext, sameNodes));
+        HashSet<Node> otherNodes = new HashSet<Node>(nodes);
+        otherNodes.remove(new Node("0", "even"));
+        assertNotSame(nodeIndex, router.getNodeIndex(route, routingContext, otherNodes));
+    }
+
+    @Test
+    public void testExpressionNotEqualsExternalIdWithNulls() {
+        ColumnMatchDataRouter router = new ColumnMatchDataRouter();
+        SimpleRouterContext routingContext = new SimpleRouterContext();
+        HashSet<Node> nodes = new HashSet<Node>();
+        nodes.add(new Node("100", "client"));
+        nodes.add(new Node("200", "client"));
+        Node noExternalId = new Node("300", "client");
+        noExternalId.setExternalId(null);
+        nodes.add(noExternalId);
+        TriggerHistory triggerHist = new TriggerHistory("mytable", "ID", "ID,STORE_ID,COLUMN2");
+        Router route = new Router();
+        route.setRouterExpression("STORE_ID != :EXTERNAL_ID");
+        route.setRouterId("route1");
+
+        Data data = new Data();
+        data.setDataId(1);
+        data.setDataEventType(DataEventType.INSERT);
+        data.setRowData("1,100,Super Dooper");
+        data.setTriggerHistory(triggerHist);
+        Set<String> result = router.routeToNodes(routingContext, new DataMetaData(data, new Table(), route, new NodeChannel()), nodes, false,
+                false, null);
+        assertEquals(2, result.size());
+        assertEquals(true, result.contains("200"));
+        assertEquals(true, result.contains("300"));
+
+        data = new Data();
+        data.setDataId(2);
+        data.setDataEventType(DataEventType.INSERT);
+        data.setRowData("2,,Super Dooper");
+        data.setTriggerHistory(triggerHist);
+        result = router.routeToNodes(routingContext, new DataMetaData(data, new Table(), route, new NodeChannel()), nodes, false, false, null);
+        assertEquals(2, result.size());
+        assertEquals(true, result.contains("100"));
+        assertEquals(true, result.contains("200"));
+    }
 }
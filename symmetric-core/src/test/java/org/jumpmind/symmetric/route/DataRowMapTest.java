@@ -0,0 +1,161 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.ProtocolException;
+import org.jumpmind.symmetric.model.Data;
+import org.jumpmind.symmetric.model.TriggerHistory;
+import org.junit.jupiter.api.Test;
+
+public class DataRowMapTest {
+    private TriggerHistory history = new TriggerHistory("ITEM", "ID", "ID,name,Price");
+
+    @Test
+    public void testInsert() {
+        Map<String, String> map = map(DataEventType.INSERT, "\"1\",\"pen\",\"2.50\"", null);
+        assertEquals("1", map.get("id"));
+        assertEquals("pen", map.get("NAME"));
+        assertEquals("pen", map.get("name"));
+        assertEquals("2.50", map.get("price"));
+        assertTrue(map.containsKey("OLD_NAME"));
+        assertNull(map.get("old_name"));
+        assertTrue(map.containsKey("EXTERNAL_DATA"));
+        assertEquals("store1", map.get("external_data"));
+        assertFalse(map.containsKey("quantity"));
+        assertEquals(7, map.size());
+        Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("ID", "1");
+        expected.put("name", "pen");
+        expected.put("Price", "2.50");
+        expected.put("OLD_ID", null);
+        expected.put("OLD_name", null);
+        expected.put("OLD_Price", null);
+        expected.put("EXTERNAL_DATA", "store1");
+        assertEquals(expected, new LinkedHashMap<String, String>(map));
+        assertEquals(expected.keySet().toString(), map.keySet().toString());
+    }
+
+    @Test
+    public void testUpdate() {
+        Map<String, String> map = map(DataEventType.UPDATE, "\"1\",\"pen\",\"3.00\"", "\"1\",\"pen\",\"2.50\"");
+        assertEquals("3.00", map.get("PRICE"));
+        assertEquals("2.50", map.get("OLD_PRICE"));
+        assertEquals(7, map.size());
+    }
+
+    @Test
+    public void testUpdateWithoutOldData() {
+        Map<String, String> map = map(DataEventType.UPDATE, "\"1\",\"pen\",\"3.00\"", null);
+        assertEquals("3.00", map.get("PRICE"));
+        assertFalse(map.containsKey("OLD_PRICE"));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void testDelete() {
+        Map<String, String> map = map(DataEventType.DELETE, null, "\"1\",\"pen\",\"2.50\"");
+        assertEquals("2.50", map.get("PRICE"));
+        assertEquals("2.50", map.get("OLD_PRICE"));
+        assertEquals(7, map.size());
+    }
+
+    @Test
+    public void testPrimaryKeyWhenNoRowData() {
+        Map<String, String> map = map(DataEventType.DELETE, null, null);
+        assertEquals("1", map.get("id"));
+        assertFalse(map.containsKey("NAME"));
+        assertFalse(map.containsKey("OLD_ID"));
+        assertEquals(2, map.size());
+        assertEquals("[ID, EXTERNAL_DATA]", map.keySet().toString());
+    }
+
+    @Test
+    public void testColumnNameCollisions() {
+        history = new TriggerHistory("ITEM", "ID", "ID,OLD_ID,EXTERNAL_DATA");
+        Map<String, String> map = map(DataEventType.UPDATE, "\"1\",\"2\",\"3\"", "\"4\",\"5\",\"6\"");
+        assertEquals("4", map.get("OLD_ID"));
+        assertEquals("store1", map.get("EXTERNAL_DATA"));
+        assertEquals(5, map.size());
+    }
+
+    @Test
+    public void testColumnCountMismatch() {
+        try {
+            map(DataEventType.INSERT, "\"1\",\"pen\"", null);
+            fail("Expected a protocol exception");
+        } catch (ProtocolException e) {
+        }
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        Map<String, String> map = map(DataEventType.INSERT, "\"1\",\"pen\",\"2.50\"", null);
+        assertEquals("pen", map.put("NAME", "pencil"));
+        assertEquals("pencil", map.get("name"));
+        assertEquals("2.50", map.get("PRICE"));
+        assertEquals(7, map.size());
+        map.put("ROUTE_TO", "store2");
+        assertEquals("store2", map.get("route_to"));
+        assertEquals("2.50", map.remove("price"));
+        assertFalse(map.containsKey("PRICE"));
+        assertEquals(7, map.size());
+
+        map = map(DataEventType.INSERT, "\"1\",\"pen\",\"2.50\"", null);
+        Iterator<Map.Entry<String, String>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey().startsWith("OLD_")) {
+                iterator.remove();
+            }
+        }
+        assertEquals(4, map.size());
+        assertEquals("pen", map.get("name"));
+        assertFalse(map.containsKey("OLD_NAME"));
+    }
+
+    @Test
+    public void testColumnsCachedPerTriggerHistory() {
+        AbstractDataRouter router = new DefaultDataRouter();
+        DataRowMap.Columns columns = router.getDataRowColumns(history);
+        assertSame(columns, router.getDataRowColumns(new TriggerHistory("ITEM", "ID", "ID,name,Price")));
+        TriggerHistory altered = new TriggerHistory("ITEM", "ID", "ID,name,Price,quantity");
+        assertFalse(columns == router.getDataRowColumns(altered));
+        assertTrue(router.getDataRowColumns(altered).matches(altered));
+    }
+
+    protected Map<String, String> map(DataEventType eventType, String rowData, String oldData) {
+        Data data = new Data("ITEM", eventType, rowData, "\"1\"", history, "default", null, null);
+        data.setOldData(oldData);
+        data.setExternalData("store1");
+        return new DataRowMap(new DataRowMap.Columns(history), data);
+    }
+}
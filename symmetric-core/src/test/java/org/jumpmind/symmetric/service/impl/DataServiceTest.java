@@ -20,7 +20,16 @@
  */
 package org.jumpmind.symmetric.service.impl;
 
+import static org.junit.Assert.assertEquals;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
@@ -37,6 +46,7 @@ import org.jumpmind.symmetric.ISymmetricEngine;
 import org.jumpmind.symmetric.common.ParameterConstants;
 import org.jumpmind.symmetric.db.AbstractSymmetricDialect;
 import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.DataEvent;
 import org.jumpmind.symmetric.model.DataGap;
 import org.jumpmind.symmetric.service.IDataService;
 import org.jumpmind.symmetric.service.IExtensionService;
@@ -44,6 +54,7 @@ import org.jumpmind.symmetric.service.IParameterService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
 
 public class DataServiceTest {
     ISqlTemplate sqlTemplate;
@@ -51,6 +62,7 @@ public class DataServiceTest {
     IDataService dataService;
     IParameterService parameterService;
     ISymmetricDialect symmetricDialect;
+    DatabaseInfo databaseInfo;
 
     @BeforeEach
     public void setUp() throws Exception {
@@ -58,12 +70,15 @@ public class DataServiceTest {
         sqlTransaction = mock(ISqlTransaction.class);
         when(sqlTemplate.startSqlTransaction()).thenReturn(sqlTransaction);
         IDatabasePlatform platform = mock(IDatabasePlatform.class);
-        when(platform.getDatabaseInfo()).thenReturn(new DatabaseInfo());
+        databaseInfo = new DatabaseInfo();
+        when(platform.getDatabaseInfo()).thenReturn(databaseInfo);
         when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(platform.scrubSql(ArgumentMatchers.anyString())).then(returnsFirstArg());
         symmetricDialect = mock(AbstractSymmetricDialect.class);
         when(symmetricDialect.getPlatform()).thenReturn(platform);
         parameterService = mock(ParameterService.class);
         when(parameterService.getLong(ParameterConstants.ROUTING_LARGEST_GAP_SIZE)).thenReturn(50000000L);
+        when(parameterService.getTablePrefix()).thenReturn("sym");
         IExtensionService extensionService = mock(ExtensionService.class);
         ISymmetricEngine engine = mock(AbstractSymmetricEngine.class);
         when(engine.getParameterService()).thenReturn(parameterService);
@@ -84,4 +99,50 @@ public class DataServiceTest {
         dataService.findDataGaps();
         verifyNoMoreInteractions(sqlTransaction);
     }
+
+    @Test
+    public void testInsertDataEventsMultiRow() throws Exception {
+        databaseInfo.setMultiRowInsertSupported(true);
+        databaseInfo.setMaxBindParameters(6);
+        when(parameterService.getInt(ParameterConstants.ROUTING_INSERT_ROWS_PER_STATEMENT, 100)).thenReturn(100);
+        List<DataEvent> events = new ArrayList<DataEvent>();
+        for (int i = 1; i <= 7; i++) {
+            events.add(new DataEvent(i, 100 + i));
+        }
+        dataService.insertDataEvents(sqlTransaction, events);
+        String sql = "insert into sym_data_event (data_id, batch_id, create_time) values (?, ?, current_timestamp)";
+        String multiRowSql = "insert into sym_data_event (data_id, batch_id, create_time) values (?, ?, current_timestamp), "
+                + "(?, ?, current_timestamp), (?, ?, current_timestamp)";
+        InOrder inOrder = inOrder(sqlTransaction);
+        inOrder.verify(sqlTransaction).prepare(multiRowSql);
+        inOrder.verify(sqlTransaction).addRow(eq(events.subList(0, 3)), aryEq(new Object[] { 1L, 101L, 2L, 102L, 3L, 103L }),
+                any(int[].class));
+        inOrder.verify(sqlTransaction).addRow(eq(events.subList(3, 6)), aryEq(new Object[] { 4L, 104L, 5L, 105L, 6L, 106L }),
+                any(int[].class));
+        inOrder.verify(sqlTransaction).flush();
+        inOrder.verify(sqlTransaction).prepare(sql);
+        inOrder.verify(sqlTransaction).addRow(same(events.get(6)), aryEq(new Object[] { 7L, 107L }), any(int[].class));
+        inOrder.verify(sqlTransaction).flush();
+        verifyNoMoreInteractions(sqlTransaction);
+    }
+
+    @Test
+    public void testMultiRowInsertSqlWithValuesInNames() throws Exception {
+        assertEquals("insert into values_log (id, values_text) values (?, ?), (?, ?)",
+                AbstractService.toMultiRowInsertSql("insert into values_log (id, values_text) values ", "(?, ?)", 2));
+    }
+
+    @Test
+    public void testInsertDataEventsSingleRow() throws Exception {
+        when(parameterService.getInt(ParameterConstants.ROUTING_INSERT_ROWS_PER_STATEMENT, 100)).thenReturn(100);
+        List<DataEvent> events = new ArrayList<DataEvent>();
+        for (int i = 1; i <= 3; i++) {
+            events.add(new DataEvent(i, 100 + i));
+        }
+        dataService.insertDataEvents(sqlTransaction, events);
+        verify(sqlTransaction).prepare("insert into sym_data_event (data_id, batch_id, create_time) values(?, ?, current_timestamp)");
+        verify(sqlTransaction, times(3)).addRow(any(DataEvent.class), any(Object[].class), any(int[].class));
+        verify(sqlTransaction).flush();
+        verifyNoMoreInteractions(sqlTransaction);
+    }
 }
@@ -0,0 +1,174 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Properties;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.AbstractBatch.Status;
+import org.jumpmind.symmetric.model.IncomingBatch;
+import org.jumpmind.symmetric.service.IClusterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class IncomingBatchServiceTest {
+    private static final String NODE_ID = "00001";
+    ISqlTemplate sqlTemplate;
+    ISqlTransaction sqlTransaction;
+    ISymmetricDialect symmetricDialect;
+    IClusterService clusterService;
+    Properties properties;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        sqlTemplate = mock(ISqlTemplate.class);
+        sqlTransaction = mock(ISqlTransaction.class);
+        when(sqlTemplate.startSqlTransaction()).thenReturn(sqlTransaction);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(platform.scrubSql(anyString())).then(returnsFirstArg());
+        symmetricDialect = mock(ISymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        when(symmetricDialect.getName()).thenReturn("h2");
+        clusterService = mock(IClusterService.class);
+        when(clusterService.getServerId()).thenReturn("server");
+        when(sqlTemplate.query(contains("group by node_id, channel_id"), any(IncomingBatchService.MaxBatchIdByNodeMapper.class)))
+                .thenAnswer(new Answer<Object>() {
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        ISqlRowMapper<?> mapper = invocation.getArgument(1);
+                        mapper.mapRow(createMaxBatchIdRow("default", 10));
+                        mapper.mapRow(createMaxBatchIdRow("reload", 20));
+                        return null;
+                    }
+                });
+        properties = new Properties();
+        properties.setProperty(ParameterConstants.INCOMING_BATCH_SKIP_DUPLICATE_BATCHES_ENABLED, "true");
+    }
+
+    @Test
+    public void testNewBatchInsertedWithoutLookup() {
+        IncomingBatchService service = createIncomingBatchService();
+        assertTrue(service.acquireIncomingBatch(createBatch(11, "default")));
+        assertTrue(service.acquireIncomingBatch(createBatch(12, "default")));
+        verify(sqlTransaction, times(2)).prepareAndExecute(startsWith("insert"), any(Object[].class), any(int[].class));
+        verifyNoLookup(11);
+        verifyNoLookup(12);
+    }
+
+    @Test
+    public void testLoadedBatchLookedUpWithoutInsert() {
+        IncomingBatchService service = createIncomingBatchService();
+        stubLookup(15, "reload", Status.OK);
+        IncomingBatch batch = createBatch(15, "reload");
+        assertFalse(service.acquireIncomingBatch(batch));
+        assertTrue(batch.isRetry());
+        verify(sqlTransaction, never()).prepareAndExecute(startsWith("insert"), any(Object[].class), any(int[].class));
+    }
+
+    @Test
+    public void testErrorBatchRetried() {
+        IncomingBatchService service = createIncomingBatchService();
+        stubLookup(11, "default", Status.ER);
+        assertTrue(service.acquireIncomingBatch(createBatch(11, "default")));
+        IncomingBatch retry = createBatch(11, "default");
+        assertTrue(service.acquireIncomingBatch(retry));
+        assertTrue(retry.isRetry());
+        verify(sqlTransaction, times(1)).prepareAndExecute(startsWith("insert"), any(Object[].class), any(int[].class));
+        verify(sqlTemplate, times(1)).queryForObject(anyString(), any(IncomingBatchService.IncomingBatchMapper.class), eq(11L),
+                eq(NODE_ID));
+    }
+
+    @Test
+    public void testDeleteOnLoadSkipsLookupForNewBatch() {
+        properties.setProperty(ParameterConstants.INCOMING_BATCH_RECORD_OK_ENABLED, "false");
+        IncomingBatchService service = createIncomingBatchService();
+        assertTrue(service.acquireIncomingBatch(createBatch(11, "default")));
+        assertTrue(service.acquireIncomingBatch(createBatch(5, "other")));
+        verifyNoLookup(11);
+        verifyNoLookup(5);
+        service.acquireIncomingBatch(createBatch(10, "default"));
+        verify(sqlTemplate).queryForObject(anyString(), any(IncomingBatchService.IncomingBatchMapper.class), eq(10L), eq(NODE_ID));
+    }
+
+    @Test
+    public void testDeleteOnLoadLooksUpWhenClustered() {
+        properties.setProperty(ParameterConstants.INCOMING_BATCH_RECORD_OK_ENABLED, "false");
+        properties.setProperty(ParameterConstants.CLUSTER_LOCKING_ENABLED, "true");
+        IncomingBatchService service = createIncomingBatchService();
+        assertTrue(service.acquireIncomingBatch(createBatch(11, "default")));
+        verify(sqlTemplate).queryForObject(anyString(), any(IncomingBatchService.IncomingBatchMapper.class), eq(11L), eq(NODE_ID));
+    }
+
+    protected IncomingBatchService createIncomingBatchService() {
+        return new IncomingBatchService(new MockParameterService(properties), symmetricDialect, clusterService);
+    }
+
+    protected void stubLookup(long batchId, String channelId, Status status) {
+        IncomingBatch existingBatch = createBatch(batchId, channelId);
+        existingBatch.setStatus(status);
+        when(sqlTemplate.queryForObject(anyString(), any(IncomingBatchService.IncomingBatchMapper.class), eq(batchId), eq(NODE_ID)))
+                .thenReturn(existingBatch);
+    }
+
+    protected void verifyNoLookup(long batchId) {
+        verify(sqlTemplate, never()).queryForObject(anyString(), any(IncomingBatchService.IncomingBatchMapper.class), eq(batchId),
+                eq(NODE_ID));
+    }
+
+    protected static IncomingBatch createBatch(long batchId, String channelId) {
+        IncomingBatch batch = new IncomingBatch();
+        batch.setBatchId(batchId);
+        batch.setNodeId(NODE_ID);
+        batch.setChannelId(channelId);
+        batch.setStatus(Status.LD);
+        return batch;
+    }
+
+    protected static Row createMaxBatchIdRow(String channelId, long batchId) {
+        Row row = new Row(3);
+        row.put("batch_id", batchId);
+        row.put("node_id", NODE_ID);
+        row.put("channel_id", channelId);
+        return row;
+    }
+}
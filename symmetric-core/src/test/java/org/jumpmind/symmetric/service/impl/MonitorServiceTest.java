@@ -0,0 +1,207 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jumpmind.db.platform.DatabaseNamesConstants;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.symmetric.ISymmetricEngine;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.model.Monitor;
+import org.jumpmind.symmetric.model.MonitorEvent;
+import org.jumpmind.symmetric.model.Node;
+import org.jumpmind.symmetric.monitor.IMonitorType;
+import org.jumpmind.symmetric.monitor.MonitorSnapshot;
+import org.jumpmind.symmetric.monitor.MonitorTypeBatchUnsent;
+import org.jumpmind.symmetric.monitor.MonitorTypeUnrouted;
+import org.jumpmind.symmetric.service.IClusterService;
+import org.jumpmind.symmetric.service.IContextService;
+import org.jumpmind.symmetric.service.IExtensionService;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IOutgoingBatchService;
+import org.jumpmind.symmetric.service.IRouterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class MonitorServiceTest {
+    MonitorService monitorService;
+    IOutgoingBatchService outgoingBatchService;
+    IRouterService routerService;
+    Map<String, IMonitorType> monitorTypes;
+    Node identity;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getName()).thenReturn(DatabaseNamesConstants.H2);
+        when(platform.scrubSql(anyString())).then(returnsFirstArg());
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.MONITOR_THREAD_COUNT_PER_SERVER, "4");
+        monitorService = new MonitorService(new MockParameterService(properties), symmetricDialect, mock(INodeService.class),
+                mock(IExtensionService.class), mock(IClusterService.class), mock(IContextService.class));
+
+        outgoingBatchService = mock(IOutgoingBatchService.class);
+        when(outgoingBatchService.countOutgoingBatchesUnsent()).thenReturn(5);
+        routerService = mock(IRouterService.class);
+        when(routerService.getUnroutedDataCount()).thenReturn(7L);
+        ISymmetricEngine engine = mock(ISymmetricEngine.class);
+        when(engine.getOutgoingBatchService()).thenReturn(outgoingBatchService);
+        when(engine.getRouterService()).thenReturn(routerService);
+        MonitorTypeBatchUnsent batchUnsent = new MonitorTypeBatchUnsent();
+        batchUnsent.setSymmetricEngine(engine);
+        MonitorTypeUnrouted unrouted = new MonitorTypeUnrouted();
+        unrouted.setSymmetricEngine(engine);
+        monitorTypes = new HashMap<String, IMonitorType>();
+        monitorTypes.put(batchUnsent.getName(), batchUnsent);
+        monitorTypes.put(unrouted.getName(), unrouted);
+        identity = new Node("00000", "corp");
+    }
+
+    @Test
+    public void testMonitorsShareSnapshotValues() throws Exception {
+        List<Monitor> monitors = new ArrayList<Monitor>();
+        monitors.add(newMonitor("unsent1", "batchUnsent"));
+        monitors.add(newMonitor("unrouted1", "dataUnrouted"));
+        monitors.add(newMonitor("unsent2", "batchUnsent"));
+        monitors.add(newMonitor("unrouted2", "dataUnrouted"));
+        final List<String> checked = new ArrayList<String>();
+        MonitorService service = new MonitorService(monitorService.getParameterService(), monitorService.symmetricDialect,
+                mock(INodeService.class), mock(IExtensionService.class), mock(IClusterService.class), mock(IContextService.class)) {
+            @Override
+            protected void updateMonitor(Monitor monitor, IMonitorType monitorType, Node identity,
+                    Map<String, MonitorEvent> unresolved, MonitorEvent eventValue) {
+                checked.add(monitor.getMonitorId() + "=" + eventValue.getValue());
+            }
+        };
+        service.updateMonitors(monitors, monitorTypes, identity, new HashMap<String, MonitorEvent>(), new MonitorSnapshot());
+
+        verify(outgoingBatchService, times(1)).countOutgoingBatchesUnsent();
+        verify(routerService, times(1)).getUnroutedDataCount();
+        assertEquals("[unsent1=5, unrouted1=7, unsent2=5, unrouted2=7]", checked.toString());
+    }
+
+    @Test
+    public void testCustomMonitorTypeIsCheckedWithoutSnapshot() throws Exception {
+        IMonitorType custom = mock(IMonitorType.class);
+        MonitorEvent customEvent = new MonitorEvent();
+        when(custom.check(any(Monitor.class))).thenReturn(customEvent);
+        monitorTypes.put("custom", custom);
+        List<Monitor> monitors = new ArrayList<Monitor>();
+        Monitor monitor = newMonitor("custom1", "custom");
+        monitors.add(monitor);
+        monitors.add(newMonitor("unsent1", "batchUnsent"));
+        final List<MonitorEvent> events = new ArrayList<MonitorEvent>();
+        MonitorService service = new MonitorService(monitorService.getParameterService(), monitorService.symmetricDialect,
+                mock(INodeService.class), mock(IExtensionService.class), mock(IClusterService.class), mock(IContextService.class)) {
+            @Override
+            protected void updateMonitor(Monitor monitor, IMonitorType monitorType, Node identity,
+                    Map<String, MonitorEvent> unresolved, MonitorEvent eventValue) {
+                events.add(eventValue);
+            }
+        };
+        service.updateMonitors(monitors, monitorTypes, identity, new HashMap<String, MonitorEvent>(), new MonitorSnapshot());
+
+        verify(custom, times(1)).check(monitor);
+        assertEquals(2, events.size());
+        assertSame(customEvent, events.get(0));
+    }
+
+    @Test
+    public void testFailedCheckIsRethrown() throws Exception {
+        IllegalStateException failure = new IllegalStateException("broken");
+        when(outgoingBatchService.countOutgoingBatchesUnsent()).thenThrow(failure);
+        List<Monitor> monitors = new ArrayList<Monitor>();
+        monitors.add(newMonitor("unrouted1", "dataUnrouted"));
+        monitors.add(newMonitor("unsent1", "batchUnsent"));
+        try {
+            monitorService.updateMonitors(monitors, monitorTypes, identity, new HashMap<String, MonitorEvent>(), new MonitorSnapshot());
+            fail("Expected the failed check to be rethrown");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    @Test
+    public void testInterruptStopsUpdate() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        IMonitorType slow = mock(IMonitorType.class);
+        when(slow.check(any(Monitor.class))).thenAnswer(new Answer<MonitorEvent>() {
+            public MonitorEvent answer(InvocationOnMock invocation) throws Throwable {
+                release.await(10, TimeUnit.SECONDS);
+                return new MonitorEvent();
+            }
+        });
+        monitorTypes.put("slow", slow);
+        List<Monitor> monitors = new ArrayList<Monitor>();
+        monitors.add(newMonitor("slow1", "slow"));
+        monitors.add(newMonitor("unsent1", "batchUnsent"));
+        final List<String> checked = new ArrayList<String>();
+        MonitorService service = new MonitorService(monitorService.getParameterService(), monitorService.symmetricDialect,
+                mock(INodeService.class), mock(IExtensionService.class), mock(IClusterService.class), mock(IContextService.class)) {
+            @Override
+            protected void updateMonitor(Monitor monitor, IMonitorType monitorType, Node identity,
+                    Map<String, MonitorEvent> unresolved, MonitorEvent eventValue) {
+                checked.add(monitor.getMonitorId());
+            }
+        };
+        try {
+            Thread.currentThread().interrupt();
+            service.updateMonitors(monitors, monitorTypes, identity, new HashMap<String, MonitorEvent>(), new MonitorSnapshot());
+            assertTrue(Thread.interrupted());
+            assertEquals(0, checked.size());
+        } finally {
+            Thread.interrupted();
+            release.countDown();
+        }
+    }
+
+    protected Monitor newMonitor(String monitorId, String type) {
+        Monitor monitor = new Monitor();
+        monitor.setMonitorId(monitorId);
+        monitor.setType(type);
+        monitor.setThreshold(100);
+        return monitor;
+    }
+}
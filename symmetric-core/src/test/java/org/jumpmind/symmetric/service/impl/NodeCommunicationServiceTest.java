@@ -20,10 +20,42 @@
  */
 package org.jumpmind.symmetric.service.impl;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.mapper.StringMapper;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.db.ISymmetricDialect;
+import org.jumpmind.symmetric.extract.ReadyBatchIndex;
+import org.jumpmind.symmetric.model.Channel;
+import org.jumpmind.symmetric.model.DatabaseParameter;
+import org.jumpmind.symmetric.model.Node;
 import org.jumpmind.symmetric.model.NodeCommunication;
 import org.jumpmind.symmetric.model.NodeCommunication.CommunicationType;
+import org.jumpmind.symmetric.model.NodeGroupLink;
+import org.jumpmind.symmetric.model.NodeGroupLinkAction;
+import org.jumpmind.symmetric.service.IClusterService;
+import org.jumpmind.symmetric.service.IConfigurationService;
+import org.jumpmind.symmetric.service.INodeService;
+import org.jumpmind.symmetric.service.IParameterService;
 import org.junit.jupiter.api.Test;
 
 public class NodeCommunicationServiceTest {
@@ -35,4 +67,84 @@ public class NodeCommunicationServiceTest {
             assertTrue(msg, communicationType.name().length() <= MAX_LENGTH_IN_DB);
         }
     }
+
+    @Test
+    public void testPushListSkipsIdleQueuesAndNodesWithoutChanges() {
+        IParameterService parameterService = createParameterService();
+        ReadyBatchIndex readyBatchIndex = new ReadyBatchIndex(parameterService);
+        NodeCommunicationService service = createNodeCommunicationService(parameterService, Arrays.asList("00001", "00002"));
+        service.setReadyBatchIndex(readyBatchIndex);
+        String reloadKey = ReadyBatchIndex.getKey("reload", NodeGroupLinkAction.P, NodeGroupLinkAction.W);
+        readyBatchIndex.markIdle("00002", reloadKey, readyBatchIndex.getGeneration("00002"));
+        assertEquals(new HashSet<String>(Arrays.asList("00001-default", "00001-reload", "00002-default")),
+                getIdentifiers(service.list(CommunicationType.PUSH)));
+        readyBatchIndex.markReady("00002");
+        assertEquals(new HashSet<String>(Arrays.asList("00001-default", "00001-reload", "00002-default", "00002-reload")),
+                getIdentifiers(service.list(CommunicationType.PUSH)));
+        assertEquals(6, service.listAll(CommunicationType.PUSH).size());
+    }
+
+    @Test
+    public void testBatchToSendCountSavedOncePerNewRow() {
+        IClusterService clusterService = mock(IClusterService.class);
+        when(clusterService.isClusteringEnabled()).thenReturn(true);
+        NodeCommunicationService service = createNodeCommunicationService(createParameterService(), new ArrayList<String>(), clusterService);
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        counts.put("default", 5);
+        service.updateBatchToSendCounts("00001", counts);
+        verify(service.sqlTemplate).update(eq(service.getSql("insertNodeCommunicationSql")), (Object[]) any());
+        verify(service.sqlTemplate, times(2)).update(anyString(), (Object[]) any());
+    }
+
+    protected IParameterService createParameterService() {
+        IParameterService parameterService = mock(ParameterService.class);
+        when(parameterService.getTablePrefix()).thenReturn("sym");
+        when(parameterService.getOfflineNodeParameters()).thenReturn(new ArrayList<DatabaseParameter>());
+        when(parameterService.getInt(ParameterConstants.PUSH_THREAD_COUNT_PER_SERVER)).thenReturn(1);
+        when(parameterService.is(ParameterConstants.OUTGOING_BATCH_READY_INDEX_ENABLED, false)).thenReturn(true);
+        when(parameterService.getLong(ParameterConstants.OUTGOING_BATCH_READY_INDEX_IDLE_MAX_MS, 60000)).thenReturn(60000L);
+        return parameterService;
+    }
+
+    protected NodeCommunicationService createNodeCommunicationService(IParameterService parameterService, List<String> nodeIdsWithChanges) {
+        return createNodeCommunicationService(parameterService, nodeIdsWithChanges, mock(IClusterService.class));
+    }
+
+    protected NodeCommunicationService createNodeCommunicationService(IParameterService parameterService, List<String> nodeIdsWithChanges,
+            IClusterService clusterService) {
+        ISqlTemplate sqlTemplate = mock(ISqlTemplate.class);
+        when(sqlTemplate.query(anyString(), any(StringMapper.class), (Object[]) any())).thenReturn(nodeIdsWithChanges);
+        IDatabasePlatform platform = mock(IDatabasePlatform.class);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(platform.scrubSql(anyString())).then(returnsFirstArg());
+        ISymmetricDialect symmetricDialect = mock(ISymmetricDialect.class);
+        when(symmetricDialect.getPlatform()).thenReturn(platform);
+        INodeService nodeService = mock(INodeService.class);
+        when(nodeService.findIdentity()).thenReturn(new Node("00000", "corp"));
+        List<Node> nodes = new ArrayList<Node>();
+        for (int i = 1; i <= 3; i++) {
+            Node node = new Node("0000" + i, "store");
+            node.setSymmetricVersion("3.12.0");
+            nodes.add(node);
+        }
+        when(nodeService.findNodesToPushTo()).thenReturn(nodes);
+        IConfigurationService configurationService = mock(IConfigurationService.class);
+        Map<String, Channel> channels = new HashMap<String, Channel>();
+        channels.put("default", new Channel("default", 1));
+        Channel reload = new Channel("reload", 2);
+        reload.setQueue("reload");
+        channels.put("reload", reload);
+        when(configurationService.getChannels(false)).thenReturn(channels);
+        when(configurationService.getNodeGroupLinkFor("corp", "store", false)).thenReturn(
+                new NodeGroupLink("corp", "store", NodeGroupLinkAction.W));
+        return new NodeCommunicationService(clusterService, nodeService, parameterService, configurationService, symmetricDialect);
+    }
+
+    protected static Set<String> getIdentifiers(List<NodeCommunication> nodeCommunications) {
+        Set<String> identifiers = new HashSet<String>();
+        for (NodeCommunication nodeCommunication : nodeCommunications) {
+            identifiers.add(nodeCommunication.getIdentifier());
+        }
+        return identifiers;
+    }
 }
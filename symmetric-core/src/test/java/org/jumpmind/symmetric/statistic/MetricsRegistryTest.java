@@ -0,0 +1,161 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.statistic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class MetricsRegistryTest {
+    @Test
+    public void testBucketBounds() {
+        for (long value = 0; value < 100000; value++) {
+            int index = LatencyHistogram.getBucketIndex(value);
+            long upperBound = LatencyHistogram.getBucketUpperBound(index);
+            assertTrue(value <= upperBound);
+            assertTrue(index == 0 || value > LatencyHistogram.getBucketUpperBound(index - 1));
+            assertTrue(upperBound - value <= value / 4);
+        }
+        int last = LatencyHistogram.getBucketIndex(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.getBucketUpperBound(last));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(MetricsRegistry.STAGE_LOAD, "default", "001");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        LatencySnapshot snapshot = histogram.getSnapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(500500, snapshot.getTotalMillis());
+        assertEquals(1000, snapshot.getMaxMillis());
+        assertWithinBucket(500, snapshot.getP50Millis());
+        assertWithinBucket(900, snapshot.getP90Millis());
+        assertWithinBucket(990, snapshot.getP99Millis());
+        assertWithinBucket(999, snapshot.getP999Millis());
+
+        histogram.reset();
+        snapshot = histogram.getSnapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getP99Millis());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.setRecordByNode(true);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        registry.record(MetricsRegistry.STAGE_EXTRACT, "default", "00" + (i % 3), i % 50);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long count = 0;
+        for (LatencySnapshot snapshot : registry.getSnapshots(MetricsRegistry.STAGE_EXTRACT)) {
+            count += snapshot.getCount();
+            assertEquals(49, snapshot.getMaxMillis());
+        }
+        assertEquals(80000, count);
+        assertEquals(3, registry.getSnapshots().size());
+    }
+
+    @Test
+    public void testDisabledAndExport() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.setEnabled(false);
+        registry.record(MetricsRegistry.STAGE_ROUTE, "default", null, 10);
+        assertEquals(0, registry.getSnapshots().size());
+
+        registry.setEnabled(true);
+        registry.record(MetricsRegistry.STAGE_ROUTE, "default", null, 10);
+        final List<LatencySnapshot> exported = new ArrayList<LatencySnapshot>();
+        List<IMetricsExporter> exporters = new ArrayList<IMetricsExporter>();
+        exporters.add(new IMetricsExporter() {
+            public void export(List<LatencySnapshot> snapshots) {
+                throw new IllegalStateException("Exporter down");
+            }
+        });
+        exporters.add(new IMetricsExporter() {
+            public void export(List<LatencySnapshot> snapshots) {
+                exported.addAll(snapshots);
+            }
+        });
+        registry.export(exporters);
+        assertEquals(1, exported.size());
+        assertEquals("", exported.get(0).getNodeId());
+        assertEquals(10, exported.get(0).getP50Millis());
+    }
+
+    @Test
+    public void testAggregatedByChannel() {
+        MetricsRegistry registry = new MetricsRegistry();
+        for (int i = 0; i < 100; i++) {
+            registry.record(MetricsRegistry.STAGE_LOAD, "default", "node" + i, 5);
+        }
+        registry.record(MetricsRegistry.STAGE_LOAD, "reload", "node0", 7);
+        List<LatencySnapshot> snapshots = registry.getSnapshots();
+        assertEquals(2, snapshots.size());
+        assertEquals("default", snapshots.get(0).getChannelId());
+        assertEquals("", snapshots.get(0).getNodeId());
+        assertEquals(100, snapshots.get(0).getCount());
+        assertEquals(1, registry.getHistogram(MetricsRegistry.STAGE_LOAD, "reload", "node5").getSnapshot().getCount());
+    }
+
+    @Test
+    public void testMaxSeriesOverflow() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.setRecordByNode(true);
+        registry.setMaxSeries(3);
+        for (int i = 0; i < 10; i++) {
+            registry.record(MetricsRegistry.STAGE_EXTRACT, "default", "node" + i, i);
+        }
+        registry.record(MetricsRegistry.STAGE_LOAD, "default", "node0", 1);
+        List<LatencySnapshot> snapshots = registry.getSnapshots();
+        assertEquals(5, snapshots.size());
+        LatencySnapshot overflow = registry.getSnapshots(MetricsRegistry.STAGE_EXTRACT).get(0);
+        assertEquals(MetricsRegistry.OVERFLOW, overflow.getChannelId());
+        assertEquals(MetricsRegistry.OVERFLOW, overflow.getNodeId());
+        assertEquals(7, overflow.getCount());
+        assertEquals(9, overflow.getMaxMillis());
+        assertEquals(1, registry.getHistogram(MetricsRegistry.STAGE_EXTRACT, "default", "node1").getSnapshot().getCount());
+
+        registry.reset();
+        registry.record(MetricsRegistry.STAGE_EXTRACT, "default", "node9", 9);
+        assertEquals("node9", registry.getSnapshots().get(0).getNodeId());
+    }
+
+    protected void assertWithinBucket(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 4);
+    }
+}
@@ -193,4 +193,13 @@ public class MockStatisticManager implements IStatisticManager {
     public void incrementTableRows(Map<String, Map<String, Long>> tableCounts, boolean loaded) {
         // TODO Auto-generated method stub
     }
+
+    @Override
+    public MetricsRegistry getMetricsRegistry() {
+        return null;
+    }
+
+    @Override
+    public void recordLatency(String stage, String channelId, String nodeId, long millis) {
+    }
 }
\ No newline at end of file
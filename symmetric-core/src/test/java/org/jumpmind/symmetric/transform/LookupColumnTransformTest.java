@@ -0,0 +1,212 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.transform;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.sql.ISqlRowMapper;
+import org.jumpmind.db.sql.ISqlTransaction;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.symmetric.common.ParameterConstants;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.jumpmind.symmetric.io.data.transform.LookupColumnTransform;
+import org.jumpmind.symmetric.io.data.transform.TransformColumn;
+import org.jumpmind.symmetric.io.data.transform.TransformPoint;
+import org.jumpmind.symmetric.io.data.transform.TransformTable;
+import org.jumpmind.symmetric.io.data.transform.TransformedData;
+import org.jumpmind.symmetric.service.impl.MockParameterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class LookupColumnTransformTest {
+    static final String SQL = "select name from lookup where id = :ID";
+    IDatabasePlatform platform;
+    ISqlTransaction transaction;
+    DataContext context;
+    TransformColumn column;
+    TransformTable table;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        platform = mock(IDatabasePlatform.class);
+        transaction = mock(ISqlTransaction.class);
+        context = new DataContext(new Batch(Batch.BatchType.LOAD, 1, "default", null, "00001", "00000", false)) {
+            @Override
+            public ISqlTransaction findTransaction() {
+                return transaction;
+            }
+        };
+        column = new TransformColumn("id", "name", false, LookupColumnTransform.NAME, SQL);
+        column.setTransformId("t1");
+        table = new TransformTable("source", "target", TransformPoint.LOAD, column);
+    }
+
+    @Test
+    public void testCacheHitsSkipQuery() throws Exception {
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("one"));
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("100", "0", "0"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("one", transform(transform, "1"));
+        verify(transaction, times(1)).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    public void testCacheKeyedOnParameterValues() throws Exception {
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("one"))
+                .thenReturn(Arrays.<Object> asList("two"));
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("100", "0", "0"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("two", transform(transform, "2"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("two", transform(transform, "2"));
+        verify(transaction, times(2)).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    public void testCacheClearedOnNewBatch() throws Exception {
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("one"))
+                .thenReturn(Arrays.<Object> asList("uno"));
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("100", "0", "0"));
+        assertEquals("one", transform(transform, "1"));
+        context.setBatch(new Batch(Batch.BatchType.LOAD, 2, "default", null, "00001", "00000", false));
+        assertEquals("uno", transform(transform, "1"));
+        verify(transaction, times(2)).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() throws Exception {
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("value"));
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("2", "0", "0"));
+        transform(transform, "1");
+        transform(transform, "2");
+        transform(transform, "1");
+        transform(transform, "3");
+        transform(transform, "1");
+        verify(transaction, times(3)).query(eq(SQL), any(), anyMap());
+        transform(transform, "2");
+        verify(transaction, times(4)).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    public void testCacheDisabledByDefault() throws Exception {
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("one"));
+        LookupColumnTransform transform = new LookupColumnTransform(new MockParameterService());
+        transform(transform, "1");
+        transform(transform, "1");
+        verify(transaction, times(2)).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetch() throws Exception {
+        when(transaction.queryForInt("select count(*) from lookup")).thenReturn(2);
+        when(transaction.query(eq("select id, name from lookup"), any(), anyMap())).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ISqlRowMapper<Object> mapper = (ISqlRowMapper<Object>) invocation.getArguments()[1];
+                mapper.mapRow(createRow(1, "one"));
+                mapper.mapRow(createRow(2, "two"));
+                return null;
+            }
+        });
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("0", "0", "10"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("two", transform(transform, "2"));
+        verify(transaction, times(1)).query(anyString(), any(), anyMap());
+        verify(transaction, never()).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetchMissAndDuplicatesUseLookupSql() throws Exception {
+        when(transaction.queryForInt("select count(*) from lookup")).thenReturn(4);
+        when(transaction.query(eq("select id, name from lookup"), any(), anyMap())).thenAnswer(new Answer<Object>() {
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                ISqlRowMapper<Object> mapper = (ISqlRowMapper<Object>) invocation.getArguments()[1];
+                mapper.mapRow(createRow(1, "one"));
+                mapper.mapRow(createRow(2, "two"));
+                mapper.mapRow(createRow(2, "deux"));
+                mapper.mapRow(createRow(2, "zwei"));
+                return null;
+            }
+        });
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("one"))
+                .thenReturn(Arrays.<Object> asList("deux", "two"));
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("0", "0", "10"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("one", transform(transform, "1.0"));
+        assertEquals("deux", transform(transform, "2"));
+        verify(transaction, times(2)).query(eq(SQL), any(), anyMap());
+    }
+
+    @Test
+    public void testPrefetchSkippedForLargeTable() throws Exception {
+        when(transaction.queryForInt("select count(*) from lookup")).thenReturn(11);
+        when(transaction.query(eq(SQL), any(), anyMap())).thenReturn(Arrays.<Object> asList("one"));
+        LookupColumnTransform transform = new LookupColumnTransform(createParameterService("0", "0", "10"));
+        assertEquals("one", transform(transform, "1"));
+        assertEquals("one", transform(transform, "1"));
+        verify(transaction, times(1)).queryForInt(anyString());
+        verify(transaction, times(2)).query(eq(SQL), any(), anyMap());
+    }
+
+    protected String transform(LookupColumnTransform transform, String id) throws Exception {
+        Map<String, String> sourceValues = new HashMap<String, String>();
+        sourceValues.put("ID", id);
+        TransformedData data = new TransformedData(table, DataEventType.INSERT, new HashMap<String, String>(),
+                new HashMap<String, String>(), sourceValues);
+        return transform.transform(platform, context, column, data, sourceValues, id, null).getNewValue();
+    }
+
+    protected MockParameterService createParameterService(String maxSize, String ttlMs, String prefetchMaxRows) {
+        Properties properties = new Properties();
+        properties.setProperty(ParameterConstants.TRANSFORM_LOOKUP_CACHE_MAX_SIZE, maxSize);
+        properties.setProperty(ParameterConstants.TRANSFORM_LOOKUP_CACHE_TTL_MS, ttlMs);
+        properties.setProperty(ParameterConstants.TRANSFORM_LOOKUP_PREFETCH_MAX_ROWS, prefetchMaxRows);
+        return new MockParameterService(properties);
+    }
+
+    protected static Row createRow(Object id, String name) {
+        Row row = new Row(2);
+        row.put("id", id);
+        row.put("name", name);
+        return row;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BshScriptCompilerTest {
+    private BshScriptCompiler compiler;
+    private Map<String, String> variableTypes;
+
+    @BeforeEach
+    public void setup() {
+        compiler = new BshScriptCompiler();
+        variableTypes = new HashMap<String, String>();
+        variableTypes.put("currentValue", String.class.getName());
+        variableTypes.put("NAME", String.class.getName());
+        variableTypes.put("targetNodes", Set.class.getName());
+        variableTypes.put("unused", String.class.getName());
+    }
+
+    @Test
+    public void testExpression() throws Exception {
+        CompiledBshScript script = compiler.compile("currentValue + \"-\" + NAME.toLowerCase()", variableTypes);
+        assertNotNull(script);
+        assertArrayEquals(new String[] { "NAME", "currentValue" }, script.getVariableNames());
+        assertEquals("abc-bob", script.eval(new Object[] { "BOB", "abc" }));
+    }
+
+    @Test
+    public void testExpressionWithSemicolonInLiteral() throws Exception {
+        CompiledBshScript script = compiler.compile("currentValue + \";\";", variableTypes);
+        assertNotNull(script);
+        assertEquals("x;", script.eval(new Object[] { "x" }));
+    }
+
+    @Test
+    public void testStatementsWithReturn() throws Exception {
+        CompiledBshScript script = compiler.compile("if (NAME == null) {\n  return \"none\";\n}\nreturn NAME.substring(0, 1);",
+                variableTypes);
+        assertNotNull(script);
+        assertEquals("none", script.eval(new Object[] { null }));
+        assertEquals("B", script.eval(new Object[] { "BOB" }));
+    }
+
+    @Test
+    public void testSideEffectOnBoundVariable() throws Exception {
+        CompiledBshScript script = compiler.compile("targetNodes.add(NAME)", variableTypes);
+        assertNotNull(script);
+        Set<String> targetNodes = new HashSet<String>();
+        assertEquals(Boolean.TRUE, script.eval(new Object[] { "00001", targetNodes }));
+        assertEquals(1, targetNodes.size());
+    }
+
+    @Test
+    public void testLooselyTypedScriptIsNotCompiled() {
+        assertNull(compiler.compile("x = NAME; return x;", variableTypes));
+    }
+
+    @Test
+    public void testStatementsWithoutReturnAreNotCompiled() {
+        assertNull(compiler.compile("String x = NAME; x.trim();", variableTypes));
+    }
+
+    @Test
+    public void testUndefinedVariableIsNotCompiled() {
+        assertNull(compiler.compile("OTHER_COLUMN.trim()", variableTypes));
+    }
+
+    @Test
+    public void testCachedByScriptAndTypes() {
+        CompiledBshScript script = compiler.compile("NAME.trim()", variableTypes);
+        assertSame(script, compiler.compile("NAME.trim()", variableTypes));
+        variableTypes.put("NAME", Object.class.getName());
+        assertNull(compiler.compile("NAME.trim()", variableTypes));
+    }
+}
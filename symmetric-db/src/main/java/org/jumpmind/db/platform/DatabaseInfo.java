@@ -215,6 +215,14 @@ public class DatabaseInfo {
     private boolean zeroDateAllowed;
     private String cteExpression;
     private boolean logBased;
+    /**
+     * Whether an insert statement can list more than one row in its values clause.
+     */
+    private boolean multiRowInsertSupported = false;
+    /**
+     * Specifies the maximum number of bind parameters in one statement (-1 if there is no limit).
+     */
+    private int maxBindParameters = -1;
 
     /**
      * Creates a new platform info object.
@@ -1238,4 +1246,20 @@ public class DatabaseInfo {
     public void setLogBased(boolean logBased) {
         this.logBased = logBased;
     }
+
+    public boolean isMultiRowInsertSupported() {
+        return multiRowInsertSupported;
+    }
+
+    public void setMultiRowInsertSupported(boolean multiRowInsertSupported) {
+        this.multiRowInsertSupported = multiRowInsertSupported;
+    }
+
+    public int getMaxBindParameters() {
+        return maxBindParameters;
+    }
+
+    public void setMaxBindParameters(int maxBindParameters) {
+        this.maxBindParameters = maxBindParameters;
+    }
 }
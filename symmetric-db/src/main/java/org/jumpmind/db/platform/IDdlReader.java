@@ -37,6 +37,10 @@ public interface IDdlReader {
 
     public Table readTable(String catalog, String schema, String tableName);
 
+    public void prefetchTables(String catalog, String schema);
+
+    public void clearPrefetchedTables();
+
     public List<String> getTableTypes();
 
     public List<String> getCatalogNames();
@@ -46,6 +46,14 @@ public class CassandraDdlReader implements IDdlReader {
         return null;
     }
 
+    @Override
+    public void prefetchTables(String catalog, String schema) {
+    }
+
+    @Override
+    public void clearPrefetchedTables() {
+    }
+
     @Override
     public Table readTable(String catalog, String schema, String tableName) {
         Map<String, Table> tables = platform.getMetaData()
@@ -75,6 +75,7 @@ public class H2DdlBuilder extends AbstractDdlBuilder {
         databaseInfo.setIdentityOverrideAllowed(false);
         databaseInfo.setSystemForeignKeyIndicesAlwaysNonUnique(true);
         databaseInfo.setNullAsDefaultValueRequired(false);
+        databaseInfo.setMultiRowInsertSupported(true);
         databaseInfo.addNativeTypeMapping(Types.ARRAY, "BINARY", Types.BINARY);
         databaseInfo.addNativeTypeMapping(Types.DISTINCT, "BINARY", Types.BINARY);
         databaseInfo.addNativeTypeMapping(Types.NULL, "BINARY", Types.BINARY);
@@ -45,6 +45,14 @@ public class KafkaDdlReader implements IDdlReader {
         return null;
     }
 
+    @Override
+    public void prefetchTables(String catalog, String schema) {
+    }
+
+    @Override
+    public void clearPrefetchedTables() {
+    }
+
     @Override
     public Table readTable(String catalog, String schema, String tableName) {
         return null;
@@ -42,6 +42,9 @@ public class MsSql2008DdlBuilder extends MsSql2005DdlBuilder {
         databaseInfo.addNativeTypeMapping(ColumnTypes.MSSQL_SQL_VARIANT, "SQL_VARIANT", Types.BLOB);
         databaseInfo.addNativeTypeMapping(Types.TIMESTAMP, "DATETIME2");
         databaseInfo.addNativeTypeMapping(ColumnTypes.MAPPED_TIMESTAMPTZ, "DATETIMEOFFSET");
+        databaseInfo.setMultiRowInsertSupported(true);
+        // 2100 parameters per statement and 1000 rows per values clause
+        databaseInfo.setMaxBindParameters(2000);
     }
 
     @Override
@@ -73,6 +73,8 @@ public class MySqlDdlBuilder extends AbstractDdlBuilder {
         databaseInfo.setSystemForeignKeyIndicesAlwaysNonUnique(true);
         databaseInfo.setMaxIdentifierLength(64);
         databaseInfo.setNullAsDefaultValueRequired(true);
+        databaseInfo.setMultiRowInsertSupported(true);
+        databaseInfo.setMaxBindParameters(65535);
         databaseInfo.setDefaultValuesForLongTypesSupported(false);
         // see
         // http://dev.mysql.com/doc/refman/4.1/en/example-auto-increment.html
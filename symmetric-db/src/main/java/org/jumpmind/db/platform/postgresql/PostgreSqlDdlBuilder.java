@@ -109,6 +109,8 @@ public class PostgreSqlDdlBuilder extends AbstractDdlBuilder {
         databaseInfo.setBlankCharColumnSpacePadded(true);
         databaseInfo.setCharColumnSpaceTrimmed(false);
         databaseInfo.setEmptyStringNulled(false);
+        databaseInfo.setMultiRowInsertSupported(true);
+        databaseInfo.setMaxBindParameters(32767);
         databaseInfo.setBinaryQuoteStart("0x");
         databaseInfo.setBinaryQuoteEnd("");
         // we need to handle the backslash first otherwise the other
@@ -40,6 +40,9 @@ public class SqliteDdlBuilder extends AbstractDdlBuilder {
         databaseInfo.setNonPKIdentityColumnsSupported(false);
         databaseInfo.setIdentityOverrideAllowed(false);
         databaseInfo.setSystemForeignKeyIndicesAlwaysNonUnique(true);
+        databaseInfo.setMultiRowInsertSupported(true);
+        // versions before 3.32 allow 999 parameters per statement
+        databaseInfo.setMaxBindParameters(999);
         databaseInfo.setNullAsDefaultValueRequired(false);
         databaseInfo.setRequiresAutoCommitForDdl(true);
         databaseInfo.addNativeTypeMapping(Types.ARRAY, "BINARY", Types.BINARY);
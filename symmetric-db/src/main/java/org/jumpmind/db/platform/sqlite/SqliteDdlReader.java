@@ -101,6 +101,12 @@ public class SqliteDdlReader implements IDdlReader {
         return quote + name + quote;
     }
 
+    public void prefetchTables(String catalog, String schema) {
+    }
+
+    public void clearPrefetchedTables() {
+    }
+
     public Table readTable(String catalog, String schema, String tableName) {
         Table table = null;
         List<Column> columns = platform.getSqlTemplate().query("pragma table_info(" + quote(tableName) + ")", COLUMN_MAPPER);
@@ -0,0 +1,414 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link Row} that keeps its values in an array and shares the column names of the result set through {@link RowMetaData}, so reading a row
+ * does not build a map. Values can be read by index or by name. The first change that adds or removes a column copies the values into the map
+ * that backs a regular {@link Row}, after which the row behaves exactly like one.
+ */
+public class ArrayRow extends Row {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient RowMetaData metaData;
+    private transient Object[] values;
+
+    public ArrayRow(RowMetaData metaData, Object[] values) {
+        super(0);
+        this.metaData = metaData;
+        this.values = values;
+    }
+
+    public RowMetaData getMetaData() {
+        return metaData;
+    }
+
+    public int getColumnCount() {
+        return metaData.getColumnCount();
+    }
+
+    public String getColumnName(int index) {
+        return metaData.getColumnName(index);
+    }
+
+    public Object getValue(int index) {
+        if (values != null) {
+            return values[index];
+        } else {
+            return super.get(metaData.getColumnName(index));
+        }
+    }
+
+    public String getString(int index) {
+        Object obj = getValue(index);
+        return obj != null ? asString(obj) : null;
+    }
+
+    public long getLong(int index) {
+        Object obj = getValue(index);
+        if (obj instanceof Number) {
+            return ((Number) obj).longValue();
+        } else if (obj instanceof String) {
+            return Long.parseLong(obj.toString());
+        } else {
+            return 0;
+        }
+    }
+
+    public int getInt(int index) {
+        Object obj = getValue(index);
+        if (obj instanceof Number) {
+            return ((Number) obj).intValue();
+        } else if (obj instanceof String) {
+            return Integer.parseInt(obj.toString());
+        } else {
+            return 0;
+        }
+    }
+
+    protected boolean isInflated() {
+        return values == null;
+    }
+
+    protected void inflate() {
+        if (values != null) {
+            Object[] copy = values;
+            values = null;
+            for (int i = 0; i < copy.length; i++) {
+                super.put(metaData.getColumnName(i), copy[i]);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return values != null ? values.length : super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values != null ? values.length == 0 : super.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (values != null) {
+            return key instanceof String && metaData.getColumnIndex((String) key) >= 0;
+        } else {
+            return super.containsKey(key);
+        }
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (values != null) {
+            for (Object obj : values) {
+                if (value == null ? obj == null : value.equals(obj)) {
+                    return true;
+                }
+            }
+            return false;
+        } else {
+            return super.containsValue(value);
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (values != null) {
+            int index = key instanceof String ? metaData.getColumnIndex((String) key) : -1;
+            return index >= 0 ? values[index] : null;
+        } else {
+            return super.get(key);
+        }
+    }
+
+    @Override
+    public Object getOrDefault(Object key, Object defaultValue) {
+        if (values != null) {
+            /* a Row only finds the exact name here */
+            int index = key instanceof String ? metaData.getColumnIndex((String) key) : -1;
+            return index >= 0 && metaData.getColumnName(index).equals(key) ? values[index] : defaultValue;
+        } else {
+            return super.getOrDefault(key, defaultValue);
+        }
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (values != null) {
+            int index = metaData.getColumnIndex(key);
+            if (index >= 0 && metaData.getColumnName(index).equals(key)) {
+                Object old = values[index];
+                values[index] = value;
+                return old;
+            }
+            inflate();
+        }
+        return super.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        inflate();
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        values = null;
+        super.clear();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        if (values != null) {
+            return new AbstractSet<String>() {
+                @Override
+                public Iterator<String> iterator() {
+                    return new IndexIterator<String>() {
+                        @Override
+                        protected String get(int index) {
+                            return metaData.getColumnName(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ArrayRow.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return ArrayRow.this.containsKey(o);
+                }
+            };
+        } else {
+            return super.keySet();
+        }
+    }
+
+    @Override
+    public Collection<Object> values() {
+        if (values != null) {
+            return new AbstractCollection<Object>() {
+                @Override
+                public Iterator<Object> iterator() {
+                    return new IndexIterator<Object>() {
+                        @Override
+                        protected Object get(int index) {
+                            return getValue(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ArrayRow.this.size();
+                }
+            };
+        } else {
+            return super.values();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        if (values != null) {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new IndexIterator<Map.Entry<String, Object>>() {
+                        @Override
+                        protected Map.Entry<String, Object> get(int index) {
+                            return new IndexEntry(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ArrayRow.this.size();
+                }
+            };
+        } else {
+            return super.entrySet();
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                action.accept(metaData.getColumnName(i), values[i]);
+            }
+        } else {
+            super.forEach(action);
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = function.apply(metaData.getColumnName(i), values[i]);
+            }
+        } else {
+            super.replaceAll(function);
+        }
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        inflate();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        inflate();
+        return super.remove(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        inflate();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        inflate();
+        return super.replace(key, value);
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+        inflate();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        inflate();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        inflate();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+        inflate();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public Object clone() {
+        inflate();
+        return super.clone();
+    }
+
+    /**
+     * Serialize as a regular row because the values are not kept in the map that {@link Row} serializes.
+     */
+    protected Object writeReplace() {
+        Row row = new Row(size());
+        for (Map.Entry<String, Object> entry : entrySet()) {
+            row.put(entry.getKey(), entry.getValue());
+        }
+        return row;
+    }
+
+    abstract class IndexIterator<E> implements Iterator<E> {
+        int index;
+
+        public boolean hasNext() {
+            return index < size();
+        }
+
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(index++);
+        }
+
+        protected abstract E get(int index);
+    }
+
+    class IndexEntry implements Map.Entry<String, Object> {
+        final int index;
+
+        IndexEntry(int index) {
+            this.index = index;
+        }
+
+        public String getKey() {
+            return metaData.getColumnName(index);
+        }
+
+        public Object getValue() {
+            return ArrayRow.this.getValue(index);
+        }
+
+        public Object setValue(Object value) {
+            return ArrayRow.this.put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = getValue();
+            return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
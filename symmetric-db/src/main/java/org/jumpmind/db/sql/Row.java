@@ -161,15 +161,7 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
     public String getString(String columnName, boolean checkForColumn) {
         Object obj = this.get(columnName);
         if (obj != null) {
-            if (obj instanceof String) {
-                return (String) obj;
-            } else if (obj instanceof BigDecimal) {
-                return ((BigDecimal) obj).toPlainString();
-            } else if (obj instanceof byte[]) {
-                return Hex.encodeHexString((byte[]) obj);
-            } else {
-                return obj.toString();
-            }
+            return asString(obj);
         } else {
             if (checkForColumn) {
                 checkForColumn(columnName);
@@ -178,6 +170,18 @@ public class Row extends LinkedCaseInsensitiveMap<Object> {
         }
     }
 
+    protected static String asString(Object obj) {
+        if (obj instanceof String) {
+            return (String) obj;
+        } else if (obj instanceof BigDecimal) {
+            return ((BigDecimal) obj).toPlainString();
+        } else if (obj instanceof byte[]) {
+            return Hex.encodeHexString((byte[]) obj);
+        } else {
+            return obj.toString();
+        }
+    }
+
     public int getInt(String columnName) {
         Object obj = this.get(columnName);
         if (obj instanceof Number) {
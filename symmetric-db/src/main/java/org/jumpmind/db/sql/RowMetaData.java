@@ -0,0 +1,114 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jumpmind.util.FormatUtils;
+
+/**
+ * Column names of a result set, resolved once and shared by every {@link ArrayRow} read from it. Lookups by name are case insensitive like
+ * {@link Row}. Each spelling of a name that is looked up is remembered, so repeated lookups by the same name do not convert case again.
+ */
+public class RowMetaData {
+
+    private final String[] columnNames;
+    private final Map<String, Integer> indexByName;
+    private final Map<String, Integer> indexByLowerCaseName;
+    private final Map<String, Integer> indexByAlias = new ConcurrentHashMap<String, Integer>();
+    private final boolean duplicateColumnNames;
+
+    public RowMetaData(String[] columnNames) {
+        this.columnNames = columnNames;
+        this.indexByName = new HashMap<String, Integer>(columnNames.length * 2);
+        this.indexByLowerCaseName = new HashMap<String, Integer>(columnNames.length * 2);
+        boolean duplicates = false;
+        for (int i = columnNames.length - 1; i >= 0; i--) {
+            /* the last duplicate column name wins, the same as Row */
+            Integer index = i;
+            if (!indexByName.containsKey(columnNames[i])) {
+                indexByName.put(columnNames[i], index);
+            }
+            String lowerCaseName = convertKey(columnNames[i]);
+            if (!indexByLowerCaseName.containsKey(lowerCaseName)) {
+                indexByLowerCaseName.put(lowerCaseName, index);
+            } else {
+                duplicates = true;
+            }
+            if (FormatUtils.isInfamousTurkey()) {
+                String strippedName = FormatUtils.stripTurkeyDottedI(lowerCaseName);
+                if (!indexByLowerCaseName.containsKey(strippedName)) {
+                    indexByLowerCaseName.put(strippedName, index);
+                }
+            }
+        }
+        this.duplicateColumnNames = duplicates;
+    }
+
+    /**
+     * Names that are repeated in a select (ignoring case) are not array backed, so that the map view behaves the same as a {@link Row}.
+     */
+    public boolean hasDuplicateColumnNames() {
+        return duplicateColumnNames;
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public String getColumnName(int index) {
+        return columnNames[index];
+    }
+
+    public String[] getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * @return the index of the column or -1 if there is no column with the name
+     */
+    public int getColumnIndex(String columnName) {
+        if (columnName == null) {
+            return -1;
+        }
+        Integer index = indexByName.get(columnName);
+        if (index == null) {
+            index = indexByAlias.get(columnName);
+            if (index == null) {
+                index = indexByLowerCaseName.get(convertKey(columnName));
+                if (index == null) {
+                    return -1;
+                }
+                if (indexByAlias.size() < columnNames.length * 4) {
+                    indexByAlias.put(columnName, index);
+                }
+            }
+        }
+        return index;
+    }
+
+    protected String convertKey(String key) {
+        return key.toLowerCase(Locale.getDefault());
+    }
+}
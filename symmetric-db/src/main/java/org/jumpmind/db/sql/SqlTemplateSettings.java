@@ -32,6 +32,7 @@ public class SqlTemplateSettings {
     protected int batchSize = 100;
     protected int batchBulkLoaderSize = 25;
     protected boolean readStringsAsBytes;
+    protected boolean readArrayRows;
     protected boolean treatBinaryAsLob;
     protected boolean rightTrimCharValues;
     protected int overrideIsolationLevel = -1;
@@ -77,6 +78,14 @@ public class SqlTemplateSettings {
         return readStringsAsBytes;
     }
 
+    public void setReadArrayRows(boolean readArrayRows) {
+        this.readArrayRows = readArrayRows;
+    }
+
+    public boolean isReadArrayRows() {
+        return readArrayRows;
+    }
+
     public void setTreatBinaryAsLob(boolean treatBinaryAsLob) {
         this.treatBinaryAsLob = treatBinaryAsLob;
     }
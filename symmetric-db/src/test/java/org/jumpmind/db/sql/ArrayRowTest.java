@@ -0,0 +1,133 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class ArrayRowTest {
+
+    private static final String[] NAMES = { "NODE_ID", "BATCH_ID", "AMOUNT" };
+
+    @Test
+    public void testReadsLikeRow() {
+        Row row = createRow();
+        ArrayRow arrayRow = createArrayRow();
+        assertEquals(row, arrayRow);
+        assertEquals(arrayRow, row);
+        assertEquals(row.hashCode(), arrayRow.hashCode());
+        assertEquals(row.toString(), arrayRow.toString());
+        assertEquals(new ArrayList<String>(row.keySet()), new ArrayList<String>(arrayRow.keySet()));
+        assertEquals(new ArrayList<Object>(row.values()), new ArrayList<Object>(arrayRow.values()));
+        assertEquals(row.getString("node_id"), arrayRow.getString("node_id"));
+        assertEquals(row.getLong("Batch_Id"), arrayRow.getLong("Batch_Id"));
+        assertEquals(row.getBigDecimal("amount"), arrayRow.getBigDecimal("amount"));
+        assertEquals(row.stringValue(), arrayRow.stringValue());
+        assertEquals(row.csvValue(), arrayRow.csvValue());
+        assertEquals(row.containsKey("batch_id"), arrayRow.containsKey("batch_id"));
+        assertEquals(row.containsKey("missing"), arrayRow.containsKey("missing"));
+        assertEquals(row.getOrDefault("node_id", "x"), arrayRow.getOrDefault("node_id", "x"));
+        assertEquals(row.getOrDefault("NODE_ID", "x"), arrayRow.getOrDefault("NODE_ID", "x"));
+        assertNull(arrayRow.get("missing"));
+    }
+
+    @Test
+    public void testIndexAccessors() {
+        ArrayRow arrayRow = createArrayRow();
+        assertEquals(3, arrayRow.getColumnCount());
+        assertEquals("BATCH_ID", arrayRow.getColumnName(1));
+        assertEquals("00001", arrayRow.getString(0));
+        assertEquals(42l, arrayRow.getLong(1));
+        assertEquals(42, arrayRow.getInt(1));
+        assertEquals("10.50", arrayRow.getString(2));
+    }
+
+    @Test
+    public void testChangesMatchRow() {
+        Row row = createRow();
+        ArrayRow arrayRow = createArrayRow();
+
+        assertEquals(row.put("BATCH_ID", 43l), arrayRow.put("BATCH_ID", 43l));
+        assertEquals(row, arrayRow);
+
+        for (Map.Entry<String, Object> entry : arrayRow.entrySet()) {
+            if (entry.getKey().equals("AMOUNT")) {
+                entry.setValue(BigDecimal.ONE);
+            }
+        }
+        row.put("AMOUNT", BigDecimal.ONE);
+        assertEquals(row, arrayRow);
+
+        assertEquals(row.put("EXTRA", "x"), arrayRow.put("EXTRA", "x"));
+        assertEquals(row, arrayRow);
+        assertEquals(4, arrayRow.size());
+        assertEquals("x", arrayRow.get("extra"));
+        assertEquals(43l, arrayRow.getLong(1));
+
+        assertEquals(row.remove("node_id"), arrayRow.remove("node_id"));
+        assertEquals(row, arrayRow);
+        assertFalse(arrayRow.containsKey("NODE_ID"));
+
+        arrayRow.clear();
+        assertTrue(arrayRow.isEmpty());
+    }
+
+    @Test
+    public void testSerializesAsRow() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(createArrayRow());
+        out.close();
+        Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+        assertEquals(Row.class, copy.getClass());
+        assertEquals(createRow(), copy);
+    }
+
+    @Test
+    public void testDuplicateNamesAreDetected() {
+        assertFalse(new RowMetaData(NAMES).hasDuplicateColumnNames());
+        assertTrue(new RowMetaData(new String[] { "ID", "NAME", "id" }).hasDuplicateColumnNames());
+    }
+
+    private Row createRow() {
+        Row row = new Row(NAMES.length);
+        row.put("NODE_ID", "00001");
+        row.put("BATCH_ID", 42l);
+        row.put("AMOUNT", new BigDecimal("10.50"));
+        return row;
+    }
+
+    private ArrayRow createArrayRow() {
+        return new ArrayRow(new RowMetaData(NAMES), new Object[] { "00001", 42l, new BigDecimal("10.50") });
+    }
+}
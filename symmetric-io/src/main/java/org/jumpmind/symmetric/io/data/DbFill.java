@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -37,6 +38,12 @@ import java.util.Random;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.time.DateUtils;
@@ -57,6 +64,7 @@ import org.jumpmind.db.sql.SqlException;
 import org.jumpmind.db.util.BinaryEncoding;
 import org.jumpmind.db.util.TableRow;
 import org.jumpmind.util.AppUtils;
+import org.jumpmind.util.CustomizableThreadFactory;
 import org.jumpmind.util.FormatUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,6 +98,9 @@ public class DbFill {
     private int maxByteSize = 32;
     private int maxTextSize = 32;
     private String textColumnExpression;
+    private int threadCount = 1;
+    private int rowsPerSecond = 0;
+    private Throttle throttle;
     // Weights given to insert, update, and delete commands when
     // randomly selecting a command for any given table.
     private DmlWeight dmlWeight = new DmlWeight(1, 0, 0);
@@ -408,6 +419,93 @@ public class DbFill {
                 truncateTable(table);
             }
         }
+        throttle = rowsPerSecond > 0 ? new Throttle(rowsPerSecond) : null;
+        if (threadCount > 1 && inputLength > 1) {
+            fillTablesConcurrently(tablesToFill, orderedTables, tableProperties);
+        } else {
+            fillRows(tablesToFill, orderedTables, tableProperties);
+        }
+    }
+
+    /**
+     * Split the row count across worker threads that each use their own transaction. The workers share the table metadata and foreign key
+     * references that were resolved once up front, but track their own current rows so foreign key values stay consistent within a transaction.
+     */
+    private void fillTablesConcurrently(final List<Table> tablesToFill, final List<Table> orderedTables,
+            final Map<String, DmlWeight> tableProperties) {
+        int workerCount = Math.min(threadCount, inputLength);
+        log.info("Filling tables with " + workerCount + " threads");
+        ExecutorService executor = Executors.newFixedThreadPool(workerCount, new CustomizableThreadFactory("dbfill"));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < workerCount; i++) {
+                final DbFill worker = newWorker(inputLength / workerCount + (i < inputLength % workerCount ? 1 : 0));
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        worker.fillRows(tablesToFill, orderedTables, tableProperties);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    protected DbFill newWorker(int workerInputLength) {
+        DbFill worker = new DbFill(platform);
+        worker.catalog = catalog;
+        worker.schema = schema;
+        worker.cascading = cascading;
+        worker.cascadingSelect = cascadingSelect;
+        worker.inputLength = workerInputLength;
+        worker.repeat = repeat;
+        worker.maxRowsCommit = maxRowsCommit;
+        worker.commitDelay = commitDelay;
+        worker.percentRollback = percentRollback;
+        worker.interval = interval;
+        worker.debug = debug;
+        worker.verbose = verbose;
+        worker.continueOnError = continueOnError;
+        worker.print = print;
+        worker.useRandomCount = useRandomCount;
+        worker.maxByteSize = maxByteSize;
+        worker.maxTextSize = maxTextSize;
+        worker.textColumnExpression = textColumnExpression;
+        worker.dmlWeight = dmlWeight;
+        worker.throttle = throttle;
+        worker.allDbTablesCache = allDbTablesCache;
+        worker.foreignKeyReferences = foreignKeyReferences;
+        worker.foreignTables = foreignTables;
+        worker.foreignTablesReversed = foreignTablesReversed;
+        worker.commonDependencyTables = commonDependencyTables;
+        worker.compositeForeignKeys = compositeForeignKeys;
+        worker.minColumnSizes = minColumnSizes;
+        // columns that share a common value share the same list, so keep that when copying
+        Map<List<Object>, List<Object>> copies = new IdentityHashMap<List<Object>, List<Object>>();
+        for (Map.Entry<String, List<Object>> entry : commonDependencyValues.entrySet()) {
+            List<Object> copy = copies.get(entry.getValue());
+            if (copy == null) {
+                copy = new ArrayList<Object>();
+                copies.put(entry.getValue(), copy);
+            }
+            worker.commonDependencyValues.put(entry.getKey(), copy);
+        }
+        return worker;
+    }
+
+    private void fillRows(List<Table> tablesToFill, List<Table> orderedTables, Map<String, DmlWeight> tableProperties) {
         ISqlTransaction tran = platform.getSqlTemplate().startSqlTransaction();
         try {
             DatabaseInfo dbInfo = platform.getDatabaseInfo();
@@ -443,6 +541,9 @@ public class DbFill {
                             }
                             continue;
                         }
+                        if (throttle != null) {
+                            throttle.acquire();
+                        }
                         switch (dmlType) {
                             case INSERT:
                                 if (verbose) {
@@ -1312,6 +1413,42 @@ public class DbFill {
         this.maxTextSize = maxTextSize;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public int getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(int rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Paces rows across all threads to a target rate by handing out evenly spaced start times.
+     */
+    static class Throttle {
+        private final long startTime = System.nanoTime();
+        private final AtomicLong rowCount = new AtomicLong();
+        private final long nanosPerRow;
+
+        public Throttle(int rowsPerSecond) {
+            this.nanosPerRow = 1000000000L / rowsPerSecond;
+        }
+
+        public void acquire() {
+            long waitNanos = startTime + rowCount.getAndIncrement() * nanosPerRow - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+        }
+    }
+
     static class ForeignKeyReference {
         ForeignKey fk;
         Reference ref;
@@ -20,6 +20,7 @@
  */
 package org.jumpmind.symmetric.io.data.reader;
 
+import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -47,6 +48,7 @@ import org.jumpmind.util.Statistics;
 
 public class ExtractDataReader implements IDataReader {
     public static final String DATA_CONTEXT_CURRENT_CSV_DATA = "csvData";
+    protected static final int MAX_LOB_FETCH_PARAMETERS = 1000;
     protected Map<Batch, Statistics> statistics = new HashMap<Batch, Statistics>();
     protected IDatabasePlatform platform;
     protected List<IExtractDataReaderSource> sourcesToUse;
@@ -55,6 +57,9 @@ public class ExtractDataReader implements IDataReader {
     protected Table table;
     protected CsvData data;
     protected DataContext dataContext;
+    protected int lobFetchSize = 1;
+    protected List<CsvData> readAheadData = new ArrayList<CsvData>();
+    protected boolean sourceExhausted;
 
     public ExtractDataReader(IDatabasePlatform platform, IExtractDataReaderSource source) {
         this.sourcesToUse = new ArrayList<IExtractDataReaderSource>();
@@ -115,24 +120,32 @@ public class ExtractDataReader implements IDataReader {
     }
 
     public CsvData nextData() {
+        CsvData dataToReturn = null;
         if (this.table != null) {
-            if (this.data == null) {
-                this.data = this.currentSource.next();
-            }
-            if (data == null) {
-                closeCurrentSource();
+            if (this.readAheadData.size() > 0) {
+                dataToReturn = this.readAheadData.remove(0);
             } else {
-                Table targetTable = this.currentSource.getTargetTable();
-                if (targetTable != null && targetTable.equals(this.table)) {
-                    data = enhanceWithLobsFromSourceIfNeeded(this.currentSource.getSourceTable(), data);
+                if (this.data == null && !this.sourceExhausted) {
+                    this.data = this.currentSource.next();
+                }
+                if (this.data == null) {
+                    closeCurrentSource();
                 } else {
-                    // the table has changed
-                    return null;
+                    Table targetTable = this.currentSource.getTargetTable();
+                    if (targetTable != null && targetTable.equals(this.table)) {
+                        dataToReturn = this.data;
+                        this.data = null;
+                        dataToReturn = enhanceWithLobsFromSourceIfNeeded(this.currentSource.getSourceTable(), dataToReturn);
+                    } else {
+                        // the table has changed
+                        return null;
+                    }
                 }
             }
+        } else {
+            dataToReturn = this.data;
+            this.data = null;
         }
-        CsvData dataToReturn = this.data;
-        this.data = null;
         this.dataContext.put(DATA_CONTEXT_CURRENT_CSV_DATA, dataToReturn);
         return dataToReturn;
     }
@@ -149,64 +162,189 @@ public class ExtractDataReader implements IDataReader {
         }
         this.table = null;
         this.data = null;
+        this.readAheadData.clear();
+        this.sourceExhausted = false;
     }
 
     public Map<Batch, Statistics> getStatistics() {
         return statistics;
     }
 
+    /**
+     * Sets how many rows for the same table are read ahead so their LOBs can be selected from the source in a single
+     * query. A size of 1 selects the LOBs one row at a time.
+     */
+    public void setLobFetchSize(int lobFetchSize) {
+        this.lobFetchSize = lobFetchSize;
+    }
+
+    public int getLobFetchSize() {
+        return lobFetchSize;
+    }
+
+    protected boolean isLobSelectRequired(CsvData data) {
+        return this.currentSource.requiresLobsSelectedFromSource(data)
+                && (data.getDataEventType() == DataEventType.UPDATE || data.getDataEventType() == DataEventType.INSERT);
+    }
+
     protected CsvData enhanceWithLobsFromSourceIfNeeded(Table table, CsvData data) {
-        if (this.currentSource.requiresLobsSelectedFromSource(data)
-                && (data.getDataEventType() == DataEventType.UPDATE || data.getDataEventType() == DataEventType.INSERT)) {
+        if (isLobSelectRequired(data)) {
             List<Column> lobColumns = platform.getLobColumns(table);
             if (lobColumns.size() > 0) {
-                String[] columnNames = table.getColumnNames();
-                String[] rowData = data.getParsedData(CsvData.ROW_DATA);
-                Column[] orderedColumns = table.getColumns();
-                Object[] objectValues = platform.getObjectValues(batch.getBinaryEncoding(),
-                        rowData, orderedColumns);
-                Map<String, Object> columnDataMap = CollectionUtils
-                        .toMap(columnNames, objectValues);
                 Column[] pkColumns = table.getPrimaryKeyColumns();
-                ISqlTemplate sqlTemplate = platform.getSqlTemplate();
-                Object[] args = new Object[pkColumns.length];
+                if (lobFetchSize > 1 && pkColumns.length > 0) {
+                    enhanceWithLobsFromSource(table, lobColumns, pkColumns, readAhead(table, data, pkColumns));
+                } else {
+                    Object[] args = getPrimaryKeyValues(table, pkColumns, data);
+                    Row row = platform.getSqlTemplate().queryForRow(buildSelect(table, lobColumns, pkColumns), args);
+                    putLobValues(table, lobColumns, data, row);
+                }
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Reads ahead from the current source while the rows are for the same table, up to the LOB fetch size. Rows are
+     * queued to be returned in order. The first row for a different table is held as the next row to read.
+     * 
+     * @return the rows that need their LOBs selected from the source, starting with the given row
+     */
+    protected List<CsvData> readAhead(Table table, CsvData data, Column[] pkColumns) {
+        List<CsvData> lobData = new ArrayList<CsvData>();
+        lobData.add(data);
+        int maxRows = Math.max(1, Math.min(lobFetchSize, MAX_LOB_FETCH_PARAMETERS / pkColumns.length));
+        int rowCount = 1;
+        while (rowCount < maxRows) {
+            CsvData nextData = this.currentSource.next();
+            if (nextData == null) {
+                this.sourceExhausted = true;
+                break;
+            }
+            Table targetTable = this.currentSource.getTargetTable();
+            Table sourceTable = this.currentSource.getSourceTable();
+            if (targetTable == null || !targetTable.equals(this.table) || (sourceTable != table && !table.equals(sourceTable))) {
+                this.data = nextData;
+                break;
+            }
+            if (isLobSelectRequired(nextData)) {
+                lobData.add(nextData);
+            }
+            this.readAheadData.add(nextData);
+            rowCount++;
+        }
+        return lobData;
+    }
+
+    /**
+     * Selects the LOBs for all the rows with one query, then puts them into the rows by primary key. A row that can't
+     * be matched, because its primary key doesn't compare equal after being read back, is selected on its own.
+     */
+    protected void enhanceWithLobsFromSource(Table table, List<Column> lobColumns, Column[] pkColumns, List<CsvData> lobData) {
+        ISqlTemplate sqlTemplate = platform.getSqlTemplate();
+        List<Object[]> keys = new ArrayList<Object[]>(lobData.size());
+        List<Object> args = new ArrayList<Object>(lobData.size() * pkColumns.length);
+        for (CsvData data : lobData) {
+            Object[] pkValues = getPrimaryKeyValues(table, pkColumns, data);
+            keys.add(pkValues);
+            for (Object pkValue : pkValues) {
+                args.add(pkValue);
+            }
+        }
+        Map<String, Row> rowsByKey = new HashMap<String, Row>();
+        if (lobData.size() > 1) {
+            List<Row> rows = sqlTemplate.query(buildSelect(table, lobColumns, pkColumns, lobData.size()), args.toArray());
+            for (Row row : rows) {
+                Object[] pkValues = new Object[pkColumns.length];
                 for (int i = 0; i < pkColumns.length; i++) {
-                    args[i] = columnDataMap.get(pkColumns[i].getName());
+                    pkValues[i] = row.get(pkColumns[i].getName());
                 }
-                String sql = buildSelect(table, lobColumns, pkColumns);
-                Row row = sqlTemplate.queryForRow(sql, args);
-                if (row == null) {
-                    row = createRowForRequiredLobs(lobColumns);
+                rowsByKey.put(toKey(pkValues), row);
+            }
+        }
+        String sql = null;
+        for (int i = 0; i < lobData.size(); i++) {
+            Row row = rowsByKey.get(toKey(keys.get(i)));
+            if (row == null) {
+                if (sql == null) {
+                    sql = buildSelect(table, lobColumns, pkColumns);
                 }
-                if (row != null) {
-                    for (Column lobColumn : lobColumns) {
-                        String valueForCsv = null;
-                        if (platform.isBlob(lobColumn.getMappedTypeCode())) {
-                            byte[] binaryData = row.getBytes(lobColumn.getName());
-                            if (binaryData != null) {
-                                if (batch.getBinaryEncoding() == BinaryEncoding.BASE64) {
-                                    valueForCsv = new String(Base64.encodeBase64(binaryData), Charset.defaultCharset());
-                                } else if (batch.getBinaryEncoding() == BinaryEncoding.HEX) {
-                                    valueForCsv = new String(Hex.encodeHex(binaryData));
-                                } else {
-                                    valueForCsv = new String(binaryData, Charset.defaultCharset());
-                                }
-                                binaryData = null;
-                            }
+                row = sqlTemplate.queryForRow(sql, keys.get(i));
+            }
+            putLobValues(table, lobColumns, lobData.get(i), row);
+        }
+    }
+
+    protected String toKey(Object[] pkValues) {
+        StringBuilder key = new StringBuilder();
+        for (Object pkValue : pkValues) {
+            if (pkValue instanceof Number) {
+                try {
+                    key.append(new BigDecimal(pkValue.toString()).stripTrailingZeros().toPlainString());
+                } catch (NumberFormatException e) {
+                    key.append(pkValue);
+                }
+            } else if (pkValue instanceof byte[]) {
+                key.append(Hex.encodeHex((byte[]) pkValue));
+            } else {
+                key.append(pkValue);
+            }
+            key.append('\u0000');
+        }
+        return key.toString();
+    }
+
+    protected Object[] getPrimaryKeyValues(Table table, Column[] pkColumns, CsvData data) {
+        String[] rowData = data.getParsedData(CsvData.ROW_DATA);
+        Object[] objectValues = platform.getObjectValues(batch.getBinaryEncoding(), rowData, table.getColumns());
+        Map<String, Object> columnDataMap = CollectionUtils.toMap(table.getColumnNames(), objectValues);
+        Object[] args = new Object[pkColumns.length];
+        for (int i = 0; i < pkColumns.length; i++) {
+            args[i] = columnDataMap.get(pkColumns[i].getName());
+        }
+        return args;
+    }
+
+    protected void putLobValues(Table table, List<Column> lobColumns, CsvData data, Row row) {
+        if (row == null) {
+            row = createRowForRequiredLobs(lobColumns);
+        }
+        if (row != null) {
+            String[] columnNames = table.getColumnNames();
+            String[] rowData = data.getParsedData(CsvData.ROW_DATA);
+            for (Column lobColumn : lobColumns) {
+                String valueForCsv = null;
+                if (platform.isBlob(lobColumn.getMappedTypeCode())) {
+                    byte[] binaryData = row.getBytes(lobColumn.getName());
+                    if (binaryData != null) {
+                        if (batch.getBinaryEncoding() == BinaryEncoding.BASE64) {
+                            valueForCsv = new String(Base64.encodeBase64(binaryData), Charset.defaultCharset());
+                        } else if (batch.getBinaryEncoding() == BinaryEncoding.HEX) {
+                            valueForCsv = new String(Hex.encodeHex(binaryData));
                         } else {
-                            valueForCsv = row.getString(lobColumn.getName());
+                            valueForCsv = new String(binaryData, Charset.defaultCharset());
                         }
-                        int index = ArrayUtils.indexOf(columnNames, lobColumn.getName());
-                        rowData[index] = valueForCsv;
+                        binaryData = null;
                     }
-                    data.putParsedData(CsvData.ROW_DATA, rowData);
+                } else {
+                    valueForCsv = row.getString(lobColumn.getName());
                 }
+                int index = ArrayUtils.indexOf(columnNames, lobColumn.getName());
+                rowData[index] = valueForCsv;
             }
+            data.putParsedData(CsvData.ROW_DATA, rowData);
         }
-        return data;
     }
 
     protected String buildSelect(Table table, List<Column> lobColumns, Column[] pkColumns) {
+        return buildSelect(table, lobColumns, pkColumns, 1);
+    }
+
+    /**
+     * Builds the select of LOB columns for a number of rows by primary key. When more than one row is selected, the
+     * primary key columns are selected too, so the results can be matched back to the rows.
+     */
+    protected String buildSelect(Table table, List<Column> lobColumns, Column[] pkColumns, int rowCount) {
         StringBuilder sql = new StringBuilder("select ");
         DatabaseInfo dbInfo = platform.getDatabaseInfo();
         String quote = platform.getDdlBuilder().isDelimitedIdentifierModeOn() ? dbInfo.getDelimiterToken() : "";
@@ -219,15 +357,35 @@ public class ExtractDataReader implements IDataReader {
             }
             sql.append(",");
         }
+        if (rowCount > 1) {
+            for (Column col : pkColumns) {
+                sql.append(quote).append(col.getName()).append(quote).append(",");
+            }
+        }
         sql.delete(sql.length() - 1, sql.length());
         sql.append(" from ");
         sql.append(table.getQualifiedTableName(quote, dbInfo.getCatalogSeparator(), dbInfo.getSchemaSeparator()));
         sql.append(" where ");
-        for (Column col : pkColumns) {
-            sql.append(quote).append(col.getName()).append(quote);
-            sql.append("=? and ");
+        if (rowCount > 1 && pkColumns.length == 1) {
+            sql.append(quote).append(pkColumns[0].getName()).append(quote).append(" in (");
+            for (int i = 0; i < rowCount; i++) {
+                sql.append(i == 0 ? "?" : ",?");
+            }
+            sql.append(")");
+        } else {
+            for (int i = 0; i < rowCount; i++) {
+                if (rowCount > 1) {
+                    sql.append(i == 0 ? "(" : " or (");
+                }
+                for (int j = 0; j < pkColumns.length; j++) {
+                    sql.append(j == 0 ? "" : " and ");
+                    sql.append(quote).append(pkColumns[j].getName()).append(quote).append("=?");
+                }
+                if (rowCount > 1) {
+                    sql.append(")");
+                }
+            }
         }
-        sql.delete(sql.length() - 5, sql.length());
         return sql.toString();
     }
 
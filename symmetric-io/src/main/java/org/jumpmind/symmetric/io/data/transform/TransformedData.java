@@ -21,6 +21,7 @@
 package org.jumpmind.symmetric.io.data.transform;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -122,13 +123,7 @@ public class TransformedData implements Cloneable {
             if (values != null) {
                 list.putAll(values);
             }
-            IncludeOnType type = IncludeOnType.DELETE;
-            if (targetDmlType == DataEventType.UPDATE && sourceDmlType != DataEventType.DELETE) {
-                type = IncludeOnType.UPDATE;
-            } else if (targetDmlType == DataEventType.INSERT) {
-                type = IncludeOnType.INSERT;
-            }
-            values = source.get(type);
+            values = source.get(getTargetIncludeOnType());
             if (values != null) {
                 list.putAll(values);
             }
@@ -136,14 +131,46 @@ public class TransformedData implements Cloneable {
         return list;
     }
 
+    protected IncludeOnType getTargetIncludeOnType() {
+        if (targetDmlType == DataEventType.UPDATE && sourceDmlType != DataEventType.DELETE) {
+            return IncludeOnType.UPDATE;
+        } else if (targetDmlType == DataEventType.INSERT) {
+            return IncludeOnType.INSERT;
+        } else {
+            return IncludeOnType.DELETE;
+        }
+    }
+
     protected List<String> retrieve(
             Map<TransformColumn.IncludeOnType, LinkedHashMap<String, String>> source,
             boolean getColumnNames) {
-        Map<String, String> values = retrieve(source);
-        if (getColumnNames) {
-            return new ArrayList<String>(values.keySet());
+        return Arrays.asList(retrieveArray(source, getColumnNames));
+    }
+
+    /**
+     * Same as {@link #retrieve(Map, boolean)}, but when only one of the column maps has values the array is copied straight from it
+     */
+    protected String[] retrieveArray(
+            Map<TransformColumn.IncludeOnType, LinkedHashMap<String, String>> source,
+            boolean getColumnNames) {
+        Map<String, String> values = null;
+        if (source != null) {
+            LinkedHashMap<String, String> allValues = source.get(IncludeOnType.ALL);
+            LinkedHashMap<String, String> typeValues = source.get(getTargetIncludeOnType());
+            if (typeValues == null || typeValues.size() == 0) {
+                values = allValues;
+            } else if (allValues == null || allValues.size() == 0) {
+                values = typeValues;
+            } else {
+                values = retrieve(source);
+            }
+        }
+        if (values == null) {
+            return new String[0];
+        } else if (getColumnNames) {
+            return values.keySet().toArray(new String[values.size()]);
         } else {
-            return new ArrayList<String>(values.values());
+            return values.values().toArray(new String[values.size()]);
         }
     }
 
@@ -156,23 +183,34 @@ public class TransformedData implements Cloneable {
     }
 
     public String[] getKeyNames() {
-        List<String> list = retrieve(targetNewKeysByIncludeOnType, true);
-        return list.toArray(new String[list.size()]);
+        return retrieveArray(targetNewKeysByIncludeOnType, true);
     }
 
     public String[] getKeyValues() {
-        List<String> list = retrieve(targetNewKeysByIncludeOnType, false);
-        return list.toArray(new String[list.size()]);
+        return retrieveArray(targetNewKeysByIncludeOnType, false);
     }
 
     public String[] getColumnNames() {
-        List<String> list = retrieve(targetNewValueByIncludeOnType, true);
-        return list.toArray(new String[list.size()]);
+        return retrieveArray(targetNewValueByIncludeOnType, true);
+    }
+
+    /**
+     * @return true if there is at least one target column value for the target DML type, without building the list of columns
+     */
+    public boolean hasColumnValues() {
+        if (targetNewValueByIncludeOnType != null) {
+            LinkedHashMap<String, String> values = targetNewValueByIncludeOnType.get(IncludeOnType.ALL);
+            if (values != null && values.size() > 0) {
+                return true;
+            }
+            values = targetNewValueByIncludeOnType.get(getTargetIncludeOnType());
+            return values != null && values.size() > 0;
+        }
+        return false;
     }
 
     public String[] getColumnValues() {
-        List<String> list = retrieve(targetNewValueByIncludeOnType, false);
-        return list.toArray(new String[list.size()]);
+        return retrieveArray(targetNewValueByIncludeOnType, false);
     }
 
     public DataEventType getSourceDmlType() {
@@ -259,9 +297,11 @@ public class TransformedData implements Cloneable {
     }
 
     public Table buildTargetTable() {
+        return buildTargetTable(getColumnNames(), getKeyNames());
+    }
+
+    public Table buildTargetTable(String[] columnNames, String[] keyNames) {
         Table table = null;
-        String[] columnNames = getColumnNames();
-        String[] keyNames = getKeyNames();
         if (columnNames != null && columnNames.length > 0) {
             table = new Table(transformation.getTargetCatalogName(),
                     transformation.getTargetSchemaName(), transformation.getTargetTableName());
@@ -297,13 +337,13 @@ public class TransformedData implements Cloneable {
     }
 
     public String[] getOldColumnValues() {
-        List<String> list = retrieve(targetOldValuesByIncludeOnType, false);
+        String[] values = retrieveArray(targetOldValuesByIncludeOnType, false);
         boolean use = false;
-        for (String string : list) {
+        for (String string : values) {
             use |= string != null;
         }
         if (use) {
-            return list.toArray(new String[list.size()]);
+            return values;
         } else {
             return null;
         }
@@ -94,6 +94,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         this.batch = batch;
         this.statistics.put(batch, new Statistics());
         this.statistics.get(batch).set(DataWriterStatisticConstants.STARTTIME, new Date().getTime());
+        clearConflictPrefetch();
     }
 
     public boolean start(Table table) {
@@ -200,6 +201,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                                         (Exception) context.get(AbstractDatabaseWriter.CONFLICT_ERROR));
                             }
                         }
+                        invalidateConflictPrefetch(data);
                         uncommittedCount++;
                         lastData = data;
                         filterAfter(data);
@@ -209,6 +211,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
                     rollback();
                     throw ex;
                 } catch (RuntimeException ex) {
+                    invalidateConflictPrefetch(data);
                     Statistics batchStatistics = getStatistics().get(getBatch());
                     long statementCount = batchStatistics.get(DataWriterStatisticConstants.ROWCOUNT);
                     ResolvedData resolvedData = getWriterSettings().getResolvedData(statementCount);
@@ -248,6 +251,28 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
         }
     }
 
+    protected void invalidateConflictPrefetch(CsvData data) {
+        ConflictDetectionPrefetch prefetch = context != null ? ConflictDetectionPrefetch.get(context, false) : null;
+        if (prefetch != null) {
+            DataEventType eventType = data.getDataEventType();
+            if (eventType == DataEventType.INSERT || eventType == DataEventType.UPDATE || eventType == DataEventType.DELETE) {
+                prefetch.invalidate(sourceTable, targetTable, data);
+            } else {
+                prefetch.clear();
+            }
+        }
+    }
+
+    protected void clearConflictPrefetch() {
+        ConflictDetectionPrefetch prefetch = context != null ? ConflictDetectionPrefetch.get(context, false) : null;
+        if (prefetch != null) {
+            if (prefetch.getPrefetches() > 0) {
+                log.debug("Conflict detection prefetch for batch {}: {}", batch != null ? batch.getNodeBatchId() : null, prefetch);
+            }
+            context.remove(ConflictDetectionPrefetch.CONTEXT_KEY);
+        }
+    }
+
     protected void checkForEarlyCommit() {
         if (uncommittedCount >= writerSettings.getMaxRowsBeforeCommit()) {
             commit(true);
@@ -272,6 +297,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
 
     protected void rollback() {
         uncommittedCount = 0;
+        clearConflictPrefetch();
     }
 
     protected boolean filterError(CsvData data, Exception ex) {
@@ -491,6 +517,7 @@ abstract public class AbstractDatabaseWriter implements IDataWriter {
 
     public void end(Batch batch, boolean inError) {
         this.lastData = null;
+        clearConflictPrefetch();
         if (batch.isIgnored()) {
             getStatistics().get(batch).increment(DataWriterStatisticConstants.IGNORECOUNT);
         }
@@ -0,0 +1,224 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+
+/**
+ * Holds the values of a conflict detection column that were selected for a window of rows in a single query, keyed by primary key. A row is
+ * removed as soon as the writer touches it so that a decision is never made from a value that is older than what the per-row query would have
+ * returned. For a numeric key the range of keys that the window covered is kept too, so a key inside the range that was not selected is known not
+ * to exist without another query.
+ */
+public class ConflictDetectionPrefetch {
+
+    public static final String CONTEXT_KEY = ConflictDetectionPrefetch.class.getName();
+
+    protected String tableName;
+    protected String columnName;
+    protected Column pkColumn;
+    protected Map<String, Object> values = new HashMap<String, Object>();
+    protected Set<String> touched = new HashSet<String>();
+    protected BigDecimal rangeStart;
+    protected BigDecimal rangeEnd;
+    protected long hits;
+    protected long prefetches;
+
+    public static ConflictDetectionPrefetch get(DataContext context, boolean create) {
+        ConflictDetectionPrefetch prefetch = (ConflictDetectionPrefetch) context.get(CONTEXT_KEY);
+        if (prefetch == null && create) {
+            prefetch = new ConflictDetectionPrefetch();
+            context.put(CONTEXT_KEY, prefetch);
+        }
+        return prefetch;
+    }
+
+    /**
+     * The window is keyed by the text of a single primary key column, so only key types with an unambiguous text form are supported.
+     */
+    public static boolean isSupported(Table table, Column column) {
+        if (table.getPrimaryKeyColumnCount() != 1 || column == null || column.isPrimaryKey()) {
+            return false;
+        }
+        Column pkColumn = table.getPrimaryKeyColumns()[0];
+        return pkColumn.isOfNumericType() || pkColumn.isOfTextType();
+    }
+
+    public void reset(Table table, String columnName) {
+        this.values.clear();
+        this.touched.clear();
+        this.rangeStart = null;
+        this.rangeEnd = null;
+        this.tableName = table.getFullyQualifiedTableName();
+        this.columnName = columnName;
+        this.pkColumn = table.getPrimaryKeyColumns()[0];
+        this.prefetches++;
+    }
+
+    public void put(Object pkValue, Object value) {
+        values.put(toKey(pkValue), value);
+    }
+
+    /**
+     * Records the keys that the window query covered. The window started at the start key and, when it was full, ended at the last key that was
+     * selected. Otherwise it covered every key from the start. Only numeric keys are ordered the same way by every database, so a text key is
+     * never considered to be in the range.
+     */
+    public void setRange(Object startKey, Object lastKey, boolean full) {
+        if (pkColumn != null && pkColumn.isOfNumericType()) {
+            rangeStart = toNumber(startKey);
+            rangeEnd = full ? toNumber(lastKey) : null;
+            if (rangeStart == null || (full && rangeEnd == null)) {
+                rangeStart = null;
+                rangeEnd = null;
+            }
+        }
+    }
+
+    /**
+     * @return true if the window knows about the row, either because it was selected, because its key is in the range of the window and so it
+     *         does not exist, or because the writer already touched it and its value has to be selected again
+     */
+    public boolean contains(Table table, String columnName, String pkValue) {
+        if (!isFor(table, columnName)) {
+            return false;
+        }
+        String key = toKey(pkValue);
+        return values.containsKey(key) || touched.contains(key) || isInRange(key);
+    }
+
+    /**
+     * @return true if the value for the row can be served from the window because the writer has not touched it since it was selected
+     */
+    public boolean isCurrent(String pkValue) {
+        return !touched.contains(toKey(pkValue));
+    }
+
+    /**
+     * Removes and returns the value for the row, which is null for a row in the range that was not selected. The row is about to be written, so
+     * the prefetched value is not valid anymore.
+     */
+    public Object take(String pkValue) {
+        hits++;
+        String key = toKey(pkValue);
+        touched.add(key);
+        return values.remove(key);
+    }
+
+    /**
+     * Forgets the rows that the data is about to change. An update can change the primary key, so the new key from the row data is removed as
+     * well as the old one.
+     */
+    public void invalidate(Table sourceTable, Table targetTable, CsvData data) {
+        if (targetTable != null && targetTable.getFullyQualifiedTableName().equals(tableName)) {
+            String[] pkData = data.getPkData(targetTable);
+            if (pkData != null && pkData.length == 1) {
+                forget(toKey(pkData[0]));
+                if (sourceTable != null && data.getParsedData(CsvData.ROW_DATA) != null) {
+                    Map<String, String> rowData = data.toColumnNameValuePairs(sourceTable.getColumnNames(), CsvData.ROW_DATA);
+                    forget(toKey(rowData.get(pkColumn.getName())));
+                }
+            } else {
+                clear();
+            }
+        }
+    }
+
+    /**
+     * Leaves out a row whose value could not be converted, so it is selected one row at a time.
+     */
+    public void skip(Object pkValue) {
+        forget(toKey(pkValue));
+    }
+
+    protected void forget(String key) {
+        values.remove(key);
+        touched.add(key);
+    }
+
+    public void clear() {
+        values.clear();
+        touched.clear();
+        rangeStart = null;
+        rangeEnd = null;
+        tableName = null;
+        columnName = null;
+        pkColumn = null;
+    }
+
+    protected boolean isFor(Table table, String columnName) {
+        return table.getFullyQualifiedTableName().equals(tableName) && columnName.equals(this.columnName);
+    }
+
+    protected boolean isInRange(String key) {
+        BigDecimal number = rangeStart != null ? toNumber(key) : null;
+        return number != null && number.compareTo(rangeStart) >= 0 && (rangeEnd == null || number.compareTo(rangeEnd) <= 0);
+    }
+
+    protected BigDecimal toNumber(Object value) {
+        if (value != null) {
+            try {
+                return new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+            }
+        }
+        return null;
+    }
+
+    protected String toKey(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (pkColumn != null && pkColumn.isOfNumericType()) {
+            try {
+                return new BigDecimal(value.toString().trim()).stripTrailingZeros().toPlainString();
+            } catch (NumberFormatException e) {
+            }
+        }
+        return value.toString();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getPrefetches() {
+        return prefetches;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("prefetches=%d, hits=%d", prefetches, hits);
+    }
+}
@@ -40,4 +40,6 @@ abstract public class DataWriterStatisticConstants {
     public static final String IGNOREROWCOUNT = "IGNOREROWCOUNT";
     public static final String LINENUMBER = "LINENUMBER";
     public static final String STARTTIME = "STARTTIME";
+    public static final String LOOKUPCACHEHITS = "LOOKUPCACHEHITS";
+    public static final String LOOKUPCACHEMISSES = "LOOKUPCACHEMISSES";
 }
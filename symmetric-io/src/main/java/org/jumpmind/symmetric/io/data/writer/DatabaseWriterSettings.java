@@ -47,6 +47,7 @@ public class DatabaseWriterSettings {
     protected boolean fitToColumn = false;
     protected boolean logConflictResolution = false;
     protected boolean loadOnlyNode = false;
+    protected int conflictPrefetchWindowSize = 0;
     protected String textColumnExpression;
     protected Map<String, Conflict> conflictSettingsByChannel;
     protected Map<String, Conflict> conflictSettingsByTable;
@@ -88,6 +89,14 @@ public class DatabaseWriterSettings {
         this.createTableFailOnError = createTableFailOnError;
     }
 
+    public int getConflictPrefetchWindowSize() {
+        return conflictPrefetchWindowSize;
+    }
+
+    public void setConflictPrefetchWindowSize(int conflictPrefetchWindowSize) {
+        this.conflictPrefetchWindowSize = conflictPrefetchWindowSize;
+    }
+
     public long getMaxRowsBeforeCommit() {
         return maxRowsBeforeCommit;
     }
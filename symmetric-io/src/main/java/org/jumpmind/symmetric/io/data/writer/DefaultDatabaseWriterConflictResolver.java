@@ -22,6 +22,8 @@ package org.jumpmind.symmetric.io.data.writer;
 
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,6 +46,7 @@ import org.jumpmind.db.platform.DatabaseInfo;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.db.sql.DmlStatement;
 import org.jumpmind.db.sql.DmlStatement.DmlType;
+import org.jumpmind.db.sql.ISqlRowMapper;
 import org.jumpmind.db.sql.ISqlTemplate;
 import org.jumpmind.db.sql.ISqlTransaction;
 import org.jumpmind.db.sql.Row;
@@ -61,6 +64,7 @@ import org.slf4j.LoggerFactory;
 
 public class DefaultDatabaseWriterConflictResolver extends AbstractDatabaseWriterConflictResolver {
     private static final Logger log = LoggerFactory.getLogger(DefaultDatabaseWriterConflictResolver.class);
+    protected static final Object UNCONVERTED_VALUE = new Object();
 
     @Override
     protected boolean isTimestampNewer(Conflict conflict, AbstractDatabaseWriter writer, CsvData data) {
@@ -94,8 +98,7 @@ public class DefaultDatabaseWriterConflictResolver extends AbstractDatabaseWrite
                 loadingTs = FormatUtils.parseTimestampWithTimezone(loadingStr, FormatUtils.TIMESTAMP_WITH_TIMEZONE_PATTERNS);
             }
         } else {
-            existingTs = databaseWriter.getTransaction().queryForObject(sql, Timestamp.class,
-                    objectValues);
+            existingTs = queryForExistingValue(databaseWriter, column, sql, Timestamp.class, pkData, objectValues);
             Object[] values = platform.getObjectValues(writer.getBatch().getBinaryEncoding(),
                     new String[] { loadingStr }, new Column[] { column });
             if (values[0] instanceof Date) {
@@ -195,6 +198,99 @@ public class DefaultDatabaseWriterConflictResolver extends AbstractDatabaseWrite
         return isWinner;
     }
 
+    /**
+     * Selects the current value of the conflict detection column for the row. When a prefetch window is configured, the value is served from rows
+     * that were selected in one query starting at the first conflicting row, and a new window is only selected for a row the current one doesn't
+     * cover. A row that was touched after the window was selected is selected one row at a time.
+     */
+    protected <T> T queryForExistingValue(DefaultDatabaseWriter databaseWriter, Column column, String sql, Class<T> clazz, String[] pkData,
+            Object[] objectValues) {
+        Table targetTable = databaseWriter.getTargetTable();
+        int windowSize = databaseWriter.getWriterSettings().getConflictPrefetchWindowSize();
+        if (windowSize > 1 && pkData != null && pkData.length == 1 && databaseWriter.getPlatform().supportsLimitOffset()
+                && !TypeMap.DATETIME2.equalsIgnoreCase(column.getJdbcTypeName()) && ConflictDetectionPrefetch.isSupported(targetTable, column)) {
+            ConflictDetectionPrefetch prefetch = ConflictDetectionPrefetch.get(databaseWriter.getContext(), true);
+            if (!prefetch.contains(targetTable, column.getName(), pkData[0])) {
+                prefetch(databaseWriter, prefetch, column, clazz, objectValues, windowSize);
+            }
+            if (prefetch.contains(targetTable, column.getName(), pkData[0]) && prefetch.isCurrent(pkData[0])) {
+                return clazz.cast(prefetch.take(pkData[0]));
+            }
+        }
+        return databaseWriter.getTransaction().queryForObject(sql, clazz, objectValues);
+    }
+
+    protected void prefetch(DefaultDatabaseWriter databaseWriter, ConflictDetectionPrefetch prefetch, Column column, final Class<?> clazz,
+            Object[] objectValues, int windowSize) {
+        Table targetTable = databaseWriter.getTargetTable();
+        IDatabasePlatform platform = databaseWriter.getPlatform();
+        Column pkColumn = targetTable.getPrimaryKeyColumns()[0];
+        DatabaseInfo dbInfo = platform.getDatabaseInfo();
+        String quote = platform.getDdlBuilder().isDelimitedIdentifierModeOn() ? dbInfo.getDelimiterToken() : "";
+        quote = quote == null ? "" : quote;
+        String quotedPk = quote + pkColumn.getName() + quote;
+        String rangeSql = "select " + quotedPk + ", " + quote + column.getName() + quote + " from "
+                + targetTable.getQualifiedTableName(quote, dbInfo.getCatalogSeparator(), dbInfo.getSchemaSeparator()) + " where " + quotedPk
+                + " >= ? order by " + quotedPk;
+        rangeSql = platform.massageForLimitOffset(rangeSql, windowSize, 0);
+        prefetch.reset(targetTable, column.getName());
+        List<Object[]> rows = databaseWriter.getTransaction().query(rangeSql, new ISqlRowMapper<Object[]>() {
+            public Object[] mapRow(Row row) {
+                return row.values().toArray();
+            }
+        }, objectValues, null);
+        Object lastKey = null;
+        for (Object[] row : rows) {
+            if (row.length == 2) {
+                lastKey = row[0];
+                Object value = toExistingValue(row[1], clazz);
+                if (value != UNCONVERTED_VALUE) {
+                    prefetch.put(row[0], value);
+                } else {
+                    prefetch.skip(row[0]);
+                }
+            }
+        }
+        prefetch.setRange(objectValues[0], lastKey, rows.size() >= windowSize);
+        if (log.isDebugEnabled()) {
+            log.debug("Prefetched {} of {} rows for conflict detection on {} ({})", rows.size(), windowSize,
+                    targetTable.getFullyQualifiedTableName(), prefetch);
+        }
+    }
+
+    /**
+     * Converts a value selected by the window query to what the per-row query would have returned for it, where a null version is read as zero
+     * like ResultSet.getLong() does. A value that can't be converted here is returned as {@link #UNCONVERTED_VALUE}, so its row is selected one row
+     * at a time.
+     */
+    protected Object toExistingValue(Object value, Class<?> clazz) {
+        if (clazz.equals(Timestamp.class)) {
+            if (value == null) {
+                return null;
+            } else if (value instanceof Timestamp) {
+                return value;
+            } else if (value instanceof Date) {
+                return new Timestamp(((Date) value).getTime());
+            } else if (value instanceof LocalDateTime) {
+                return Timestamp.valueOf((LocalDateTime) value);
+            } else if (value instanceof LocalDate) {
+                return Timestamp.valueOf(((LocalDate) value).atStartOfDay());
+            }
+        } else if (clazz.equals(Long.class)) {
+            if (value == null) {
+                return Long.valueOf(0);
+            } else if (value instanceof Number) {
+                return ((Number) value).longValue();
+            } else if (value instanceof String) {
+                try {
+                    return Long.valueOf(((String) value).trim());
+                } catch (NumberFormatException e) {
+                }
+            }
+        }
+        return UNCONVERTED_VALUE;
+    }
+
     protected boolean primaryKeyUpdateAllowed(DynamicDefaultDatabaseWriter databaseWriter, Table targetTable) {
         if (!databaseWriter.getPlatform(targetTable.getName()).getDatabaseInfo().isAutoIncrementUpdateAllowed()) {
             for (Column column : targetTable.getPrimaryKeyColumns()) {
@@ -318,10 +414,11 @@ public class DefaultDatabaseWriterConflictResolver extends AbstractDatabaseWrite
         Object[] objectValues = databaseWriter.getPlatform().getObjectValues(
                 writer.getBatch().getBinaryEncoding(), pkData, targetTable.getPrimaryKeyColumns());
         DmlStatement stmt = databaseWriter.getPlatform().createDmlStatement(DmlType.FROM, targetTable, writer.getWriterSettings().getTextColumnExpression());
-        String sql = stmt.getColumnsSql(new Column[] { targetTable.getColumnWithName(columnName) });
+        Column column = targetTable.getColumnWithName(columnName);
+        String sql = stmt.getColumnsSql(new Column[] { column });
         Long existingVersion = null;
         try {
-            existingVersion = databaseWriter.getTransaction().queryForObject(sql, Long.class, objectValues);
+            existingVersion = queryForExistingValue(databaseWriter, column, sql, Long.class, pkData, objectValues);
         } catch (Exception ex) {
             throw new RuntimeException("Failed to execute conflict resolution SQL: \"" +
                     sql + "\" values: " + Arrays.toString(objectValues), ex);
@@ -22,12 +22,15 @@ package org.jumpmind.symmetric.io.data.writer;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.jumpmind.db.model.Column;
 import org.jumpmind.db.model.Table;
 import org.jumpmind.db.platform.IDatabasePlatform;
 import org.jumpmind.symmetric.io.data.Batch;
@@ -58,6 +61,7 @@ public class TransformWriter extends NestedDataWriter {
     protected Map<String, List<TransformTable>> transformsBySourceTable;
     protected Table sourceTable;
     protected List<TransformTable> activeTransforms;
+    protected Map<DataEventType, List<TransformPlan>> activePlans;
     protected Batch batch;
     protected Map<String, IColumnTransform<?>> columnTransforms;
     protected Table lastTransformedTable;
@@ -107,6 +111,7 @@ public class TransformWriter extends NestedDataWriter {
                         this.sourceTable.getPrimaryKeyColumnNames(),
                         this.sourceTable.getColumnNames()));
             }
+            activePlans = compile(activeTransforms);
             return true;
         } else {
             this.sourceTable = null;
@@ -114,6 +119,75 @@ public class TransformWriter extends NestedDataWriter {
         }
     }
 
+    /**
+     * Compile a plan for each transformation and each event type that can be transformed. The plans for a delete are in reverse order and an
+     * insert is planned as an update for transformations that update first, so a row only has to run the plans listed for its event type.
+     */
+    protected Map<DataEventType, List<TransformPlan>> compile(List<TransformTable> transformations) {
+        Map<DataEventType, List<TransformPlan>> plans = new EnumMap<DataEventType, List<TransformPlan>>(DataEventType.class);
+        for (DataEventType eventType : new DataEventType[] { DataEventType.INSERT, DataEventType.UPDATE, DataEventType.DELETE }) {
+            List<TransformPlan> eventPlans = new ArrayList<TransformPlan>(transformations.size());
+            for (TransformTable transformation : transformations) {
+                DataEventType localEventType = eventType;
+                if (localEventType == DataEventType.INSERT && transformation.isUpdateFirst()) {
+                    localEventType = DataEventType.UPDATE;
+                }
+                eventPlans.add(compile(transformation, localEventType));
+            }
+            if (eventType == DataEventType.DELETE) {
+                Collections.reverse(eventPlans);
+            }
+            plans.put(eventType, eventPlans);
+        }
+        return plans;
+    }
+
+    protected TransformPlan compile(TransformTable transformation, DataEventType eventType) {
+        List<TransformColumn> keyColumns = new ArrayList<TransformColumn>();
+        List<IColumnTransform<?>> keyTransforms = new ArrayList<IColumnTransform<?>>();
+        if (transformation.getPrimaryKeyColumns() != null) {
+            for (TransformColumn transformColumn : transformation.getPrimaryKeyColumns()) {
+                if (isIncluded(transformColumn, eventType)) {
+                    keyColumns.add(transformColumn);
+                    keyTransforms.add(getColumnTransform(transformColumn));
+                }
+            }
+        }
+        List<TransformColumn> columns = new ArrayList<TransformColumn>();
+        List<IColumnTransform<?>> transforms = new ArrayList<IColumnTransform<?>>();
+        for (TransformColumn transformColumn : transformation.getTransformColumns()) {
+            if (!transformColumn.isPk() && isIncluded(transformColumn, eventType)) {
+                columns.add(transformColumn);
+                transforms.add(getColumnTransform(transformColumn));
+            }
+        }
+        return new TransformPlan(transformation, eventType, keyColumns, keyTransforms, columns, transforms);
+    }
+
+    protected TransformPlan getPlan(TransformTable transformation, DataEventType eventType) {
+        if (activePlans != null) {
+            for (List<TransformPlan> plans : activePlans.values()) {
+                for (TransformPlan plan : plans) {
+                    if (plan.transformation == transformation && plan.eventType == eventType) {
+                        return plan;
+                    }
+                }
+            }
+        }
+        return compile(transformation, eventType);
+    }
+
+    protected static boolean isIncluded(TransformColumn transformColumn, DataEventType eventType) {
+        IncludeOnType includeOn = transformColumn.getIncludeOn();
+        return includeOn == IncludeOnType.ALL || (includeOn == IncludeOnType.INSERT && eventType == DataEventType.INSERT)
+                || (includeOn == IncludeOnType.UPDATE && eventType == DataEventType.UPDATE)
+                || (includeOn == IncludeOnType.DELETE && eventType == DataEventType.DELETE);
+    }
+
+    protected IColumnTransform<?> getColumnTransform(TransformColumn transformColumn) {
+        return columnTransforms != null ? columnTransforms.get(transformColumn.getTransformType()) : null;
+    }
+
     protected boolean isTransformable(DataEventType eventType) {
         return eventType != null
                 && (eventType == DataEventType.INSERT || eventType == DataEventType.UPDATE || eventType == DataEventType.DELETE);
@@ -151,20 +225,11 @@ public class TransformWriter extends NestedDataWriter {
                         new Object[] { activeTransforms.size(), eventType.toString(),
                                 this.sourceTable.getFullyQualifiedTableName(), sourceValues });
             }
-            List<TransformTable> transformTables = activeTransforms;
-            if (eventType == DataEventType.DELETE) {
-                transformTables = new ArrayList<TransformTable>(activeTransforms);
-                Collections.reverse(transformTables);
-            }
-            for (TransformTable transformation : transformTables) {
-                DataEventType localEventType = eventType;
-                if (localEventType == DataEventType.INSERT && transformation.isUpdateFirst()) {
-                    localEventType = DataEventType.UPDATE;
-                }
-                List<TransformedData> dataThatHasBeenTransformed = transform(localEventType, context, transformation, sourceKeyValues, oldSourceValues,
+            for (TransformPlan plan : activePlans.get(eventType)) {
+                List<TransformedData> dataThatHasBeenTransformed = transform(context, plan, sourceKeyValues, oldSourceValues,
                         sourceValues);
                 for (TransformedData transformedData : dataThatHasBeenTransformed) {
-                    Table transformedTable = transformedData.buildTargetTable();
+                    Table transformedTable = plan.getTargetTable(transformedData);
                     CsvData csvData = transformedData.buildTargetCsvData();
                     boolean processData = true;
                     if (lastTransformedTable == null || transformedTable == null || !lastTransformedTable.equalsByName(transformedTable)) {
@@ -197,12 +262,17 @@ public class TransformWriter extends NestedDataWriter {
     protected List<TransformedData> transform(DataEventType eventType, DataContext context,
             TransformTable transformation, Map<String, String> sourceKeyValues,
             Map<String, String> oldSourceValues, Map<String, String> sourceValues) {
+        return transform(context, getPlan(transformation, eventType), sourceKeyValues, oldSourceValues, sourceValues);
+    }
+
+    protected List<TransformedData> transform(DataContext context, TransformPlan plan,
+            Map<String, String> sourceKeyValues, Map<String, String> oldSourceValues,
+            Map<String, String> sourceValues) {
+        TransformTable transformation = plan.transformation;
         long ts = System.currentTimeMillis();
         try {
-            List<TransformedData> dataToTransform = create(context, eventType, transformation,
+            List<TransformedData> dataToTransform = create(context, plan,
                     sourceKeyValues, oldSourceValues, sourceValues);
-            List<TransformedData> dataThatHasBeenTransformed = new ArrayList<TransformedData>(
-                    dataToTransform.size());
             if (log.isDebugEnabled()) {
                 log.debug(
                         "{} target data was created for the {} transformation.  The target table is {}",
@@ -210,9 +280,11 @@ public class TransformWriter extends NestedDataWriter {
                                 transformation.getFullyQualifiedTargetTableName() });
             }
             int transformNumber = 0;
-            for (TransformedData targetData : dataToTransform) {
+            Iterator<TransformedData> iterator = dataToTransform.iterator();
+            while (iterator.hasNext()) {
+                TransformedData targetData = iterator.next();
                 transformNumber++;
-                if (perform(context, targetData, transformation, sourceValues, oldSourceValues)) {
+                if (perform(context, targetData, plan, sourceValues, oldSourceValues)) {
                     if (log.isDebugEnabled()) {
                         log.debug(
                                 "Data has been transformed to a {} for the #{} transform.  The mapped target columns are: {}. The mapped target values are: {}",
@@ -221,13 +293,13 @@ public class TransformWriter extends NestedDataWriter {
                                         ArrayUtils.toString(targetData.getColumnNames()),
                                         ArrayUtils.toString(targetData.getColumnValues()) });
                     }
-                    dataThatHasBeenTransformed.add(targetData);
                 } else {
                     log.debug("Data has not been transformed for the #{} transform",
                             transformNumber);
+                    iterator.remove();
                 }
             }
-            return dataThatHasBeenTransformed;
+            return dataToTransform;
         } catch (IgnoreRowException ex) {
             // ignore this row
             if (log.isDebugEnabled()) {
@@ -247,58 +319,54 @@ public class TransformWriter extends NestedDataWriter {
     }
 
     protected boolean perform(DataContext context, TransformedData data,
-            TransformTable transformation, Map<String, String> sourceValues,
+            TransformPlan plan, Map<String, String> sourceValues,
             Map<String, String> oldSourceValues) throws IgnoreRowException {
+        TransformTable transformation = plan.transformation;
         boolean persistData = false;
         try {
             DataEventType eventType = data.getSourceDmlType();
-            for (TransformColumn transformColumn : transformation.getTransformColumns()) {
-                if (!transformColumn.isPk()) {
-                    IncludeOnType includeOn = transformColumn.getIncludeOn();
-                    if (includeOn == IncludeOnType.ALL || (includeOn == IncludeOnType.INSERT && eventType == DataEventType.INSERT)
-                            || (includeOn == IncludeOnType.UPDATE && eventType == DataEventType.UPDATE)
-                            || (includeOn == IncludeOnType.DELETE && eventType == DataEventType.DELETE)) {
-                        if (StringUtils.isBlank(transformColumn.getSourceColumnName())
-                                || sourceValues.containsKey(transformColumn.getSourceColumnName())) {
-                            try {
-                                Object value = transformColumn(context, data, transformColumn, sourceValues, oldSourceValues);
-                                if (value instanceof NewAndOldValue) {
-                                    data.put(transformColumn, ((NewAndOldValue) value).getNewValue(),
-                                            oldSourceValues != null ? ((NewAndOldValue) value).getOldValue() : null, false);
-                                } else if (value == null || value instanceof String) {
-                                    data.put(transformColumn, (String) value, null, false);
-                                } else if (value instanceof List) {
-                                    throw new IllegalStateException(String.format(
-                                            "Column transform failed %s.%s. Transforms that multiply rows must be marked as part of the primary key",
-                                            transformColumn.getTransformId(), transformColumn.getTargetColumnName()));
-                                } else {
-                                    throw new IllegalStateException(
-                                            String.format("Column transform failed %s.%s. It returned an unexpected type of %s",
-                                                    transformColumn.getTransformId(), transformColumn.getTargetColumnName(),
-                                                    value.getClass().getSimpleName()));
-                                }
-                            } catch (IgnoreColumnException e) {
-                                // Do nothing. We are ignoring the column
-                                if (log.isDebugEnabled()) {
-                                    log.debug("A transform indicated we should ignore the target column {}",
-                                            transformColumn.getTargetColumnName());
-                                }
-                            }
+            for (int columnIndex = 0; columnIndex < plan.columns.size(); columnIndex++) {
+                TransformColumn transformColumn = plan.columns.get(columnIndex);
+                if (!plan.sourceColumnRequired[columnIndex]
+                        || sourceValues.containsKey(transformColumn.getSourceColumnName())) {
+                    try {
+                        Object value = transformColumn(context, data, transformColumn, plan.columnTransforms.get(columnIndex),
+                                sourceValues, oldSourceValues);
+                        if (value instanceof NewAndOldValue) {
+                            data.put(transformColumn, ((NewAndOldValue) value).getNewValue(),
+                                    oldSourceValues != null ? ((NewAndOldValue) value).getOldValue() : null, false);
+                        } else if (value == null || value instanceof String) {
+                            data.put(transformColumn, (String) value, null, false);
+                        } else if (value instanceof List) {
+                            throw new IllegalStateException(String.format(
+                                    "Column transform failed %s.%s. Transforms that multiply rows must be marked as part of the primary key",
+                                    transformColumn.getTransformId(), transformColumn.getTargetColumnName()));
                         } else {
-                            if (eventType != DataEventType.DELETE) {
-                                log.warn("Could not find a source column of {} for the transformation: {}",
-                                        transformColumn.getSourceColumnName(), transformation.getTransformId());
-                            } else {
-                                log.debug(
-                                        "Could not find a source column of {} for the transformation: {}.  This is probably because this was a DELETE event and no old data was captured.",
-                                        transformColumn.getSourceColumnName(), transformation.getTransformId());
-                            }
+                            throw new IllegalStateException(
+                                    String.format("Column transform failed %s.%s. It returned an unexpected type of %s",
+                                            transformColumn.getTransformId(), transformColumn.getTargetColumnName(),
+                                            value.getClass().getSimpleName()));
+                        }
+                    } catch (IgnoreColumnException e) {
+                        // Do nothing. We are ignoring the column
+                        if (log.isDebugEnabled()) {
+                            log.debug("A transform indicated we should ignore the target column {}",
+                                    transformColumn.getTargetColumnName());
                         }
                     }
+                } else {
+                    if (eventType != DataEventType.DELETE) {
+                        log.warn("Could not find a source column of {} for the transformation: {}",
+                                transformColumn.getSourceColumnName(), transformation.getTransformId());
+                    } else {
+                        log.debug(
+                                "Could not find a source column of {} for the transformation: {}.  This is probably because this was a DELETE event and no old data was captured.",
+                                transformColumn.getSourceColumnName(), transformation.getTransformId());
+                    }
                 }
             }
             TargetDmlAction targetAction = data.getTargetAction();
-            if (targetAction != null && data.getColumnNames().length > 0 && targetAction != TargetDmlAction.NONE) {
+            if (targetAction != null && data.hasColumnValues() && targetAction != TargetDmlAction.NONE) {
                 persistData = true;
             } else {
                 if (log.isDebugEnabled()) {
@@ -316,21 +384,21 @@ public class TransformWriter extends NestedDataWriter {
         return persistData;
     }
 
-    protected List<TransformedData> create(DataContext context, DataEventType dataEventType,
-            TransformTable transformation, Map<String, String> sourceKeyValues,
-            Map<String, String> oldSourceValues, Map<String, String> sourceValues)
-            throws IgnoreRowException {
+    protected List<TransformedData> create(DataContext context, TransformPlan plan,
+            Map<String, String> sourceKeyValues, Map<String, String> oldSourceValues,
+            Map<String, String> sourceValues) throws IgnoreRowException {
+        TransformTable transformation = plan.transformation;
+        DataEventType dataEventType = plan.eventType;
         List<TransformColumn> columns = transformation.getPrimaryKeyColumns();
         if (columns == null || columns.size() == 0) {
             log.error("No primary key defined for the transformation: {}",
                     transformation.getTransformId());
             return new ArrayList<TransformedData>(0);
         } else {
-            List<TransformedData> datas = new ArrayList<TransformedData>();
+            List<TransformedData> datas = new ArrayList<TransformedData>(1);
             TransformedData data = new TransformedData(transformation, dataEventType,
                     sourceKeyValues, oldSourceValues, sourceValues);
             datas.add(data);
-            DataEventType eventType = data.getSourceDmlType();
             switch (data.getTargetDmlType()) {
                 case INSERT:
                     data.setTargetAction(TargetDmlAction.INS_ROW);
@@ -360,47 +428,42 @@ public class TransformWriter extends NestedDataWriter {
                 default:
                     break;
             }
-            for (TransformColumn transformColumn : columns) {
-                IncludeOnType includeOn = transformColumn.getIncludeOn();
-                if (includeOn == IncludeOnType.ALL
-                        || (includeOn == IncludeOnType.INSERT && eventType == DataEventType.INSERT)
-                        || (includeOn == IncludeOnType.UPDATE && eventType == DataEventType.UPDATE)
-                        || (includeOn == IncludeOnType.DELETE && eventType == DataEventType.DELETE)) {
-                    List<TransformedData> newDatas = null;
-                    try {
-                        Object columnValue = transformColumn(context, data, transformColumn,
-                                sourceValues, oldSourceValues);
-                        if (columnValue instanceof List) {
-                            @SuppressWarnings("unchecked")
-                            List<String> values = (List<String>) columnValue;
-                            if (values.size() > 0) {
-                                data.put(transformColumn, values.get(0), oldSourceValues != null ? values.get(0) : null, true);
-                                if (values.size() > 1) {
-                                    if (newDatas == null) {
-                                        newDatas = new ArrayList<TransformedData>(values.size() - 1);
-                                    }
-                                    for (int i = 1; i < values.size(); i++) {
-                                        TransformedData newData = data.copy();
-                                        newData.put(transformColumn, values.get(i), oldSourceValues != null ? values.get(i) : null, true);
-                                        newDatas.add(newData);
-                                    }
+            for (int columnIndex = 0; columnIndex < plan.keyColumns.size(); columnIndex++) {
+                TransformColumn transformColumn = plan.keyColumns.get(columnIndex);
+                List<TransformedData> newDatas = null;
+                try {
+                    Object columnValue = transformColumn(context, data, transformColumn, plan.keyTransforms.get(columnIndex),
+                            sourceValues, oldSourceValues);
+                    if (columnValue instanceof List) {
+                        @SuppressWarnings("unchecked")
+                        List<String> values = (List<String>) columnValue;
+                        if (values.size() > 0) {
+                            data.put(transformColumn, values.get(0), oldSourceValues != null ? values.get(0) : null, true);
+                            if (values.size() > 1) {
+                                if (newDatas == null) {
+                                    newDatas = new ArrayList<TransformedData>(values.size() - 1);
+                                }
+                                for (int i = 1; i < values.size(); i++) {
+                                    TransformedData newData = data.copy();
+                                    newData.put(transformColumn, values.get(i), oldSourceValues != null ? values.get(i) : null, true);
+                                    newDatas.add(newData);
                                 }
-                            } else {
-                                throw new IgnoreRowException();
                             }
-                        } else if (columnValue instanceof NewAndOldValue) {
-                            data.put(transformColumn, ((NewAndOldValue) columnValue).getNewValue(),
-                                    oldSourceValues != null ? ((NewAndOldValue) columnValue).getOldValue() : null, true);
                         } else {
-                            data.put(transformColumn, (String) columnValue, oldSourceValues != null ? (String) columnValue : null, true);
+                            throw new IgnoreRowException();
                         }
-                    } catch (IgnoreColumnException e) {
-                        // Do nothing. We are suppose to ignore the column.
-                    }
-                    if (newDatas != null) {
-                        datas.addAll(newDatas);
-                        newDatas = null;
+                    } else if (columnValue instanceof NewAndOldValue) {
+                        data.put(transformColumn, ((NewAndOldValue) columnValue).getNewValue(),
+                                oldSourceValues != null ? ((NewAndOldValue) columnValue).getOldValue() : null, true);
+                    } else {
+                        data.put(transformColumn, (String) columnValue, oldSourceValues != null ? (String) columnValue : null, true);
                     }
+                } catch (IgnoreColumnException e) {
+                    // Do nothing. We are suppose to ignore the column.
+                }
+                if (newDatas != null) {
+                    datas.addAll(newDatas);
+                    newDatas = null;
                 }
             }
             return datas;
@@ -410,12 +473,16 @@ public class TransformWriter extends NestedDataWriter {
     protected Object transformColumn(DataContext context, TransformedData data,
             TransformColumn transformColumn, Map<String, String> sourceValues,
             Map<String, String> oldSourceValues) throws IgnoreRowException, IgnoreColumnException {
+        return transformColumn(context, data, transformColumn, getColumnTransform(transformColumn), sourceValues, oldSourceValues);
+    }
+
+    protected Object transformColumn(DataContext context, TransformedData data,
+            TransformColumn transformColumn, IColumnTransform<?> transform, Map<String, String> sourceValues,
+            Map<String, String> oldSourceValues) throws IgnoreRowException, IgnoreColumnException {
         Object returnValue = null;
         String value = transformColumn.getSourceColumnName() != null ? sourceValues
                 .get(transformColumn.getSourceColumnName()) : null;
         returnValue = value;
-        IColumnTransform<?> transform = columnTransforms != null ? columnTransforms
-                .get(transformColumn.getTransformType()) : null;
         if (transform != null) {
             try {
                 String oldValue = null;
@@ -451,8 +518,68 @@ public class TransformWriter extends NestedDataWriter {
         }
         if (activeTransforms != null && activeTransforms.size() > 0) {
             activeTransforms = null;
+            activePlans = null;
         } else {
             super.end(table);
         }
     }
+
+    /**
+     * The key and column transforms of a transformation that are included for one source event type, with the column transform for each one
+     * already looked up. It keeps the last target table it built so rows that map to the same target columns share one table.
+     */
+    protected static class TransformPlan {
+        protected final TransformTable transformation;
+        protected final DataEventType eventType;
+        protected final List<TransformColumn> keyColumns;
+        protected final List<IColumnTransform<?>> keyTransforms;
+        protected final List<TransformColumn> columns;
+        protected final List<IColumnTransform<?>> columnTransforms;
+        protected final boolean[] sourceColumnRequired;
+        protected Table targetTable;
+
+        public TransformPlan(TransformTable transformation, DataEventType eventType, List<TransformColumn> keyColumns,
+                List<IColumnTransform<?>> keyTransforms, List<TransformColumn> columns, List<IColumnTransform<?>> columnTransforms) {
+            this.transformation = transformation;
+            this.eventType = eventType;
+            this.keyColumns = keyColumns;
+            this.keyTransforms = keyTransforms;
+            this.columns = columns;
+            this.columnTransforms = columnTransforms;
+            this.sourceColumnRequired = new boolean[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                sourceColumnRequired[i] = StringUtils.isNotBlank(columns.get(i).getSourceColumnName());
+            }
+        }
+
+        public TransformTable getTransformation() {
+            return transformation;
+        }
+
+        public DataEventType getEventType() {
+            return eventType;
+        }
+
+        public Table getTargetTable(TransformedData data) {
+            String[] columnNames = data.getColumnNames();
+            String[] keyNames = data.getKeyNames();
+            if (targetTable == null || !isTargetTable(columnNames, keyNames)) {
+                targetTable = data.buildTargetTable(columnNames, keyNames);
+            }
+            return targetTable;
+        }
+
+        protected boolean isTargetTable(String[] columnNames, String[] keyNames) {
+            if (targetTable.getColumnCount() != columnNames.length) {
+                return false;
+            }
+            for (int i = 0; i < columnNames.length; i++) {
+                Column column = targetTable.getColumn(i);
+                if (!column.getName().equals(columnNames[i]) || column.isPrimaryKey() != ArrayUtils.contains(keyNames, columnNames[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
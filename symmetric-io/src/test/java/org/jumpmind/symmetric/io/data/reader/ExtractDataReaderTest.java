@@ -0,0 +1,182 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.DatabaseInfo;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.IDdlBuilder;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.Row;
+import org.jumpmind.db.util.BinaryEncoding;
+import org.jumpmind.symmetric.io.data.Batch;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataContext;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class ExtractDataReaderTest {
+    IDatabasePlatform platform;
+    ISqlTemplate sqlTemplate;
+    Table table1;
+    Table table2;
+
+    @BeforeEach
+    public void setUp() {
+        table1 = createTable("table1");
+        table2 = createTable("table2");
+        sqlTemplate = mock(ISqlTemplate.class);
+        platform = mock(IDatabasePlatform.class);
+        when(platform.getSqlTemplate()).thenReturn(sqlTemplate);
+        when(platform.getDatabaseInfo()).thenReturn(new DatabaseInfo());
+        when(platform.getDdlBuilder()).thenReturn(mock(IDdlBuilder.class));
+        when(platform.isBlob(anyInt())).thenReturn(false);
+        when(platform.getLobColumns(any(Table.class))).thenAnswer(new Answer<List<Column>>() {
+            public List<Column> answer(InvocationOnMock invocation) throws Throwable {
+                return Arrays.asList(((Table) invocation.getArguments()[0]).getColumnWithName("content"));
+            }
+        });
+        when(platform.getObjectValues(any(BinaryEncoding.class), any(String[].class), any(Column[].class)))
+                .thenAnswer(new Answer<Object[]>() {
+                    public Object[] answer(InvocationOnMock invocation) throws Throwable {
+                        return (Object[]) invocation.getArguments()[1];
+                    }
+                });
+    }
+
+    @Test
+    public void testLobsSelectedForManyRows() {
+        when(sqlTemplate.query(anyString(), any(Object[].class))).thenReturn(Arrays.asList(createRow(2, "two"), createRow(1, "one")));
+        ExtractDataReader reader = createReader(10, new Object[][] { { table1, "1" }, { table1, "2" }, { table1, "3" } });
+        assertEquals(table1, reader.nextTable());
+        assertEquals("one", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertEquals("two", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertEquals("\b", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertNull(reader.nextData());
+        verify(sqlTemplate, times(1)).query("select content,id from table1 where id in (?,?,?)", new Object[] { "1", "2", "3" });
+        verify(sqlTemplate, times(1)).queryForRow("select content from table1 where id=?", new Object[] { "3" });
+    }
+
+    @Test
+    public void testReadAheadStopsAtTableChange() {
+        when(sqlTemplate.query(anyString(), any(Object[].class))).thenReturn(Arrays.asList(createRow(1, "one"), createRow(2, "two")));
+        when(sqlTemplate.queryForRow("select content from table2 where id=?", "3")).thenReturn(createRow(3, "three"));
+        ExtractDataReader reader = createReader(10, new Object[][] { { table1, "1" }, { table1, "2" }, { table2, "3" } });
+        assertEquals(table1, reader.nextTable());
+        assertEquals("one", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertEquals("two", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertNull(reader.nextData());
+        assertEquals(table2, reader.nextTable());
+        assertEquals("three", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertNull(reader.nextData());
+        verify(sqlTemplate, times(1)).query(anyString(), any(Object[].class));
+        verify(sqlTemplate, times(1)).queryForRow("select content from table2 where id=?", new Object[] { "3" });
+    }
+
+    @Test
+    public void testLobsSelectedOneRowAtATime() {
+        when(sqlTemplate.queryForRow("select content from table1 where id=?", "1")).thenReturn(createRow(1, "one"));
+        ExtractDataReader reader = createReader(1, new Object[][] { { table1, "1" }, { table1, "1" } });
+        assertEquals(table1, reader.nextTable());
+        assertEquals("one", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertEquals("one", reader.nextData().getParsedData(CsvData.ROW_DATA)[1]);
+        assertNull(reader.nextData());
+        verify(sqlTemplate, never()).query(anyString(), any(Object[].class));
+        verify(sqlTemplate, times(2)).queryForRow("select content from table1 where id=?", "1");
+    }
+
+    protected ExtractDataReader createReader(int lobFetchSize, Object[][] rows) {
+        ExtractDataReader reader = new ExtractDataReader(platform, new ListSource(rows));
+        reader.setLobFetchSize(lobFetchSize);
+        reader.open(new DataContext());
+        reader.nextBatch();
+        return reader;
+    }
+
+    protected static Table createTable(String name) {
+        return new Table(name, new Column("id", true, Types.INTEGER, 0, 0), new Column("content", false, Types.CLOB, 0, 0));
+    }
+
+    protected static Row createRow(int id, String content) {
+        Row row = new Row(2);
+        row.put("content", content);
+        row.put("id", id);
+        return row;
+    }
+
+    static class ListSource implements IExtractDataReaderSource {
+        Batch batch = new Batch(Batch.BatchType.EXTRACT, 1, "default", BinaryEncoding.BASE64, "00000", "00001", false);
+        List<Object[]> rows;
+        Table table;
+
+        ListSource(Object[][] rows) {
+            this.rows = new ArrayList<Object[]>(Arrays.asList(rows));
+        }
+
+        public Batch getBatch() {
+            return batch;
+        }
+
+        public Table getTargetTable() {
+            return table;
+        }
+
+        public Table getSourceTable() {
+            return table;
+        }
+
+        public CsvData next() {
+            if (rows.size() > 0) {
+                Object[] row = rows.remove(0);
+                table = (Table) row[0];
+                return new CsvData(DataEventType.INSERT, new String[] { (String) row[1], "\b" });
+            }
+            return null;
+        }
+
+        public boolean requiresLobsSelectedFromSource(CsvData data) {
+            return true;
+        }
+
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.symmetric.io.data.writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Types;
+
+import org.jumpmind.db.model.Column;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.symmetric.io.data.CsvData;
+import org.jumpmind.symmetric.io.data.DataEventType;
+import org.junit.jupiter.api.Test;
+
+public class ConflictDetectionPrefetchTest {
+
+    @Test
+    public void testKeysInsideFullWindowAreKnown() {
+        Table table = createTable(Types.INTEGER);
+        ConflictDetectionPrefetch prefetch = new ConflictDetectionPrefetch();
+        prefetch.reset(table, "VERSION");
+        prefetch.put(10, 1L);
+        prefetch.put(12, 2L);
+        prefetch.setRange(10, 12, true);
+        assertTrue(prefetch.contains(table, "VERSION", "10"));
+        // 11 was not selected, so it doesn't exist
+        assertTrue(prefetch.contains(table, "VERSION", "11"));
+        assertTrue(prefetch.isCurrent("11"));
+        assertNull(prefetch.take("11"));
+        assertFalse(prefetch.contains(table, "VERSION", "9"));
+        assertFalse(prefetch.contains(table, "VERSION", "13"));
+        assertFalse(prefetch.contains(table, "OTHER", "10"));
+    }
+
+    @Test
+    public void testPartialWindowCoversEveryLaterKey() {
+        Table table = createTable(Types.BIGINT);
+        ConflictDetectionPrefetch prefetch = new ConflictDetectionPrefetch();
+        prefetch.reset(table, "VERSION");
+        prefetch.put(10, 1L);
+        prefetch.setRange(10, 10, false);
+        assertTrue(prefetch.contains(table, "VERSION", "1000"));
+        assertFalse(prefetch.contains(table, "VERSION", "5"));
+    }
+
+    @Test
+    public void testTouchedRowIsNotServed() {
+        Table table = createTable(Types.INTEGER);
+        ConflictDetectionPrefetch prefetch = new ConflictDetectionPrefetch();
+        prefetch.reset(table, "VERSION");
+        prefetch.put(10, 1L);
+        prefetch.put(20, 2L);
+        prefetch.setRange(10, 20, true);
+        assertEquals(1L, prefetch.take("10"));
+        prefetch.invalidate(table, table, new CsvData(DataEventType.INSERT, new String[] { "15", "3" }));
+        // still covered by the window, so no new window is selected, but the value has to be selected again
+        assertTrue(prefetch.contains(table, "VERSION", "10"));
+        assertFalse(prefetch.isCurrent("10"));
+        assertTrue(prefetch.contains(table, "VERSION", "15"));
+        assertFalse(prefetch.isCurrent("15"));
+        assertTrue(prefetch.isCurrent("20"));
+    }
+
+    @Test
+    public void testTextKeyHasNoRange() {
+        Table table = createTable(Types.VARCHAR);
+        ConflictDetectionPrefetch prefetch = new ConflictDetectionPrefetch();
+        prefetch.reset(table, "VERSION");
+        prefetch.put("a", 1L);
+        prefetch.put("c", 2L);
+        prefetch.setRange("a", "c", true);
+        assertTrue(prefetch.contains(table, "VERSION", "a"));
+        assertFalse(prefetch.contains(table, "VERSION", "b"));
+    }
+
+    protected Table createTable(int pkType) {
+        Table table = new Table("PREFETCH_TEST");
+        table.addColumn(new Column("ID", true, pkType, 20, 0));
+        table.addColumn(new Column("VERSION", false, Types.BIGINT, 20, 0));
+        return table;
+    }
+}
@@ -102,6 +102,81 @@ public class DatabaseWriterTest extends AbstractWriterTest {
         writeData(data, updateShouldBeApplied);
     }
 
+    @Test
+    public void testUpdateDetectTimestampNewerWinsWithPrefetch() {
+        Conflict setting = new Conflict();
+        setting.setConflictId("unit.test");
+        setting.setDetectType(DetectConflict.USE_TIMESTAMP);
+        setting.setDetectExpression("time_value");
+        setting.setResolveRowOnly(true);
+        setting.setResolveChangesOnly(true);
+        setting.setResolveType(ResolveConflict.NEWER_WINS);
+        writerSettings.setDefaultConflictSetting(setting);
+        writerSettings.setConflictPrefetchWindowSize(10);
+        String[][] originalValues = new String[4][];
+        for (int i = 0; i < originalValues.length; i++) {
+            originalValues[i] = massageExpectectedResultsForDialect(new String[] { getNextId(), "string2",
+                    "string not null2", "char2", "char not null2", "2007-01-02 03:20:10.000",
+                    "2012-03-12 07:00:00.000", "0", "47", "67.89", "-0.0747663" });
+            writeData(new CsvData(DataEventType.INSERT, originalValues[i]), originalValues[i]);
+        }
+        String[] olderFirst = copyWithTime(originalValues[0], "older first", "2012-03-12 06:00:00.000");
+        String[] newerSecond = copyWithTime(originalValues[1], "newer second", "2012-03-12 08:00:00.000");
+        String[] olderThanNewerSecond = copyWithTime(originalValues[1], "older than newer second", "2012-03-12 07:30:00.000");
+        String[] olderThird = copyWithTime(originalValues[2], "older third", "2012-03-12 06:00:00.000");
+        String[] newerFourth = copyWithTime(originalValues[3], "newer fourth", "2012-03-12 08:00:00.000");
+        // the second row is changed without a conflict after the window was prefetched, so its newer time must be used afterwards
+        writeData(new CsvData(DataEventType.UPDATE, olderFirst), new CsvData(DataEventType.UPDATE, newerSecond, originalValues[1], null),
+                new CsvData(DataEventType.UPDATE, olderThird), new CsvData(DataEventType.UPDATE, olderThanNewerSecond),
+                new CsvData(DataEventType.UPDATE, newerFourth));
+        assertTestTableEquals(originalValues[0][0], originalValues[0]);
+        assertTestTableEquals(originalValues[1][0], newerSecond);
+        assertTestTableEquals(originalValues[2][0], originalValues[2]);
+        assertTestTableEquals(originalValues[3][0], newerFourth);
+    }
+
+    @Test
+    public void testUpdateDetectTextVersionNewerWinsWithPrefetch() {
+        Conflict setting = new Conflict();
+        setting.setConflictId("unit.test");
+        setting.setDetectType(DetectConflict.USE_VERSION);
+        setting.setDetectExpression("string_value");
+        setting.setResolveRowOnly(true);
+        setting.setResolveChangesOnly(false);
+        setting.setResolveType(ResolveConflict.NEWER_WINS);
+        writerSettings.setDefaultConflictSetting(setting);
+        writerSettings.setConflictPrefetchWindowSize(10);
+        String[][] originalValues = new String[3][];
+        for (int i = 0; i < originalValues.length; i++) {
+            originalValues[i] = massageExpectectedResultsForDialect(new String[] { getNextId(), "5",
+                    "string not null2", "char2", "char not null2", "2007-01-02 03:20:10.000",
+                    "2012-03-12 07:00:00.000", "0", "47", "67.89", "-0.0747663" });
+            writeData(new CsvData(DataEventType.INSERT, originalValues[i]), originalValues[i]);
+        }
+        String[] olderFirst = copyWithVersion(originalValues[0], "older first", "4");
+        String[] newerSecond = copyWithVersion(originalValues[1], "newer second", "6");
+        String[] olderThird = copyWithVersion(originalValues[2], "older third", "3");
+        writeData(new CsvData(DataEventType.UPDATE, olderFirst), new CsvData(DataEventType.UPDATE, newerSecond),
+                new CsvData(DataEventType.UPDATE, olderThird));
+        assertTestTableEquals(originalValues[0][0], originalValues[0]);
+        assertTestTableEquals(originalValues[1][0], newerSecond);
+        assertTestTableEquals(originalValues[2][0], originalValues[2]);
+    }
+
+    private String[] copyWithVersion(String[] values, String text, String version) {
+        String[] copy = CollectionUtils.copyOfRange(values, 0, values.length);
+        copy[1] = version;
+        copy[2] = text;
+        return massageExpectectedResultsForDialect(copy);
+    }
+
+    private String[] copyWithTime(String[] values, String text, String time) {
+        String[] copy = CollectionUtils.copyOfRange(values, 0, values.length);
+        copy[2] = text;
+        copy[6] = time;
+        return massageExpectectedResultsForDialect(copy);
+    }
+
     @Test
     public void testInsertDetectTimestampNewerWins() {
         Conflict setting = new Conflict();
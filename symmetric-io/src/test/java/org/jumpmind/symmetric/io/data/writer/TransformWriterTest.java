@@ -118,6 +118,24 @@ public class TransformWriterTest extends AbstractWriterTest {
         Assert.assertEquals("1", pkData[0]);
     }
 
+    @Test
+    public void testIncludeOnColumnsByEventType() throws Exception {
+        mockWriter.reset();
+        Table table = new Table("s5", new Column("id"), new Column("name"));
+        writeData(getTransformWriter(), new TableCsvData(table,
+                new CsvData(DataEventType.INSERT, new String[] { "1", "a" }),
+                new CsvData(DataEventType.UPDATE, new String[] { "2" }, new String[] { "2", "b" }),
+                new CsvData(DataEventType.INSERT, new String[] { "3", "c" })));
+        List<CsvData> datas = mockWriter.writtenDatas.get("t5");
+        Assert.assertEquals(3, datas.size());
+        Assert.assertEquals(DataEventType.INSERT, datas.get(0).getDataEventType());
+        Assert.assertArrayEquals(new String[] { "1", "a", "inserted" }, datas.get(0).getParsedData(CsvData.ROW_DATA));
+        Assert.assertEquals(DataEventType.UPDATE, datas.get(1).getDataEventType());
+        Assert.assertArrayEquals(new String[] { "2", "b", "updated" }, datas.get(1).getParsedData(CsvData.ROW_DATA));
+        Assert.assertEquals(DataEventType.INSERT, datas.get(2).getDataEventType());
+        Assert.assertArrayEquals(new String[] { "3", "c", "inserted" }, datas.get(2).getParsedData(CsvData.ROW_DATA));
+    }
+
     @Test
     public void testSimpleTableBeanShellMapping() throws Exception {
     }
@@ -141,12 +159,19 @@ public class TransformWriterTest extends AbstractWriterTest {
         transformTable3.setUpdateAction("switch (id) { case \"1\": return \"INS_ROW\"; case \"2\": "
                 + "return \"DEL_ROW\"; case \"3\": return \"UPD_ROW\"; case \"4\": return \"NONE\"; case \"5\": "
                 + "return \"UPDATE_COL\"; }");
+        TransformColumn insertColumn = new TransformColumn(null, "ins", false, "const", "inserted");
+        insertColumn.setIncludeOn(TransformColumn.IncludeOnType.INSERT);
+        TransformColumn updateColumn = new TransformColumn(null, "upd", false, "const", "updated");
+        updateColumn.setIncludeOn(TransformColumn.IncludeOnType.UPDATE);
+        TransformTable transformTable5 = new TransformTable("s5", "t5", TransformPoint.LOAD, new TransformColumn("id", "id", true),
+                new TransformColumn("name", "name", false), insertColumn, updateColumn);
         return new TransformWriter(platform, TransformPoint.LOAD, mockWriter, buildDefaultColumnTransforms(), new TransformTable[] {
                 new TransformTable("s1", "t1", TransformPoint.LOAD, new TransformColumn("id", "id", true)),
                 new TransformTable("s2", "t2", TransformPoint.LOAD, new TransformColumn("id", "id", true),
                         new TransformColumn(null, "col2", false, "const", "added")),
                 transformTable3,
-                transformTable4
+                transformTable4,
+                transformTable5
         });
     }
 
@@ -124,6 +124,13 @@ public abstract class AbstractJdbcDdlReader implements IDdlReader {
     /* The table types to recognize per default. */
     private String[] _defaultTableTypes = { "TABLE" };
 
+    /*
+     * The prefetched metadata is only seen by the thread that prefetched it and the threads it starts while the prefetch is in place, like the
+     * sync triggers workers. Other threads that share this reader, like the data loader after it alters a table, always read from the database.
+     */
+    protected final InheritableThreadLocal<Map<String, MetaDataPrefetch>> metaDataPrefetches =
+            new InheritableThreadLocal<Map<String, MetaDataPrefetch>>();
+
     public AbstractJdbcDdlReader(IDatabasePlatform platform) {
         this.platform = platform;
         _defaultSizes.put(Integer.valueOf(Types.CHAR), "254");
@@ -527,6 +534,78 @@ public abstract class AbstractJdbcDdlReader implements IDdlReader {
         }
     }
 
+    /*
+     * Reads the table and column metadata for a whole catalog and schema with one call per type, so that following calls to readTable for that
+     * catalog and schema are served without a round trip per table for those. Primary keys, foreign keys and indexes are still read per table,
+     * because the drivers only return them for a named table. Tables that were not found in the prefetched rows are still read from the
+     * database. The prefetch is only visible to the calling thread and the threads it starts.
+     */
+    @Override
+    public void prefetchTables(final String catalog, final String schema) {
+        if (isBlank(catalog) && isBlank(schema)) {
+            return;
+        }
+        long ts = System.currentTimeMillis();
+        JdbcSqlTemplate sqlTemplate = (JdbcSqlTemplate) platform.getSqlTemplateDirty();
+        MetaDataPrefetch prefetch = sqlTemplate.execute(new IConnectionCallback<MetaDataPrefetch>() {
+            public MetaDataPrefetch execute(Connection connection) throws SQLException {
+                DatabaseMetaDataWrapper metaData = new DatabaseMetaDataWrapper();
+                metaData.setMetaData(connection.getMetaData());
+                if (isNotBlank(catalog)) {
+                    metaData.setCatalog(catalog);
+                }
+                if (isNotBlank(schema)) {
+                    metaData.setSchemaPattern(schema);
+                }
+                metaData.setTableTypes(null);
+                MetaDataPrefetch prefetch = new MetaDataPrefetch(metaData.getCatalog(), metaData.getSchemaPattern(),
+                        metaData.getMetaData().getSearchStringEscape());
+                prefetch(prefetch, MetaDataPrefetch.TABLES, "TABLE_NAME", metaData.getTables(getDefaultTablePattern()), initColumnsForTable());
+                prefetch(prefetch, MetaDataPrefetch.COLUMNS, "TABLE_NAME", metaData.getColumns(getDefaultTablePattern(),
+                        getDefaultColumnPattern()), getColumnsForColumn());
+                return prefetch;
+            }
+        });
+        Map<String, MetaDataPrefetch> current = metaDataPrefetches.get();
+        Map<String, MetaDataPrefetch> prefetches = current == null ? new HashMap<String, MetaDataPrefetch>()
+                : new HashMap<String, MetaDataPrefetch>(current);
+        prefetches.put(prefetch.getKey(), prefetch);
+        metaDataPrefetches.set(prefetches);
+        log.debug("Prefetched table metadata for {}.{} in {} ms", catalog, schema, System.currentTimeMillis() - ts);
+    }
+
+    protected void prefetch(MetaDataPrefetch prefetch, String type, String tableNameColumn, ResultSet rs,
+            List<MetaDataColumnDescriptor> columnDescriptors) throws SQLException {
+        try {
+            while (rs.next()) {
+                Map<String, Object> values = readMetaData(rs, columnDescriptors);
+                prefetch.add(type, (String) values.get(getName(tableNameColumn)), values);
+            }
+            prefetch.setPrefetched(type);
+        } finally {
+            close(rs);
+        }
+    }
+
+    @Override
+    public void clearPrefetchedTables() {
+        metaDataPrefetches.remove();
+    }
+
+    protected List<Map<String, Object>> getPrefetched(DatabaseMetaDataWrapper metaData, String type, String tableNamePattern,
+            String tableNameColumn) {
+        MetaDataPrefetch prefetch = getPrefetch(metaData);
+        if (prefetch != null && tableNamePattern != null) {
+            return prefetch.get(type, tableNamePattern, getName(tableNameColumn));
+        }
+        return null;
+    }
+
+    protected MetaDataPrefetch getPrefetch(DatabaseMetaDataWrapper metaData) {
+        Map<String, MetaDataPrefetch> prefetches = metaDataPrefetches.get();
+        return prefetches == null ? null : prefetches.get(MetaDataPrefetch.getKey(metaData.getCatalog(), metaData.getSchemaPattern()));
+    }
+
     @Override
     public Table readTable(final String catalog, final String schema, final String table) {
         try {
@@ -543,6 +622,11 @@ public abstract class AbstractJdbcDdlReader implements IDdlReader {
                         metaData.setSchemaPattern(schema);
                     }
                     metaData.setTableTypes(null);
+                    List<Map<String, Object>> prefetched = getPrefetched(metaData, MetaDataPrefetch.TABLES, getTableNamePattern(table),
+                            "TABLE_NAME");
+                    if (prefetched != null) {
+                        return readTable(connection, metaData, new HashMap<String, Object>(prefetched.get(0)));
+                    }
                     ResultSet tableData = null;
                     try {
                         log.debug("getting table metadata for {}", table);
@@ -837,20 +921,22 @@ public abstract class AbstractJdbcDdlReader implements IDdlReader {
      */
     protected Collection<Column> readColumns(DatabaseMetaDataWrapper metaData, String tableName)
             throws SQLException {
+        Set<String> columnNames = new HashSet<String>();
+        List<Column> columns = new ArrayList<Column>();
+        List<Map<String, Object>> prefetched = getPrefetched(metaData, MetaDataPrefetch.COLUMNS, getTableNamePattern(tableName), "TABLE_NAME");
+        if (prefetched != null) {
+            for (Map<String, Object> values : prefetched) {
+                readColumn(metaData, new HashMap<String, Object>(values), columnNames, columns);
+            }
+            return columns;
+        }
         ResultSet columnData = null;
         try {
-            Set<String> columnNames = new HashSet<String>();
             columnData = metaData.getColumns(getTableNamePattern(tableName),
                     getDefaultColumnPattern());
-            List<Column> columns = new ArrayList<Column>();
             while (columnData.next()) {
                 Map<String, Object> values = readMetaData(columnData, getColumnsForColumn());
-                Column column = readColumn(metaData, values);
-                if (!columnNames.contains(column.getName())) {
-                    columnNames.add(column.getName());
-                    columns.add(column);
-                }
-                genericizeDefaultValuesAndUpdatePlatformColumn(column);
+                readColumn(metaData, values, columnNames, columns);
             }
             return columns;
         } finally {
@@ -858,6 +944,16 @@ public abstract class AbstractJdbcDdlReader implements IDdlReader {
         }
     }
 
+    private void readColumn(DatabaseMetaDataWrapper metaData, Map<String, Object> values, Set<String> columnNames,
+            List<Column> columns) throws SQLException {
+        Column column = readColumn(metaData, values);
+        if (!columnNames.contains(column.getName())) {
+            columnNames.add(column.getName());
+            columns.add(column);
+        }
+        genericizeDefaultValuesAndUpdatePlatformColumn(column);
+    }
+
     protected void genericizeDefaultValuesAndUpdatePlatformColumn(Column column) {
         PlatformColumn platformColumn = column.findPlatformColumn(platform.getName());
         platformColumn.setDefaultValue(column.getDefaultValue());
@@ -0,0 +1,204 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.platform;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Database metadata rows that were read for a whole catalog and schema at once, grouped by type and table name. Rows are kept in the order the
+ * driver returned them and are handed out by the same table name pattern the per-table metadata calls use, so a table that is built from them
+ * is the same as one built from the per-table calls.
+ */
+public class MetaDataPrefetch {
+
+    public static final String TABLES = "tables";
+    public static final String COLUMNS = "columns";
+
+    private final String catalog;
+    private final String schemaPattern;
+    private final String searchStringEscape;
+    private final Map<String, List<Map<String, Object>>> rowsByType = new HashMap<String, List<Map<String, Object>>>();
+    private final Map<String, Map<String, List<Map<String, Object>>>> rowsByTypeAndTable = new HashMap<String, Map<String, List<Map<String, Object>>>>();
+
+    public MetaDataPrefetch(String catalog, String schemaPattern, String searchStringEscape) {
+        this.catalog = catalog;
+        this.schemaPattern = schemaPattern;
+        this.searchStringEscape = StringUtils.isEmpty(searchStringEscape) ? null : searchStringEscape;
+    }
+
+    public void add(String type, String tableName, Map<String, Object> values) {
+        List<Map<String, Object>> rows = rowsByType.get(type);
+        Map<String, List<Map<String, Object>>> rowsByTable = rowsByTypeAndTable.get(type);
+        if (rows == null) {
+            rows = new ArrayList<Map<String, Object>>();
+            rowsByType.put(type, rows);
+            rowsByTable = new HashMap<String, List<Map<String, Object>>>();
+            rowsByTypeAndTable.put(type, rowsByTable);
+        }
+        rows.add(values);
+        if (tableName != null) {
+            List<Map<String, Object>> tableRows = rowsByTable.get(tableName);
+            if (tableRows == null) {
+                tableRows = new ArrayList<Map<String, Object>>();
+                rowsByTable.put(tableName, tableRows);
+            }
+            tableRows.add(values);
+        }
+    }
+
+    /**
+     * Marks a type as read even when the schema has no rows for it.
+     */
+    public void setPrefetched(String type) {
+        if (!rowsByType.containsKey(type)) {
+            rowsByType.put(type, new ArrayList<Map<String, Object>>());
+            rowsByTypeAndTable.put(type, new HashMap<String, List<Map<String, Object>>>());
+        }
+    }
+
+    public String getKey() {
+        return getKey(catalog, schemaPattern);
+    }
+
+    public static String getKey(String catalog, String schemaPattern) {
+        return catalog + "." + schemaPattern;
+    }
+
+    /**
+     * @return the rows for the tables that match the pattern, or null if the type was not prefetched or no table matched, in which case the
+     *         caller should ask the database
+     */
+    public List<Map<String, Object>> get(String type, String tableNamePattern, String tableNameKey) {
+        List<Map<String, Object>> rows = rowsByType.get(type);
+        if (rows == null) {
+            return null;
+        } else if (tableNamePattern == null) {
+            return rows;
+        } else if (!isPattern(tableNamePattern)) {
+            return getExact(type, unescape(tableNamePattern));
+        } else {
+            List<Map<String, Object>> matches = new ArrayList<Map<String, Object>>();
+            for (Map<String, Object> values : rows) {
+                if (matches(tableNamePattern, 0, (String) values.get(tableNameKey), 0)) {
+                    matches.add(values);
+                }
+            }
+            return matches.size() > 0 ? matches : null;
+        }
+    }
+
+    /**
+     * @return the rows for the table with exactly this name, an empty list if the table is known to have none, or null if the type was not
+     *         prefetched or the table was not found
+     */
+    public List<Map<String, Object>> getExact(String type, String tableName) {
+        Map<String, List<Map<String, Object>>> rowsByTable = rowsByTypeAndTable.get(type);
+        if (rowsByTable == null || tableName == null) {
+            return null;
+        }
+        List<Map<String, Object>> tableRows = rowsByTable.get(tableName);
+        if (tableRows == null && rowsByTypeAndTable.containsKey(TABLES) && rowsByTypeAndTable.get(TABLES).containsKey(tableName)) {
+            tableRows = Collections.emptyList();
+        }
+        return tableRows;
+    }
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    public String getSchemaPattern() {
+        return schemaPattern;
+    }
+
+    protected boolean isPattern(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (isEscape(pattern, i)) {
+                i += searchStringEscape.length();
+            } else if (pattern.charAt(i) == '%' || pattern.charAt(i) == '_') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected String unescape(String pattern) {
+        if (searchStringEscape == null || !pattern.contains(searchStringEscape)) {
+            return pattern;
+        }
+        StringBuilder name = new StringBuilder(pattern.length());
+        for (int i = 0; i < pattern.length(); i++) {
+            if (isEscape(pattern, i)) {
+                i += searchStringEscape.length();
+                if (i < pattern.length()) {
+                    name.append(pattern.charAt(i));
+                }
+            } else {
+                name.append(pattern.charAt(i));
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Matches a name against a metadata search pattern where % matches any characters, _ matches one character and the driver's search string
+     * escape makes the next character literal.
+     */
+    protected boolean matches(String pattern, int p, String name, int n) {
+        if (name == null) {
+            return false;
+        }
+        while (p < pattern.length()) {
+            if (isEscape(pattern, p)) {
+                p += searchStringEscape.length();
+                if (p >= pattern.length() || n >= name.length() || pattern.charAt(p) != name.charAt(n)) {
+                    return false;
+                }
+                p++;
+                n++;
+            } else if (pattern.charAt(p) == '%') {
+                p++;
+                for (int i = n; i <= name.length(); i++) {
+                    if (matches(pattern, p, name, i)) {
+                        return true;
+                    }
+                }
+                return false;
+            } else if (n < name.length() && (pattern.charAt(p) == '_' || pattern.charAt(p) == name.charAt(n))) {
+                p++;
+                n++;
+            } else {
+                return false;
+            }
+        }
+        return n == name.length();
+    }
+
+    protected boolean isEscape(String pattern, int index) {
+        return searchStringEscape != null && pattern.startsWith(searchStringEscape, index);
+    }
+}
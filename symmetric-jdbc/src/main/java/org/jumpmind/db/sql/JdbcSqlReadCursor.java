@@ -38,6 +38,7 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
     protected int originalIsolationLevel;
     protected ResultSetMetaData rsMetaData = null;
     protected int rsColumnCount;
+    protected RowMetaData rowMetaData;
     protected IConnectionHandler connectionHandler;
     protected boolean returnLobObjects;
 
@@ -111,8 +112,16 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
                 if (rsMetaData == null) {
                     rsMetaData = rs.getMetaData();
                     rsColumnCount = rsMetaData.getColumnCount();
+                    if (sqlTemplate.getSettings().isReadArrayRows()) {
+                        rowMetaData = getRowMetaData(rsMetaData, rsColumnCount);
+                    }
+                }
+                Row row = null;
+                if (rowMetaData != null) {
+                    row = getArrayRow(rs, rsMetaData, rowMetaData, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
+                } else {
+                    row = getMapForRow(rs, rsMetaData, rsColumnCount, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
                 }
-                Row row = getMapForRow(rs, rsMetaData, rsColumnCount, sqlTemplate.getSettings().isReadStringsAsBytes(), returnLobObjects);
                 T value = mapper.mapRow(row);
                 if (value != null) {
                     return value;
@@ -137,6 +146,28 @@ public class JdbcSqlReadCursor<T> implements ISqlReadCursor<T> {
         return mapOfColValues;
     }
 
+    /**
+     * Resolves the column names once for the result set. Returns null when names repeat, in which case rows are read as maps.
+     */
+    protected static RowMetaData getRowMetaData(ResultSetMetaData argResultSetMetaData, int columnCount) throws SQLException {
+        String[] columnNames = new String[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            columnNames[i - 1] = JdbcSqlTemplate.lookupColumnName(argResultSetMetaData, i);
+        }
+        RowMetaData rowMetaData = new RowMetaData(columnNames);
+        return rowMetaData.hasDuplicateColumnNames() ? null : rowMetaData;
+    }
+
+    protected static Row getArrayRow(ResultSet rs, ResultSetMetaData argResultSetMetaData, RowMetaData rowMetaData,
+            boolean readStringsAsBytes, boolean returnLobObjects) throws SQLException {
+        int columnCount = rowMetaData.getColumnCount();
+        Object[] values = new Object[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            values[i - 1] = JdbcSqlTemplate.getResultSetValue(rs, argResultSetMetaData, i, readStringsAsBytes, returnLobObjects);
+        }
+        return new ArrayRow(rowMetaData, values);
+    }
+
     public final void close() {
         if (this.connectionHandler != null) {
             this.connectionHandler.after(c);
@@ -263,9 +263,17 @@ public class JdbcSqlTransaction implements ISqlTransaction {
                     List<T> list = new ArrayList<T>();
                     ResultSetMetaData rsMetaData = rs.getMetaData();
                     int columnCount = rsMetaData.getColumnCount();
+                    RowMetaData rowMetaData = jdbcSqlTemplate.getSettings().isReadArrayRows()
+                            ? JdbcSqlReadCursor.getRowMetaData(rsMetaData, columnCount) : null;
                     while (rs.next()) {
-                        Row row = JdbcSqlReadCursor.getMapForRow(rs, rsMetaData, columnCount,
-                                jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                        Row row = null;
+                        if (rowMetaData != null) {
+                            row = JdbcSqlReadCursor.getArrayRow(rs, rsMetaData, rowMetaData,
+                                    jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                        } else {
+                            row = JdbcSqlReadCursor.getMapForRow(rs, rsMetaData, columnCount,
+                                    jdbcSqlTemplate.getSettings().isReadStringsAsBytes(), false);
+                        }
                         T value = mapper.mapRow(row);
                         list.add(value);
                     }
@@ -0,0 +1,124 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.platform.h2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.model.Table;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.IDdlReader;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.jumpmind.db.sql.ISqlTemplate;
+import org.jumpmind.db.sql.SqlTemplateSettings;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class H2DdlReaderPrefetchTest {
+    private static final String[] TABLES = { "PF_PARENT", "PF_A_B", "PF_AXB", "PF_EMPTY" };
+    private static IDatabasePlatform platform;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ddl_reader_prefetch;DB_CLOSE_DELAY=-1");
+        platform = JdbcDatabasePlatformFactory.getInstance().create(dataSource, new SqlTemplateSettings(), false, false);
+        ISqlTemplate template = platform.getSqlTemplate();
+        template.update("create table PF_PARENT (ID integer not null, CODE varchar(10) not null, NAME varchar(50) default 'none', "
+                + "primary key (ID, CODE))");
+        template.update("create table PF_A_B (ID bigint not null, PARENT_ID integer, PARENT_CODE varchar(10), AMOUNT decimal(12,2), "
+                + "primary key (ID), constraint FK_PF_A_B_PARENT foreign key (PARENT_ID, PARENT_CODE) references PF_PARENT (ID, CODE))");
+        template.update("create index IDX_PF_A_B_AMOUNT on PF_A_B (AMOUNT)");
+        template.update("create table PF_AXB (ID bigint not null, LABEL varchar(20), primary key (ID))");
+        template.update("create unique index IDX_PF_AXB_LABEL on PF_AXB (LABEL)");
+        template.update("create table PF_EMPTY (NOTE varchar(20))");
+    }
+
+    @Test
+    public void testPrefetchedTablesMatchTablesReadOneAtATime() {
+        IDdlReader reader = platform.getDdlReader();
+        String catalog = platform.getDefaultCatalog();
+        String schema = platform.getDefaultSchema();
+        Table[] expected = new Table[TABLES.length];
+        for (int i = 0; i < TABLES.length; i++) {
+            expected[i] = reader.readTable(catalog, schema, TABLES[i]);
+            assertNotNull(TABLES[i], expected[i]);
+        }
+
+        reader.prefetchTables(catalog, schema);
+        try {
+            for (int i = 0; i < TABLES.length; i++) {
+                Table actual = reader.readTable(catalog, schema, TABLES[i]);
+                assertEquals(expected[i].toVerboseString(), actual.toVerboseString());
+                assertEquals(expected[i], actual);
+            }
+            assertEquals(1, reader.readTable(catalog, schema, "PF_AXB").getPrimaryKeyColumnCount());
+            assertNull(reader.readTable(catalog, schema, "PF_MISSING"));
+        } finally {
+            reader.clearPrefetchedTables();
+        }
+    }
+
+    @Test
+    public void testPrefetchSeesTablesCreatedAfterward() {
+        IDdlReader reader = platform.getDdlReader();
+        String catalog = platform.getDefaultCatalog();
+        String schema = platform.getDefaultSchema();
+        reader.prefetchTables(catalog, schema);
+        try {
+            platform.getSqlTemplate().update("create table PF_LATE (ID integer not null, primary key (ID))");
+            Table table = reader.readTable(catalog, schema, "PF_LATE");
+            assertNotNull(table);
+            assertEquals(1, table.getPrimaryKeyColumnCount());
+        } finally {
+            reader.clearPrefetchedTables();
+        }
+    }
+
+    @Test
+    public void testPrefetchIsOnlySeenByPrefetchingThread() throws Exception {
+        final IDdlReader reader = platform.getDdlReader();
+        final String catalog = platform.getDefaultCatalog();
+        final String schema = platform.getDefaultSchema();
+        platform.getSqlTemplate().update("create table PF_ALTERED (ID integer not null, primary key (ID))");
+        final AtomicReference<Table> otherThreadTable = new AtomicReference<Table>();
+        Thread otherThread = new Thread(new Runnable() {
+            public void run() {
+                otherThreadTable.set(reader.readTable(catalog, schema, "PF_ALTERED"));
+            }
+        });
+        reader.prefetchTables(catalog, schema);
+        try {
+            platform.getSqlTemplate().update("alter table PF_ALTERED add column NAME varchar(20)");
+            otherThread.start();
+            otherThread.join();
+            assertEquals(2, otherThreadTable.get().getColumnCount());
+            assertEquals(1, reader.readTable(catalog, schema, "PF_ALTERED").getColumnCount());
+        } finally {
+            reader.clearPrefetchedTables();
+        }
+        assertEquals(2, reader.readTable(catalog, schema, "PF_ALTERED").getColumnCount());
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed to JumpMind Inc under one or more contributor
+ * license agreements.  See the NOTICE file distributed
+ * with this work for additional information regarding
+ * copyright ownership.  JumpMind Inc licenses this file
+ * to you under the GNU General Public License, version 3.0 (GPLv3)
+ * (the "License"); you may not use this file except in compliance
+ * with the License.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * version 3.0 (GPLv3) along with this library; if not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.jumpmind.db.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jumpmind.db.platform.IDatabasePlatform;
+import org.jumpmind.db.platform.JdbcDatabasePlatformFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the same embedded H2 table with map rows and with array rows, logging the bytes allocated per row by each.
+ */
+@Tag("integration")
+public class JdbcSqlReadCursorBenchmarkTest {
+    private static final Logger log = LoggerFactory.getLogger(JdbcSqlReadCursorBenchmarkTest.class);
+    private static final int ROW_COUNT = 200000;
+    private static final String SQL = "select ID, NODE_ID, CHANNEL_ID, STATUS, BYTE_COUNT, DATA_EVENT_COUNT, CREATE_TIME, LAST_UPDATE_HOSTNAME "
+            + "from CURSOR_BENCHMARK";
+    private static JdbcDataSource dataSource;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:cursor_benchmark;DB_CLOSE_DELAY=-1");
+        ISqlTemplate template = createPlatform(false).getSqlTemplate();
+        template.update("create table CURSOR_BENCHMARK (ID bigint not null, NODE_ID varchar(50), CHANNEL_ID varchar(128), "
+                + "STATUS char(2), BYTE_COUNT bigint, DATA_EVENT_COUNT bigint, CREATE_TIME timestamp, LAST_UPDATE_HOSTNAME varchar(255), "
+                + "primary key (ID))");
+        template.update("insert into CURSOR_BENCHMARK select X, 'node ' || mod(X, 10), 'default', 'OK', X * 10, X, "
+                + "timestamp '2020-01-01 00:00:00', 'localhost' from system_range(1, " + ROW_COUNT + ")");
+    }
+
+    @Test
+    public void testArrayRowsAllocateLess() {
+        read(false);
+        read(true);
+        long mapBytes = read(false);
+        long arrayBytes = read(true);
+        log.info("Cursor allocated {} bytes per row with map rows and {} bytes per row with array rows", mapBytes / ROW_COUNT,
+                arrayBytes / ROW_COUNT);
+
+        long mapRowBytes = build(false);
+        long arrayRowBytes = build(true);
+        log.info("Building a row allocated {} bytes as a map row and {} bytes as an array row", mapRowBytes / ROW_COUNT,
+                arrayRowBytes / ROW_COUNT);
+        assertTrue(arrayRowBytes < mapRowBytes);
+        assertTrue(arrayBytes < mapBytes);
+    }
+
+    protected long read(boolean arrayRows) {
+        ISqlTemplate template = createPlatform(arrayRows).getSqlTemplate();
+        final long[] total = new long[1];
+        long before = allocatedBytes();
+        ISqlReadCursor<Row> cursor = template.queryForCursor(SQL, new ISqlRowMapper<Row>() {
+            public Row mapRow(Row row) {
+                total[0] += row.getLong("byte_count") + row.getString("node_id").length();
+                return row;
+            }
+        });
+        try {
+            int count = 0;
+            while (cursor.next() != null) {
+                count++;
+            }
+            assertEquals(ROW_COUNT, count);
+        } finally {
+            cursor.close();
+        }
+        return allocatedBytes() - before;
+    }
+
+    protected long build(boolean arrayRows) {
+        String[] names = { "ID", "NODE_ID", "CHANNEL_ID", "STATUS", "BYTE_COUNT", "DATA_EVENT_COUNT", "CREATE_TIME", "LAST_UPDATE_HOSTNAME" };
+        Object[] values = { 1l, "node 1", "default", "OK", 10l, 1l, null, "localhost" };
+        RowMetaData metaData = new RowMetaData(names);
+        long total = 0;
+        long before = allocatedBytes();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Row row = null;
+            if (arrayRows) {
+                row = new ArrayRow(metaData, values.clone());
+            } else {
+                row = new Row(names.length);
+                for (int j = 0; j < names.length; j++) {
+                    row.put(names[j], values[j]);
+                }
+            }
+            total += row.getLong("byte_count") + row.getString("node_id").length();
+        }
+        long bytes = allocatedBytes() - before;
+        assertEquals(ROW_COUNT * 16l, total);
+        return bytes;
+    }
+
+    protected static IDatabasePlatform createPlatform(boolean arrayRows) {
+        SqlTemplateSettings settings = new SqlTemplateSettings();
+        settings.setReadArrayRows(arrayRows);
+        return JdbcDatabasePlatformFactory.getInstance().create(dataSource, settings, false, false);
+    }
+
+    protected static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}